@@ -0,0 +1,31 @@
+package com.arbitrage.config;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/** Batching and sizing of the capital allocator. */
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "app.allocation")
+public class AllocationProperties {
+
+  /** Starts the batching thread; without it only {@code allocate} can be called directly. */
+  private boolean enabled = false;
+
+  /** Opportunities arriving within one window compete for the same balances. */
+  private Duration window = Duration.ofMillis(50);
+
+  /** Opportunities that can be funded only below this fraction of their size are dropped. */
+  private BigDecimal minFraction = new BigDecimal("0.25");
+
+  /** Threads solving independent currency groups of one batch. */
+  private int threads = 4;
+
+  /** Groups not solved within this time are rejected for the batch. */
+  private Duration timeout = Duration.ofMillis(500);
+}
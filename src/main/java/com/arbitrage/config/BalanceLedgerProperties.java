@@ -0,0 +1,29 @@
+package com.arbitrage.config;
+
+import java.time.Duration;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * In-memory balance ledger. When enabled, reservations and settlements are applied in memory and
+ * written to the {@code balances} table in batches; a local journal replays changes a crash kept
+ * from reaching the database. Single instance only: each instance would own its own ledger.
+ */
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "app.balance-ledger")
+public class BalanceLedgerProperties {
+
+  private boolean enabled = false;
+
+  /** Append-only file holding every change until it is flushed. */
+  private String journalPath = "data/balance-ledger.journal";
+
+  private Duration flushInterval = Duration.ofMillis(200);
+
+  /** Changes written per database transaction. */
+  private int flushBatchSize = 1000;
+}
@@ -0,0 +1,29 @@
+package com.arbitrage.config;
+
+import java.time.Duration;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/** Lifetime of balance locks and the sweep that frees the ones left behind. */
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "app.balance-locks")
+public class BalanceLockProperties {
+
+  /**
+   * Set as {@code expiresAt} on every new lock. An expired lock whose order is still open is
+   * extended by the same amount, so this only bounds how long a leftover lock holds funds.
+   */
+  private Duration ttl = Duration.ofHours(1);
+
+  private boolean sweepEnabled = true;
+
+  /** Expired locks handled per transaction. */
+  private int sweepBatchSize = 200;
+
+  /** Batches per sweep; the rest waits for the next run. */
+  private int sweepMaxBatches = 20;
+}
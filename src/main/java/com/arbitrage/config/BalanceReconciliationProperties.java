@@ -0,0 +1,36 @@
+package com.arbitrage.config;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/** Periodic comparison of our balances with the wallets the exchanges report. */
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "app.balance-reconciliation")
+public class BalanceReconciliationProperties {
+
+  private boolean enabled = false;
+
+  /**
+   * Moves {@code available} onto the exchange's figure for drifts seen on two sweeps in a row;
+   * otherwise drifts are only logged.
+   */
+  private boolean autoCorrect = false;
+
+  /** Drift ignored regardless of the balance's size. */
+  private BigDecimal absoluteTolerance = new BigDecimal("0.00000001");
+
+  /** Drift ignored as a fraction of the larger of the two figures; 0.0001 is one basis point. */
+  private BigDecimal relativeTolerance = new BigDecimal("0.0001");
+
+  /** Deadline for all wallet fetches of one sweep; late answers are skipped until the next. */
+  private Duration timeout = Duration.ofSeconds(3);
+
+  /** Wallet fetches in flight at once, across all exchanges. */
+  private int threads = 16;
+}
@@ -0,0 +1,36 @@
+package com.arbitrage.config;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Set;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/** Thresholds of the per-exchange circuit breakers wrapped around every exchange client. */
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "app.circuit-breaker")
+public class CircuitBreakerProperties {
+
+  private boolean enabled = true;
+
+  /** Number of most recent calls the failure and slow-call rates are computed over. */
+  private int windowSize = 20;
+
+  /** Calls required in the window before the breaker may open. */
+  private int minimumCalls = 10;
+
+  private int failureRateThreshold = 50;
+
+  private Duration slowCallThreshold = Duration.ofSeconds(3);
+  private int slowCallRateThreshold = 60;
+
+  private Duration openDuration = Duration.ofSeconds(30);
+  private int halfOpenPermittedCalls = 3;
+
+  /** Exchanges whose new orders are rejected from startup, e.g. {@code [RAMZINEX]}. */
+  private Set<String> killedExchanges = new HashSet<>();
+}
@@ -0,0 +1,23 @@
+package com.arbitrage.config;
+
+import java.time.Duration;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/** Per-trade fill ingestion from the exchanges' private trade history. */
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "app.fills")
+public class FillIngestionProperties {
+
+  private boolean enabled = true;
+
+  /**
+   * How long a trade whose order is not stored yet holds the cursor back. Covers trades seen before
+   * the submitting transaction commits; older unmatched trades, e.g. manual ones, are skipped.
+   */
+  private Duration unmatchedGrace = Duration.ofMinutes(1);
+}
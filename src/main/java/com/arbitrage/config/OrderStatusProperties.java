@@ -0,0 +1,126 @@
+package com.arbitrage.config;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/** Concurrency of the order status sweep; each exchange is polled from its own bounded pool. */
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "app.order-status")
+public class OrderStatusProperties {
+
+  /** Status calls in flight per exchange unless overridden in {@link #exchangeConcurrency}. */
+  private int concurrency = 4;
+
+  /** Per-exchange override of {@link #concurrency}, keyed by exchange name. */
+  private Map<String, Integer> exchangeConcurrency = new HashMap<>();
+
+  /** Polls queued per exchange; orders beyond it wait for the next sweep. */
+  private int queueCapacity = 1000;
+
+  /** List each exchange's recent orders once per sweep instead of one status call per order. */
+  private boolean bulkReconcile = true;
+
+  /** Open orders of one exchange below which single status calls are cheaper than a listing. */
+  private int bulkMinOrders = 3;
+
+  /** Longest a sweep waits for answers; late answers are picked up by the next sweep. */
+  private Duration sweepTimeout = Duration.ofSeconds(30);
+
+  /**
+   * Poll interval by order age: an order is polled at the interval of the first tier whose {@code
+   * maxAge} it has not reached yet, and at {@link #restingInterval} after the last tier.
+   */
+  private List<PollTier> pollTiers =
+      new ArrayList<>(
+          List.of(
+              new PollTier(Duration.ofSeconds(2), Duration.ofMillis(250)),
+              new PollTier(Duration.ofSeconds(30), Duration.ofSeconds(1)),
+              new PollTier(Duration.ofMinutes(2), Duration.ofSeconds(5))));
+
+  private Duration restingInterval = Duration.ofSeconds(15);
+
+  /** Granularity of the poll timers. */
+  private Duration pollTick = Duration.ofMillis(50);
+
+  private int pollWheelSize = 512;
+
+  /** Delay of the first status check of an order enrolled on submission. */
+  private Duration firstCheckDelay = Duration.ofMillis(300);
+
+  /**
+   * Announce submissions to the other instances with Postgres {@code NOTIFY} so they pick the order
+   * up without waiting for a database read.
+   */
+  private boolean pgNotify = false;
+
+  private String notifyChannel = "order_submitted";
+
+  /** First retry delay after a failed poll; doubles with every further failure. */
+  private Duration failureBackoff = Duration.ofSeconds(1);
+
+  private Duration maxFailureBackoff = Duration.ofMinutes(5);
+
+  /**
+   * Not-found answers in a row after which the order is reconciled against the exchange's order
+   * history once and closed if it is not there either.
+   */
+  private int notFoundQuarantineThreshold = 5;
+
+  /**
+   * Multi-node mode: each sweep leases a batch of open orders in the database with {@code FOR
+   * UPDATE SKIP LOCKED} instead of reading the local open-order index, so several instances split
+   * the orders between them.
+   */
+  private boolean leaseEnabled = false;
+
+  /**
+   * How long a claimed order stays with this node unless a sweep renews it; must exceed {@link
+   * #sweepTimeout}. A node that stops sweeping loses its orders to the others after this long.
+   */
+  private Duration leaseDuration = Duration.ofSeconds(60);
+
+  private int leaseBatchSize = 200;
+
+  public Duration pollIntervalFor(Duration age) {
+    for (PollTier tier : pollTiers) {
+      if (age.compareTo(tier.getMaxAge()) < 0) {
+        return tier.getInterval();
+      }
+    }
+    return restingInterval;
+  }
+
+  public Duration failureBackoffFor(int failures) {
+    Duration delay = failureBackoff.multipliedBy(1L << Math.min(Math.max(failures - 1, 0), 20));
+    return delay.compareTo(maxFailureBackoff) > 0 ? maxFailureBackoff : delay;
+  }
+
+  public int concurrencyFor(String exchangeName) {
+    for (Map.Entry<String, Integer> entry : exchangeConcurrency.entrySet()) {
+      if (entry.getKey().equalsIgnoreCase(exchangeName) && entry.getValue() != null) {
+        return Math.max(1, entry.getValue());
+      }
+    }
+    return Math.max(1, concurrency);
+  }
+
+  @Getter
+  @Setter
+  @NoArgsConstructor
+  @AllArgsConstructor
+  public static class PollTier {
+    private Duration maxAge;
+    private Duration interval;
+  }
+}
@@ -0,0 +1,88 @@
+package com.arbitrage.config;
+
+import com.arbitrage.enums.RequestClass;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Request budgets per exchange. Every exchange has one shared bucket served in {@link RequestClass}
+ * priority order; an endpoint class may additionally be capped by its own bucket.
+ *
+ * <pre>
+ * app.rate-limit:
+ *   defaults: {permits-per-second: 5, burst: 10, max-wait: 3s}
+ *   exchanges:
+ *     NOBITEX:
+ *       permits-per-second: 4
+ *       endpoints:
+ *         MARKET_DATA: {permits-per-second: 1, burst: 2}
+ * </pre>
+ *
+ * An endpoint cap without {@code permits-per-second} takes its exchange's rate; its burst defaults
+ * to 1.
+ */
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "app.rate-limit")
+public class RateLimitProperties {
+
+  private boolean enabled = true;
+  private Budget defaults = Budget.of(5.0, 10, Duration.ofSeconds(3));
+  private Map<String, Budget> exchanges = new HashMap<>();
+
+  public Budget budgetFor(String exchangeName) {
+    for (Map.Entry<String, Budget> entry : exchanges.entrySet()) {
+      if (entry.getKey().equalsIgnoreCase(exchangeName.trim())) {
+        return entry.getValue().withDefaults(defaults);
+      }
+    }
+    return defaults.withDefaults(defaults);
+  }
+
+  @Getter
+  @Setter
+  public static class Budget {
+    private Double permitsPerSecond;
+    private Integer burst;
+    private Duration maxWait;
+    private Map<RequestClass, Budget> endpoints = new EnumMap<>(RequestClass.class);
+
+    static Budget of(double permitsPerSecond, int burst, Duration maxWait) {
+      Budget budget = new Budget();
+      budget.permitsPerSecond = permitsPerSecond;
+      budget.burst = burst;
+      budget.maxWait = maxWait;
+      return budget;
+    }
+
+    Budget withDefaults(Budget fallback) {
+      Budget merged = new Budget();
+      merged.permitsPerSecond =
+          permitsPerSecond != null ? permitsPerSecond : fallback.permitsPerSecond;
+      merged.burst = burst != null ? burst : fallback.burst;
+      merged.maxWait = maxWait != null ? maxWait : fallback.maxWait;
+      Map<RequestClass, Budget> caps = new EnumMap<>(RequestClass.class);
+      caps.putAll(fallback.endpoints);
+      caps.putAll(endpoints);
+      merged.endpoints = new EnumMap<>(RequestClass.class);
+      caps.forEach((requestClass, cap) -> merged.endpoints.put(requestClass, cap.capOf(merged)));
+      return merged;
+    }
+
+    private Budget capOf(Budget exchange) {
+      Budget cap = new Budget();
+      cap.permitsPerSecond =
+          permitsPerSecond != null ? permitsPerSecond : exchange.permitsPerSecond;
+      cap.burst = burst != null ? burst : 1;
+      cap.maxWait = maxWait;
+      return cap;
+    }
+  }
+}
@@ -0,0 +1,54 @@
+package com.arbitrage.config;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Inventory targets of the rebalancing planner. Each currency is split across exchanges by weight:
+ * {@code targets} per currency symbol, else {@code default-weights}, else evenly.
+ *
+ * <pre>
+ * app.rebalance:
+ *   default-weights: {NOBITEX: 2, WALLEX: 1, RAMZINEX: 1}
+ *   targets:
+ *     USDT: {NOBITEX: 1, WALLEX: 1}
+ *   transfer-fees: {USDT: 1, BTC: 0.0002}
+ * </pre>
+ */
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "app.rebalance")
+public class RebalanceProperties {
+
+  private boolean enabled = false;
+
+  private Map<String, BigDecimal> defaultWeights = new HashMap<>();
+  private Map<String, Map<String, BigDecimal>> targets = new HashMap<>();
+
+  /** Flat withdrawal fee per transfer, by currency symbol; unknown currencies cost nothing. */
+  private Map<String, BigDecimal> transferFees = new HashMap<>();
+
+  /** A venue within this fraction of its target is left alone. */
+  private BigDecimal tolerance = new BigDecimal("0.2");
+
+  /** How far ahead recent flows are projected when setting targets. */
+  private Duration flowHorizon = Duration.ofHours(1);
+
+  /** Weight of the newest sample in the flow rate average. */
+  private double flowSmoothing = 0.3;
+
+  /** Added to both taker fees when pricing an offsetting trade. */
+  private BigDecimal tradeSlippageBps = new BigDecimal("5");
+
+  public Map<String, BigDecimal> weightsFor(String currency) {
+    Map<String, BigDecimal> weights = targets.get(currency);
+    return weights != null ? weights : defaultWeights;
+  }
+}
@@ -0,0 +1,42 @@
+package com.arbitrage.config;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Map;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Pre-trade limits. Notional limits are keyed by quote currency symbol, position limits by base
+ * currency symbol; a currency without an entry is not limited.
+ *
+ * <pre>
+ * app.risk:
+ *   max-order-notional: {USDT: 5000, IRT: 3000000000}
+ *   max-open-notional: {USDT: 20000}
+ *   max-position: {BTC: 0.5}
+ *   max-orders-per-second: 50
+ * </pre>
+ */
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "app.risk")
+public class RiskLimitProperties {
+
+  private boolean enabled = true;
+
+  /** Largest price times quantity of a single order. */
+  private Map<String, BigDecimal> maxOrderNotional = new HashMap<>();
+
+  /** Largest notional of unfilled orders on one exchange. */
+  private Map<String, BigDecimal> maxOpenNotional = new HashMap<>();
+
+  /** Largest absolute net position across exchanges, counting open orders as filled. */
+  private Map<String, BigDecimal> maxPosition = new HashMap<>();
+
+  /** Orders sent per second across all exchanges; 0 disables the cap. */
+  private int maxOrdersPerSecond;
+}
@@ -0,0 +1,30 @@
+package com.arbitrage.config;
+
+import java.time.Duration;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/** Settings of the routing mode used when an order instruction names no exchange. */
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "app.routing")
+public class RoutingProperties {
+
+  /** Price levels per side requested from every exchange. */
+  private int depth = 20;
+
+  /** How long to wait for order books; exchanges that answer later are left out of the route. */
+  private Duration bookTimeout = Duration.ofMillis(800);
+
+  /** How long to wait for child order acknowledgements. */
+  private Duration submitTimeout = Duration.ofSeconds(5);
+
+  /** Threads shared by order book fetches and child order submission. */
+  private int threads = 6;
+
+  /** Routing computations slower than this are logged. */
+  private Duration slowRouteThreshold = Duration.ofMillis(1);
+}
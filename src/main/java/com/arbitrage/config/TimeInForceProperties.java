@@ -0,0 +1,37 @@
+package com.arbitrage.config;
+
+import java.time.Duration;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Client-side IOC/FOK emulation. None of the exchanges honour the time in force we send, so IOC and
+ * FOK orders are cancelled by us shortly after the ack.
+ */
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "app.tif-emulation")
+public class TimeInForceProperties {
+
+  private boolean enabled = true;
+
+  /** Time an IOC order may rest before it is cancelled. */
+  private Duration iocCancelDelay = Duration.ofMillis(250);
+
+  /** Time a FOK order may rest before it is cancelled. */
+  private Duration fokCancelDelay = Duration.ofMillis(100);
+
+  /** Cancel/status rounds before the order is left to the status scheduler. */
+  private int reconcileAttempts = 3;
+
+  private Duration reconcileInterval = Duration.ofMillis(500);
+
+  private Duration tick = Duration.ofMillis(10);
+  private int wheelSize = 512;
+
+  /** Threads running the cancel and status calls of expired timers. */
+  private int threads = 4;
+}
@@ -0,0 +1,28 @@
+package com.arbitrage.config;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Set;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/** Private WebSocket order streams. While a stream is up, polling only reconciles. */
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "app.user-stream")
+public class UserStreamProperties {
+
+  private boolean enabled = false;
+
+  /** Exchanges to stream, e.g. {@code [NOBITEX]}; empty streams every exchange with a dialect. */
+  private Set<String> exchanges = new HashSet<>();
+
+  /** Poll interval of an exchange whose stream is connected. */
+  private Duration reconcileInterval = Duration.ofSeconds(60);
+
+  private Duration reconnectMinDelay = Duration.ofSeconds(1);
+  private Duration reconnectMaxDelay = Duration.ofSeconds(60);
+}
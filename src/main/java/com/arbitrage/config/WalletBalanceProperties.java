@@ -0,0 +1,21 @@
+package com.arbitrage.config;
+
+import java.time.Duration;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/** Pool for exchanges whose wallets can only be fetched one currency per request. */
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "app.wallet-balances")
+public class WalletBalanceProperties {
+
+  /** Single-currency fetches in flight at once, across all such exchanges. */
+  private int threads = 8;
+
+  /** Deadline for all fetches of one call; currencies still unanswered are left out. */
+  private Duration timeout = Duration.ofSeconds(10);
+}
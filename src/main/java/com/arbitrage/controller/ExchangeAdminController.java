@@ -0,0 +1,73 @@
+package com.arbitrage.controller;
+
+import com.arbitrage.model.ApiResponse;
+import com.arbitrage.service.ExchangeClientFactory;
+import com.arbitrage.service.ExchangeMarketClient;
+import com.arbitrage.service.ratelimit.ExchangeRateLimiter;
+import com.arbitrage.service.ratelimit.RateLimitStats;
+import com.arbitrage.service.resilience.ExchangeKillSwitch;
+import com.arbitrage.service.resilience.GuardedExchangeMarketClient;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/** Operator endpoints for venue health: circuit breaker states, kill switch and rate limits. */
+@RestController
+@RequestMapping("/admin/exchanges")
+@RequiredArgsConstructor
+public class ExchangeAdminController {
+
+  private final ExchangeClientFactory exchangeClientFactory;
+  private final ExchangeKillSwitch killSwitch;
+  private final ExchangeRateLimiter rateLimiter;
+
+  @GetMapping
+  public ApiResponse<Map<String, String>> status() {
+    Map<String, String> states = new TreeMap<>();
+    for (ExchangeMarketClient client : exchangeClientFactory.getClients()) {
+      String name = client.getExchangeName();
+      String breaker =
+          client instanceof GuardedExchangeMarketClient
+              ? ((GuardedExchangeMarketClient) client).getCircuitBreaker().getState().name()
+              : "NONE";
+      states.put(name, killSwitch.isKilled(name) ? "KILLED/" + breaker : breaker);
+    }
+    return new ApiResponse<>(HttpStatus.OK.value(), "OK", states);
+  }
+
+  @PostMapping("/{exchangeName}/kill")
+  public ApiResponse<String> kill(@PathVariable String exchangeName) {
+    exchangeClientFactory.getClient(exchangeName);
+    killSwitch.kill(exchangeName);
+    return new ApiResponse<>(HttpStatus.OK.value(), "New orders disabled", exchangeName);
+  }
+
+  @DeleteMapping("/{exchangeName}/kill")
+  public ApiResponse<String> restore(@PathVariable String exchangeName) {
+    exchangeClientFactory.getClient(exchangeName);
+    killSwitch.restore(exchangeName);
+    return new ApiResponse<>(HttpStatus.OK.value(), "New orders enabled", exchangeName);
+  }
+
+  @PostMapping("/{exchangeName}/circuit/reset")
+  public ApiResponse<String> resetCircuit(@PathVariable String exchangeName) {
+    ExchangeMarketClient client = exchangeClientFactory.getClient(exchangeName);
+    if (client instanceof GuardedExchangeMarketClient) {
+      ((GuardedExchangeMarketClient) client).getCircuitBreaker().reset();
+    }
+    return new ApiResponse<>(HttpStatus.OK.value(), "Circuit breaker closed", exchangeName);
+  }
+
+  @GetMapping("/rate-limits")
+  public ApiResponse<List<RateLimitStats>> rateLimits() {
+    return new ApiResponse<>(HttpStatus.OK.value(), "OK", rateLimiter.snapshot());
+  }
+}
@@ -0,0 +1,25 @@
+package com.arbitrage.controller;
+
+import com.arbitrage.model.ApiResponse;
+import com.arbitrage.service.rebalance.InventoryRebalancer;
+import com.arbitrage.service.rebalance.RebalancePlan;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/** Operator endpoints for inventory across exchanges. */
+@RestController
+@RequestMapping("/admin/inventory")
+@RequiredArgsConstructor
+public class InventoryAdminController {
+
+  private final InventoryRebalancer inventoryRebalancer;
+
+  /** Plans from the current balances rather than returning the last scheduled plan. */
+  @GetMapping("/rebalance-plan")
+  public ApiResponse<RebalancePlan> rebalancePlan() {
+    return new ApiResponse<>(HttpStatus.OK.value(), "OK", inventoryRebalancer.plan());
+  }
+}
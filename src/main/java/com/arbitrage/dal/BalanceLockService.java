@@ -0,0 +1,137 @@
+package com.arbitrage.dal;
+
+import com.arbitrage.entities.BalanceLock;
+import com.arbitrage.entities.Order;
+import com.arbitrage.enums.OrderStatus;
+import com.arbitrage.respository.BalanceLockRepository;
+import com.arbitrage.respository.BalanceRepository;
+import com.arbitrage.respository.OrderRepository;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import lombok.RequiredArgsConstructor;
+import lombok.Value;
+import lombok.experimental.Accessors;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class BalanceLockService {
+
+  private static final String ORDER_LOCK_REASON = "ORDER_SUBMIT";
+
+  private final BalanceLockRepository balanceLockRepository;
+  private final BalanceRepository balanceRepository;
+  private final OrderRepository orderRepository;
+
+  /** Funds an expired lock gave up; {@code consumed} when its order filled rather than ended. */
+  @Value
+  @Accessors(fluent = true)
+  public static class Unlock {
+
+    private final Long accountId;
+    private final Long currencyId;
+    private final BigDecimal amount;
+    private final boolean consumed;
+  }
+
+  @Value
+  @Accessors(fluent = true)
+  public static class ExpiryResult {
+
+    private final int examined;
+    private final int renewed;
+    private final List<Unlock> unlocks;
+  }
+
+  /**
+   * Handles up to {@code limit} expired locks in one transaction. A lock whose order is still open
+   * is extended by {@code ttl}; any other is zeroed, and its amount is released to available, or
+   * settled if the order filled. With {@code updateBalances} the {@code balances} rows are changed
+   * here, one statement per balance; otherwise the caller applies the returned unlocks.
+   */
+  @Transactional
+  public ExpiryResult expire(Date now, int limit, Duration ttl, boolean updateBalances) {
+    List<BalanceLock> locks = balanceLockRepository.findExpired(now, PageRequest.of(0, limit));
+    if (locks.isEmpty()) {
+      return new ExpiryResult(0, 0, List.of());
+    }
+    Map<Long, Order> orders = ordersOf(locks);
+
+    int renewed = 0;
+    Map<UnlockKey, Unlock> unlocks = new LinkedHashMap<>();
+    for (BalanceLock lock : locks) {
+      Order order = ORDER_LOCK_REASON.equals(lock.getReason()) ? orders.get(orderId(lock)) : null;
+      if (order != null && OpenOrderIndex.OPEN_STATUSES.contains(order.getStatus())) {
+        lock.setExpiresAt(new Date(now.getTime() + ttl.toMillis()));
+        renewed++;
+        continue;
+      }
+      boolean consumed = order != null && order.getStatus() == OrderStatus.FILLED;
+      Long accountId = lock.getExchangeAccount().getId();
+      Long currencyId = lock.getCurrency().getId();
+      log.info(
+          "Expiring balance lock {} of {} for order {} ({})",
+          lock.getId(),
+          lock.getAmount().toPlainString(),
+          lock.getSignalId(),
+          order != null ? order.getStatus() : "missing");
+      unlocks.merge(
+          new UnlockKey(accountId, currencyId, consumed),
+          new Unlock(accountId, currencyId, lock.getAmount(), consumed),
+          (a, b) -> new Unlock(accountId, currencyId, a.amount().add(b.amount()), consumed));
+      lock.setAmount(BigDecimal.ZERO);
+    }
+
+    if (updateBalances) {
+      for (Unlock unlock : unlocks.values()) {
+        if (unlock.consumed()) {
+          balanceRepository.settle(unlock.accountId(), unlock.currencyId(), unlock.amount());
+        } else {
+          balanceRepository.release(unlock.accountId(), unlock.currencyId(), unlock.amount());
+        }
+      }
+    }
+    return new ExpiryResult(locks.size(), renewed, new ArrayList<>(unlocks.values()));
+  }
+
+  private Map<Long, Order> ordersOf(List<BalanceLock> locks) {
+    Set<Long> ids =
+        locks.stream()
+            .filter(lock -> ORDER_LOCK_REASON.equals(lock.getReason()))
+            .map(BalanceLockService::orderId)
+            .filter(Objects::nonNull)
+            .collect(Collectors.toSet());
+    return orderRepository.findAllById(ids).stream()
+        .collect(Collectors.toMap(Order::getId, Function.identity()));
+  }
+
+  private static Long orderId(BalanceLock lock) {
+    try {
+      return lock.getSignalId() != null ? Long.valueOf(lock.getSignalId()) : null;
+    } catch (NumberFormatException ex) {
+      return null;
+    }
+  }
+
+  @Value
+  @Accessors(fluent = true)
+  private static class UnlockKey {
+
+    private final Long accountId;
+    private final Long currencyId;
+    private final boolean consumed;
+  }
+}
@@ -0,0 +1,176 @@
+package com.arbitrage.dal;
+
+import com.arbitrage.entities.Order;
+import com.arbitrage.enums.OrderStatus;
+import com.arbitrage.model.OpenOrder;
+import com.arbitrage.respository.OrderRepository;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.StringUtils;
+
+/**
+ * Live orders (NEW, SENT, PARTIAL) partitioned by exchange, so readers never scan the orders table.
+ * Loaded from the database on first use and at startup, then kept current by {@link
+ * OrderService#save}: every save is copied into the index once its transaction commits. Orders
+ * without an exchange, such as routed parents, are not indexed.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class OpenOrderIndex {
+
+  public static final Set<OrderStatus> OPEN_STATUSES =
+      EnumSet.of(OrderStatus.NEW, OrderStatus.SENT, OrderStatus.PARTIAL);
+
+  private final OrderRepository orderRepository;
+
+  private final Map<String, Map<Long, OpenOrder>> byExchange = new ConcurrentHashMap<>();
+  private final Map<Long, String> exchangeOf = new ConcurrentHashMap<>();
+  private volatile boolean loaded;
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void warmUp() {
+    ensureLoaded();
+  }
+
+  /** Replaces the index with the open orders currently in the database. */
+  public synchronized void rebuild() {
+    List<Order> orders = orderRepository.findWithExchangeByStatusIn(OPEN_STATUSES);
+    byExchange.clear();
+    exchangeOf.clear();
+    for (Order order : orders) {
+      OpenOrder open = toOpenOrder(order);
+      if (open != null) {
+        put(open);
+      }
+    }
+    loaded = true;
+    log.info("Open order index loaded with {} orders", exchangeOf.size());
+  }
+
+  /**
+   * Records the saved state of an order. Inside a transaction the change is applied after commit,
+   * so a rolled back save never shows up.
+   */
+  public void update(Order order) {
+    if (order == null || order.getId() == null) {
+      return;
+    }
+    Long orderId = order.getId();
+    OpenOrder open = OPEN_STATUSES.contains(order.getStatus()) ? toOpenOrder(order) : null;
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(
+          new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+              apply(orderId, open);
+            }
+          });
+    } else {
+      apply(orderId, open);
+    }
+  }
+
+  /** Re-reads one order, e.g. after another instance announced it. */
+  public void reload(Long orderId) {
+    if (!loaded) {
+      return;
+    }
+    orderRepository.findWithExchangeByIdIn(List.of(orderId)).forEach(this::update);
+  }
+
+  /** Open orders of every exchange, keyed by exchange name as stored on the order. */
+  public Map<String, List<OpenOrder>> byExchange() {
+    ensureLoaded();
+    Map<String, List<OpenOrder>> result = new HashMap<>();
+    for (Map<Long, OpenOrder> orders : byExchange.values()) {
+      for (OpenOrder order : orders.values()) {
+        result.computeIfAbsent(order.exchangeName(), k -> new ArrayList<>()).add(order);
+      }
+    }
+    return result;
+  }
+
+  public List<OpenOrder> findByExchange(String exchangeName) {
+    ensureLoaded();
+    Map<Long, OpenOrder> orders = byExchange.get(key(exchangeName));
+    return orders != null ? new ArrayList<>(orders.values()) : List.of();
+  }
+
+  public Optional<OpenOrder> findById(Long orderId) {
+    ensureLoaded();
+    String exchange = exchangeOf.get(orderId);
+    Map<Long, OpenOrder> orders = exchange != null ? byExchange.get(exchange) : null;
+    return Optional.ofNullable(orders != null ? orders.get(orderId) : null);
+  }
+
+  public int size() {
+    return exchangeOf.size();
+  }
+
+  private void ensureLoaded() {
+    if (!loaded) {
+      synchronized (this) {
+        if (!loaded) {
+          rebuild();
+        }
+      }
+    }
+  }
+
+  // serialized with rebuild so a commit racing the initial load is never lost
+  private synchronized void apply(Long orderId, OpenOrder open) {
+    String previous = exchangeOf.remove(orderId);
+    if (previous != null) {
+      Map<Long, OpenOrder> orders = byExchange.get(previous);
+      if (orders != null) {
+        orders.remove(orderId);
+      }
+    }
+    if (open != null) {
+      put(open);
+    }
+  }
+
+  private void put(OpenOrder open) {
+    String exchange = key(open.exchangeName());
+    byExchange.computeIfAbsent(exchange, k -> new ConcurrentHashMap<>()).put(open.id(), open);
+    exchangeOf.put(open.id(), exchange);
+  }
+
+  static OpenOrder toOpenOrder(Order order) {
+    if (order.getExchange() == null || !StringUtils.hasText(order.getExchange().getName())) {
+      return null;
+    }
+    return new OpenOrder(
+        order.getId(),
+        order.getExchange().getName(),
+        order.getPair() != null ? order.getPair().getSymbol() : null,
+        order.getSide(),
+        order.getStatus(),
+        order.getExchangeOrderId(),
+        order.getClientOrderId(),
+        order.getPrice(),
+        order.getQty(),
+        order.getQtyExec(),
+        order.getSentAt() != null ? order.getSentAt().toInstant() : null);
+  }
+
+  private static String key(String exchangeName) {
+    return exchangeName != null ? exchangeName.trim().toUpperCase(Locale.ROOT) : "";
+  }
+}
@@ -0,0 +1,132 @@
+package com.arbitrage.dal;
+
+import com.arbitrage.entities.Currency;
+import com.arbitrage.entities.ExchangeAccount;
+import com.arbitrage.entities.Order;
+import com.arbitrage.entities.OrderFill;
+import com.arbitrage.entities.TradeCursor;
+import com.arbitrage.model.ExchangeTrade;
+import com.arbitrage.respository.CurrencyRepository;
+import com.arbitrage.respository.OrderFillRepository;
+import com.arbitrage.respository.OrderRepository;
+import com.arbitrage.respository.TradeCursorRepository;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.StringUtils;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class OrderFillService {
+
+  private final OrderFillRepository orderFillRepository;
+  private final OrderRepository orderRepository;
+  private final TradeCursorRepository tradeCursorRepository;
+  private final CurrencyRepository currencyRepository;
+
+  @Transactional(readOnly = true)
+  public Optional<TradeCursor> findCursor(ExchangeAccount account) {
+    return tradeCursorRepository.findByExchangeAccount(account);
+  }
+
+  /**
+   * Stores the trades of one account as fills of our orders and advances its cursor past them, in
+   * one transaction. Trades already stored are skipped, so replaying a window is harmless. A trade
+   * whose order is unknown holds the cursor back while it is younger than {@code grace}. Returns
+   * the number of fills inserted.
+   */
+  @Transactional
+  public int record(ExchangeAccount account, List<ExchangeTrade> trades, Duration grace) {
+    if (trades.isEmpty()) {
+      return 0;
+    }
+    Set<String> exchangeOrderIds =
+        trades.stream()
+            .map(ExchangeTrade::exchangeOrderId)
+            .filter(StringUtils::hasText)
+            .collect(Collectors.toSet());
+    Map<String, Order> orders = new HashMap<>();
+    for (Order order :
+        orderRepository.findByExchangeAccountAndExchangeOrderIdIn(account, exchangeOrderIds)) {
+      orders.put(order.getExchangeOrderId(), order);
+    }
+
+    Map<Long, Integer> lastSeq = new HashMap<>();
+    Set<String> known = new HashSet<>();
+    if (!orders.isEmpty()) {
+      List<Long> orderIds = orders.values().stream().map(Order::getId).toList();
+      for (Object[] row : orderFillRepository.findLastFillSeqs(orderIds)) {
+        lastSeq.put((Long) row[0], (Integer) row[1]);
+      }
+      known.addAll(orderFillRepository.findTradeIds(orderIds));
+    }
+
+    Instant holdAfter = Instant.now().minus(grace);
+    Map<String, Currency> feeCurrencies = new HashMap<>();
+    List<OrderFill> fills = new ArrayList<>();
+    ExchangeTrade cursor = null;
+    for (ExchangeTrade trade : trades) {
+      Order order = orders.get(trade.exchangeOrderId());
+      if (order == null) {
+        if (trade.executedAt() != null && trade.executedAt().isAfter(holdAfter)) {
+          break;
+        }
+        log.debug(
+            "Skipping trade {} of unknown order {}", trade.tradeId(), trade.exchangeOrderId());
+      } else if (known.add(trade.tradeId())) {
+        int seq = lastSeq.merge(order.getId(), 1, (previous, one) -> previous + one);
+        fills.add(
+            OrderFill.builder()
+                .order(order)
+                .fillSeq(seq)
+                .tradeId(trade.tradeId())
+                .filledQty(trade.qty())
+                .price(trade.price())
+                .feeAmount(trade.fee())
+                .feeCurrency(feeCurrency(trade.feeAsset(), feeCurrencies))
+                .filledAt(trade.executedAt() != null ? Date.from(trade.executedAt()) : null)
+                .build());
+      }
+      cursor = trade;
+    }
+
+    orderFillRepository.insertBatch(fills);
+    if (cursor != null) {
+      advanceCursor(account, cursor);
+    }
+    return fills.size();
+  }
+
+  private void advanceCursor(ExchangeAccount account, ExchangeTrade last) {
+    TradeCursor cursor =
+        tradeCursorRepository
+            .findByExchangeAccount(account)
+            .orElseGet(() -> TradeCursor.builder().exchangeAccount(account).build());
+    cursor.setLastTradeId(last.tradeId());
+    if (last.executedAt() != null) {
+      cursor.setLastTradeAt(Date.from(last.executedAt()));
+    }
+    tradeCursorRepository.save(cursor);
+  }
+
+  private Currency feeCurrency(String asset, Map<String, Currency> cache) {
+    if (!StringUtils.hasText(asset)) {
+      return null;
+    }
+    return cache.computeIfAbsent(
+        asset, key -> currencyRepository.findFirstBySymbolIgnoreCase(key).orElse(null));
+  }
+}
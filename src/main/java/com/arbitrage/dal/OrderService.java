@@ -2,22 +2,97 @@ package com.arbitrage.dal;
 
 import com.arbitrage.entities.Order;
 import com.arbitrage.enums.OrderStatus;
+import com.arbitrage.model.OpenOrder;
 import com.arbitrage.respository.OrderRepository;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
 
 @Service
 @RequiredArgsConstructor
 public class OrderService {
 
   private final OrderRepository orderRepository;
+  private final OpenOrderIndex openOrderIndex;
 
+  /** Saves the order and mirrors it into the {@link OpenOrderIndex} once committed. */
   public Order save(Order order) {
-    return orderRepository.save(order);
+    Order saved = orderRepository.save(order);
+    openOrderIndex.update(saved);
+    return saved;
+  }
+
+  public Optional<Order> findById(Long id) {
+    return orderRepository.findById(id);
+  }
+
+  /** Loads the order with a row lock held until the surrounding transaction ends. */
+  public Optional<Order> findForUpdate(Long id) {
+    return orderRepository.findForUpdateById(id);
+  }
+
+  /** Child orders the smart order router placed for {@code parent}. */
+  public List<Order> findChildren(Order parent) {
+    return orderRepository.findByParentOrder(parent);
   }
 
   public List<Order> findByStatus(OrderStatus status) {
     return orderRepository.findByStatus(status);
   }
+
+  /** Looks an order up by the exchange's id first, then by our client order id. */
+  public Optional<Order> findByExchangeOrder(
+      String exchangeName, String exchangeOrderId, String clientOrderId) {
+    Optional<Order> order = Optional.empty();
+    if (StringUtils.hasText(exchangeOrderId)) {
+      order =
+          orderRepository.findFirstByExchange_NameIgnoreCaseAndExchangeOrderIdOrderByIdDesc(
+              exchangeName, exchangeOrderId);
+    }
+    if (order.isEmpty() && StringUtils.hasText(clientOrderId)) {
+      order =
+          orderRepository.findFirstByExchange_NameIgnoreCaseAndClientOrderIdOrderByIdDesc(
+              exchangeName, clientOrderId);
+    }
+    return order;
+  }
+
+  /**
+   * Leases a batch of open orders to {@code owner} in the database and returns them. Used instead
+   * of the {@link OpenOrderIndex} when several instances share the orders.
+   */
+  public List<OpenOrder> claimOpenOrders(String owner, Duration lease, int limit) {
+    List<Long> ids = orderRepository.claimOpenOrders(owner, lease, limit);
+    if (ids.isEmpty()) {
+      return List.of();
+    }
+    List<OpenOrder> claimed = new ArrayList<>(ids.size());
+    for (Order order : orderRepository.findWithExchangeByIdIn(ids)) {
+      OpenOrder open = OpenOrderIndex.toOpenOrder(order);
+      if (open != null) {
+        claimed.add(open);
+      }
+    }
+    return claimed;
+  }
+
+  public void releaseLeases(String owner, Collection<Long> orderIds) {
+    orderRepository.releaseLeases(owner, orderIds);
+  }
+
+  /**
+   * Stores the exchange's id from an ack that arrived after the order was recorded without one, so
+   * status polls stop looking it up by client order id.
+   */
+  public void recordLateAck(Long orderId, String exchangeOrderId) {
+    if (StringUtils.hasText(exchangeOrderId)
+        && orderRepository.setExchangeOrderIdIfAbsent(orderId, exchangeOrderId) > 0) {
+      openOrderIndex.reload(orderId);
+    }
+  }
 }
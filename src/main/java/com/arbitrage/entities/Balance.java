@@ -20,6 +20,9 @@ public class Balance extends LongIdEntity {
   @ManyToOne(fetch = FetchType.LAZY)
   private Currency currency;
 
+  @Column(precision = 38, scale = 18)
   private BigDecimal available;
+
+  @Column(precision = 38, scale = 18)
   private BigDecimal reserved;
 }
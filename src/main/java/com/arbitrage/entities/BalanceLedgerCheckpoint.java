@@ -0,0 +1,21 @@
+package com.arbitrage.entities;
+
+import jakarta.persistence.*;
+import lombok.*;
+import lombok.experimental.SuperBuilder;
+
+/** Sequence number of the last balance ledger change written to {@code balances}. */
+@Entity
+@Table(name = "balance_ledger_checkpoints")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@SuperBuilder
+public class BalanceLedgerCheckpoint extends LongIdEntity {
+
+  @Column(unique = true)
+  private String name;
+
+  private Long lastSeq;
+}
@@ -7,7 +7,9 @@ import lombok.*;
 import lombok.experimental.SuperBuilder;
 
 @Entity
-@Table(name = "balance_locks")
+@Table(
+    name = "balance_locks",
+    indexes = @Index(name = "idx_balance_locks_expires_at", columnList = "expires_at"))
 @Getter
 @Setter
 @NoArgsConstructor
@@ -21,7 +23,9 @@ public class BalanceLock extends LongIdEntity {
   @ManyToOne(fetch = FetchType.LAZY)
   private Currency currency;
 
+  @Column(precision = 38, scale = 18)
   private BigDecimal amount;
+
   private String reason;
   private String signalId;
   private Date expiresAt;
@@ -19,6 +19,10 @@ public class Order extends LongIdEntity {
   @ManyToOne(fetch = FetchType.LAZY)
   private Signal signal;
 
+  // set on child orders created by the smart order router
+  @ManyToOne(fetch = FetchType.LAZY)
+  private Order parentOrder;
+
   @ManyToOne(fetch = FetchType.LAZY)
   private Exchange exchange;
 
@@ -35,17 +39,34 @@ public class Order extends LongIdEntity {
   private String clientOrderId;
   private String exchangeOrderId;
 
+  @Column(precision = 38, scale = 18)
   private BigDecimal price;
+
+  @Column(precision = 38, scale = 18)
   private BigDecimal qty;
+
+  @Column(precision = 38, scale = 18)
   private BigDecimal qtyExec;
+
+  @Column(precision = 38, scale = 18)
   private BigDecimal notional;
 
   @Enumerated(EnumType.STRING)
   private OrderStatus status;
 
+  @Column(precision = 38, scale = 18)
   private BigDecimal filledQty;
+
+  @Column(precision = 38, scale = 18)
   private BigDecimal avgPrice;
 
   private Date sentAt;
   private Date closedAt;
+
+  // owned by the status sweep's lease queries, never written by entity saves
+  @Column(insertable = false, updatable = false)
+  private String leaseOwner;
+
+  @Column(insertable = false, updatable = false)
+  private Date leaseUntil;
 }
@@ -7,7 +7,13 @@ import lombok.*;
 import lombok.experimental.SuperBuilder;
 
 @Entity
-@Table(name = "order_fills")
+@Table(
+    name = "order_fills",
+    uniqueConstraints =
+        @UniqueConstraint(
+            name = "uk_order_fills_order_trade",
+            columnNames = {"order_id", "trade_id"}),
+    indexes = @Index(name = "idx_order_fills_order_id", columnList = "order_id"))
 @Getter
 @Setter
 @NoArgsConstructor
@@ -19,8 +25,14 @@ public class OrderFill extends LongIdEntity {
   private Order order;
 
   private Integer fillSeq;
+
+  @Column(precision = 38, scale = 18)
   private BigDecimal filledQty;
+
+  @Column(precision = 38, scale = 18)
   private BigDecimal price;
+
+  @Column(precision = 38, scale = 18)
   private BigDecimal feeAmount;
 
   @ManyToOne(fetch = FetchType.LAZY)
@@ -0,0 +1,23 @@
+package com.arbitrage.entities;
+
+import jakarta.persistence.*;
+import java.util.Date;
+import lombok.*;
+import lombok.experimental.SuperBuilder;
+
+/** Last exchange trade ingested as an {@link OrderFill}, one row per exchange account. */
+@Entity
+@Table(name = "trade_cursors")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@SuperBuilder
+public class TradeCursor extends LongIdEntity {
+
+  @OneToOne(fetch = FetchType.LAZY)
+  private ExchangeAccount exchangeAccount;
+
+  private String lastTradeId;
+  private Date lastTradeAt;
+}
@@ -0,0 +1,9 @@
+package com.arbitrage.enums;
+
+/** Endpoint classes sharing an exchange's request budget, in priority order (highest first). */
+public enum RequestClass {
+  CANCEL,
+  ORDER,
+  STATUS,
+  MARKET_DATA
+}
@@ -0,0 +1,12 @@
+package com.arbitrage.enums;
+
+import lombok.Getter;
+
+/** Pre-trade limits checked before an order is sent to an exchange. */
+@Getter
+public enum RiskRule {
+  MAX_ORDER_NOTIONAL,
+  MAX_OPEN_NOTIONAL,
+  MAX_POSITION,
+  ORDER_RATE
+}
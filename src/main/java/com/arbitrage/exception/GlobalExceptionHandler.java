@@ -34,4 +34,12 @@ public class GlobalExceptionHandler {
         new ApiResponse<>(HttpStatus.NOT_FOUND.value(), ex.getMessage(), null);
     return new ResponseEntity<>(response, HttpStatus.NOT_FOUND);
   }
+
+  @ExceptionHandler(RiskLimitExceededException.class)
+  public ResponseEntity<ApiResponse<String>> handleRiskLimitExceededException(
+      RiskLimitExceededException ex) {
+    ApiResponse<String> response =
+        new ApiResponse<>(HttpStatus.UNPROCESSABLE_ENTITY.value(), ex.getMessage(), null);
+    return new ResponseEntity<>(response, HttpStatus.UNPROCESSABLE_ENTITY);
+  }
 }
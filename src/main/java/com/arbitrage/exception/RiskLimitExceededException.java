@@ -0,0 +1,17 @@
+package com.arbitrage.exception;
+
+import com.arbitrage.enums.RiskRule;
+
+public class RiskLimitExceededException extends RuntimeException {
+
+  private final RiskRule rule;
+
+  public RiskLimitExceededException(RiskRule rule, String message) {
+    super(rule + ": " + message);
+    this.rule = rule;
+  }
+
+  public RiskRule getRule() {
+    return rule;
+  }
+}
@@ -0,0 +1,14 @@
+package com.arbitrage.model;
+
+import lombok.Value;
+import lombok.experimental.Accessors;
+
+/** One entry of an exchange's order listing, identified by either or both ids. */
+@Value
+@Accessors(fluent = true)
+public class ExchangeOrderSnapshot {
+
+  private final String exchangeOrderId;
+  private final String clientOrderId;
+  private final ExchangeOrderStatus status;
+}
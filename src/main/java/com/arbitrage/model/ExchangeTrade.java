@@ -0,0 +1,21 @@
+package com.arbitrage.model;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import lombok.Value;
+import lombok.experimental.Accessors;
+
+/** One execution of one of our orders as reported by an exchange's private trade history. */
+@Value
+@Accessors(fluent = true)
+public class ExchangeTrade {
+
+  private final String tradeId;
+  private final String exchangeOrderId;
+  private final String side;
+  private final BigDecimal qty;
+  private final BigDecimal price;
+  private final BigDecimal fee;
+  private final String feeAsset;
+  private final Instant executedAt;
+}
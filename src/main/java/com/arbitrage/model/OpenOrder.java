@@ -0,0 +1,25 @@
+package com.arbitrage.model;
+
+import com.arbitrage.enums.OrderStatus;
+import java.math.BigDecimal;
+import java.time.Instant;
+import lombok.Value;
+import lombok.experimental.Accessors;
+
+/** Immutable copy of a live order as held by the open-order index. */
+@Value
+@Accessors(fluent = true)
+public class OpenOrder {
+
+  private final Long id;
+  private final String exchangeName;
+  private final String pairSymbol;
+  private final String side;
+  private final OrderStatus status;
+  private final String exchangeOrderId;
+  private final String clientOrderId;
+  private final BigDecimal price;
+  private final BigDecimal qty;
+  private final BigDecimal qtyExec;
+  private final Instant sentAt;
+}
@@ -0,0 +1,20 @@
+package com.arbitrage.model;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/** Depth snapshot; bids are sorted best (highest) first and asks best (lowest) first. */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderBook {
+
+  private String symbol;
+  private List<OrderBookLevel> bids;
+  private List<OrderBookLevel> asks;
+  private long ts;
+}
@@ -0,0 +1,17 @@
+package com.arbitrage.model;
+
+import java.math.BigDecimal;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderBookLevel {
+
+  private BigDecimal price;
+  private BigDecimal qty;
+}
@@ -17,4 +17,8 @@ public class OrderRequest {
   private BigDecimal qty;
   private BigDecimal price;
   private String tif;
+
+  // assigned by the caller when it must find the order without an ack; clients generate one if
+  // it is missing
+  private String clientOrderId;
 }
@@ -0,0 +1,13 @@
+package com.arbitrage.respository;
+
+import com.arbitrage.entities.BalanceLedgerCheckpoint;
+import java.util.Optional;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface BalanceLedgerCheckpointRepository
+    extends JpaRepository<BalanceLedgerCheckpoint, Long> {
+
+  Optional<BalanceLedgerCheckpoint> findByName(String name);
+}
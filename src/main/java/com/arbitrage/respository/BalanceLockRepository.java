@@ -3,8 +3,13 @@ package com.arbitrage.respository;
 import com.arbitrage.entities.BalanceLock;
 import com.arbitrage.entities.Currency;
 import com.arbitrage.entities.ExchangeAccount;
+import java.util.Date;
+import java.util.List;
 import java.util.Optional;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
@@ -12,4 +17,16 @@ public interface BalanceLockRepository extends JpaRepository<BalanceLock, Long>
 
   Optional<BalanceLock> findByExchangeAccountAndCurrencyAndReasonAndSignalId(
       ExchangeAccount exchangeAccount, Currency currency, String reason, String signalId);
+
+  /** Rows of {@code [currencyId, sum(amount)]} of the account's locks that still hold funds. */
+  @Query(
+      "select l.currency.id, sum(l.amount) from BalanceLock l"
+          + " where l.exchangeAccount.id = :accountId and l.amount > 0 group by l.currency.id")
+  List<Object[]> sumOpenLocksByAccountId(@Param("accountId") Long accountId);
+
+  /** Locks still holding funds whose {@code expiresAt} has passed, oldest first. */
+  @Query(
+      "select l from BalanceLock l where l.expiresAt <= :now and l.amount > 0"
+          + " order by l.expiresAt")
+  List<BalanceLock> findExpired(@Param("now") Date now, Pageable page);
 }
@@ -3,13 +3,24 @@ package com.arbitrage.respository;
 import com.arbitrage.entities.Balance;
 import com.arbitrage.entities.Currency;
 import com.arbitrage.entities.ExchangeAccount;
+import java.util.List;
 import java.util.Optional;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
-public interface BalanceRepository extends JpaRepository<Balance, Long> {
+public interface BalanceRepository extends JpaRepository<Balance, Long>, BalanceRepositoryCustom {
 
   Optional<Balance> findByExchangeAccountAndCurrency(
       ExchangeAccount exchangeAccount, Currency currency);
+
+  Optional<Balance> findByExchangeAccount_IdAndCurrency_Id(Long accountId, Long currencyId);
+
+  /** Rows of {@code [currencyId, available, reserved]} for one account. */
+  @Query(
+      "select b.currency.id, b.available, b.reserved from Balance b"
+          + " where b.exchangeAccount.id = :accountId")
+  List<Object[]> findAmountsByAccountId(@Param("accountId") Long accountId);
 }
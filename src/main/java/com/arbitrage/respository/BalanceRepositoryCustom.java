@@ -0,0 +1,27 @@
+package com.arbitrage.respository;
+
+import java.math.BigDecimal;
+
+/**
+ * Single-statement balance changes. They write the row directly, so {@link
+ * com.arbitrage.entities.Balance} instances already loaded in the same persistence context are
+ * stale afterwards.
+ */
+public interface BalanceRepositoryCustom {
+
+  /** Adds the amounts to the balance in a single statement, creating the row when there is none. */
+  void addAmounts(Long accountId, Long currencyId, BigDecimal available, BigDecimal reserved);
+
+  /**
+   * Moves {@code amount} from available to reserved only if at least that much is available.
+   *
+   * @return false when the balance is missing or too small; nothing is changed then
+   */
+  boolean reserve(Long accountId, Long currencyId, BigDecimal amount);
+
+  /** Returns up to {@code amount} of the reservation to available; false if there is no row. */
+  boolean release(Long accountId, Long currencyId, BigDecimal amount);
+
+  /** Consumes up to {@code amount} of the reservation; false if there is no row. */
+  boolean settle(Long accountId, Long currencyId, BigDecimal amount);
+}
@@ -0,0 +1,67 @@
+package com.arbitrage.respository;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+@RequiredArgsConstructor
+class BalanceRepositoryImpl implements BalanceRepositoryCustom {
+
+  private static final String ADD_AMOUNTS =
+      "update balances set available = coalesce(available, 0) + ?,"
+          + " reserved = coalesce(reserved, 0) + ?, version = coalesce(version, 0) + 1,"
+          + " updated_at = ? where exchange_account_id = ? and currency_id = ?";
+
+  private static final String INSERT_BALANCE =
+      "insert into balances (created_at, updated_at, version, exchange_account_id, currency_id,"
+          + " available, reserved) values (?, ?, 0, ?, ?, ?, ?)";
+
+  private static final String RESERVE =
+      "update balances set available = available - ?, reserved = coalesce(reserved, 0) + ?,"
+          + " version = coalesce(version, 0) + 1, updated_at = ?"
+          + " where exchange_account_id = ? and currency_id = ? and available >= ?";
+
+  // the reservation never goes negative, as in the read-modify-write code this replaces
+  private static final String RELEASE =
+      "update balances set available = coalesce(available, 0) + least(?, coalesce(reserved, 0)),"
+          + " reserved = coalesce(reserved, 0) - least(?, coalesce(reserved, 0)),"
+          + " version = coalesce(version, 0) + 1, updated_at = ?"
+          + " where exchange_account_id = ? and currency_id = ?";
+
+  private static final String SETTLE =
+      "update balances set reserved = coalesce(reserved, 0) - least(?, coalesce(reserved, 0)),"
+          + " version = coalesce(version, 0) + 1, updated_at = ?"
+          + " where exchange_account_id = ? and currency_id = ?";
+
+  private final JdbcTemplate jdbcTemplate;
+
+  @Override
+  public void addAmounts(
+      Long accountId, Long currencyId, BigDecimal available, BigDecimal reserved) {
+    Timestamp now = now();
+    int updated = jdbcTemplate.update(ADD_AMOUNTS, available, reserved, now, accountId, currencyId);
+    if (updated == 0) {
+      jdbcTemplate.update(INSERT_BALANCE, now, now, accountId, currencyId, available, reserved);
+    }
+  }
+
+  @Override
+  public boolean reserve(Long accountId, Long currencyId, BigDecimal amount) {
+    return jdbcTemplate.update(RESERVE, amount, amount, now(), accountId, currencyId, amount) > 0;
+  }
+
+  @Override
+  public boolean release(Long accountId, Long currencyId, BigDecimal amount) {
+    return jdbcTemplate.update(RELEASE, amount, amount, now(), accountId, currencyId) > 0;
+  }
+
+  @Override
+  public boolean settle(Long accountId, Long currencyId, BigDecimal amount) {
+    return jdbcTemplate.update(SETTLE, amount, now(), accountId, currencyId) > 0;
+  }
+
+  private static Timestamp now() {
+    return new Timestamp(System.currentTimeMillis());
+  }
+}
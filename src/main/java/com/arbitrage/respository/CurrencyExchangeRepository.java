@@ -1,12 +1,20 @@
 package com.arbitrage.respository;
 
+import com.arbitrage.entities.Currency;
 import com.arbitrage.entities.CurrencyExchange;
 import java.util.List;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 public interface CurrencyExchangeRepository extends JpaRepository<CurrencyExchange, Long> {
 
   List<CurrencyExchange> findByExchange_Name(String exchangeName);
 
   CurrencyExchange findByExchange_NameAndCurrency_Name(String exchangeName, String currencyName);
+
+  @Query(
+      "select distinct cx.currency from CurrencyExchange cx"
+          + " where lower(cx.exchange.name) = lower(:exchangeName)")
+  List<Currency> findCurrenciesByExchangeName(@Param("exchangeName") String exchangeName);
 }
@@ -11,4 +11,6 @@ public interface CurrencyRepository extends JpaRepository<Currency, Long> {
   Optional<Currency> findByName(String name);
 
   Optional<Currency> findByNameAndSymbol(String name, String symbol);
+
+  Optional<Currency> findFirstBySymbolIgnoreCase(String symbol);
 }
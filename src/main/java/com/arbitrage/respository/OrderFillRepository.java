@@ -0,0 +1,25 @@
+package com.arbitrage.respository;
+
+import com.arbitrage.entities.OrderFill;
+import java.util.Collection;
+import java.util.List;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface OrderFillRepository
+    extends JpaRepository<OrderFill, Long>, OrderFillRepositoryCustom {
+
+  List<OrderFill> findByOrder_IdOrderByFillSeq(Long orderId);
+
+  /** Rows of {@code [orderId, max(fillSeq)]} for the given orders that have fills. */
+  @Query(
+      "select f.order.id, max(f.fillSeq) from OrderFill f"
+          + " where f.order.id in :orderIds group by f.order.id")
+  List<Object[]> findLastFillSeqs(@Param("orderIds") Collection<Long> orderIds);
+
+  @Query("select f.tradeId from OrderFill f where f.order.id in :orderIds")
+  List<String> findTradeIds(@Param("orderIds") Collection<Long> orderIds);
+}
@@ -0,0 +1,10 @@
+package com.arbitrage.respository;
+
+import com.arbitrage.entities.OrderFill;
+import java.util.List;
+
+public interface OrderFillRepositoryCustom {
+
+  /** Inserts the fills with JDBC batching, which identity ids rule out for {@code saveAll}. */
+  void insertBatch(List<OrderFill> fills);
+}
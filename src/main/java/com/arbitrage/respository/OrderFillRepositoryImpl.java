@@ -0,0 +1,48 @@
+package com.arbitrage.respository;
+
+import com.arbitrage.entities.OrderFill;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+@RequiredArgsConstructor
+class OrderFillRepositoryImpl implements OrderFillRepositoryCustom {
+
+  private static final String INSERT_FILL =
+      "insert into order_fills (created_at, updated_at, version, order_id, fill_seq, filled_qty,"
+          + " price, fee_amount, fee_currency_id, trade_id, filled_at)"
+          + " values (?, ?, 0, ?, ?, ?, ?, ?, ?, ?, ?)"
+          + " on conflict (order_id, trade_id) do nothing";
+
+  private static final int BATCH_SIZE = 200;
+
+  private final JdbcTemplate jdbcTemplate;
+
+  @Override
+  public void insertBatch(List<OrderFill> fills) {
+    if (fills.isEmpty()) {
+      return;
+    }
+    Timestamp now = new Timestamp(System.currentTimeMillis());
+    jdbcTemplate.batchUpdate(
+        INSERT_FILL,
+        fills,
+        BATCH_SIZE,
+        (ps, fill) -> {
+          ps.setTimestamp(1, now);
+          ps.setTimestamp(2, now);
+          ps.setLong(3, fill.getOrder().getId());
+          ps.setObject(4, fill.getFillSeq(), Types.INTEGER);
+          ps.setBigDecimal(5, fill.getFilledQty());
+          ps.setBigDecimal(6, fill.getPrice());
+          ps.setBigDecimal(7, fill.getFeeAmount());
+          Long feeCurrencyId = fill.getFeeCurrency() != null ? fill.getFeeCurrency().getId() : null;
+          ps.setObject(8, feeCurrencyId, Types.BIGINT);
+          ps.setString(9, fill.getTradeId());
+          ps.setTimestamp(
+              10, fill.getFilledAt() != null ? new Timestamp(fill.getFilledAt().getTime()) : null);
+        });
+  }
+}
@@ -1,13 +1,42 @@
 package com.arbitrage.respository;
 
+import com.arbitrage.entities.ExchangeAccount;
 import com.arbitrage.entities.Order;
 import com.arbitrage.enums.OrderStatus;
+import jakarta.persistence.LockModeType;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
-public interface OrderRepository extends JpaRepository<Order, Long> {
+public interface OrderRepository extends JpaRepository<Order, Long>, OrderRepositoryCustom {
 
   List<Order> findByStatus(OrderStatus status);
+
+  @EntityGraph(attributePaths = {"exchange", "pair"})
+  List<Order> findWithExchangeByStatusIn(Collection<OrderStatus> statuses);
+
+  @EntityGraph(attributePaths = {"exchange", "pair"})
+  List<Order> findWithExchangeByIdIn(Collection<Long> ids);
+
+  List<Order> findByParentOrder(Order parentOrder);
+
+  @Lock(LockModeType.PESSIMISTIC_WRITE)
+  @Query("select o from Order o where o.id = :id")
+  Optional<Order> findForUpdateById(@Param("id") Long id);
+
+  List<Order> findByExchangeAccountAndExchangeOrderIdIn(
+      ExchangeAccount exchangeAccount, Collection<String> exchangeOrderIds);
+
+  Optional<Order> findFirstByExchange_NameIgnoreCaseAndExchangeOrderIdOrderByIdDesc(
+      String exchangeName, String exchangeOrderId);
+
+  Optional<Order> findFirstByExchange_NameIgnoreCaseAndClientOrderIdOrderByIdDesc(
+      String exchangeName, String clientOrderId);
 }
@@ -0,0 +1,21 @@
+package com.arbitrage.respository;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+
+public interface OrderRepositoryCustom {
+
+  /**
+   * Leases up to {@code limit} open orders to {@code owner}: unleased ones, expired ones and the
+   * owner's own, least recently leased first. Rows locked by another node's claim are skipped, so
+   * concurrent claims never overlap. Returns the ids claimed.
+   */
+  List<Long> claimOpenOrders(String owner, Duration lease, int limit);
+
+  /** Ends the owner's leases early, e.g. on shutdown, so other nodes take the orders over. */
+  void releaseLeases(String owner, Collection<Long> orderIds);
+
+  /** Sets the exchange's order id unless one is stored already; returns the rows updated. */
+  int setExchangeOrderIdIfAbsent(Long orderId, String exchangeOrderId);
+}
@@ -0,0 +1,66 @@
+package com.arbitrage.respository;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+@RequiredArgsConstructor
+class OrderRepositoryImpl implements OrderRepositoryCustom {
+
+  private static final String CLAIM_OPEN_ORDERS =
+      "update orders set lease_owner = :owner, lease_until = :until"
+          + " where id in (select id from orders"
+          + " where status in ('SENT', 'PARTIAL') and exchange_id is not null"
+          + " and (lease_until is null or lease_until < :now or lease_owner = :owner)"
+          + " order by lease_until nulls first, id"
+          + " limit :limit for update skip locked)"
+          + " returning id";
+
+  private static final String RELEASE_LEASES =
+      "update orders set lease_until = :now where lease_owner = :owner and id in (:ids)";
+
+  private static final String SET_EXCHANGE_ORDER_ID =
+      "update orders set exchange_order_id = :exchangeOrderId"
+          + " where id = :id and exchange_order_id is null";
+
+  private final NamedParameterJdbcTemplate jdbcTemplate;
+
+  @Override
+  public List<Long> claimOpenOrders(String owner, Duration lease, int limit) {
+    Instant now = Instant.now();
+    MapSqlParameterSource params =
+        new MapSqlParameterSource()
+            .addValue("owner", owner)
+            .addValue("now", Timestamp.from(now))
+            .addValue("until", Timestamp.from(now.plus(lease)))
+            .addValue("limit", limit);
+    return jdbcTemplate.queryForList(CLAIM_OPEN_ORDERS, params, Long.class);
+  }
+
+  @Override
+  public void releaseLeases(String owner, Collection<Long> orderIds) {
+    if (orderIds.isEmpty()) {
+      return;
+    }
+    MapSqlParameterSource params =
+        new MapSqlParameterSource()
+            .addValue("owner", owner)
+            .addValue("now", Timestamp.from(Instant.now()))
+            .addValue("ids", orderIds);
+    jdbcTemplate.update(RELEASE_LEASES, params);
+  }
+
+  @Override
+  public int setExchangeOrderIdIfAbsent(Long orderId, String exchangeOrderId) {
+    MapSqlParameterSource params =
+        new MapSqlParameterSource()
+            .addValue("id", orderId)
+            .addValue("exchangeOrderId", exchangeOrderId);
+    return jdbcTemplate.update(SET_EXCHANGE_ORDER_ID, params);
+  }
+}
@@ -1,12 +1,22 @@
 package com.arbitrage.respository;
 
+import com.arbitrage.entities.Pair;
 import com.arbitrage.entities.PairExchange;
 import java.util.List;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 @Repository
 public interface PairExchangeRepository extends JpaRepository<PairExchange, Long> {
 
   List<PairExchange> findByExchange_Name(String exchangeName);
+
+  @EntityGraph(attributePaths = "exchange")
+  List<PairExchange> findByPair(Pair pair);
+
+  @EntityGraph(attributePaths = {"exchange", "pair.baseCurrency", "pair.quoteCurrency"})
+  @Query("select px from PairExchange px")
+  List<PairExchange> findAllWithPairs();
 }
@@ -0,0 +1,13 @@
+package com.arbitrage.respository;
+
+import com.arbitrage.entities.ExchangeAccount;
+import com.arbitrage.entities.TradeCursor;
+import java.util.Optional;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface TradeCursorRepository extends JpaRepository<TradeCursor, Long> {
+
+  Optional<TradeCursor> findByExchangeAccount(ExchangeAccount exchangeAccount);
+}
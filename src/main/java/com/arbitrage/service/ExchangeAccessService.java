@@ -61,4 +61,18 @@ public class ExchangeAccessService {
                                     new IllegalStateException(
                                         "No account for exchange " + exchangeName))));
   }
+
+  /** The account labelled after the exchange ({@code NOBITEX} -> {@code Nobitex}), or its first. */
+  @Transactional(readOnly = true)
+  public ExchangeAccount requireDefaultAccount(String exchangeName) {
+    return requireAccount(exchangeName, defaultAccountLabel(exchangeName));
+  }
+
+  private static String defaultAccountLabel(String exchangeName) {
+    String normalized = exchangeName.trim().toLowerCase(Locale.ROOT);
+    if (normalized.isEmpty()) {
+      throw new IllegalArgumentException("exchangeName must not be blank");
+    }
+    return Character.toUpperCase(normalized.charAt(0)) + normalized.substring(1);
+  }
 }
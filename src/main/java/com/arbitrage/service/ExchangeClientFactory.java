@@ -1,9 +1,15 @@
 package com.arbitrage.service;
 
+import com.arbitrage.config.CircuitBreakerProperties;
+import com.arbitrage.service.resilience.ExchangeCircuitBreaker;
+import com.arbitrage.service.resilience.ExchangeKillSwitch;
+import com.arbitrage.service.resilience.GuardedExchangeMarketClient;
+import java.util.Collection;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
 
@@ -15,7 +21,17 @@ public class ExchangeClientFactory {
   private final Map<String, ExchangeMarketClient> clientMap;
 
   public ExchangeClientFactory(List<ExchangeMarketClient> exchangeClients) {
+    this(exchangeClients, disabledCircuitBreakers(), null);
+  }
+
+  @Autowired
+  public ExchangeClientFactory(
+      List<ExchangeMarketClient> exchangeClients,
+      CircuitBreakerProperties circuitBreakerProperties,
+      ExchangeKillSwitch killSwitch) {
     this.clientMap = new ConcurrentHashMap<>();
+    ExchangeKillSwitch effectiveKillSwitch =
+        killSwitch != null ? killSwitch : new ExchangeKillSwitch(circuitBreakerProperties);
     if (exchangeClients != null) {
       for (ExchangeMarketClient client : exchangeClients) {
         if (client == null) {
@@ -25,7 +41,12 @@ public class ExchangeClientFactory {
         if (!StringUtils.hasText(exchangeName)) {
           continue;
         }
-        clientMap.put(exchangeName.trim().toUpperCase(LOCALE), client);
+        ExchangeMarketClient guarded =
+            new GuardedExchangeMarketClient(
+                client,
+                new ExchangeCircuitBreaker(exchangeName, circuitBreakerProperties),
+                effectiveKillSwitch);
+        clientMap.put(exchangeName.trim().toUpperCase(LOCALE), guarded);
       }
     }
   }
@@ -41,4 +62,14 @@ public class ExchangeClientFactory {
     }
     return client;
   }
+
+  public Collection<ExchangeMarketClient> getClients() {
+    return clientMap.values();
+  }
+
+  private static CircuitBreakerProperties disabledCircuitBreakers() {
+    CircuitBreakerProperties properties = new CircuitBreakerProperties();
+    properties.setEnabled(false);
+    return properties;
+  }
 }
@@ -1,11 +1,18 @@
 package com.arbitrage.service;
 
+import com.arbitrage.model.ExchangeOrderSnapshot;
 import com.arbitrage.model.ExchangeOrderStatus;
+import com.arbitrage.model.ExchangeTrade;
 import com.arbitrage.model.OrderAck;
+import com.arbitrage.model.OrderBook;
 import com.arbitrage.model.OrderRequest;
 import com.arbitrage.model.Quote;
 import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 public interface ExchangeMarketClient {
 
@@ -13,6 +20,29 @@ public interface ExchangeMarketClient {
 
   BigDecimal getWalletBalance(String currency);
 
+  /** True when {@link #getWalletBalances(Collection)} costs a single request. */
+  default boolean supportsBulkWalletBalances() {
+    return false;
+  }
+
+  /**
+   * Wallet balances keyed by currency name, each as {@link #getWalletBalance(String)} reports it.
+   * Currencies the exchange does not report, or whose fetch fails, are left out. By default the
+   * currencies are fetched one after the other; clients without a bulk endpoint hand them to {@link
+   * WalletBalanceFetches} to run in parallel.
+   */
+  default Map<String, BigDecimal> getWalletBalances(Collection<String> currencies) {
+    Map<String, BigDecimal> balances = new LinkedHashMap<>();
+    for (String currency : currencies) {
+      try {
+        balances.put(currency, getWalletBalance(currency));
+      } catch (RuntimeException ex) {
+        // a currency that cannot be fetched is left out
+      }
+    }
+    return balances;
+  }
+
   List<Quote> getQuotes();
 
   OrderAck submitOrder(OrderRequest orderRequest);
@@ -20,4 +50,36 @@ public interface ExchangeMarketClient {
   boolean cancelOrder(String orderId);
 
   ExchangeOrderStatus getOrderStatus(String orderId);
+
+  /** True when {@link #getRecentOrders()} is implemented. */
+  default boolean supportsRecentOrders() {
+    return false;
+  }
+
+  /**
+   * Open and recently closed orders of the trading account, fetched in one or a few paged calls.
+   * Orders missing from the result have to be checked with {@link #getOrderStatus(String)}.
+   */
+  default List<ExchangeOrderSnapshot> getRecentOrders() {
+    throw new UnsupportedOperationException(getExchangeName() + " does not list orders");
+  }
+
+  /** True when {@link #getTrades(String, Instant)} is implemented. */
+  default boolean supportsTrades() {
+    return false;
+  }
+
+  /**
+   * Executions of the trading account newer than the cursor, oldest first. Exchanges with
+   * sequential trade ids use {@code afterTradeId}, the others {@code since}; both are null on the
+   * first call.
+   */
+  default List<ExchangeTrade> getTrades(String afterTradeId, Instant since) {
+    throw new UnsupportedOperationException(getExchangeName() + " does not list trades");
+  }
+
+  /** Returns up to {@code depth} price levels per side for an internal pair symbol (BTC-USDT). */
+  default OrderBook getOrderBook(String symbol, int depth) {
+    throw new UnsupportedOperationException(getExchangeName() + " does not expose order books");
+  }
 }
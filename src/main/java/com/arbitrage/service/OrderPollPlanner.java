@@ -0,0 +1,136 @@
+package com.arbitrage.service;
+
+import com.arbitrage.config.OrderStatusProperties;
+import com.arbitrage.service.timing.HashedTimingWheel;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.Value;
+import lombok.experimental.Accessors;
+import org.springframework.stereotype.Component;
+
+/**
+ * Per-order poll schedule kept on a timing wheel. Fresh orders come due often, older ones back off
+ * by age tier, and an extra wake-up is set at the order's timeout so it is cancelled on time rather
+ * than up to one poll interval late. Failed polls back off exponentially.
+ */
+@Component
+public class OrderPollPlanner {
+
+  private final OrderStatusProperties properties;
+  private final HashedTimingWheel wheel;
+
+  private final Map<Long, HashedTimingWheel.Timeout> timers = new ConcurrentHashMap<>();
+  private final Set<Long> due = ConcurrentHashMap.newKeySet();
+  private final Map<Long, Failures> failures = new ConcurrentHashMap<>();
+
+  public OrderPollPlanner(OrderStatusProperties properties) {
+    this.properties = properties;
+    // timer tasks only flag the order as due, so they run on the wheel thread itself
+    this.wheel =
+        new HashedTimingWheel(
+            "order-poll-wheel",
+            properties.getPollTick(),
+            properties.getPollWheelSize(),
+            Runnable::run);
+  }
+
+  /**
+   * True when the order should be polled now: it is new to the planner or its timer fired. The next
+   * wake-up is scheduled right away, so a failed poll is simply retried later.
+   */
+  public boolean claimIfDue(Long orderId, Instant sentAt, Duration timeout) {
+    boolean known = timers.containsKey(orderId);
+    if (known && !due.remove(orderId)) {
+      return false;
+    }
+    scheduleNext(orderId, sentAt, timeout);
+    return true;
+  }
+
+  /** Starts tracking a just submitted order with its first poll {@code firstCheck} from now. */
+  public void enroll(Long orderId, Duration firstCheck) {
+    reschedule(orderId, firstCheck);
+  }
+
+  /**
+   * Pushes the order's next poll out by an exponential backoff. Returns the number of not-found
+   * answers in a row, which other errors leave unchanged.
+   */
+  public int recordFailure(Long orderId, boolean notFound) {
+    Failures updated =
+        failures.merge(
+            orderId,
+            new Failures(1, notFound ? 1 : 0),
+            (previous, one) ->
+                new Failures(previous.errors() + 1, previous.notFound() + one.notFound()));
+    if (timers.containsKey(orderId)) {
+      reschedule(orderId, properties.failureBackoffFor(updated.errors()));
+    }
+    return updated.notFound();
+  }
+
+  public void recordSuccess(Long orderId) {
+    failures.remove(orderId);
+  }
+
+  /** Drops the timers of orders that are no longer open. */
+  public void retainOnly(Set<Long> openOrderIds) {
+    timers
+        .keySet()
+        .removeIf(
+            orderId -> {
+              if (openOrderIds.contains(orderId)) {
+                return false;
+              }
+              HashedTimingWheel.Timeout timeout = timers.get(orderId);
+              if (timeout != null) {
+                timeout.cancel();
+              }
+              due.remove(orderId);
+              failures.remove(orderId);
+              return true;
+            });
+  }
+
+  private void scheduleNext(Long orderId, Instant sentAt, Duration timeout) {
+    Instant now = Instant.now();
+    Duration age = sentAt != null ? Duration.between(sentAt, now) : Duration.ZERO;
+    Duration delay = properties.pollIntervalFor(age);
+    if (timeout != null && !timeout.isZero() && !timeout.isNegative() && sentAt != null) {
+      Duration untilDeadline = Duration.between(now, sentAt.plus(timeout));
+      if (!untilDeadline.isNegative() && untilDeadline.compareTo(delay) < 0) {
+        // land just past the deadline so the sweep sees the order as timed out
+        delay = untilDeadline.plus(properties.getPollTick());
+      }
+    }
+    reschedule(orderId, delay);
+  }
+
+  private void reschedule(Long orderId, Duration delay) {
+    HashedTimingWheel.Timeout previous = timers.get(orderId);
+    if (previous != null) {
+      previous.cancel();
+    }
+    // a timer that fired just before it was replaced must not trigger an early poll, while the
+    // new one may fire as soon as it is scheduled
+    due.remove(orderId);
+    timers.put(orderId, wheel.schedule(() -> due.add(orderId), delay));
+  }
+
+  @PreDestroy
+  void shutdown() {
+    wheel.close();
+  }
+
+  @Value
+  @Accessors(fluent = true)
+  private static class Failures {
+
+    private final int errors;
+    private final int notFound;
+  }
+}
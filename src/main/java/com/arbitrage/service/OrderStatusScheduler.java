@@ -1,277 +1,495 @@
 package com.arbitrage.service;
 
+import com.arbitrage.config.OrderStatusProperties;
+import com.arbitrage.dal.OpenOrderIndex;
 import com.arbitrage.dal.OrderService;
-import com.arbitrage.entities.Balance;
-import com.arbitrage.entities.BalanceLock;
-import com.arbitrage.entities.Currency;
-import com.arbitrage.entities.Exchange;
-import com.arbitrage.entities.ExchangeAccount;
-import com.arbitrage.entities.Order;
-import com.arbitrage.entities.Pair;
 import com.arbitrage.enums.OrderStatus;
+import com.arbitrage.exception.OrderNotFoundException;
+import com.arbitrage.model.ExchangeOrderSnapshot;
 import com.arbitrage.model.ExchangeOrderStatus;
-import com.arbitrage.respository.BalanceLockRepository;
-import com.arbitrage.respository.BalanceRepository;
+import com.arbitrage.model.OpenOrder;
+import com.arbitrage.service.stream.UserStreamRegistry;
+import jakarta.annotation.PreDestroy;
 import java.math.BigDecimal;
-import java.math.MathContext;
+import java.net.InetAddress;
 import java.time.Duration;
 import java.time.Instant;
-import java.util.Date;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import lombok.RequiredArgsConstructor;
+import lombok.experimental.Accessors;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
 
+/**
+ * Polls the exchanges for the status of SENT and PARTIAL orders, read from the {@link
+ * OpenOrderIndex} rather than the orders table, or leased in batches from the database when several
+ * instances run ({@code app.order-status.lease-enabled}); leases are renewed by every claim and
+ * only lapse when their owner stops sweeping. Status and cancel calls run in one bounded pool per
+ * exchange, so a slow exchange only delays its own orders; answers are applied on the sweep thread
+ * in completion order. The sweep runs often but only polls orders that {@link OrderPollPlanner}
+ * reports due, so fresh orders are checked quickly and resting ones rarely; failed polls back off
+ * exponentially and orders the exchange keeps reporting as not found are quarantined and closed.
+ * Exchanges whose private order stream is connected are only polled every {@code
+ * app.user-stream.reconcile-interval} as a fallback.
+ */
 @Slf4j
 @Component
 @RequiredArgsConstructor
 public class OrderStatusScheduler {
 
-  private static final MathContext MATH_CONTEXT = MathContext.DECIMAL64;
-  private static final BigDecimal ZERO = BigDecimal.ZERO;
-  private static final String BALANCE_LOCK_REASON = "ORDER_SUBMIT";
-
+  private final OpenOrderIndex openOrderIndex;
   private final OrderService orderService;
   private final ExchangeClientFactory exchangeClientFactory;
-  private final BalanceLockRepository balanceLockRepository;
-  private final BalanceRepository balanceRepository;
+  private final OrderStatusUpdater orderStatusUpdater;
+  private final OrderStatusProperties properties;
+  private final UserStreamRegistry userStreamRegistry;
+  private final OrderPollPlanner orderPollPlanner;
+
+  private final Map<String, ExecutorService> exchangePools = new ConcurrentHashMap<>();
+  private final Set<Long> inFlight = ConcurrentHashMap.newKeySet();
+  // orders being reconciled against the order history; owned by the reconcile task, not a poll
+  private final Set<Long> quarantined = ConcurrentHashMap.newKeySet();
+  private final String leaseOwner = leaseOwnerId();
+  // orders leased to this node and until when, so their poll timers outlive one claim batch
+  private final Map<Long, Instant> leasedUntil = new ConcurrentHashMap<>();
 
   @Value("${app.order-status.timeout:PT5M}")
   private Duration orderTimeout;
 
-  @Scheduled(fixedDelayString = "${app.order-status.poll-delay:6000")
-  @Transactional
+  /**
+   * Not transactional: the sweep holds no connection while waiting on the exchanges, and each
+   * answer is committed in its own short transaction by {@link OrderStatusUpdater}.
+   */
+  @Scheduled(fixedDelayString = "${app.order-status.poll-delay:250}")
   public void refreshSentOrdersStatus() {
-    List<Order> sentOrders = orderService.findByStatus(OrderStatus.SENT);
-    if (sentOrders == null || sentOrders.isEmpty()) {
-      return;
-    }
+    Map<String, List<OpenOrder>> openOrders = openOrders();
+
+    BlockingQueue<PollResult> completed = new LinkedBlockingQueue<>();
+    Map<String, List<StatusPoll>> pollsByExchange = new LinkedHashMap<>();
+    Set<Long> openOrderIds = new HashSet<>();
 
-    for (Order order : sentOrders) {
-      if (order == null) {
+    for (Map.Entry<String, List<OpenOrder>> entry : openOrders.entrySet()) {
+      String exchangeName = entry.getKey();
+      // exchanges with a live private stream are only reconciled now and then
+      if (!userStreamRegistry.isPollDue(exchangeName)) {
         continue;
       }
-      try {
-        Exchange exchange = order.getExchange();
-        if (exchange == null || !StringUtils.hasText(exchange.getName())) {
-          log.debug("Skipping order {} due to missing exchange", order.getId());
+      for (OpenOrder order : entry.getValue()) {
+        // NEW orders have not been acknowledged by the exchange yet
+        if (order.status() != OrderStatus.SENT && order.status() != OrderStatus.PARTIAL) {
           continue;
         }
-
-        String exchangeOrderId = order.getExchangeOrderId();
-        if (!StringUtils.hasText(exchangeOrderId)) {
-          exchangeOrderId = order.getClientOrderId();
+        String lookupId = order.exchangeOrderId();
+        if (!StringUtils.hasText(lookupId)) {
+          lookupId = order.clientOrderId();
         }
-        if (!StringUtils.hasText(exchangeOrderId)) {
-          log.debug("Skipping order {} due to missing identifiers", order.getId());
+        if (!StringUtils.hasText(lookupId)) {
+          log.debug("Skipping order {} due to missing identifiers", order.id());
           continue;
         }
 
-        ExchangeMarketClient client = exchangeClientFactory.getClient(exchange.getName());
-        ExchangeOrderStatus statusDetails = client.getOrderStatus(exchangeOrderId);
-        if (statusDetails == null) {
+        openOrderIds.add(order.id());
+        if (!orderPollPlanner.claimIfDue(order.id(), order.sentAt(), orderTimeout)) {
           continue;
         }
 
-        OrderStatus fetchedStatus = statusDetails.status();
-        BigDecimal executedQty = statusDetails.filledQuantity();
-        BigDecimal avgPrice = statusDetails.averagePrice();
-        BigDecimal executedNotional = statusDetails.executedNotional();
-        if (executedNotional == null
-            && executedQty != null
-            && executedQty.signum() > 0
-            && order.getPrice() != null) {
-          BigDecimal referencePrice =
-              avgPrice != null && avgPrice.signum() > 0 ? avgPrice : order.getPrice();
-          executedNotional = referencePrice.multiply(executedQty, MATH_CONTEXT);
-        }
-
-        boolean updated = false;
-
-        if (avgPrice != null && differs(order.getAvgPrice(), avgPrice)) {
-          order.setAvgPrice(avgPrice);
-          updated = true;
-        }
-        if (executedQty != null && differs(order.getQtyExec(), executedQty)) {
-          order.setQtyExec(executedQty);
-          order.setFilledQty(executedQty);
-          updated = true;
-        }
-
-        BigDecimal orderQty = order.getQty();
-        if (orderQty != null
-            && executedQty != null
-            && orderQty.signum() > 0
-            && executedQty.compareTo(orderQty) >= 0) {
-          fetchedStatus = OrderStatus.FILLED;
-        } else if (executedQty != null
-            && executedQty.signum() > 0
-            && fetchedStatus != OrderStatus.CANCELLED
-            && fetchedStatus != OrderStatus.FILLED) {
-          fetchedStatus = OrderStatus.PARTIAL;
-        }
-
-        boolean timedOut = hasTimedOut(order);
-        if (timedOut
-            && fetchedStatus != OrderStatus.FILLED
-            && fetchedStatus != OrderStatus.CANCELLED) {
-          boolean cancelled = client.cancelOrder(exchangeOrderId);
-          if (cancelled) {
-            fetchedStatus = OrderStatus.CANCELLED;
-          }
-        }
-
-        if (fetchedStatus != null && fetchedStatus != order.getStatus()) {
-          log.info(
-              "Order {} status changed from {} to {} by {}",
-              order.getId(),
-              order.getStatus(),
-              fetchedStatus,
-              exchange.getName());
-          order.setStatus(fetchedStatus);
-          updated = true;
+        StatusPoll poll =
+            new StatusPoll(
+                order.id(),
+                exchangeName,
+                lookupId,
+                order.exchangeOrderId(),
+                order.clientOrderId(),
+                order.status(),
+                order.qty(),
+                order.qtyExec(),
+                hasTimedOut(order.sentAt()));
+        if (quarantined.contains(poll.orderId()) || !inFlight.add(poll.orderId())) {
+          // still being polled by an earlier sweep that gave up waiting, or reconciled
+          continue;
         }
+        pollsByExchange.computeIfAbsent(exchangeName, k -> new ArrayList<>()).add(poll);
+      }
+    }
 
-        if ((fetchedStatus == OrderStatus.FILLED || fetchedStatus == OrderStatus.CANCELLED)
-            && order.getClosedAt() == null) {
-          order.setClosedAt(new Date());
-          updated = true;
-        }
+    if (properties.isLeaseEnabled()) {
+      // orders outside this batch stay ours until their lease lapses, timers included
+      Instant now = Instant.now();
+      leasedUntil.values().removeIf(until -> until.isBefore(now));
+      openOrderIds.addAll(leasedUntil.keySet());
+    }
+    orderPollPlanner.retainOnly(openOrderIds);
 
-        if (executedQty != null
-            || executedNotional != null
-            || fetchedStatus == OrderStatus.FILLED
-            || fetchedStatus == OrderStatus.CANCELLED
-            || fetchedStatus == OrderStatus.PARTIAL) {
-          updated |= updateBalances(order, executedQty, executedNotional, fetchedStatus);
-        }
+    int submitted = 0;
+    for (Map.Entry<String, List<StatusPoll>> entry : pollsByExchange.entrySet()) {
+      submitted += submit(entry.getKey(), entry.getValue(), completed);
+    }
 
-        if (updated) {
-          orderService.save(order);
+    long deadline = System.nanoTime() + properties.getSweepTimeout().toNanos();
+    int received = 0;
+    try {
+      while (received < submitted) {
+        PollResult result =
+            completed.poll(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        if (result == null) {
+          log.warn(
+              "Status sweep timed out with {} of {} polls outstanding",
+              submitted - received,
+              submitted);
+          break;
         }
-      } catch (Exception ex) {
-        log.warn("Failed to refresh status for order {}: {}", order.getId(), ex.getMessage());
-        log.debug("Order status refresh error", ex);
+        received++;
+        submitted += apply(result, completed);
       }
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
     }
   }
 
-  private boolean updateBalances(
-      Order order, BigDecimal executedQty, BigDecimal executedNotional, OrderStatus newStatus) {
-    ExchangeAccount account = order.getExchangeAccount();
-    Pair pair = order.getPair();
-    if (account == null || pair == null) {
-      return false;
+  /**
+   * This node's share of the open orders by exchange: the whole local index, or with leasing
+   * enabled a batch claimed in the database. A claim takes unleased and lapsed orders first and
+   * renews this node's own leases, so an order stays with one node while it keeps sweeping.
+   */
+  private Map<String, List<OpenOrder>> openOrders() {
+    if (!properties.isLeaseEnabled()) {
+      return openOrderIndex.byExchange();
     }
-
-    boolean buySide = "BUY".equalsIgnoreCase(order.getSide());
-    Currency currency = buySide ? pair.getQuoteCurrency() : pair.getBaseCurrency();
-    if (currency == null) {
-      return false;
+    // taken before the claim so the local view never outlasts the lease in the database
+    Instant until = Instant.now().plus(properties.getLeaseDuration());
+    List<OpenOrder> claimed;
+    try {
+      claimed =
+          orderService.claimOpenOrders(
+              leaseOwner, properties.getLeaseDuration(), properties.getLeaseBatchSize());
+    } catch (Exception ex) {
+      log.warn("Failed to lease open orders: {}", ex.getMessage());
+      return Map.of();
+    }
+    Map<String, List<OpenOrder>> byExchange = new LinkedHashMap<>();
+    for (OpenOrder order : claimed) {
+      leasedUntil.put(order.id(), until);
+      byExchange.computeIfAbsent(order.exchangeName(), k -> new ArrayList<>()).add(order);
     }
+    return byExchange;
+  }
 
-    BalanceLock lock = findBalanceLock(order, account, currency);
-    Balance balance =
-        balanceRepository.findByExchangeAccountAndCurrency(account, currency).orElse(null);
+  /**
+   * Queues the polls of one exchange on its pool: a single bulk task when the client can list its
+   * recent orders, one task per order otherwise. Returns the number of polls that will answer.
+   */
+  private int submit(String exchangeName, List<StatusPoll> polls, BlockingQueue<PollResult> out) {
+    ExchangeMarketClient client;
+    try {
+      client = exchangeClientFactory.getClient(exchangeName);
+    } catch (Exception ex) {
+      polls.forEach(poll -> inFlight.remove(poll.orderId()));
+      log.warn("Failed to refresh status for {} orders: {}", exchangeName, ex.getMessage());
+      return 0;
+    }
 
-    if (lock == null && balance == null) {
-      return false;
+    if (properties.isBulkReconcile()
+        && polls.size() >= properties.getBulkMinOrders()
+        && client.supportsRecentOrders()) {
+      return execute(exchangeName, polls, () -> fetchBulk(client, polls, out)) ? polls.size() : 0;
     }
 
-    BigDecimal lockOriginal = buySide ? order.getNotional() : order.getQty();
-    if (lockOriginal == null) {
-      lockOriginal = ZERO;
+    int submitted = 0;
+    for (StatusPoll poll : polls) {
+      if (execute(exchangeName, List.of(poll), () -> out.add(fetch(client, poll)))) {
+        submitted++;
+      }
     }
+    return submitted;
+  }
 
-    BigDecimal executedForLock = buySide ? executedNotional : executedQty;
-    if (executedForLock == null || executedForLock.signum() < 0) {
-      executedForLock = ZERO;
+  private boolean execute(String exchangeName, List<StatusPoll> polls, Runnable task) {
+    try {
+      poolFor(exchangeName)
+          .execute(
+              () -> {
+                try {
+                  task.run();
+                } finally {
+                  polls.forEach(poll -> inFlight.remove(poll.orderId()));
+                }
+              });
+      return true;
+    } catch (RejectedExecutionException ex) {
+      polls.forEach(poll -> inFlight.remove(poll.orderId()));
+      log.debug("Status queue of {} is full, {} orders wait", exchangeName, polls.size());
+      return false;
     }
-    if (lockOriginal.signum() > 0 && executedForLock.compareTo(lockOriginal) > 0) {
-      executedForLock = lockOriginal;
+  }
+
+  /**
+   * Runs on the exchange's pool: one paged listing of the account's recent orders, diffed against
+   * our open orders. Orders missing from the listing, e.g. closed beyond its window, fall back to a
+   * single status call.
+   */
+  private void fetchBulk(
+      ExchangeMarketClient client, List<StatusPoll> polls, BlockingQueue<PollResult> out) {
+    Map<String, ExchangeOrderSnapshot> byExchangeId = new HashMap<>();
+    Map<String, ExchangeOrderSnapshot> byClientId = new HashMap<>();
+    try {
+      for (ExchangeOrderSnapshot snapshot : client.getRecentOrders()) {
+        if (StringUtils.hasText(snapshot.exchangeOrderId())) {
+          byExchangeId.put(snapshot.exchangeOrderId(), snapshot);
+        }
+        if (StringUtils.hasText(snapshot.clientOrderId())) {
+          byClientId.put(snapshot.clientOrderId(), snapshot);
+        }
+      }
+    } catch (Exception ex) {
+      log.warn("Listing recent orders failed, polling one by one: {}", ex.getMessage());
     }
 
-    BigDecimal remaining = lockOriginal.subtract(executedForLock, MATH_CONTEXT);
-    if (remaining.signum() < 0) {
-      remaining = ZERO;
+    for (StatusPoll poll : polls) {
+      ExchangeOrderSnapshot snapshot =
+          poll.exchangeOrderId() != null ? byExchangeId.get(poll.exchangeOrderId()) : null;
+      if (snapshot == null && poll.clientOrderId() != null) {
+        snapshot = byClientId.get(poll.clientOrderId());
+      }
+      out.add(
+          snapshot != null && snapshot.status() != null
+              ? evaluate(client, poll, snapshot.status())
+              : fetch(client, poll));
     }
+  }
 
-    BigDecimal targetLockAmount = remaining;
-    if (newStatus == OrderStatus.CANCELLED || newStatus == OrderStatus.FILLED) {
-      targetLockAmount = ZERO;
+  /** Runs on the exchange's pool: status call plus the timeout cancel, no persistence. */
+  private PollResult fetch(ExchangeMarketClient client, StatusPoll poll) {
+    try {
+      ExchangeOrderStatus statusDetails = client.getOrderStatus(poll.lookupId());
+      if (statusDetails == null) {
+        return new PollResult(poll, null, false, null);
+      }
+      return evaluate(client, poll, statusDetails);
+    } catch (Exception ex) {
+      return new PollResult(poll, null, false, ex);
     }
+  }
 
-    BigDecimal previousLockAmount = lock != null ? zeroIfNull(lock.getAmount()) : ZERO;
-    boolean changed = false;
+  /** Cancels timed-out orders; snapshots that change nothing are not handed to the updater. */
+  private PollResult evaluate(
+      ExchangeMarketClient client, StatusPoll poll, ExchangeOrderStatus statusDetails) {
+    try {
+      OrderStatus fetchedStatus = orderStatusUpdater.resolveStatus(poll.qty(), statusDetails);
+
+      boolean cancelled = false;
+      if (poll.timedOut()
+          && fetchedStatus != OrderStatus.FILLED
+          && fetchedStatus != OrderStatus.CANCELLED) {
+        cancelled = client.cancelOrder(poll.lookupId());
+      }
 
-    if (lock != null && differs(previousLockAmount, targetLockAmount)) {
-      lock.setAmount(targetLockAmount);
-      balanceLockRepository.save(lock);
-      changed = true;
+      if (!cancelled
+          && (fetchedStatus == OrderStatus.SENT || fetchedStatus == poll.status())
+          && !fillChanged(poll, statusDetails)) {
+        return new PollResult(poll, null, false, null);
+      }
+      return new PollResult(poll, statusDetails, cancelled, null);
+    } catch (Exception ex) {
+      return new PollResult(poll, null, false, ex);
     }
+  }
 
-    if (balance != null) {
-      BigDecimal reserved = zeroIfNull(balance.getReserved());
-      BigDecimal available = zeroIfNull(balance.getAvailable());
+  private static boolean fillChanged(StatusPoll poll, ExchangeOrderStatus statusDetails) {
+    BigDecimal filled = statusDetails.filledQuantity();
+    if (filled == null) {
+      return false;
+    }
+    BigDecimal known = poll.qtyExec() != null ? poll.qtyExec() : BigDecimal.ZERO;
+    return filled.compareTo(known) != 0;
+  }
 
-      BigDecimal newReserved =
-          reserved.subtract(previousLockAmount, MATH_CONTEXT).add(targetLockAmount, MATH_CONTEXT);
-      if (newReserved.signum() < 0) {
-        newReserved = ZERO;
+  /** Applies one answer; returns the number of follow-up answers it queued. */
+  private int apply(PollResult result, BlockingQueue<PollResult> out) {
+    Long orderId = result.poll().orderId();
+    if (result.error() != null) {
+      boolean notFound = result.error() instanceof OrderNotFoundException;
+      int notFoundCount = orderPollPlanner.recordFailure(orderId, notFound);
+      log.warn("Failed to refresh status for order {}: {}", orderId, result.error().getMessage());
+      log.debug("Order status refresh error", result.error());
+      if (notFound && notFoundCount >= properties.getNotFoundQuarantineThreshold()) {
+        return quarantine(result.poll(), notFoundCount, out);
       }
-      balance.setReserved(newReserved);
+      return 0;
+    }
+    orderPollPlanner.recordSuccess(orderId);
+    if (result.statusDetails() == null) {
+      return 0;
+    }
+    try {
+      orderStatusUpdater.apply(
+          orderId, result.statusDetails(), result.cancelled(), result.poll().exchangeName());
+    } catch (Exception ex) {
+      log.warn("Failed to refresh status for order {}: {}", orderId, ex.getMessage());
+      log.debug("Order status refresh error", ex);
+    }
+    return 0;
+  }
 
-      if (newStatus == OrderStatus.CANCELLED) {
-        BigDecimal release = previousLockAmount.subtract(targetLockAmount, MATH_CONTEXT);
-        if (release.signum() > 0) {
-          balance.setAvailable(available.add(release, MATH_CONTEXT));
+  /**
+   * The exchange keeps answering that it does not know the order: look for it once in the account's
+   * order history and apply what is found there, otherwise close it as CANCELLED with the fills we
+   * already have so its balance lock is released and polling stops. Returns the number of answers
+   * to wait for.
+   */
+  private int quarantine(StatusPoll poll, int notFoundCount, BlockingQueue<PollResult> out) {
+    if (!quarantined.add(poll.orderId())) {
+      return 0;
+    }
+    log.warn(
+        "Order {} not found on {} {} times in a row, reconciling against order history",
+        poll.orderId(),
+        poll.exchangeName(),
+        notFoundCount);
+    ExchangeMarketClient client;
+    try {
+      client = exchangeClientFactory.getClient(poll.exchangeName());
+    } catch (Exception ex) {
+      quarantined.remove(poll.orderId());
+      return 0;
+    }
+    // the poll that answered may still be finishing on the pool, so leave inFlight to it
+    Runnable task =
+        () -> {
+          try {
+            out.add(reconcile(client, poll));
+          } finally {
+            quarantined.remove(poll.orderId());
+          }
+        };
+    if (execute(poll.exchangeName(), List.of(), task)) {
+      return 1;
+    }
+    quarantined.remove(poll.orderId());
+    return 0;
+  }
+
+  /** Runs on the exchange's pool. */
+  private PollResult reconcile(ExchangeMarketClient client, StatusPoll poll) {
+    try {
+      if (client.supportsRecentOrders()) {
+        for (ExchangeOrderSnapshot snapshot : client.getRecentOrders()) {
+          boolean match =
+              (poll.exchangeOrderId() != null
+                      && poll.exchangeOrderId().equals(snapshot.exchangeOrderId()))
+                  || (poll.clientOrderId() != null
+                      && poll.clientOrderId().equals(snapshot.clientOrderId()));
+          if (match && snapshot.status() != null) {
+            return new PollResult(poll, snapshot.status(), false, null);
+          }
         }
       }
-
-      balanceRepository.save(balance);
-      changed = true;
+      BigDecimal filled = poll.qtyExec() != null ? poll.qtyExec() : BigDecimal.ZERO;
+      log.warn("Order {} is unknown to {}, closing it", poll.orderId(), poll.exchangeName());
+      ExchangeOrderStatus closed =
+          ExchangeOrderStatus.of(OrderStatus.CANCELLED).withFilledQuantity(filled);
+      return new PollResult(poll, closed, true, null);
+    } catch (Exception ex) {
+      // the backoff keeps running, so the next not-found answer tries again
+      return new PollResult(poll, null, false, ex);
     }
-
-    return changed;
   }
 
-  private BalanceLock findBalanceLock(Order order, ExchangeAccount account, Currency currency) {
-    if (order.getId() == null) {
-      return null;
-    }
-    return balanceLockRepository
-        .findByExchangeAccountAndCurrencyAndReasonAndSignalId(
-            account, currency, BALANCE_LOCK_REASON, String.valueOf(order.getId()))
-        .orElse(null);
+  private ExecutorService poolFor(String exchangeName) {
+    return exchangePools.computeIfAbsent(
+        exchangeName.trim().toUpperCase(Locale.ROOT),
+        key -> {
+          int threads = properties.concurrencyFor(key);
+          String prefix = "order-status-" + key.toLowerCase(Locale.ROOT) + "-";
+          AtomicInteger counter = new AtomicInteger();
+          return new ThreadPoolExecutor(
+              threads,
+              threads,
+              60,
+              TimeUnit.SECONDS,
+              new LinkedBlockingQueue<>(Math.max(1, properties.getQueueCapacity())),
+              runnable -> {
+                Thread thread = new Thread(runnable, prefix + counter.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+              });
+        });
   }
 
-  private boolean hasTimedOut(Order order) {
+  private boolean hasTimedOut(Instant sentAt) {
     if (orderTimeout == null || orderTimeout.isZero() || orderTimeout.isNegative()) {
       return false;
     }
-    Date sentAt = order.getSentAt();
     if (sentAt == null) {
       return false;
     }
-    Instant expiry = sentAt.toInstant().plus(orderTimeout);
-    return Instant.now().isAfter(expiry);
+    return Instant.now().isAfter(sentAt.plus(orderTimeout));
   }
 
-  private static boolean differs(BigDecimal current, BigDecimal next) {
-    if (current == null && next == null) {
-      return false;
+  private static String leaseOwnerId() {
+    String host;
+    try {
+      host = InetAddress.getLocalHost().getHostName();
+    } catch (Exception ex) {
+      host = "unknown";
     }
-    if (current == null || next == null) {
-      return true;
+    String suffix = UUID.randomUUID().toString().substring(0, 8);
+    return host + ":" + ProcessHandle.current().pid() + ":" + suffix;
+  }
+
+  @PreDestroy
+  void shutdown() {
+    exchangePools.values().forEach(ExecutorService::shutdownNow);
+    if (!leasedUntil.isEmpty()) {
+      // hand the orders over now instead of when the leases lapse
+      try {
+        orderService.releaseLeases(leaseOwner, List.copyOf(leasedUntil.keySet()));
+      } catch (Exception ex) {
+        log.debug("Failed to release order leases, they expire on their own: {}", ex.getMessage());
+      }
     }
-    return current.compareTo(next) != 0;
   }
 
-  private static BigDecimal zeroIfNull(BigDecimal value) {
-    return value != null ? value : ZERO;
+  @lombok.Value
+  @Accessors(fluent = true)
+  private static class StatusPoll {
+
+    private final Long orderId;
+    private final String exchangeName;
+    private final String lookupId;
+    private final String exchangeOrderId;
+    private final String clientOrderId;
+    private final OrderStatus status;
+    private final BigDecimal qty;
+    private final BigDecimal qtyExec;
+    private final boolean timedOut;
+  }
+
+  @lombok.Value
+  @Accessors(fluent = true)
+  private static class PollResult {
+
+    private final StatusPoll poll;
+    private final ExchangeOrderStatus statusDetails;
+    private final boolean cancelled;
+    private final Exception error;
   }
 }
@@ -0,0 +1,379 @@
+package com.arbitrage.service;
+
+import com.arbitrage.dal.OrderService;
+import com.arbitrage.entities.BalanceLock;
+import com.arbitrage.entities.Currency;
+import com.arbitrage.entities.ExchangeAccount;
+import com.arbitrage.entities.Order;
+import com.arbitrage.entities.Pair;
+import com.arbitrage.enums.OrderStatus;
+import com.arbitrage.model.ExchangeOrderStatus;
+import com.arbitrage.respository.BalanceLockRepository;
+import com.arbitrage.respository.BalanceRepository;
+import com.arbitrage.service.ledger.BalanceAmounts;
+import com.arbitrage.service.ledger.BalanceLedger;
+import com.arbitrage.service.position.PositionTracker;
+import com.arbitrage.service.risk.RiskEngine;
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.util.Date;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Applies an exchange status snapshot to an order and moves its balance lock accordingly. Shared by
+ * the status scheduler and the IOC/FOK cancel timer so both settle orders the same way. Changes to
+ * a routed child are rolled up into its parent order.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class OrderStatusUpdater {
+
+  private static final BigDecimal ZERO = BigDecimal.ZERO;
+  private static final String BALANCE_LOCK_REASON = "ORDER_SUBMIT";
+
+  private final OrderService orderService;
+  private final BalanceLockRepository balanceLockRepository;
+  private final BalanceRepository balanceRepository;
+  private final BalanceLedger balanceLedger;
+  private final PositionTracker positionTracker;
+  private final RiskEngine riskEngine;
+
+  /** Derives our status from the exchange's, promoting fills to PARTIAL or FILLED. */
+  public OrderStatus resolveStatus(Order order, ExchangeOrderStatus statusDetails) {
+    return resolveStatus(order.getQty(), statusDetails);
+  }
+
+  public OrderStatus resolveStatus(BigDecimal orderQty, ExchangeOrderStatus statusDetails) {
+    OrderStatus fetchedStatus = statusDetails.status();
+    BigDecimal executedQty = statusDetails.filledQuantity();
+    if (orderQty != null
+        && executedQty != null
+        && orderQty.signum() > 0
+        && executedQty.compareTo(orderQty) >= 0) {
+      return OrderStatus.FILLED;
+    }
+    if (executedQty != null
+        && executedQty.signum() > 0
+        && fetchedStatus != OrderStatus.CANCELLED
+        && fetchedStatus != OrderStatus.FILLED) {
+      return OrderStatus.PARTIAL;
+    }
+    return fetchedStatus;
+  }
+
+  /**
+   * Loads the order and applies {@code statusDetails} in its own short transaction; {@code
+   * cancelled} forces CANCELLED unless the snapshot shows the order fully filled. Orders that were
+   * closed meanwhile, e.g. by the IOC timer, are left alone.
+   */
+  @Transactional
+  public boolean apply(
+      Long orderId, ExchangeOrderStatus statusDetails, boolean cancelled, String source) {
+    Order order = orderService.findById(orderId).orElse(null);
+    if (order == null
+        || order.getStatus() == OrderStatus.FILLED
+        || order.getStatus() == OrderStatus.CANCELLED) {
+      return false;
+    }
+    OrderStatus resolved = resolveStatus(order, statusDetails);
+    if (cancelled && resolved != OrderStatus.FILLED) {
+      resolved = OrderStatus.CANCELLED;
+    }
+    return apply(order, statusDetails, resolved, source);
+  }
+
+  /**
+   * Applies a snapshot whose status was already resolved by the caller, in its transaction. Polls,
+   * the order listing and the private stream race each other, so a snapshot showing less executed
+   * than the order already holds is older than what was applied and is dropped, as is any snapshot
+   * of a closed order.
+   */
+  public boolean apply(
+      Order order, ExchangeOrderStatus statusDetails, OrderStatus fetchedStatus, String source) {
+    if (order.getStatus() == OrderStatus.FILLED || order.getStatus() == OrderStatus.CANCELLED) {
+      return false;
+    }
+    BigDecimal previousExecutedQty = zeroIfNull(order.getQtyExec());
+    BigDecimal executedQty = statusDetails.filledQuantity();
+    if (executedQty != null && executedQty.compareTo(previousExecutedQty) < 0) {
+      log.debug(
+          "Ignoring stale snapshot of order {} from {}: executed {} < {}",
+          order.getId(),
+          source,
+          executedQty,
+          previousExecutedQty);
+      return false;
+    }
+    BigDecimal avgPrice = statusDetails.averagePrice();
+    BigDecimal executedNotional = statusDetails.executedNotional();
+    if (executedNotional == null
+        && executedQty != null
+        && executedQty.signum() > 0
+        && order.getPrice() != null) {
+      BigDecimal referencePrice =
+          avgPrice != null && avgPrice.signum() > 0 ? avgPrice : order.getPrice();
+      executedNotional = BalanceAmounts.scaled(referencePrice.multiply(executedQty));
+    }
+
+    boolean updated = false;
+
+    if (avgPrice != null && differs(order.getAvgPrice(), avgPrice)) {
+      order.setAvgPrice(avgPrice);
+      updated = true;
+    }
+    if (executedQty != null && differs(order.getQtyExec(), executedQty)) {
+      order.setQtyExec(executedQty);
+      order.setFilledQty(executedQty);
+      updated = true;
+    }
+
+    if (fetchedStatus != null && fetchedStatus != order.getStatus()) {
+      log.info(
+          "Order {} status changed from {} to {} by {}",
+          order.getId(),
+          order.getStatus(),
+          fetchedStatus,
+          source);
+      order.setStatus(fetchedStatus);
+      updated = true;
+    }
+
+    if ((fetchedStatus == OrderStatus.FILLED || fetchedStatus == OrderStatus.CANCELLED)
+        && order.getClosedAt() == null) {
+      order.setClosedAt(new Date());
+      updated = true;
+    }
+
+    if (executedQty != null
+        || executedNotional != null
+        || fetchedStatus == OrderStatus.FILLED
+        || fetchedStatus == OrderStatus.CANCELLED
+        || fetchedStatus == OrderStatus.PARTIAL) {
+      updated |= updateBalances(order, executedQty, executedNotional, fetchedStatus);
+    }
+
+    BigDecimal filled =
+        executedQty != null && executedQty.compareTo(previousExecutedQty) > 0
+            ? executedQty.subtract(previousExecutedQty)
+            : ZERO;
+    // a closed order frees whatever was still open, filled or not
+    BigDecimal released =
+        fetchedStatus == OrderStatus.FILLED || fetchedStatus == OrderStatus.CANCELLED
+            ? zeroIfNull(order.getQty()).subtract(previousExecutedQty).max(filled)
+            : filled;
+    if (released.signum() > 0) {
+      BigDecimal fillPrice =
+          avgPrice != null && avgPrice.signum() > 0 ? avgPrice : order.getPrice();
+      recordExecution(order, filled, fillPrice, released);
+    }
+
+    if (updated) {
+      orderService.save(order);
+      if (order.getParentOrder() != null) {
+        rollUpParent(order.getParentOrder().getId(), source);
+      }
+    }
+    return updated;
+  }
+
+  /**
+   * Recomputes a routed parent from its children: summed fills, their weighted average price, and
+   * FILLED or CANCELLED once every child is closed. The parent row is locked before the children
+   * are read, so siblings updated at the same time are summed one after the other.
+   */
+  private void rollUpParent(Long parentId, String source) {
+    Order parent = orderService.findForUpdate(parentId).orElse(null);
+    if (parent == null) {
+      return;
+    }
+    BigDecimal filled = ZERO;
+    BigDecimal filledNotional = ZERO;
+    boolean open = false;
+    List<Order> children = orderService.findChildren(parent);
+    for (Order child : children) {
+      BigDecimal childFilled = zeroIfNull(child.getQtyExec());
+      if (childFilled.signum() > 0) {
+        BigDecimal price =
+            child.getAvgPrice() != null && child.getAvgPrice().signum() > 0
+                ? child.getAvgPrice()
+                : zeroIfNull(child.getPrice());
+        filled = filled.add(childFilled);
+        filledNotional = filledNotional.add(childFilled.multiply(price));
+      }
+      open |= child.getStatus() != OrderStatus.FILLED && child.getStatus() != OrderStatus.CANCELLED;
+    }
+
+    OrderStatus status;
+    if (open) {
+      status = filled.signum() > 0 ? OrderStatus.PARTIAL : OrderStatus.SENT;
+    } else {
+      // whatever the router could not place counts as cancelled
+      status =
+          filled.compareTo(zeroIfNull(parent.getQty())) >= 0
+              ? OrderStatus.FILLED
+              : OrderStatus.CANCELLED;
+    }
+    if (status != parent.getStatus()) {
+      log.info(
+          "Parent order {} status changed from {} to {} by {}",
+          parent.getId(),
+          parent.getStatus(),
+          status,
+          source);
+      parent.setStatus(status);
+    }
+    parent.setQtyExec(filled);
+    parent.setFilledQty(filled);
+    parent.setAvgPrice(
+        filled.signum() > 0 ? filledNotional.divide(filled, MathContext.DECIMAL64) : ZERO);
+    if (!open && parent.getClosedAt() == null) {
+      parent.setClosedAt(new Date());
+    }
+    orderService.save(parent);
+  }
+
+  private boolean updateBalances(
+      Order order, BigDecimal executedQty, BigDecimal executedNotional, OrderStatus newStatus) {
+    ExchangeAccount account = order.getExchangeAccount();
+    Pair pair = order.getPair();
+    if (account == null || pair == null) {
+      return false;
+    }
+
+    boolean buySide = "BUY".equalsIgnoreCase(order.getSide());
+    Currency currency = buySide ? pair.getQuoteCurrency() : pair.getBaseCurrency();
+    if (currency == null) {
+      return false;
+    }
+
+    BalanceLock lock = findBalanceLock(order, account, currency);
+    if (lock == null) {
+      return false;
+    }
+
+    BigDecimal lockOriginal = buySide ? order.getNotional() : order.getQty();
+    if (lockOriginal == null) {
+      lockOriginal = ZERO;
+    }
+
+    BigDecimal executedForLock = buySide ? executedNotional : executedQty;
+    if (executedForLock == null || executedForLock.signum() < 0) {
+      executedForLock = ZERO;
+    }
+    if (lockOriginal.signum() > 0 && executedForLock.compareTo(lockOriginal) > 0) {
+      executedForLock = lockOriginal;
+    }
+
+    // exact arithmetic: a rounded difference would leave the balance off by the residue
+    BigDecimal remaining = BalanceAmounts.scaled(lockOriginal.subtract(executedForLock));
+    if (remaining.signum() < 0) {
+      remaining = ZERO;
+    }
+
+    BigDecimal targetLockAmount = remaining;
+    if (newStatus == OrderStatus.CANCELLED || newStatus == OrderStatus.FILLED) {
+      targetLockAmount = ZERO;
+    }
+
+    // a lock only shrinks: nothing was reserved to back a larger one
+    BigDecimal previousLockAmount = zeroIfNull(lock.getAmount());
+    if (targetLockAmount.compareTo(previousLockAmount) >= 0) {
+      return false;
+    }
+    lock.setAmount(targetLockAmount);
+    balanceLockRepository.save(lock);
+
+    // what was executed since the last update is consumed; once the order is closed, the part
+    // that never executed, e.g. after a cancel or a fill below the limit, is handed back
+    BigDecimal unexecuted = remaining.min(previousLockAmount);
+    BigDecimal settled = previousLockAmount.subtract(unexecuted);
+    BigDecimal released = unexecuted.subtract(targetLockAmount);
+    Long accountId = account.getId();
+    Long currencyId = currency.getId();
+    if (balanceLedger.isEnabled()) {
+      afterCommit(
+          () -> {
+            if (settled.signum() > 0) {
+              balanceLedger.settle(accountId, currencyId, settled);
+            }
+            if (released.signum() > 0) {
+              balanceLedger.release(accountId, currencyId, released);
+            }
+          });
+    } else {
+      if (settled.signum() > 0) {
+        balanceRepository.settle(accountId, currencyId, settled);
+      }
+      if (released.signum() > 0) {
+        balanceRepository.release(accountId, currencyId, released);
+      }
+    }
+    return true;
+  }
+
+  private void recordExecution(
+      Order order, BigDecimal filled, BigDecimal fillPrice, BigDecimal released) {
+    Pair pair = order.getPair();
+    if (order.getExchange() == null
+        || pair == null
+        || pair.getBaseCurrency() == null
+        || pair.getQuoteCurrency() == null) {
+      return;
+    }
+    Long exchangeId = order.getExchange().getId();
+    Long baseId = pair.getBaseCurrency().getId();
+    Long quoteId = pair.getQuoteCurrency().getId();
+    boolean buy = "BUY".equalsIgnoreCase(order.getSide());
+    BigDecimal limitPrice = order.getPrice();
+    afterCommit(
+        () -> {
+          positionTracker.onFill(exchangeId, baseId, quoteId, buy, filled, fillPrice);
+          riskEngine.release(exchangeId, baseId, quoteId, buy, released, limitPrice);
+        });
+  }
+
+  private static void afterCommit(Runnable action) {
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(
+          new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+              action.run();
+            }
+          });
+    } else {
+      action.run();
+    }
+  }
+
+  private BalanceLock findBalanceLock(Order order, ExchangeAccount account, Currency currency) {
+    if (order.getId() == null) {
+      return null;
+    }
+    return balanceLockRepository
+        .findByExchangeAccountAndCurrencyAndReasonAndSignalId(
+            account, currency, BALANCE_LOCK_REASON, String.valueOf(order.getId()))
+        .orElse(null);
+  }
+
+  private static boolean differs(BigDecimal current, BigDecimal next) {
+    if (current == null && next == null) {
+      return false;
+    }
+    if (current == null || next == null) {
+      return true;
+    }
+    return current.compareTo(next) != 0;
+  }
+
+  private static BigDecimal zeroIfNull(BigDecimal value) {
+    return value != null ? value : ZERO;
+  }
+}
@@ -1,5 +1,7 @@
 package com.arbitrage.service;
 
+import com.arbitrage.config.BalanceLockProperties;
+import com.arbitrage.config.RoutingProperties;
 import com.arbitrage.dal.OrderService;
 import com.arbitrage.dto.OrderInstructionDto;
 import com.arbitrage.entities.Balance;
@@ -9,25 +11,60 @@ import com.arbitrage.entities.Exchange;
 import com.arbitrage.entities.ExchangeAccount;
 import com.arbitrage.entities.Order;
 import com.arbitrage.entities.Pair;
+import com.arbitrage.entities.PairExchange;
 import com.arbitrage.enums.OrderSide;
 import com.arbitrage.enums.OrderStatus;
+import com.arbitrage.enums.PairExchangeStatus;
 import com.arbitrage.enums.TimeInForce;
+import com.arbitrage.exception.RiskLimitExceededException;
 import com.arbitrage.model.OrderAck;
+import com.arbitrage.model.OrderBook;
 import com.arbitrage.model.OrderRequest;
 import com.arbitrage.respository.BalanceLockRepository;
 import com.arbitrage.respository.BalanceRepository;
+import com.arbitrage.respository.PairExchangeRepository;
 import com.arbitrage.respository.PairRepository;
+import com.arbitrage.service.exchanges.ClientOrderIdGenerator;
+import com.arbitrage.service.ledger.BalanceAmounts;
+import com.arbitrage.service.ledger.BalanceLedger;
+import com.arbitrage.service.push.OrderSubmittedEvent;
+import com.arbitrage.service.resilience.ExchangeKillSwitch;
+import com.arbitrage.service.resilience.GuardedExchangeMarketClient;
+import com.arbitrage.service.risk.RiskCheck;
+import com.arbitrage.service.risk.RiskEngine;
+import com.arbitrage.service.routing.ChildOrderPlan;
+import com.arbitrage.service.routing.ExchangeFanout;
+import com.arbitrage.service.routing.RoutePlan;
+import com.arbitrage.service.routing.SmartOrderRouter;
+import com.arbitrage.service.routing.VenueLiquidity;
+import com.arbitrage.service.tif.TimeInForceEmulator;
 import java.math.BigDecimal;
 import java.math.MathContext;
+import java.time.Instant;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.util.StringUtils;
 
+@Slf4j
 @RequiredArgsConstructor
 @Service
 public class TraderService implements Trader {
@@ -36,6 +73,7 @@ public class TraderService implements Trader {
   private static final MathContext DEFAULT_MATH_CONTEXT = MathContext.DECIMAL64;
   private static final String DEFAULT_ORDER_TYPE = "LIMIT";
   private static final String BALANCE_LOCK_REASON = "ORDER_SUBMIT";
+  private static final int CLIENT_ORDER_ID_MAX_LENGTH = 32;
 
   private final ExchangeClientFactory exchangeClientFactory;
   private final ExchangeAccessService exchangeAccessService;
@@ -43,45 +81,316 @@ public class TraderService implements Trader {
   private final OrderService orderService;
   private final BalanceLockRepository balanceLockRepository;
   private final BalanceRepository balanceRepository;
+  private final PairExchangeRepository pairExchangeRepository;
+  private final SmartOrderRouter smartOrderRouter;
+  private final ExchangeFanout exchangeFanout;
+  private final RoutingProperties routingProperties;
+  private final TimeInForceEmulator timeInForceEmulator;
+  private final ApplicationEventPublisher eventPublisher;
+  private final BalanceLedger balanceLedger;
+  private final BalanceLockProperties balanceLockProperties;
+  private final RiskEngine riskEngine;
+  private final ClientOrderIdGenerator clientOrderIdGenerator;
+  private final ExchangeKillSwitch killSwitch;
+  private final PlatformTransactionManager transactionManager;
 
-  @Transactional
+  /**
+   * No transaction spans the exchange call: the balance is reserved and its lock written in one
+   * short transaction before the order is sent, and the order is recorded in another once it is
+   * acknowledged, so a submit holds at most one pooled connection and never while it waits.
+   */
   public void submitOrder(OrderInstructionDto instruction) {
     Objects.requireNonNull(instruction, "orderInstructionDto must not be null");
 
+    if (!StringUtils.hasText(instruction.getExchangeName())) {
+      submitRoutedOrder(instruction);
+      return;
+    }
+
     String exchangeName = requireText(instruction.getExchangeName(), "exchangeName");
     ExchangeMarketClient client = exchangeClientFactory.getClient(exchangeName);
 
     String pairSymbol = normalizePairSymbol(requireText(instruction.getPairName(), "pairName"));
-    Pair pair =
-        pairRepository
-            .findBySymbolIgnoreCase(pairSymbol)
-            .orElseThrow(() -> new IllegalArgumentException("Unknown pair: " + pairSymbol));
+    Pair pair = requirePair(pairSymbol);
 
     OrderSide side = Optional.ofNullable(instruction.getSide()).orElse(OrderSide.BUY);
     BigDecimal price = requirePositive(instruction.getPriceAsBigDecimal(), "price");
     BigDecimal baseQty = resolveBaseQuantity(instruction, price);
-    BigDecimal notional = price.multiply(baseQty, DEFAULT_MATH_CONTEXT);
+    BigDecimal notional = BalanceAmounts.scaled(price.multiply(baseQty));
     BigDecimal quoteQty = resolveQuoteAmount(instruction, notional);
 
     TimeInForce tif = instruction.getTimeInForceOrDefault(TimeInForce.IOC);
 
-    OrderRequest request =
-        OrderRequest.builder()
-            .symbol(pairSymbol)
-            .side(side.name())
-            .qty(baseQty)
-            .price(price)
-            .tif(tif.name())
-            .build();
+    ExchangeAccount account = exchangeAccessService.requireDefaultAccount(exchangeName);
+    Currency lockCurrency = lockCurrency(pair, side);
+    BigDecimal lockAmount = requirePositive(lockAmount(side, baseQty, quoteQty), "lockAmount");
+    RiskCheck risk = riskCheck(account, pair, side, baseQty, price);
+    riskEngine.reserve(risk);
+    BalanceLock lock = reserveBalance(account, lockCurrency, lockAmount);
+    if (lock == null) {
+      riskEngine.release(risk);
+      throw new IllegalStateException(
+          "Insufficient "
+              + lockCurrency.getSymbol()
+              + " balance on "
+              + exchangeName
+              + " to lock "
+              + lockAmount.toPlainString());
+    }
+
+    OrderAck ack;
+    try {
+      ack = client.submitOrder(orderRequest(pairSymbol, side, baseQty, price, tif));
+    } catch (RuntimeException ex) {
+      releaseBalance(lock);
+      riskEngine.release(risk);
+      throw ex;
+    }
+
+    inTransaction(
+        () -> recordSentOrder(null, exchangeName, pair, side, tif, price, baseQty, lock, ack));
+  }
+
+  /**
+   * Routing mode: the instruction names only pair, side and size. Depth is fetched from every
+   * exchange in parallel, the router splits the size across venues by fee-adjusted price within
+   * each venue's available balance, and the children are submitted in parallel and stored under one
+   * parent order that carries no exchange of its own. The parent is written together with the
+   * children once the acks are in, so a route that places nothing leaves no order behind. A child
+   * still unanswered at {@code routing.submit-timeout} may be live, so it is recorded with its
+   * client order id and keeps its lock until status polling finds or closes it.
+   */
+  private void submitRoutedOrder(OrderInstructionDto instruction) {
+    String pairSymbol = normalizePairSymbol(requireText(instruction.getPairName(), "pairName"));
+    Pair pair = requirePair(pairSymbol);
+
+    OrderSide side = Optional.ofNullable(instruction.getSide()).orElse(OrderSide.BUY);
+    BigDecimal limitPrice = instruction.getPriceAsBigDecimal();
+    BigDecimal baseQty =
+        limitPrice.signum() > 0
+            ? resolveBaseQuantity(instruction, limitPrice)
+            : requirePositive(instruction.getBaseAmountAsBigDecimal(), "baseAmount");
+    TimeInForce tif = instruction.getTimeInForceOrDefault(TimeInForce.IOC);
+
+    List<VenueLiquidity> venues = collectVenues(pair, pairSymbol, side);
+    RoutePlan plan = smartOrderRouter.route(side, baseQty, limitPrice, venues);
+    if (plan.routingNanos() > routingProperties.getSlowRouteThreshold().toNanos()) {
+      log.warn(
+          "Routing {} {} across {} venues took {} us",
+          side,
+          pairSymbol,
+          venues.size(),
+          TimeUnit.NANOSECONDS.toMicros(plan.routingNanos()));
+    }
+    if (plan.isEmpty()) {
+      throw new IllegalStateException("No routable liquidity for " + side + " " + pairSymbol);
+    }
+
+    // reserve every child before anything is sent; a venue whose balance moved since the
+    // book was read is dropped rather than over-committed
+    Currency lockCurrency = lockCurrency(pair, side);
+    Map<String, BalanceLock> locks = new HashMap<>();
+    Map<String, RiskCheck> riskChecks = new HashMap<>();
+    Map<String, OrderRequest> requests = new HashMap<>();
+    Map<String, CompletableFuture<OrderAck>> pendingAcks = new HashMap<>();
+    Map<String, Callable<OrderAck>> submissions = new LinkedHashMap<>();
+    for (ChildOrderPlan child : plan.children()) {
+      String name = child.exchangeName();
+      BigDecimal notional = BalanceAmounts.scaled(child.limitPrice().multiply(child.qty()));
+      BigDecimal lockAmount = lockAmount(side, child.qty(), notional);
+      ExchangeAccount account = exchangeAccessService.requireDefaultAccount(name);
+      RiskCheck risk = riskCheck(account, pair, side, child.qty(), child.limitPrice());
+      try {
+        riskEngine.reserve(risk);
+      } catch (RiskLimitExceededException ex) {
+        log.warn("Skipping child order of {} on {}: {}", pairSymbol, name, ex.getMessage());
+        continue;
+      }
+      BalanceLock lock = reserveBalance(account, lockCurrency, lockAmount);
+      if (lock == null) {
+        riskEngine.release(risk);
+        log.warn("Skipping child order of {} on {}: insufficient balance", pairSymbol, name);
+        continue;
+      }
+      locks.put(name, lock);
+      riskChecks.put(name, risk);
+      ExchangeMarketClient client = exchangeClientFactory.getClient(name);
+      OrderRequest request = orderRequest(pairSymbol, side, child.qty(), child.limitPrice(), tif);
+      request.setClientOrderId(
+          clientOrderIdGenerator.next("CLI-" + pairSymbol, CLIENT_ORDER_ID_MAX_LENGTH));
+      CompletableFuture<OrderAck> pendingAck = new CompletableFuture<>();
+      requests.put(name, request);
+      pendingAcks.put(name, pendingAck);
+      submissions.put(name, () -> submitTracked(client, request, pendingAck));
+    }
+    Map<String, OrderAck> acks =
+        exchangeFanout.callAll(submissions, routingProperties.getSubmitTimeout());
+
+    // undo the rejected children first, so failing the route below rolls nothing of theirs back
+    List<ChildOrderPlan> accepted = new ArrayList<>();
+    for (ChildOrderPlan child : plan.children()) {
+      String name = child.exchangeName();
+      BalanceLock lock = locks.get(name);
+      if (lock == null) {
+        continue;
+      }
+      if (acks.get(name) == null && pendingAcks.get(name).isCompletedExceptionally()) {
+        log.warn("Child order of {} on {} was rejected", pairSymbol, name);
+        releaseBalance(lock);
+        riskEngine.release(riskChecks.get(name));
+        continue;
+      }
+      accepted.add(child);
+    }
+    if (accepted.isEmpty()) {
+      throw new IllegalStateException("No child order of " + pairSymbol + " was accepted");
+    }
 
-    OrderAck ack = client.submitOrder(request);
+    runInTransaction(
+        () -> {
+          Order parent =
+              orderService.save(
+                  Order.builder()
+                      .pair(pair)
+                      .side(side.name())
+                      .type(DEFAULT_ORDER_TYPE)
+                      .tif(tif.name())
+                      .price(limitPrice.signum() > 0 ? limitPrice : null)
+                      .qty(baseQty)
+                      .qtyExec(BigDecimal.ZERO)
+                      .notional(plan.expectedNotional())
+                      .status(OrderStatus.SENT)
+                      .filledQty(BigDecimal.ZERO)
+                      .avgPrice(BigDecimal.ZERO)
+                      .sentAt(new Date())
+                      .build());
+          for (ChildOrderPlan child : accepted) {
+            String name = child.exchangeName();
+            BalanceLock lock = locks.get(name);
+            OrderAck ack = acks.get(name);
+            if (ack != null) {
+              recordSentOrder(
+                  parent, name, pair, side, tif, child.limitPrice(), child.qty(), lock, ack);
+              continue;
+            }
+            String clientOrderId = requests.get(name).getClientOrderId();
+            log.warn(
+                "Child order of {} on {} was not acknowledged in time, tracking it as {}",
+                parent.getId(),
+                name,
+                clientOrderId);
+            Order order =
+                recordSentOrder(
+                    parent,
+                    name,
+                    pair,
+                    side,
+                    tif,
+                    child.limitPrice(),
+                    child.qty(),
+                    lock,
+                    new OrderAck(clientOrderId, null, null));
+            Long orderId = order.getId();
+            CompletableFuture<OrderAck> pendingAck = pendingAcks.get(name);
+            afterCommit(
+                () ->
+                    pendingAck.thenAccept(
+                        late -> {
+                          if (late != null) {
+                            orderService.recordLateAck(orderId, late.getExchangeOrderId());
+                          }
+                        }));
+          }
+        });
+  }
+
+  private List<VenueLiquidity> collectVenues(Pair pair, String pairSymbol, OrderSide side) {
+    Map<String, PairExchange> listings = new HashMap<>();
+    for (PairExchange listing : pairExchangeRepository.findByPair(pair)) {
+      if (listing.getExchange() != null) {
+        listings.put(listing.getExchange().getName().toUpperCase(LOCALE), listing);
+      }
+    }
 
+    int depth = routingProperties.getDepth();
+    Map<String, Callable<OrderBook>> fetches = new LinkedHashMap<>();
+    for (ExchangeMarketClient client : exchangeClientFactory.getClients()) {
+      String name = client.getExchangeName();
+      PairExchange listing = listings.get(name.toUpperCase(LOCALE));
+      if (listing != null && listing.getStatus() != PairExchangeStatus.ACTIVE) {
+        continue;
+      }
+      if (!acceptsOrders(client)) {
+        log.debug("Skipping {} for routing: killed or circuit open", name);
+        continue;
+      }
+      fetches.put(name, () -> client.getOrderBook(pairSymbol, depth));
+    }
+    Map<String, OrderBook> books =
+        exchangeFanout.callAll(fetches, routingProperties.getBookTimeout());
+
+    Currency spendCurrency =
+        side == OrderSide.BUY ? pair.getQuoteCurrency() : pair.getBaseCurrency();
+    List<VenueLiquidity> venues = new ArrayList<>(books.size());
+    for (Map.Entry<String, OrderBook> entry : books.entrySet()) {
+      String name = entry.getKey();
+      OrderBook book = entry.getValue();
+      ExchangeAccount account;
+      try {
+        account = exchangeAccessService.requireDefaultAccount(name);
+      } catch (IllegalStateException ex) {
+        log.debug("Skipping {} for routing: {}", name, ex.getMessage());
+        continue;
+      }
+      BigDecimal available =
+          balanceLedger.isEnabled()
+              ? balanceLedger.get(account.getId(), spendCurrency.getId()).available()
+              : balanceRepository
+                  .findByExchangeAccountAndCurrency(account, spendCurrency)
+                  .map(Balance::getAvailable)
+                  .orElse(BigDecimal.ZERO);
+      PairExchange listing = listings.get(name.toUpperCase(LOCALE));
+      venues.add(
+          new VenueLiquidity(
+              name,
+              side == OrderSide.BUY ? book.getAsks() : book.getBids(),
+              listing != null ? listing.getTakerFeeBps() : null,
+              defaultZero(available),
+              listing != null ? listing.getStepSize() : null,
+              listing != null ? listing.getMinNotional() : null,
+              listing != null ? listing.getMaxOrderSize() : null));
+    }
+    return venues;
+  }
+
+  /**
+   * A venue behind its kill switch or an open breaker would reject its child, so it is left out of
+   * the plan instead of taking size the other venues could have filled.
+   */
+  private boolean acceptsOrders(ExchangeMarketClient client) {
+    if (killSwitch.isKilled(client.getExchangeName())) {
+      return false;
+    }
+    return !(client instanceof GuardedExchangeMarketClient)
+        || !((GuardedExchangeMarketClient) client).getCircuitBreaker().isRejecting();
+  }
+
+  private Order recordSentOrder(
+      Order parent,
+      String exchangeName,
+      Pair pair,
+      OrderSide side,
+      TimeInForce tif,
+      BigDecimal price,
+      BigDecimal baseQty,
+      BalanceLock lock,
+      OrderAck ack) {
     Exchange exchange = exchangeAccessService.requireExchange(exchangeName);
-    ExchangeAccount account =
-        exchangeAccessService.requireAccount(exchangeName, defaultAccountLabel(exchangeName));
+    ExchangeAccount account = exchangeAccessService.requireDefaultAccount(exchangeName);
 
     Order order =
         Order.builder()
+            .parentOrder(parent)
             .exchange(exchange)
             .exchangeAccount(account)
             .pair(pair)
@@ -93,68 +402,152 @@ public class TraderService implements Trader {
             .price(price)
             .qty(baseQty)
             .qtyExec(BigDecimal.ZERO)
-            .notional(notional)
+            .notional(BalanceAmounts.scaled(price.multiply(baseQty)))
             .status(OrderStatus.SENT)
             .filledQty(BigDecimal.ZERO)
             .avgPrice(BigDecimal.ZERO)
             .sentAt(new Date())
             .build();
     order = orderService.save(order);
+    eventPublisher.publishEvent(new OrderSubmittedEvent(order.getId()));
 
-    applyBalanceLock(order, account, pair, side, baseQty, quoteQty);
-  }
+    lock.setSignalId(String.valueOf(order.getId()));
+    balanceLockRepository.save(lock);
 
-  private void applyBalanceLock(
-      Order order,
-      ExchangeAccount account,
-      Pair pair,
-      OrderSide side,
-      BigDecimal baseQty,
-      BigDecimal quoteQty) {
+    String trackingId =
+        StringUtils.hasText(order.getExchangeOrderId())
+            ? order.getExchangeOrderId()
+            : order.getClientOrderId();
+    timeInForceEmulator.track(order.getId(), exchangeName, trackingId, tif);
+    return order;
+  }
 
-    BigDecimal lockAmount;
-    Currency currency;
+  /** Completes {@code ack} however the call ends, so a caller that gave up can follow up. */
+  private static OrderAck submitTracked(
+      ExchangeMarketClient client, OrderRequest request, CompletableFuture<OrderAck> ack) {
+    try {
+      OrderAck result = client.submitOrder(request);
+      ack.complete(result);
+      return result;
+    } catch (RuntimeException ex) {
+      ack.completeExceptionally(ex);
+      throw ex;
+    }
+  }
 
-    // ToDo: send orderRequest to exchange from orderInstructionDto object
-    if (side == OrderSide.BUY) {
-      currency = pair.getQuoteCurrency();
-      lockAmount = quoteQty;
+  private static void afterCommit(Runnable action) {
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(
+          new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+              action.run();
+            }
+          });
     } else {
-      currency = pair.getBaseCurrency();
-      lockAmount = baseQty;
+      action.run();
     }
+  }
 
-    // ToDo: save order object in database
-    lockAmount = requirePositive(lockAmount, "lockAmount");
+  private OrderRequest orderRequest(
+      String pairSymbol, OrderSide side, BigDecimal qty, BigDecimal price, TimeInForce tif) {
+    return OrderRequest.builder()
+        .symbol(pairSymbol)
+        .side(side.name())
+        .qty(qty)
+        .price(price)
+        .tif(tif.name())
+        .build();
+  }
 
-    BalanceLock lock =
-        BalanceLock.builder()
-            .exchangeAccount(account)
-            .currency(currency)
-            .amount(lockAmount)
-            .reason(BALANCE_LOCK_REASON)
-            .signalId(order != null && order.getId() != null ? String.valueOf(order.getId()) : null)
-            .build();
-    balanceLockRepository.save(lock);
+  private Pair requirePair(String pairSymbol) {
+    return pairRepository
+        .findBySymbolIgnoreCase(pairSymbol)
+        .orElseThrow(() -> new IllegalArgumentException("Unknown pair: " + pairSymbol));
+  }
 
-    Balance balance =
-        balanceRepository
-            .findByExchangeAccountAndCurrency(account, currency)
-            .orElseGet(
-                () ->
-                    Balance.builder()
-                        .exchangeAccount(account)
-                        .currency(currency)
-                        .available(BigDecimal.ZERO)
-                        .reserved(BigDecimal.ZERO)
-                        .build());
+  /**
+   * Moves {@code amount} from available to reserved if that much is available, in the ledger or
+   * with one conditional UPDATE, and writes its lock in the same short transaction, so neither
+   * outlives the other. The lock names its order once the order is recorded; one whose order never
+   * is expires and is released by the lock sweeper. Returns null when the balance is too small.
+   */
+  private BalanceLock reserveBalance(
+      ExchangeAccount account, Currency currency, BigDecimal amount) {
+    if (!balanceLedger.isEnabled()) {
+      return inTransaction(
+          () ->
+              balanceRepository.reserve(account.getId(), currency.getId(), amount)
+                  ? balanceLockRepository.save(newLock(account, currency, amount))
+                  : null);
+    }
+    if (!balanceLedger.tryReserve(account.getId(), currency.getId(), amount)) {
+      return null;
+    }
+    try {
+      return inTransaction(() -> balanceLockRepository.save(newLock(account, currency, amount)));
+    } catch (RuntimeException ex) {
+      balanceLedger.release(account.getId(), currency.getId(), amount);
+      throw ex;
+    }
+  }
+
+  /** Undoes {@link #reserveBalance} for an order that was never placed. */
+  private void releaseBalance(BalanceLock lock) {
+    Long accountId = lock.getExchangeAccount().getId();
+    Long currencyId = lock.getCurrency().getId();
+    BigDecimal amount = lock.getAmount();
+    runInTransaction(
+        () -> {
+          if (!balanceLedger.isEnabled()) {
+            balanceRepository.release(accountId, currencyId, amount);
+          }
+          balanceLockRepository.delete(lock);
+        });
+    if (balanceLedger.isEnabled()) {
+      balanceLedger.release(accountId, currencyId, amount);
+    }
+  }
+
+  private BalanceLock newLock(ExchangeAccount account, Currency currency, BigDecimal amount) {
+    return BalanceLock.builder()
+        .exchangeAccount(account)
+        .currency(currency)
+        .amount(amount)
+        .reason(BALANCE_LOCK_REASON)
+        .expiresAt(Date.from(Instant.now().plus(balanceLockProperties.getTtl())))
+        .build();
+  }
+
+  private <T> T inTransaction(Supplier<T> action) {
+    return new TransactionTemplate(transactionManager).execute(status -> action.get());
+  }
 
-    BigDecimal available =
-        defaultZero(balance.getAvailable()).subtract(lockAmount, DEFAULT_MATH_CONTEXT);
-    BigDecimal reserved = defaultZero(balance.getReserved()).add(lockAmount, DEFAULT_MATH_CONTEXT);
-    balance.setAvailable(available);
-    balance.setReserved(reserved);
-    balanceRepository.save(balance);
+  private void runInTransaction(Runnable action) {
+    new TransactionTemplate(transactionManager).executeWithoutResult(status -> action.run());
+  }
+
+  private static RiskCheck riskCheck(
+      ExchangeAccount account, Pair pair, OrderSide side, BigDecimal qty, BigDecimal price) {
+    Currency base = pair.getBaseCurrency();
+    Currency quote = pair.getQuoteCurrency();
+    return new RiskCheck(
+        account.getExchange().getId(),
+        base.getId(),
+        base.getSymbol(),
+        quote.getId(),
+        quote.getSymbol(),
+        side == OrderSide.BUY,
+        qty,
+        price);
+  }
+
+  private static Currency lockCurrency(Pair pair, OrderSide side) {
+    return side == OrderSide.BUY ? pair.getQuoteCurrency() : pair.getBaseCurrency();
+  }
+
+  private static BigDecimal lockAmount(OrderSide side, BigDecimal baseQty, BigDecimal quoteQty) {
+    return BalanceAmounts.scaled(side == OrderSide.BUY ? quoteQty : baseQty);
   }
 
   private BigDecimal resolveBaseQuantity(OrderInstructionDto instruction, BigDecimal price) {
@@ -197,13 +590,4 @@ public class TraderService implements Trader {
   private BigDecimal defaultZero(BigDecimal value) {
     return value != null ? value : BigDecimal.ZERO;
   }
-
-  // ToDo: update BalanceLock table and Balance table
-  private String defaultAccountLabel(String exchangeName) {
-    String normalized = exchangeName.trim().toLowerCase(LOCALE);
-    if (normalized.isEmpty()) {
-      throw new IllegalArgumentException("exchangeName must not be blank");
-    }
-    return Character.toUpperCase(normalized.charAt(0)) + normalized.substring(1);
-  }
 }
@@ -0,0 +1,45 @@
+package com.arbitrage.service;
+
+import com.arbitrage.config.WalletBalanceProperties;
+import com.arbitrage.service.routing.ExchangeFanout;
+import jakarta.annotation.PreDestroy;
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import org.springframework.stereotype.Component;
+
+/**
+ * Runs the single-currency wallet fetches of clients without a bulk endpoint in parallel, on one
+ * pool shared by all of them and sized by {@code app.wallet-balances}.
+ */
+@Component
+public class WalletBalanceFetches {
+
+  private final WalletBalanceProperties properties;
+  private final ExchangeFanout fanout;
+
+  public WalletBalanceFetches(WalletBalanceProperties properties) {
+    this.properties = properties;
+    this.fanout = new ExchangeFanout("wallet-balances", properties.getThreads());
+  }
+
+  /**
+   * {@link ExchangeMarketClient#getWalletBalance} of every currency under one deadline. Currencies
+   * whose fetch fails or misses the deadline are left out.
+   */
+  public Map<String, BigDecimal> fetchEach(
+      ExchangeMarketClient client, Collection<String> currencies) {
+    Map<String, Callable<BigDecimal>> fetches = new LinkedHashMap<>();
+    for (String currency : currencies) {
+      fetches.put(currency, () -> client.getWalletBalance(currency));
+    }
+    return fanout.callAll(fetches, properties.getTimeout());
+  }
+
+  @PreDestroy
+  void shutdown() {
+    fanout.shutdown();
+  }
+}
@@ -0,0 +1,25 @@
+package com.arbitrage.service.allocation;
+
+import java.math.BigDecimal;
+import java.util.List;
+import lombok.Value;
+import lombok.experimental.Accessors;
+
+/** What an opportunity was granted: its legs scaled by {@code fraction}, or nothing at zero. */
+@Value
+@Accessors(fluent = true)
+public class Allocation {
+
+  private final Opportunity opportunity;
+  private final BigDecimal fraction;
+  private final List<OpportunityLeg> legs;
+  private final BigDecimal expectedPnl;
+
+  public static Allocation rejected(Opportunity opportunity) {
+    return new Allocation(opportunity, BigDecimal.ZERO, List.of(), BigDecimal.ZERO);
+  }
+
+  public boolean isFunded() {
+    return fraction.signum() > 0;
+  }
+}
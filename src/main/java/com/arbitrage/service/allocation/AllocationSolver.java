@@ -0,0 +1,127 @@
+package com.arbitrage.service.allocation;
+
+import com.arbitrage.config.AllocationProperties;
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Shares balances among competing opportunities. Opportunities are funded in order of expected PnL
+ * per unit of capital, each at the largest fraction of its size that every balance it spends can
+ * still cover. This is the fractional knapsack order: optimal while one balance binds, a close
+ * approximation when several do, and linear after the sort.
+ */
+@Component
+@RequiredArgsConstructor
+public class AllocationSolver {
+
+  // rounded down so a granted fraction never spends more than is left
+  private static final MathContext FRACTION_CONTEXT = new MathContext(16, RoundingMode.DOWN);
+  private static final MathContext MATH_CONTEXT = MathContext.DECIMAL64;
+
+  private final AllocationProperties properties;
+
+  /**
+   * Splits a batch into groups that spend no currency in common, so each group can be solved
+   * without looking at the others.
+   */
+  public List<List<Opportunity>> groups(List<Opportunity> opportunities) {
+    Map<String, String> parents = new HashMap<>();
+    for (Opportunity opportunity : opportunities) {
+      String first = null;
+      for (OpportunityLeg leg : opportunity.legs()) {
+        String currency = leg.spends().currency();
+        parents.putIfAbsent(currency, currency);
+        if (first == null) {
+          first = currency;
+        } else {
+          parents.put(root(parents, currency), root(parents, first));
+        }
+      }
+    }
+    Map<String, List<Opportunity>> groups = new LinkedHashMap<>();
+    for (Opportunity opportunity : opportunities) {
+      String group =
+          opportunity.legs().isEmpty()
+              ? ""
+              : root(parents, opportunity.legs().get(0).spends().currency());
+      groups.computeIfAbsent(group, k -> new ArrayList<>()).add(opportunity);
+    }
+    return new ArrayList<>(groups.values());
+  }
+
+  /** Allocates {@code available} among the opportunities, best first. */
+  public List<Allocation> solve(
+      List<Opportunity> opportunities, Map<VenueCurrency, BigDecimal> available) {
+    List<Opportunity> ranked = new ArrayList<>(opportunities);
+    ranked.sort(Comparator.comparing(AllocationSolver::pnlPerCapital).reversed());
+
+    Map<VenueCurrency, BigDecimal> remaining = new HashMap<>();
+    List<Allocation> allocations = new ArrayList<>(ranked.size());
+    for (Opportunity opportunity : ranked) {
+      if (pnlPerCapital(opportunity).signum() <= 0) {
+        allocations.add(Allocation.rejected(opportunity));
+        continue;
+      }
+      Map<VenueCurrency, BigDecimal> needs = new HashMap<>();
+      for (OpportunityLeg leg : opportunity.legs()) {
+        needs.merge(leg.spends(), leg.spendAmount(), BigDecimal::add);
+      }
+
+      BigDecimal fraction = BigDecimal.ONE;
+      for (Map.Entry<VenueCurrency, BigDecimal> need : needs.entrySet()) {
+        BigDecimal left =
+            remaining.computeIfAbsent(
+                need.getKey(), key -> available.getOrDefault(key, BigDecimal.ZERO));
+        if (need.getValue().signum() > 0) {
+          BigDecimal covered = left.max(BigDecimal.ZERO).divide(need.getValue(), FRACTION_CONTEXT);
+          fraction = fraction.min(covered);
+        }
+      }
+      if (fraction.compareTo(properties.getMinFraction()) < 0 || fraction.signum() <= 0) {
+        allocations.add(Allocation.rejected(opportunity));
+        continue;
+      }
+
+      BigDecimal granted = fraction;
+      needs.forEach(
+          (key, need) -> remaining.merge(key, need.multiply(granted).negate(), BigDecimal::add));
+      List<OpportunityLeg> legs = new ArrayList<>(opportunity.legs().size());
+      for (OpportunityLeg leg : opportunity.legs()) {
+        legs.add(leg.scaled(granted));
+      }
+      allocations.add(
+          new Allocation(
+              opportunity,
+              granted,
+              legs,
+              opportunity.expectedPnl().multiply(granted, MATH_CONTEXT)));
+    }
+    return allocations;
+  }
+
+  private static BigDecimal pnlPerCapital(Opportunity opportunity) {
+    BigDecimal capital = opportunity.capital();
+    if (opportunity.expectedPnl() == null || capital.signum() <= 0) {
+      return BigDecimal.ZERO;
+    }
+    return opportunity.expectedPnl().divide(capital, MATH_CONTEXT);
+  }
+
+  private static String root(Map<String, String> parents, String currency) {
+    String root = currency;
+    while (!root.equals(parents.get(root))) {
+      root = parents.get(root);
+    }
+    parents.put(currency, root);
+    return root;
+  }
+}
@@ -0,0 +1,208 @@
+package com.arbitrage.service.allocation;
+
+import com.arbitrage.config.AllocationProperties;
+import com.arbitrage.entities.Currency;
+import com.arbitrage.entities.ExchangeAccount;
+import com.arbitrage.respository.BalanceRepository;
+import com.arbitrage.respository.CurrencyRepository;
+import com.arbitrage.service.ExchangeAccessService;
+import com.arbitrage.service.ledger.BalanceLedger;
+import com.arbitrage.service.routing.ExchangeFanout;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import lombok.Value;
+import lombok.experimental.Accessors;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+/**
+ * Collects opportunities for one batching window and then sizes them together, so capital goes to
+ * the best of them rather than the first. Balances are read once per batch (from the ledger when it
+ * is enabled); groups of opportunities that spend no currency in common are solved in parallel.
+ * Orders of a granted allocation still reserve their balance when submitted.
+ */
+@Slf4j
+@Component
+public class CapitalAllocator {
+
+  private final AllocationSolver solver;
+  private final AllocationProperties properties;
+  private final ExchangeAccessService exchangeAccessService;
+  private final BalanceRepository balanceRepository;
+  private final CurrencyRepository currencyRepository;
+  private final BalanceLedger balanceLedger;
+  private final ExchangeFanout fanout;
+
+  private final Queue<Pending> pending = new ConcurrentLinkedQueue<>();
+  private ScheduledExecutorService batcher;
+
+  public CapitalAllocator(
+      AllocationSolver solver,
+      AllocationProperties properties,
+      ExchangeAccessService exchangeAccessService,
+      BalanceRepository balanceRepository,
+      CurrencyRepository currencyRepository,
+      BalanceLedger balanceLedger) {
+    this.solver = solver;
+    this.properties = properties;
+    this.exchangeAccessService = exchangeAccessService;
+    this.balanceRepository = balanceRepository;
+    this.currencyRepository = currencyRepository;
+    this.balanceLedger = balanceLedger;
+    this.fanout = new ExchangeFanout("capital-allocation", properties.getThreads());
+  }
+
+  @PostConstruct
+  public void start() {
+    if (!properties.isEnabled()) {
+      return;
+    }
+    batcher =
+        Executors.newSingleThreadScheduledExecutor(
+            runnable -> {
+              Thread thread = new Thread(runnable, "capital-allocator");
+              thread.setDaemon(true);
+              return thread;
+            });
+    long window = Math.max(1, properties.getWindow().toMillis());
+    batcher.scheduleWithFixedDelay(this::allocatePending, window, window, TimeUnit.MILLISECONDS);
+  }
+
+  /** Queues an opportunity for the current window; completes once its batch is allocated. */
+  public CompletableFuture<Allocation> submit(Opportunity opportunity) {
+    if (batcher == null) {
+      throw new IllegalStateException("Capital allocation is disabled (app.allocation.enabled)");
+    }
+    CompletableFuture<Allocation> result = new CompletableFuture<>();
+    pending.add(new Pending(opportunity, result));
+    return result;
+  }
+
+  /** Sizes one batch against the current balances. */
+  public List<Allocation> allocate(List<Opportunity> opportunities) {
+    Map<VenueCurrency, BigDecimal> available = availableBalances(opportunities);
+    List<List<Opportunity>> groups = solver.groups(opportunities);
+    if (groups.size() == 1) {
+      return solver.solve(groups.get(0), available);
+    }
+    Map<String, Callable<List<Allocation>>> solves = new LinkedHashMap<>();
+    for (int i = 0; i < groups.size(); i++) {
+      List<Opportunity> group = groups.get(i);
+      solves.put("allocation group " + i, () -> solver.solve(group, available));
+    }
+    List<Allocation> allocations = new ArrayList<>(opportunities.size());
+    fanout.callAll(solves, properties.getTimeout()).values().forEach(allocations::addAll);
+    return allocations;
+  }
+
+  private void allocatePending() {
+    List<Pending> batch = new ArrayList<>();
+    for (Pending next = pending.poll(); next != null; next = pending.poll()) {
+      batch.add(next);
+    }
+    if (batch.isEmpty()) {
+      return;
+    }
+    try {
+      Map<Opportunity, Allocation> byOpportunity = new IdentityHashMap<>();
+      for (Allocation allocation : allocate(batch.stream().map(Pending::opportunity).toList())) {
+        byOpportunity.put(allocation.opportunity(), allocation);
+      }
+      for (Pending entry : batch) {
+        Allocation allocation = byOpportunity.get(entry.opportunity());
+        entry
+            .result()
+            .complete(allocation != null ? allocation : Allocation.rejected(entry.opportunity()));
+      }
+    } catch (Exception ex) {
+      log.warn("Capital allocation of {} opportunities failed: {}", batch.size(), ex.getMessage());
+      log.debug("Capital allocation error", ex);
+      batch.forEach(entry -> entry.result().completeExceptionally(ex));
+    }
+  }
+
+  private Map<VenueCurrency, BigDecimal> availableBalances(List<Opportunity> opportunities) {
+    Set<String> exchangeNames = new LinkedHashSet<>();
+    for (Opportunity opportunity : opportunities) {
+      opportunity.legs().forEach(leg -> exchangeNames.add(leg.exchangeName()));
+    }
+
+    Map<String, List<Object[]>> rowsByExchange = new LinkedHashMap<>();
+    Map<String, Long> accountIds = new HashMap<>();
+    Set<Long> currencyIds = new LinkedHashSet<>();
+    for (String exchangeName : exchangeNames) {
+      ExchangeAccount account;
+      try {
+        account = exchangeAccessService.requireDefaultAccount(exchangeName);
+      } catch (IllegalStateException ex) {
+        log.debug("No balances on {} to allocate: {}", exchangeName, ex.getMessage());
+        continue;
+      }
+      List<Object[]> rows = balanceRepository.findAmountsByAccountId(account.getId());
+      rowsByExchange.put(exchangeName, rows);
+      accountIds.put(exchangeName, account.getId());
+      rows.forEach(row -> currencyIds.add((Long) row[0]));
+    }
+    Map<Long, String> symbols = new HashMap<>();
+    for (Currency currency : currencyRepository.findAllById(currencyIds)) {
+      symbols.put(currency.getId(), currency.getSymbol().toUpperCase(Locale.ROOT));
+    }
+
+    Map<VenueCurrency, BigDecimal> available = new HashMap<>();
+    rowsByExchange.forEach(
+        (exchangeName, rows) -> {
+          Long accountId = accountIds.get(exchangeName);
+          for (Object[] row : rows) {
+            Long currencyId = (Long) row[0];
+            String symbol = symbols.get(currencyId);
+            if (symbol == null) {
+              continue;
+            }
+            BigDecimal amount =
+                balanceLedger.isEnabled()
+                    ? balanceLedger.get(accountId, currencyId).available()
+                    : (BigDecimal) row[1];
+            available.put(
+                new VenueCurrency(exchangeName.toUpperCase(Locale.ROOT), symbol),
+                amount != null ? amount : BigDecimal.ZERO);
+          }
+        });
+    return available;
+  }
+
+  @PreDestroy
+  void stop() {
+    if (batcher != null) {
+      batcher.shutdownNow();
+    }
+    fanout.shutdown();
+    for (Pending entry = pending.poll(); entry != null; entry = pending.poll()) {
+      entry.result().complete(Allocation.rejected(entry.opportunity()));
+    }
+  }
+
+  @Value
+  @Accessors(fluent = true)
+  private static class Pending {
+
+    private final Opportunity opportunity;
+    private final CompletableFuture<Allocation> result;
+  }
+}
@@ -0,0 +1,27 @@
+package com.arbitrage.service.allocation;
+
+import java.math.BigDecimal;
+import java.util.List;
+import lombok.Value;
+import lombok.experimental.Accessors;
+
+/**
+ * A set of orders expected to earn {@code expectedPnl}, in the quote currency of its legs. The
+ * capital it ties up is the notional of all legs; it may be executed at a fraction of its size.
+ */
+@Value
+@Accessors(fluent = true)
+public class Opportunity {
+
+  private final String id;
+  private final BigDecimal expectedPnl;
+  private final List<OpportunityLeg> legs;
+
+  public BigDecimal capital() {
+    BigDecimal capital = BigDecimal.ZERO;
+    for (OpportunityLeg leg : legs) {
+      capital = capital.add(leg.notional());
+    }
+    return capital;
+  }
+}
@@ -0,0 +1,44 @@
+package com.arbitrage.service.allocation;
+
+import com.arbitrage.enums.OrderSide;
+import com.arbitrage.service.ledger.BalanceAmounts;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Locale;
+import lombok.Value;
+import lombok.experimental.Accessors;
+
+/** One order of an opportunity. A buy spends quote on its exchange, a sell spends base. */
+@Value
+@Accessors(fluent = true)
+public class OpportunityLeg {
+
+  private final String exchangeName;
+  private final String baseCurrency;
+  private final String quoteCurrency;
+  private final OrderSide side;
+  private final BigDecimal qty;
+  private final BigDecimal price;
+
+  public VenueCurrency spends() {
+    String currency = side == OrderSide.BUY ? quoteCurrency : baseCurrency;
+    return new VenueCurrency(
+        exchangeName.toUpperCase(Locale.ROOT), currency.toUpperCase(Locale.ROOT));
+  }
+
+  public BigDecimal spendAmount() {
+    return side == OrderSide.BUY ? notional() : qty;
+  }
+
+  public BigDecimal notional() {
+    return qty.multiply(price);
+  }
+
+  OpportunityLeg scaled(BigDecimal fraction) {
+    BigDecimal scaledQty = qty.multiply(fraction);
+    if (scaledQty.scale() > BalanceAmounts.SCALE) {
+      scaledQty = scaledQty.setScale(BalanceAmounts.SCALE, RoundingMode.DOWN);
+    }
+    return new OpportunityLeg(exchangeName, baseCurrency, quoteCurrency, side, scaledQty, price);
+  }
+}
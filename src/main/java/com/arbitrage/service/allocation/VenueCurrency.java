@@ -0,0 +1,13 @@
+package com.arbitrage.service.allocation;
+
+import lombok.Value;
+import lombok.experimental.Accessors;
+
+/** A balance the allocator hands out: one currency on one exchange, names upper-cased. */
+@Value
+@Accessors(fluent = true)
+public class VenueCurrency {
+
+  private final String exchangeName;
+  private final String currency;
+}
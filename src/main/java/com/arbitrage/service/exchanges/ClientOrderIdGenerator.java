@@ -0,0 +1,108 @@
+package com.arbitrage.service.exchanges;
+
+import java.lang.management.ManagementFactory;
+import java.net.InetAddress;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Generates monotonic, node-unique client order ids. Each id packs 41 bits of milliseconds since
+ * 2024-01-01, 10 bits of node id and 12 bits of sequence (4096 ids per millisecond per node) into a
+ * positive long that is rendered as fixed-width upper-case base36, so ids sort in issue order and
+ * only use characters every exchange accepts.
+ */
+@Slf4j
+@Component
+public class ClientOrderIdGenerator {
+
+  private static final long EPOCH_MILLIS = 1_704_067_200_000L;
+  private static final int NODE_BITS = 10;
+  private static final int SEQUENCE_BITS = 12;
+  private static final int TIMESTAMP_SHIFT = NODE_BITS + SEQUENCE_BITS;
+  private static final long MAX_NODE_ID = (1L << NODE_BITS) - 1;
+
+  private static final char[] DIGITS = "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZ".toCharArray();
+  private static final int ENCODED_LENGTH = 13; // ceil(63 / log2(36))
+  private static final char SEPARATOR = '-';
+
+  private final long nodeBits;
+
+  // (millis since epoch << SEQUENCE_BITS) | sequence of the last issued id
+  private final AtomicLong lastState = new AtomicLong();
+
+  public ClientOrderIdGenerator(@Value("${app.order-id.node-id:-1}") long nodeId) {
+    long resolved = nodeId >= 0 ? nodeId : deriveNodeId();
+    if (resolved > MAX_NODE_ID) {
+      throw new IllegalArgumentException("app.order-id.node-id must be <= " + MAX_NODE_ID);
+    }
+    this.nodeBits = resolved << SEQUENCE_BITS;
+    if (nodeId < 0) {
+      log.warn("app.order-id.node-id not set, derived node id {} from host and pid", resolved);
+    }
+  }
+
+  /**
+   * Returns the next raw id. When the 12-bit sequence overflows inside one millisecond, or the wall
+   * clock steps backwards, the generator keeps counting from the last issued value so ids stay
+   * strictly increasing.
+   */
+  public long nextId() {
+    while (true) {
+      long now = System.currentTimeMillis() - EPOCH_MILLIS;
+      long prev = lastState.get();
+      long next = now > (prev >>> SEQUENCE_BITS) ? now << SEQUENCE_BITS : prev + 1;
+      if (lastState.compareAndSet(prev, next)) {
+        long millis = next >>> SEQUENCE_BITS;
+        long sequence = next & ((1L << SEQUENCE_BITS) - 1);
+        return (millis << TIMESTAMP_SHIFT) | nodeBits | sequence;
+      }
+    }
+  }
+
+  /**
+   * Returns {@code PREFIX-ID} where the prefix is upper-cased, stripped to {@code [A-Z0-9-]} and
+   * truncated so that the whole id fits in {@code maxLength} characters.
+   */
+  public String next(String prefix, int maxLength) {
+    if (maxLength < ENCODED_LENGTH) {
+      throw new IllegalArgumentException("maxLength must be >= " + ENCODED_LENGTH);
+    }
+    long id = nextId();
+
+    int prefixBudget = maxLength - ENCODED_LENGTH - 1;
+    int prefixLength = 0;
+    char[] buf = new char[maxLength];
+    if (prefix != null && prefixBudget > 0) {
+      String upper = prefix.toUpperCase(Locale.ROOT);
+      for (int i = 0; i < upper.length() && prefixLength < prefixBudget; i++) {
+        char c = upper.charAt(i);
+        if ((c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == SEPARATOR) {
+          buf[prefixLength++] = c;
+        }
+      }
+      if (prefixLength > 0) {
+        buf[prefixLength++] = SEPARATOR;
+      }
+    }
+
+    for (int i = prefixLength + ENCODED_LENGTH - 1; i >= prefixLength; i--) {
+      buf[i] = DIGITS[(int) (id % 36)];
+      id /= 36;
+    }
+    return new String(buf, 0, prefixLength + ENCODED_LENGTH);
+  }
+
+  private static long deriveNodeId() {
+    String host;
+    try {
+      host = InetAddress.getLocalHost().getHostName();
+    } catch (Exception ex) {
+      host = "unknown";
+    }
+    String runtime = ManagementFactory.getRuntimeMXBean().getName();
+    return ((host + "/" + runtime).hashCode() & 0x7fffffffL) % (MAX_NODE_ID + 1);
+  }
+}
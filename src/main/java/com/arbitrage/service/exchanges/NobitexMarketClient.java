@@ -5,19 +5,28 @@ import com.arbitrage.entities.CurrencyExchange;
 import com.arbitrage.entities.Exchange;
 import com.arbitrage.entities.ExchangeAccount;
 import com.arbitrage.enums.OrderStatus;
+import com.arbitrage.enums.RequestClass;
 import com.arbitrage.exception.OrderNotFoundException;
+import com.arbitrage.model.ExchangeOrderSnapshot;
 import com.arbitrage.model.ExchangeOrderStatus;
+import com.arbitrage.model.ExchangeTrade;
 import com.arbitrage.model.OrderAck;
+import com.arbitrage.model.OrderBook;
+import com.arbitrage.model.OrderBookLevel;
 import com.arbitrage.model.OrderRequest;
 import com.arbitrage.model.Quote;
 import com.arbitrage.respository.CurrencyExchangeRepository;
 import com.arbitrage.service.ExchangeAccessService;
 import com.arbitrage.service.ExchangeMarketClient;
+import com.arbitrage.service.ratelimit.ExchangeRateLimiter;
 import jakarta.annotation.PostConstruct;
 import java.math.BigDecimal;
 import java.math.MathContext;
 import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeParseException;
 import java.util.*;
+import java.util.regex.Pattern;
 import org.springframework.http.MediaType;
 import org.springframework.stereotype.Component;
 import org.springframework.util.LinkedMultiValueMap;
@@ -35,14 +44,27 @@ public class NobitexMarketClient implements ExchangeMarketClient {
   private static final String ACCOUNT_NAME = "Nobitex";
 
   private static final String PATH_WALLET_BALANCE = "/users/wallets/balance";
+  private static final String PATH_WALLETS_LIST = "/users/wallets/list";
   private static final String PATH_STATS = "/market/stats";
   private static final String PATH_ORDER_ADD = "/market/orders/add";
   private static final String PATH_ORDER_UPDATE_STATUS = "/market/orders/update-status";
   private static final String PATH_ORDER_STATUS = "/market/orders/status";
+  private static final String PATH_ORDERBOOK = "/v3/orderbook/{symbol}";
+  private static final String PATH_ORDER_LIST = "/market/orders/list";
+  private static final String PATH_TRADES_LIST = "/market/trades/list";
+
+  private static final int RECENT_ORDERS_PAGE_SIZE = 100;
+  private static final int RECENT_ORDERS_MAX_PAGES = 3;
+  private static final int TRADES_MAX_PAGES = 5;
+
+  private static final int CLIENT_ORDER_ID_MAX_LENGTH = 32;
+  private static final Pattern DIGITS = Pattern.compile("\\d+");
 
   private final CurrencyExchangeRepository currencyExchangeRepo;
   private final ExchangeAccessService accessService;
   private final NobitexClients clientsFactory;
+  private final ClientOrderIdGenerator clientOrderIdGenerator;
+  private final ExchangeRateLimiter rateLimiter;
 
   private RestClient publicClient;
   private RestClient privateClient;
@@ -50,10 +72,14 @@ public class NobitexMarketClient implements ExchangeMarketClient {
   public NobitexMarketClient(
       CurrencyExchangeRepository currencyExchangeRepository,
       ExchangeAccessService exchangeAccessService,
-      NobitexClients clients) {
+      NobitexClients clients,
+      ClientOrderIdGenerator clientOrderIdGenerator,
+      ExchangeRateLimiter rateLimiter) {
     this.currencyExchangeRepo = currencyExchangeRepository;
     this.accessService = exchangeAccessService;
     this.clientsFactory = clients;
+    this.clientOrderIdGenerator = clientOrderIdGenerator;
+    this.rateLimiter = rateLimiter;
   }
 
   @PostConstruct
@@ -82,6 +108,7 @@ public class NobitexMarketClient implements ExchangeMarketClient {
             StringUtils.hasText(cx.getExchangeSymbol()) ? cx.getExchangeSymbol() : currency,
             "currency");
 
+    rateLimiter.acquire(EXCHANGE_NAME, RequestClass.STATUS);
     try {
       var form = new LinkedMultiValueMap<String, String>();
       form.add("currency", currencyParam);
@@ -100,6 +127,63 @@ public class NobitexMarketClient implements ExchangeMarketClient {
     }
   }
 
+  @Override
+  public boolean supportsBulkWalletBalances() {
+    return true;
+  }
+
+  /** All spot wallets come back from one {@code /users/wallets/list} call. */
+  @Override
+  public Map<String, BigDecimal> getWalletBalances(Collection<String> currencies) {
+    Map<String, String> symbolToCurrency = new HashMap<>();
+    for (String currency : currencies) {
+      CurrencyExchange cx =
+          currencyExchangeRepo.findByExchange_NameAndCurrency_Name(EXCHANGE_NAME, currency);
+      String symbol =
+          cx != null && StringUtils.hasText(cx.getExchangeSymbol())
+              ? cx.getExchangeSymbol()
+              : currency;
+      symbolToCurrency.put(symbol.toLowerCase(LOCALE), currency);
+    }
+
+    rateLimiter.acquire(EXCHANGE_NAME, RequestClass.STATUS);
+    @SuppressWarnings("unchecked")
+    Map<String, Object> response =
+        postForm(
+            privateClient,
+            PATH_WALLETS_LIST,
+            new LinkedMultiValueMap<>(),
+            Map.class,
+            MediaType.APPLICATION_JSON);
+    return walletBalances(response, symbolToCurrency);
+  }
+
+  /** Balances of the wallets in a {@code /users/wallets/list} response that map to a currency. */
+  static Map<String, BigDecimal> walletBalances(
+      Map<?, ?> response, Map<String, String> symbolToCurrency) {
+    Object wallets = response != null ? response.get("wallets") : null;
+    if (!(wallets instanceof List)) {
+      throw new IllegalStateException("Empty wallets response");
+    }
+
+    Map<String, BigDecimal> balances = new LinkedHashMap<>();
+    for (Object item : (List<?>) wallets) {
+      if (!(item instanceof Map)) {
+        continue;
+      }
+      Map<?, ?> wallet = (Map<?, ?>) item;
+      if (wallet.get("currency") == null || wallet.get("balance") == null) {
+        continue;
+      }
+      String currency =
+          symbolToCurrency.get(String.valueOf(wallet.get("currency")).toLowerCase(LOCALE));
+      if (currency != null) {
+        balances.put(currency, new BigDecimal(String.valueOf(wallet.get("balance"))));
+      }
+    }
+    return balances;
+  }
+
   @Override
   public List<Quote> getQuotes() {
     List<CurrencyExchange> entries = currencyExchangeRepo.findByExchange_Name(EXCHANGE_NAME);
@@ -125,6 +209,7 @@ public class NobitexMarketClient implements ExchangeMarketClient {
   }
 
   private BigDecimal fetchBestPrice(String base, String quote, String side) {
+    rateLimiter.acquire(EXCHANGE_NAME, RequestClass.MARKET_DATA);
     try {
       @SuppressWarnings("unchecked")
       Map<String, Object> resp =
@@ -170,6 +255,48 @@ public class NobitexMarketClient implements ExchangeMarketClient {
     }
   }
 
+  @Override
+  public OrderBook getOrderBook(String symbol, int depth) {
+    String[] parts = requireNonBlankLower(symbol, "symbol").split("[-_]");
+    if (parts.length != 2) {
+      throw new IllegalArgumentException("symbol must be like 'btc-usdt'");
+    }
+    String market = (parts[0] + parts[1]).toUpperCase(LOCALE);
+
+    rateLimiter.acquire(EXCHANGE_NAME, RequestClass.MARKET_DATA);
+    @SuppressWarnings("unchecked")
+    Map<String, Object> resp =
+        publicClient
+            .get()
+            .uri(b -> b.path(PATH_ORDERBOOK).build(market))
+            .retrieve()
+            .body(Map.class);
+    if (resp == null || !equalsIgnoreCase(valueAsString(resp.get("status")), "ok")) {
+      throw new IllegalStateException("Empty order book response for " + symbol);
+    }
+    return new OrderBook(
+        symbol,
+        toLevels(resp.get("bids"), depth),
+        toLevels(resp.get("asks"), depth),
+        Instant.now().toEpochMilli());
+  }
+
+  private static List<OrderBookLevel> toLevels(Object rows, int depth) {
+    if (!(rows instanceof List)) return Collections.emptyList();
+    List<?> list = (List<?>) rows;
+    List<OrderBookLevel> out = new ArrayList<>(Math.min(depth, list.size()));
+    for (Object row : list) {
+      if (out.size() >= depth) break;
+      if (!(row instanceof List) || ((List<?>) row).size() < 2) continue;
+      List<?> cells = (List<?>) row;
+      out.add(
+          new OrderBookLevel(
+              new BigDecimal(String.valueOf(cells.get(0))),
+              new BigDecimal(String.valueOf(cells.get(1)))));
+    }
+    return out;
+  }
+
   @Override
   public OrderAck submitOrder(OrderRequest r) {
     String symbol = requireNonBlankLower(r.getSymbol(), "symbol");
@@ -193,6 +320,7 @@ public class NobitexMarketClient implements ExchangeMarketClient {
     form.add("price", price.toPlainString());
     form.add("clientOrderId", clientOrderId);
 
+    rateLimiter.acquire(EXCHANGE_NAME, RequestClass.ORDER);
     try {
       @SuppressWarnings("unchecked")
       Map<String, Object> resp =
@@ -216,6 +344,7 @@ public class NobitexMarketClient implements ExchangeMarketClient {
       form.add("clientOrderId", orderId);
     }
 
+    rateLimiter.acquire(EXCHANGE_NAME, RequestClass.CANCEL);
     try {
       @SuppressWarnings("unchecked")
       Map<String, Object> resp =
@@ -239,6 +368,7 @@ public class NobitexMarketClient implements ExchangeMarketClient {
       throw new IllegalArgumentException("orderId must not be blank");
     }
 
+    rateLimiter.acquire(EXCHANGE_NAME, RequestClass.STATUS);
     try {
       MultiValueMap<String, String> form = new LinkedMultiValueMap<>();
       if (orderId.matches("\\d+")) form.add("id", orderId);
@@ -257,30 +387,7 @@ public class NobitexMarketClient implements ExchangeMarketClient {
               ? (Map<String, Object>) response.get("order")
               : null;
 
-      BigDecimal filledQty =
-          parseDecimal(
-              orderData,
-              "matchedVolume",
-              "filledVolume",
-              "executedVolume",
-              "matchedAmount",
-              "filledAmount",
-              "executedAmount");
-
-      BigDecimal avgPrice = parseDecimal(orderData, "averagePrice", "avgPrice");
-      BigDecimal executedNotional =
-          parseDecimal(orderData, "matchedAmount", "filledAmount", "executedAmount");
-
-      if (executedNotional == null && filledQty != null) {
-        BigDecimal px = (avgPrice != null) ? avgPrice : parseDecimal(orderData, "price");
-        if (px != null) {
-          executedNotional = px.multiply(filledQty, MathContext.DECIMAL64);
-        }
-      }
-
-      OrderStatus mapped = mapOrderStatus(StringUtils.hasText(orderStatus) ? orderStatus : status);
-
-      return new ExchangeOrderStatus(mapped, filledQty, avgPrice, executedNotional);
+      return toOrderStatus(orderData, StringUtils.hasText(orderStatus) ? orderStatus : status);
 
     } catch (RestClientResponseException e) {
       if (e.getRawStatusCode() == 404) {
@@ -293,6 +400,165 @@ public class NobitexMarketClient implements ExchangeMarketClient {
     }
   }
 
+  @Override
+  public boolean supportsRecentOrders() {
+    return true;
+  }
+
+  @Override
+  public List<ExchangeOrderSnapshot> getRecentOrders() {
+    List<ExchangeOrderSnapshot> snapshots = new ArrayList<>();
+    for (int page = 1; page <= RECENT_ORDERS_MAX_PAGES; page++) {
+      MultiValueMap<String, String> form = new LinkedMultiValueMap<>();
+      form.add("status", "all");
+      form.add("details", "2");
+      form.add("page", String.valueOf(page));
+      form.add("pageSize", String.valueOf(RECENT_ORDERS_PAGE_SIZE));
+
+      rateLimiter.acquire(EXCHANGE_NAME, RequestClass.STATUS);
+      @SuppressWarnings("unchecked")
+      Map<String, Object> response =
+          postForm(privateClient, PATH_ORDER_LIST, form, Map.class, MediaType.APPLICATION_JSON);
+      if (response == null || !equalsIgnoreCase(valueAsString(response.get("status")), "ok")) {
+        throw new IllegalStateException("Nobitex order list failed");
+      }
+
+      Object raw = response.get("orders");
+      List<?> orders = raw instanceof List ? (List<?>) raw : Collections.emptyList();
+      for (Object item : orders) {
+        if (item instanceof Map) {
+          @SuppressWarnings("unchecked")
+          Map<String, Object> orderData = (Map<String, Object>) item;
+          snapshots.add(
+              new ExchangeOrderSnapshot(
+                  valueAsString(orderData.get("id")),
+                  valueAsString(orderData.get("clientOrderId")),
+                  toOrderStatus(orderData, valueAsString(orderData.get("status")))));
+        }
+      }
+      if (orders.size() < RECENT_ORDERS_PAGE_SIZE) {
+        break;
+      }
+    }
+    return snapshots;
+  }
+
+  @Override
+  public boolean supportsTrades() {
+    return true;
+  }
+
+  /**
+   * Trade ids are sequential, so {@code fromId} keeps each call down to the new trades. The list
+   * comes newest first and is returned oldest first.
+   */
+  @Override
+  public List<ExchangeTrade> getTrades(String afterTradeId, Instant since) {
+    Long fromId = null;
+    if (StringUtils.hasText(afterTradeId) && DIGITS.matcher(afterTradeId).matches()) {
+      fromId = Long.parseLong(afterTradeId) + 1;
+    }
+
+    List<ExchangeTrade> trades = new ArrayList<>();
+    for (int page = 1; page <= TRADES_MAX_PAGES; page++) {
+      int pageNumber = page;
+      Long from = fromId;
+      rateLimiter.acquire(EXCHANGE_NAME, RequestClass.STATUS);
+      @SuppressWarnings("unchecked")
+      Map<String, Object> response =
+          privateClient
+              .get()
+              .uri(
+                  b -> {
+                    b.path(PATH_TRADES_LIST).queryParam("page", pageNumber);
+                    if (from != null) {
+                      b.queryParam("fromId", from);
+                    }
+                    return b.build();
+                  })
+              .accept(MediaType.APPLICATION_JSON)
+              .retrieve()
+              .body(Map.class);
+      if (response == null || !equalsIgnoreCase(valueAsString(response.get("status")), "ok")) {
+        throw new IllegalStateException("Nobitex trade list failed");
+      }
+
+      Object raw = response.get("trades");
+      List<?> rows = raw instanceof List ? (List<?>) raw : Collections.emptyList();
+      for (Object item : rows) {
+        if (item instanceof Map) {
+          @SuppressWarnings("unchecked")
+          Map<String, Object> trade = (Map<String, Object>) item;
+          ExchangeTrade parsed = toTrade(trade);
+          if (parsed != null && (since == null || !parsed.executedAt().isBefore(since))) {
+            trades.add(parsed);
+          }
+        }
+      }
+      if (rows.isEmpty() || !Boolean.TRUE.equals(response.get("hasNext"))) {
+        break;
+      }
+    }
+    trades.sort(Comparator.comparing(t -> Long.parseLong(t.tradeId())));
+    return trades;
+  }
+
+  private ExchangeTrade toTrade(Map<String, Object> trade) {
+    String id = valueAsString(trade.get("id"));
+    if (id == null || !DIGITS.matcher(id).matches()) {
+      return null;
+    }
+    String side = valueAsString(trade.get("type"));
+    // the fee is taken from what the trade pays out: base on a buy, quote on a sell
+    String market = valueAsString(trade.get("market"));
+    String feeAsset = null;
+    if (market != null && market.contains("-")) {
+      String[] parts = market.split("-");
+      feeAsset = "sell".equalsIgnoreCase(side) ? parts[1] : parts[0];
+    }
+    Object timestamp = trade.get("timestamp");
+    Instant executedAt;
+    try {
+      executedAt = timestamp != null ? Instant.parse(String.valueOf(timestamp)) : Instant.now();
+    } catch (DateTimeParseException ex) {
+      executedAt = OffsetDateTime.parse(String.valueOf(timestamp)).toInstant();
+    }
+    return new ExchangeTrade(
+        id,
+        valueAsString(trade.get("orderId")),
+        side != null ? side.toUpperCase(LOCALE) : null,
+        parseDecimal(trade, "amount"),
+        parseDecimal(trade, "price"),
+        parseDecimal(trade, "fee"),
+        feeAsset != null ? feeAsset.toUpperCase(LOCALE) : null,
+        executedAt);
+  }
+
+  private ExchangeOrderStatus toOrderStatus(Map<String, Object> orderData, String status) {
+    BigDecimal filledQty =
+        parseDecimal(
+            orderData,
+            "matchedVolume",
+            "filledVolume",
+            "executedVolume",
+            "matchedAmount",
+            "filledAmount",
+            "executedAmount");
+
+    BigDecimal avgPrice = parseDecimal(orderData, "averagePrice", "avgPrice");
+    BigDecimal executedNotional =
+        parseDecimal(orderData, "matchedAmount", "filledAmount", "executedAmount");
+
+    if (executedNotional == null && filledQty != null) {
+      BigDecimal px = (avgPrice != null) ? avgPrice : parseDecimal(orderData, "price");
+      if (px != null) {
+        executedNotional = px.multiply(filledQty, MathContext.DECIMAL64);
+      }
+    }
+
+    return new ExchangeOrderStatus(mapOrderStatus(status), filledQty, avgPrice, executedNotional);
+  }
+
   // ======== Helpers ========
 
   private static String valueAsString(Object v) {
@@ -303,8 +569,11 @@ public class NobitexMarketClient implements ExchangeMarketClient {
     return a != null && a.equalsIgnoreCase(b);
   }
 
-  private static String defaultClientOrderId(OrderRequest req) {
-    return ("CLI-" + req.getSymbol() + "-" + System.currentTimeMillis()).toUpperCase(LOCALE);
+  private String defaultClientOrderId(OrderRequest req) {
+    if (StringUtils.hasText(req.getClientOrderId())) {
+      return req.getClientOrderId();
+    }
+    return clientOrderIdGenerator.next("CLI-" + req.getSymbol(), CLIENT_ORDER_ID_MAX_LENGTH);
   }
 
   private static String toExchangeSymbol(CurrencyExchange cx) {
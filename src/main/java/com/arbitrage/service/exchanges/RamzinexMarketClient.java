@@ -5,14 +5,20 @@ import com.arbitrage.entities.CurrencyExchange;
 import com.arbitrage.entities.Exchange;
 import com.arbitrage.entities.ExchangeAccount;
 import com.arbitrage.enums.OrderStatus;
+import com.arbitrage.enums.RequestClass;
 import com.arbitrage.exception.OrderNotFoundException;
+import com.arbitrage.model.ExchangeOrderSnapshot;
 import com.arbitrage.model.ExchangeOrderStatus;
 import com.arbitrage.model.OrderAck;
+import com.arbitrage.model.OrderBook;
+import com.arbitrage.model.OrderBookLevel;
 import com.arbitrage.model.OrderRequest;
 import com.arbitrage.model.Quote;
 import com.arbitrage.respository.CurrencyExchangeRepository;
 import com.arbitrage.service.ExchangeAccessService;
 import com.arbitrage.service.ExchangeMarketClient;
+import com.arbitrage.service.WalletBalanceFetches;
+import com.arbitrage.service.ratelimit.ExchangeRateLimiter;
 import jakarta.annotation.PostConstruct;
 import java.math.BigDecimal;
 import java.math.MathContext;
@@ -34,6 +40,9 @@ public class RamzinexMarketClient implements ExchangeMarketClient {
   private final CurrencyExchangeRepository currencyExchangeRepository;
   private final ExchangeAccessService exchangeAccessService;
   private final RamzinexClients ramzinexClients;
+  private final ClientOrderIdGenerator clientOrderIdGenerator;
+  private final ExchangeRateLimiter rateLimiter;
+  private final WalletBalanceFetches walletBalanceFetches;
 
   private RestClient publicClient;
   private RestClient privateClient;
@@ -53,6 +62,12 @@ public class RamzinexMarketClient implements ExchangeMarketClient {
       "/exchange/api/v1.0/exchange/users/me/orders/{orderId}/cancel";
   private static final String P_ORDER_STATUS =
       "/exchange/api/v1.0/exchange/users/me/orders/{orderId}";
+  private static final String P_ORDER_LIST = "/exchange/api/v1.0/exchange/users/me/orders3";
+
+  private static final int RECENT_ORDERS_PAGE_SIZE = 100;
+  private static final int RECENT_ORDERS_MAX_PAGES = 3;
+
+  private static final int CLIENT_ORDER_ID_MAX_LENGTH = 32;
 
   private static final Pattern DIGITS = Pattern.compile("\\d+");
   private volatile boolean pairsLoaded = false;
@@ -65,10 +80,16 @@ public class RamzinexMarketClient implements ExchangeMarketClient {
   public RamzinexMarketClient(
       CurrencyExchangeRepository currencyExchangeRepository,
       ExchangeAccessService exchangeAccessService,
-      RamzinexClients ramzinexClients) {
+      RamzinexClients ramzinexClients,
+      ClientOrderIdGenerator clientOrderIdGenerator,
+      ExchangeRateLimiter rateLimiter,
+      WalletBalanceFetches walletBalanceFetches) {
     this.currencyExchangeRepository = currencyExchangeRepository;
     this.exchangeAccessService = exchangeAccessService;
     this.ramzinexClients = ramzinexClients;
+    this.clientOrderIdGenerator = clientOrderIdGenerator;
+    this.rateLimiter = rateLimiter;
+    this.walletBalanceFetches = walletBalanceFetches;
   }
 
   @PostConstruct
@@ -94,6 +115,7 @@ public class RamzinexMarketClient implements ExchangeMarketClient {
     final String normalizedCurrency =
         requireLower(currencyExchange.getExchangeSymbol(), "currency");
     final Integer currencyId = resolveCurrencyId(normalizedCurrency);
+    rateLimiter.acquire(EXCHANGE, RequestClass.STATUS);
     try {
       Map<?, ?> resp =
           privateClient
@@ -113,6 +135,12 @@ public class RamzinexMarketClient implements ExchangeMarketClient {
     }
   }
 
+  /** The funds endpoint takes one currency, so the currencies are fetched in parallel. */
+  @Override
+  public Map<String, BigDecimal> getWalletBalances(Collection<String> currencies) {
+    return walletBalanceFetches.fetchEach(this, currencies);
+  }
+
   @Override
   public List<Quote> getQuotes() {
     List<CurrencyExchange> entries = currencyExchangeRepository.findByExchange_Name(EXCHANGE);
@@ -137,6 +165,36 @@ public class RamzinexMarketClient implements ExchangeMarketClient {
     return out;
   }
 
+  @Override
+  public OrderBook getOrderBook(String symbol, int depth) {
+    Integer pairId = resolvePairId(requireLower(symbol, "symbol"));
+    Map<?, ?> ob = fetchOrderbook(pairId);
+    if (ob == null) {
+      throw new IllegalStateException("Empty order book response for " + symbol);
+    }
+    return new OrderBook(
+        symbol,
+        toLevels((List<?>) ob.get("buys"), depth),
+        toLevels((List<?>) ob.get("sells"), depth),
+        Instant.now().toEpochMilli());
+  }
+
+  private static List<OrderBookLevel> toLevels(List<?> side, int depth) {
+    if (side == null) return Collections.emptyList();
+    List<OrderBookLevel> levels = new ArrayList<>(Math.min(depth, side.size()));
+    for (Object row : side) {
+      if (levels.size() >= depth) break;
+      if (!(row instanceof List) || ((List<?>) row).size() < 2) continue;
+      List<?> cells = (List<?>) row;
+      if (cells.get(0) == null || cells.get(1) == null) continue;
+      levels.add(
+          new OrderBookLevel(
+              new BigDecimal(String.valueOf(cells.get(0))),
+              new BigDecimal(String.valueOf(cells.get(1)))));
+    }
+    return levels;
+  }
+
   @Override
   public OrderAck submitOrder(OrderRequest r) {
     String symbol = requireLower(r.getSymbol(), "symbol");
@@ -151,6 +209,7 @@ public class RamzinexMarketClient implements ExchangeMarketClient {
     body.put("price", price);
     body.put("type", side);
 
+    rateLimiter.acquire(EXCHANGE, RequestClass.ORDER);
     try {
       Map<?, ?> resp =
           privateClient
@@ -171,7 +230,11 @@ public class RamzinexMarketClient implements ExchangeMarketClient {
         }
       }
       String status = resp != null ? String.valueOf(resp.get("status")) : "unknown";
-      String clientOrderId = createClientOrderId(symbol);
+      // Ramzinex takes no client order id, so ours stays local
+      String clientOrderId =
+          StringUtils.hasText(r.getClientOrderId())
+              ? r.getClientOrderId()
+              : createClientOrderId(symbol);
       return new OrderAck(clientOrderId, exOrderId, status);
     } catch (RestClientResponseException http) {
       throw http;
@@ -181,6 +244,7 @@ public class RamzinexMarketClient implements ExchangeMarketClient {
   @Override
   public boolean cancelOrder(String orderId) {
     if (!StringUtils.hasText(orderId) || !DIGITS.matcher(orderId).matches()) return false;
+    rateLimiter.acquire(EXCHANGE, RequestClass.CANCEL);
     try {
       Map<?, ?> resp =
           privateClient
@@ -200,6 +264,7 @@ public class RamzinexMarketClient implements ExchangeMarketClient {
       throw new IllegalArgumentException("orderId must be numeric");
     }
 
+    rateLimiter.acquire(EXCHANGE, RequestClass.STATUS);
     try {
       Map<?, ?> resp =
           privateClient
@@ -208,87 +273,135 @@ public class RamzinexMarketClient implements ExchangeMarketClient {
               .retrieve()
               .body(Map.class);
 
-      if (resp == null) {
-        return ExchangeOrderStatus.of(OrderStatus.SENT);
+      return toOrderStatus(resp);
+    } catch (RestClientResponseException e) {
+      if (e.getStatusCode() != null && e.getStatusCode().value() == 404) {
+        throw new OrderNotFoundException(orderId, "Order not found: " + orderId, e);
       }
+      throw e;
+    }
+  }
 
-      Object dataObj = resp.get("data");
-      String status = null;
-      Integer statusId = null;
-      Map<String, Object> orderData = null;
-      Map<String, Object> dataMap = castToMap(dataObj);
-      if (dataMap != null) {
-        Map<String, Object> orderMap = castToMap(dataMap.get("order"));
-        if (orderMap != null && !orderMap.isEmpty()) {
-          orderData = orderMap;
-        } else {
-          orderData = dataMap;
-        }
+  @Override
+  public boolean supportsRecentOrders() {
+    return true;
+  }
 
-        status = extractStatusText(orderData);
-        if (!StringUtils.hasText(status)) {
-          status = extractStatusText(dataMap);
-        }
+  @Override
+  public List<ExchangeOrderSnapshot> getRecentOrders() {
+    List<ExchangeOrderSnapshot> snapshots = new ArrayList<>();
+    for (int page = 0; page < RECENT_ORDERS_MAX_PAGES; page++) {
+      Map<String, Object> body =
+          Map.of("limit", RECENT_ORDERS_PAGE_SIZE, "offset", page * RECENT_ORDERS_PAGE_SIZE);
 
-        statusId = extractInteger(orderData, "status_id");
-        if (statusId == null) {
-          statusId = extractInteger(dataMap, "status_id");
-        }
-        if (statusId == null) {
-          Map<String, Object> statusMap =
-              orderData != null ? castToMap(orderData.get("status")) : null;
-          if (statusMap == null) {
-            statusMap = castToMap(dataMap.get("status"));
-          }
-          if (statusMap != null) {
-            statusId = extractInteger(statusMap, "id", "status_id");
-            if (!StringUtils.hasText(status)) {
-              status = extractStatusText(statusMap);
-            }
-          }
+      rateLimiter.acquire(EXCHANGE, RequestClass.STATUS);
+      Map<?, ?> resp =
+          privateClient
+              .post()
+              .uri(P_ORDER_LIST)
+              .contentType(MediaType.APPLICATION_JSON)
+              .body(body)
+              .retrieve()
+              .body(Map.class);
+
+      Object raw = resp != null ? resp.get("data") : null;
+      List<?> orders = raw instanceof List ? (List<?>) raw : Collections.emptyList();
+      for (Object item : orders) {
+        Map<String, Object> order = castToMap(item);
+        if (order == null) {
+          continue;
         }
+        Integer id = extractInteger(order, "order_id", "id");
+        Object clientId = order.get("client_order_id");
+        snapshots.add(
+            new ExchangeOrderSnapshot(
+                id != null ? String.valueOf(id) : null,
+                clientId != null ? String.valueOf(clientId) : null,
+                toOrderStatus(Map.of("data", order))));
       }
-      if (!StringUtils.hasText(status)) {
-        Object s = resp.get("status");
-        status = s != null ? String.valueOf(s) : null;
+      if (orders.size() < RECENT_ORDERS_PAGE_SIZE) {
+        break;
       }
-      if (!StringUtils.hasText(status) && statusId != null) {
-        status = String.valueOf(statusId);
+    }
+    return snapshots;
+  }
+
+  private ExchangeOrderStatus toOrderStatus(Map<?, ?> resp) {
+    if (resp == null) {
+      return ExchangeOrderStatus.of(OrderStatus.SENT);
+    }
+
+    Object dataObj = resp.get("data");
+    String status = null;
+    Integer statusId = null;
+    Map<String, Object> orderData = null;
+    Map<String, Object> dataMap = castToMap(dataObj);
+    if (dataMap != null) {
+      Map<String, Object> orderMap = castToMap(dataMap.get("order"));
+      if (orderMap != null && !orderMap.isEmpty()) {
+        orderData = orderMap;
+      } else {
+        orderData = dataMap;
       }
 
-      BigDecimal filledQty =
-          extractDecimal(
-              orderData,
-              "filled_nr",
-              "filled_amount",
-              "filledVolume",
-              "executed_volume",
-              "done_amount",
-              "executed_amount",
-              "amount_filled");
-      BigDecimal avgPrice =
-          extractDecimal(orderData, "average_price_nr", "avg_price", "average_price");
-      BigDecimal executedNotional =
-          extractDecimal(
-              orderData, "total_payment_nr", "filled_total", "done_value", "executed_value");
-      if (executedNotional == null && filledQty != null) {
-        BigDecimal price =
-            avgPrice != null
-                ? avgPrice
-                : extractDecimal(orderData, "order_price_nr", "price", "limit_price");
-        if (price != null) {
-          executedNotional = price.multiply(filledQty, MathContext.DECIMAL64);
-        }
+      status = extractStatusText(orderData);
+      if (!StringUtils.hasText(status)) {
+        status = extractStatusText(dataMap);
       }
 
-      return new ExchangeOrderStatus(
-          mapOrderStatus(status, statusId), filledQty, avgPrice, executedNotional);
-    } catch (RestClientResponseException e) {
-      if (e.getStatusCode() != null && e.getStatusCode().value() == 404) {
-        throw new OrderNotFoundException(orderId, "Order not found: " + orderId, e);
+      statusId = extractInteger(orderData, "status_id");
+      if (statusId == null) {
+        statusId = extractInteger(dataMap, "status_id");
+      }
+      if (statusId == null) {
+        Map<String, Object> statusMap =
+            orderData != null ? castToMap(orderData.get("status")) : null;
+        if (statusMap == null) {
+          statusMap = castToMap(dataMap.get("status"));
+        }
+        if (statusMap != null) {
+          statusId = extractInteger(statusMap, "id", "status_id");
+          if (!StringUtils.hasText(status)) {
+            status = extractStatusText(statusMap);
+          }
+        }
+      }
+    }
+    if (!StringUtils.hasText(status)) {
+      Object s = resp.get("status");
+      status = s != null ? String.valueOf(s) : null;
+    }
+    if (!StringUtils.hasText(status) && statusId != null) {
+      status = String.valueOf(statusId);
+    }
+
+    BigDecimal filledQty =
+        extractDecimal(
+            orderData,
+            "filled_nr",
+            "filled_amount",
+            "filledVolume",
+            "executed_volume",
+            "done_amount",
+            "executed_amount",
+            "amount_filled");
+    BigDecimal avgPrice =
+        extractDecimal(orderData, "average_price_nr", "avg_price", "average_price");
+    BigDecimal executedNotional =
+        extractDecimal(
+            orderData, "total_payment_nr", "filled_total", "done_value", "executed_value");
+    if (executedNotional == null && filledQty != null) {
+      BigDecimal price =
+          avgPrice != null
+              ? avgPrice
+              : extractDecimal(orderData, "order_price_nr", "price", "limit_price");
+      if (price != null) {
+        executedNotional = price.multiply(filledQty, MathContext.DECIMAL64);
       }
-      throw e;
     }
+
+    return new ExchangeOrderStatus(
+        mapOrderStatus(status, statusId), filledQty, avgPrice, executedNotional);
   }
 
   private OrderStatus mapOrderStatus(String status, Integer statusId) {
@@ -377,6 +490,7 @@ public class RamzinexMarketClient implements ExchangeMarketClient {
 
   @SuppressWarnings("unchecked")
   private void loadPairsOnce() {
+    rateLimiter.acquire(EXCHANGE, RequestClass.MARKET_DATA);
     Map<?, ?> resp = authenticatedRestClient.get().uri(P_PAIRS).retrieve().body(Map.class);
     if (resp == null) {
       throw new IllegalStateException("pairs response is empty or malformed");
@@ -478,6 +592,7 @@ public class RamzinexMarketClient implements ExchangeMarketClient {
 
   @SuppressWarnings("unchecked")
   private void loadCurrenciesOnce() {
+    rateLimiter.acquire(EXCHANGE, RequestClass.MARKET_DATA);
     Map<?, ?> resp = authenticatedRestClient.get().uri(P_CURRENCIES).retrieve().body(Map.class);
     if (resp == null) {
       throw new IllegalStateException("currencies empty");
@@ -516,6 +631,7 @@ public class RamzinexMarketClient implements ExchangeMarketClient {
   }
 
   private Map<?, ?> fetchOrderbook(Integer pairId) {
+    rateLimiter.acquire(EXCHANGE, RequestClass.MARKET_DATA);
     try {
       Map<?, ?> resp =
           publicClient
@@ -567,8 +683,8 @@ public class RamzinexMarketClient implements ExchangeMarketClient {
     return v.toLowerCase(LOCALE);
   }
 
-  private static String createClientOrderId(String symbol) {
-    return ("CLI-" + symbol + "-" + System.currentTimeMillis()).toUpperCase(LOCALE);
+  private String createClientOrderId(String symbol) {
+    return clientOrderIdGenerator.next("CLI-" + symbol, CLIENT_ORDER_ID_MAX_LENGTH);
   }
 
   @SuppressWarnings("unchecked")
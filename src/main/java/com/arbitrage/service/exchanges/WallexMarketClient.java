@@ -5,14 +5,19 @@ import com.arbitrage.entities.CurrencyExchange;
 import com.arbitrage.entities.Exchange;
 import com.arbitrage.entities.ExchangeAccount;
 import com.arbitrage.enums.OrderStatus;
+import com.arbitrage.enums.RequestClass;
 import com.arbitrage.exception.OrderNotFoundException;
+import com.arbitrage.model.ExchangeOrderSnapshot;
 import com.arbitrage.model.ExchangeOrderStatus;
 import com.arbitrage.model.OrderAck;
+import com.arbitrage.model.OrderBook;
+import com.arbitrage.model.OrderBookLevel;
 import com.arbitrage.model.OrderRequest;
 import com.arbitrage.model.Quote;
 import com.arbitrage.respository.CurrencyExchangeRepository;
 import com.arbitrage.service.ExchangeAccessService;
 import com.arbitrage.service.ExchangeMarketClient;
+import com.arbitrage.service.ratelimit.ExchangeRateLimiter;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.annotation.PostConstruct;
@@ -44,20 +49,29 @@ public class WallexMarketClient implements ExchangeMarketClient {
   private static final String PATH_ORDER_CREATE = "/v1/account/orders";
   private static final String P_ORDER_CANCEL = "/v1/account/orders/{client_id}";
   private static final String PATH_ORDER_STATUS = "/v1/account/orders/{client_id}";
+  private static final String PATH_DEPTH = "/v1/depth";
+  private static final String PATH_OPEN_ORDERS = "/v1/account/openOrders";
   private static final Pattern DIGITS = Pattern.compile("\\d+");
+  private static final int CLIENT_ORDER_ID_MAX_LENGTH = 32;
 
   private final CurrencyExchangeRepository currencyExchangeRepository;
   private final ExchangeAccessService exchangeAccessService;
   private final WallexClients wallexClients;
+  private final ClientOrderIdGenerator clientOrderIdGenerator;
+  private final ExchangeRateLimiter rateLimiter;
   private RestClient publicClient;
 
   public WallexMarketClient(
       CurrencyExchangeRepository currencyExchangeRepository,
       ExchangeAccessService exchangeAccessService,
-      WallexClients wallexClients) {
+      WallexClients wallexClients,
+      ClientOrderIdGenerator clientOrderIdGenerator,
+      ExchangeRateLimiter rateLimiter) {
     this.currencyExchangeRepository = currencyExchangeRepository;
     this.exchangeAccessService = exchangeAccessService;
     this.wallexClients = wallexClients;
+    this.clientOrderIdGenerator = clientOrderIdGenerator;
+    this.rateLimiter = rateLimiter;
   }
 
   @PostConstruct
@@ -78,6 +92,7 @@ public class WallexMarketClient implements ExchangeMarketClient {
         currencyExchangeRepository.findByExchange_NameAndCurrency_Name(EXCHANGE, currency);
     if (currencyExchange == null) throw new IllegalStateException("Empty funds response");
 
+    rateLimiter.acquire(EXCHANGE, RequestClass.STATUS);
     try {
       Map<?, ?> response =
           publicClient
@@ -99,6 +114,60 @@ public class WallexMarketClient implements ExchangeMarketClient {
     }
   }
 
+  @Override
+  public boolean supportsBulkWalletBalances() {
+    return true;
+  }
+
+  /** {@code /v1/account/balances} returns every asset, so this is the same single request. */
+  @Override
+  public Map<String, BigDecimal> getWalletBalances(Collection<String> currencies) {
+    rateLimiter.acquire(EXCHANGE, RequestClass.STATUS);
+    Map<?, ?> response;
+    try {
+      response =
+          publicClient
+              .get()
+              .uri(uriBuilder -> uriBuilder.path(P_FUNDS_AVAILABLE).build())
+              .retrieve()
+              .body(Map.class);
+    } catch (RestClientResponseException http) {
+      throw http;
+    } catch (Exception ex) {
+      throw new IllegalStateException("Failed to fetch balances", ex);
+    }
+
+    Map<String, String> currencyToSymbol = new LinkedHashMap<>();
+    for (String currency : currencies) {
+      CurrencyExchange currencyExchange =
+          currencyExchangeRepository.findByExchange_NameAndCurrency_Name(EXCHANGE, currency);
+      if (currencyExchange != null) {
+        currencyToSymbol.put(currency, currencyExchange.getExchangeSymbol());
+      }
+    }
+    return walletBalances(response, currencyToSymbol);
+  }
+
+  /** Balances of the requested currencies in a {@code /v1/account/balances} response. */
+  static Map<String, BigDecimal> walletBalances(
+      Map<?, ?> response, Map<String, String> currencyToSymbol) {
+    Map<String, Object> result = asMap(response != null ? response.get("result") : null);
+    Map<String, Object> assets = result != null ? asMap(result.get("balances")) : null;
+    if (assets == null) {
+      throw new IllegalStateException("Empty funds response");
+    }
+
+    Map<String, BigDecimal> balances = new LinkedHashMap<>();
+    currencyToSymbol.forEach(
+        (currency, symbol) -> {
+          Map<String, Object> data = asMap(assets.get(symbol));
+          if (data != null && data.get("value") != null) {
+            balances.put(currency, new BigDecimal(String.valueOf(data.get("value"))));
+          }
+        });
+    return balances;
+  }
+
   @Override
   public List<Quote> getQuotes() {
     List<CurrencyExchange> exchanges = currencyExchangeRepository.findByExchange_Name(EXCHANGE);
@@ -131,6 +200,7 @@ public class WallexMarketClient implements ExchangeMarketClient {
   }
 
   private Map<String, WallexMarket> fetchMarketsIndex() {
+    rateLimiter.acquire(EXCHANGE, RequestClass.MARKET_DATA);
     try {
       WallexMarketsResponse response =
           publicClient
@@ -169,13 +239,56 @@ public class WallexMarketClient implements ExchangeMarketClient {
     return (priceStr != null && !priceStr.isBlank()) ? new BigDecimal(priceStr) : null;
   }
 
+  @Override
+  public OrderBook getOrderBook(String symbol, int depth) {
+    String market = normalizeSymbol(requireText(symbol, "symbol"));
+
+    rateLimiter.acquire(EXCHANGE, RequestClass.MARKET_DATA);
+    Map<?, ?> response =
+        publicClient
+            .get()
+            .uri(uriBuilder -> uriBuilder.path(PATH_DEPTH).queryParam("symbol", market).build())
+            .accept(MediaType.APPLICATION_JSON)
+            .retrieve()
+            .body(Map.class);
+
+    Map<String, Object> result = asMap(response != null ? response.get("result") : null);
+    if (result == null) {
+      throw new IllegalStateException("Empty depth response for " + symbol);
+    }
+    return new OrderBook(
+        symbol,
+        toLevels(result.get("bid"), depth),
+        toLevels(result.get("ask"), depth),
+        Instant.now().toEpochMilli());
+  }
+
+  private static List<OrderBookLevel> toLevels(Object rows, int depth) {
+    if (!(rows instanceof List)) return Collections.emptyList();
+    List<?> list = (List<?>) rows;
+    List<OrderBookLevel> levels = new ArrayList<>(Math.min(depth, list.size()));
+    for (Object row : list) {
+      if (levels.size() >= depth) break;
+      Map<String, Object> level = asMap(row);
+      BigDecimal price = extractDecimal(level, "price");
+      BigDecimal qty = extractDecimal(level, "quantity");
+      if (price != null && qty != null) {
+        levels.add(new OrderBookLevel(price, qty));
+      }
+    }
+    return levels;
+  }
+
   @Override
   public OrderAck submitOrder(OrderRequest request) {
     String symbol = normalizeSymbol(requireText(request.getSymbol(), "symbol"));
     String side = requireLower(request.getSide(), "side");
     BigDecimal qty = requirePositive(request.getQty(), "qty");
     BigDecimal price = requirePositive(request.getPrice(), "price");
-    String clientOrderId = createClientOrderId(symbol);
+    String clientOrderId =
+        StringUtils.hasText(request.getClientOrderId())
+            ? request.getClientOrderId()
+            : createClientOrderId(symbol);
 
     Map<String, Object> body =
         new HashMap<>() {
@@ -189,6 +302,7 @@ public class WallexMarketClient implements ExchangeMarketClient {
           }
         };
 
+    rateLimiter.acquire(EXCHANGE, RequestClass.ORDER);
     try {
       Map<?, ?> response =
           publicClient
@@ -218,6 +332,7 @@ public class WallexMarketClient implements ExchangeMarketClient {
   @Override
   public boolean cancelOrder(String orderId) {
     if (!StringUtils.hasText(orderId) || !DIGITS.matcher(orderId).matches()) return false;
+    rateLimiter.acquire(EXCHANGE, RequestClass.CANCEL);
     try {
       Map<?, ?> response =
           publicClient
@@ -238,6 +353,7 @@ public class WallexMarketClient implements ExchangeMarketClient {
       throw new IllegalArgumentException("orderId must be numeric");
     }
 
+    rateLimiter.acquire(EXCHANGE, RequestClass.STATUS);
     try {
       Map<?, ?> response =
           publicClient
@@ -259,6 +375,47 @@ public class WallexMarketClient implements ExchangeMarketClient {
     }
   }
 
+  @Override
+  public boolean supportsRecentOrders() {
+    return true;
+  }
+
+  /**
+   * Wallex only lists open orders; closed ones are missing from the result and are resolved by the
+   * caller with {@link #getOrderStatus(String)}. Wallex keys orders by our client id.
+   */
+  @Override
+  public List<ExchangeOrderSnapshot> getRecentOrders() {
+    rateLimiter.acquire(EXCHANGE, RequestClass.STATUS);
+    Map<?, ?> response =
+        publicClient
+            .get()
+            .uri(PATH_OPEN_ORDERS)
+            .accept(MediaType.APPLICATION_JSON)
+            .retrieve()
+            .body(Map.class);
+
+    Map<String, Object> result = asMap(response != null ? response.get("result") : null);
+    if (result == null) {
+      throw new IllegalStateException("Empty open orders response");
+    }
+    List<ExchangeOrderSnapshot> snapshots = new ArrayList<>();
+    Object orders = result.get("orders");
+    if (orders instanceof List) {
+      for (Object item : (List<?>) orders) {
+        Map<String, Object> order = asMap(item);
+        if (order == null || order.get("clientOrderId") == null) {
+          continue;
+        }
+        String clientOrderId = String.valueOf(order.get("clientOrderId"));
+        ExchangeOrderStatus status =
+            WallexOrderSnapshot.fromResponse(Map.of("result", order)).toExchangeOrderStatus();
+        snapshots.add(new ExchangeOrderSnapshot(clientOrderId, clientOrderId, status));
+      }
+    }
+    return snapshots;
+  }
+
   private static OrderStatus mapOrderStatus(String status) {
     if (!StringUtils.hasText(status)) {
       return OrderStatus.SENT;
@@ -511,12 +668,8 @@ public class WallexMarketClient implements ExchangeMarketClient {
     return v;
   }
 
-  private static String createClientOrderId(String symbol) {
-    return symbol
-        + "-"
-        + Instant.now().toEpochMilli()
-        + "-"
-        + UUID.randomUUID().toString().substring(0, 8);
+  private String createClientOrderId(String symbol) {
+    return clientOrderIdGenerator.next(symbol, CLIENT_ORDER_ID_MAX_LENGTH);
   }
 
   @SuppressWarnings("unchecked")
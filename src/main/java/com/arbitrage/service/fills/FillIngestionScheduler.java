@@ -0,0 +1,67 @@
+package com.arbitrage.service.fills;
+
+import com.arbitrage.config.FillIngestionProperties;
+import com.arbitrage.dal.OrderFillService;
+import com.arbitrage.entities.ExchangeAccount;
+import com.arbitrage.entities.TradeCursor;
+import com.arbitrage.model.ExchangeTrade;
+import com.arbitrage.service.ExchangeAccessService;
+import com.arbitrage.service.ExchangeClientFactory;
+import com.arbitrage.service.ExchangeMarketClient;
+import java.time.Instant;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Pulls new executions from every exchange that exposes its trade history and stores them as {@code
+ * OrderFill} rows. Each account keeps a trade cursor, so a run only fetches the trades since the
+ * previous one no matter how long the history grows.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class FillIngestionScheduler {
+
+  private final ExchangeClientFactory exchangeClientFactory;
+  private final ExchangeAccessService exchangeAccessService;
+  private final OrderFillService orderFillService;
+  private final FillIngestionProperties properties;
+
+  @Scheduled(fixedDelayString = "${app.fills.poll-delay:5000}")
+  public void ingestFills() {
+    if (!properties.isEnabled()) {
+      return;
+    }
+    for (ExchangeMarketClient client : exchangeClientFactory.getClients()) {
+      if (!client.supportsTrades()) {
+        continue;
+      }
+      try {
+        ingest(client);
+      } catch (Exception ex) {
+        log.warn("Fill ingestion for {} failed: {}", client.getExchangeName(), ex.getMessage());
+        log.debug("Fill ingestion error", ex);
+      }
+    }
+  }
+
+  private void ingest(ExchangeMarketClient client) {
+    String exchangeName = client.getExchangeName();
+    ExchangeAccount account = exchangeAccessService.requireDefaultAccount(exchangeName);
+    TradeCursor cursor = orderFillService.findCursor(account).orElse(null);
+    String afterTradeId = cursor != null ? cursor.getLastTradeId() : null;
+    Instant since =
+        cursor != null && cursor.getLastTradeAt() != null
+            ? cursor.getLastTradeAt().toInstant()
+            : null;
+
+    List<ExchangeTrade> trades = client.getTrades(afterTradeId, since);
+    int inserted = orderFillService.record(account, trades, properties.getUnmatchedGrace());
+    if (inserted > 0) {
+      log.info("Stored {} fills from {}", inserted, exchangeName);
+    }
+  }
+}
@@ -0,0 +1,27 @@
+package com.arbitrage.service.ledger;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import lombok.Value;
+import lombok.experimental.Accessors;
+
+@Value
+@Accessors(fluent = true)
+public class BalanceAmounts {
+
+  private final BigDecimal available;
+  private final BigDecimal reserved;
+
+  public static final BalanceAmounts ZERO = new BalanceAmounts(BigDecimal.ZERO, BigDecimal.ZERO);
+
+  /** Decimal places of balance and lock columns. */
+  public static final int SCALE = 18;
+
+  /**
+   * Rounds an amount to what the balance columns store, so the ledger and the tables never disagree
+   * by a rounding.
+   */
+  public static BigDecimal scaled(BigDecimal amount) {
+    return amount.scale() > SCALE ? amount.setScale(SCALE, RoundingMode.HALF_EVEN) : amount;
+  }
+}
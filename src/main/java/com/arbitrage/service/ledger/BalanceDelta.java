@@ -0,0 +1,16 @@
+package com.arbitrage.service.ledger;
+
+import java.math.BigDecimal;
+import lombok.Value;
+import lombok.experimental.Accessors;
+
+/** One ledger change, numbered in the order it was applied in memory. */
+@Value
+@Accessors(fluent = true)
+public class BalanceDelta {
+
+  private final long seq;
+  private final BalanceKey key;
+  private final BigDecimal available;
+  private final BigDecimal reserved;
+}
@@ -0,0 +1,116 @@
+package com.arbitrage.service.ledger;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Append-only text journal of ledger changes, one line per change. Writes land in the OS page
+ * cache, which survives a crash of the JVM; a torn last line is skipped on replay.
+ */
+@Slf4j
+class BalanceJournal implements AutoCloseable {
+
+  private final Path path;
+  private FileChannel channel;
+
+  BalanceJournal(Path path) {
+    this.path = path;
+  }
+
+  synchronized void open() {
+    try {
+      Path parent = path.toAbsolutePath().getParent();
+      if (parent != null) {
+        Files.createDirectories(parent);
+      }
+      channel =
+          FileChannel.open(
+              path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    } catch (IOException ex) {
+      throw new UncheckedIOException("Cannot open balance journal " + path, ex);
+    }
+  }
+
+  synchronized void append(BalanceDelta delta) {
+    String line =
+        delta.seq()
+            + ","
+            + delta.key().accountId()
+            + ","
+            + delta.key().currencyId()
+            + ","
+            + delta.available().toPlainString()
+            + ","
+            + delta.reserved().toPlainString()
+            + "\n";
+    ByteBuffer buffer = ByteBuffer.wrap(line.getBytes(StandardCharsets.US_ASCII));
+    try {
+      while (buffer.hasRemaining()) {
+        channel.write(buffer);
+      }
+    } catch (IOException ex) {
+      throw new UncheckedIOException("Cannot write balance journal " + path, ex);
+    }
+  }
+
+  /** Every complete change in the journal, oldest first. */
+  synchronized List<BalanceDelta> readAll() {
+    List<BalanceDelta> deltas = new ArrayList<>();
+    if (!Files.exists(path)) {
+      return deltas;
+    }
+    try {
+      for (String line : Files.readAllLines(path, StandardCharsets.US_ASCII)) {
+        String[] parts = line.split(",");
+        if (parts.length != 5) {
+          log.warn("Skipping malformed balance journal line: {}", line);
+          continue;
+        }
+        try {
+          deltas.add(
+              new BalanceDelta(
+                  Long.parseLong(parts[0]),
+                  new BalanceKey(Long.valueOf(parts[1]), Long.valueOf(parts[2])),
+                  new BigDecimal(parts[3]),
+                  new BigDecimal(parts[4])));
+        } catch (NumberFormatException ex) {
+          log.warn("Skipping malformed balance journal line: {}", line);
+        }
+      }
+    } catch (IOException ex) {
+      throw new UncheckedIOException("Cannot read balance journal " + path, ex);
+    }
+    return deltas;
+  }
+
+  /** Drops all entries; only called once every change in it is in the database. */
+  synchronized void truncate() {
+    try {
+      channel.truncate(0);
+    } catch (IOException ex) {
+      throw new UncheckedIOException("Cannot truncate balance journal " + path, ex);
+    }
+  }
+
+  @Override
+  public synchronized void close() {
+    if (channel == null) {
+      return;
+    }
+    try {
+      channel.close();
+    } catch (IOException ex) {
+      log.warn("Closing balance journal failed: {}", ex.getMessage());
+    }
+  }
+}
@@ -0,0 +1,13 @@
+package com.arbitrage.service.ledger;
+
+import lombok.Value;
+import lombok.experimental.Accessors;
+
+/** A balance row: one currency of one exchange account. */
+@Value
+@Accessors(fluent = true)
+public class BalanceKey {
+
+  private final Long accountId;
+  private final Long currencyId;
+}
@@ -0,0 +1,253 @@
+package com.arbitrage.service.ledger;
+
+import com.arbitrage.config.BalanceLedgerProperties;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+/**
+ * In-memory balances keyed by (account, currency). Each balance is changed under its own monitor,
+ * so writers of different balances never contend and a reservation is a couple of BigDecimal
+ * operations plus one journal append. Changes are written to the database in batches by a
+ * background flusher; on startup the journal is replayed past the database checkpoint, so a crash
+ * between a change and its flush loses nothing.
+ */
+@Slf4j
+@Component
+public class BalanceLedger {
+
+  private final BalanceLedgerProperties properties;
+  private final BalanceStore store;
+
+  private final Map<BalanceKey, Entry> entries = new ConcurrentHashMap<>();
+  private final Queue<BalanceDelta> pending = new ConcurrentLinkedQueue<>();
+  private final AtomicLong sequence = new AtomicLong();
+  private final Object flushLock = new Object();
+  private final List<BalanceDelta> unflushed = new ArrayList<>();
+
+  private BalanceJournal journal;
+  private ScheduledExecutorService flusher;
+
+  public BalanceLedger(BalanceLedgerProperties properties, BalanceStore store) {
+    this.properties = properties;
+    this.store = store;
+  }
+
+  @PostConstruct
+  public void start() {
+    if (!properties.isEnabled()) {
+      return;
+    }
+    journal = new BalanceJournal(Path.of(properties.getJournalPath()));
+    replay();
+    journal.open();
+    flusher =
+        Executors.newSingleThreadScheduledExecutor(
+            runnable -> {
+              Thread thread = new Thread(runnable, "balance-ledger-flush");
+              thread.setDaemon(true);
+              return thread;
+            });
+    long interval = Math.max(1, properties.getFlushInterval().toMillis());
+    flusher.scheduleWithFixedDelay(this::flushQuietly, interval, interval, TimeUnit.MILLISECONDS);
+  }
+
+  public boolean isEnabled() {
+    return properties.isEnabled();
+  }
+
+  public BalanceAmounts get(Long accountId, Long currencyId) {
+    Entry entry = entry(new BalanceKey(accountId, currencyId));
+    synchronized (entry) {
+      return new BalanceAmounts(entry.available, entry.reserved);
+    }
+  }
+
+  /**
+   * Moves {@code amount} from available to reserved if that much is available; otherwise leaves the
+   * balance untouched and returns false.
+   */
+  public boolean tryReserve(Long accountId, Long currencyId, BigDecimal amount) {
+    BalanceKey key = new BalanceKey(accountId, currencyId);
+    Entry entry = entry(key);
+    synchronized (entry) {
+      if (entry.available.compareTo(amount) < 0) {
+        return false;
+      }
+      record(key, entry, amount.negate(), amount);
+      return true;
+    }
+  }
+
+  /** Returns up to {@code amount} of the reservation to available, e.g. on cancel. */
+  public void release(Long accountId, Long currencyId, BigDecimal amount) {
+    BalanceKey key = new BalanceKey(accountId, currencyId);
+    Entry entry = entry(key);
+    synchronized (entry) {
+      BigDecimal released = amount.min(entry.reserved).max(BigDecimal.ZERO);
+      record(key, entry, released, released.negate());
+    }
+  }
+
+  /** Consumes up to {@code amount} of the reservation, e.g. when it is spent by a fill. */
+  public void settle(Long accountId, Long currencyId, BigDecimal amount) {
+    BalanceKey key = new BalanceKey(accountId, currencyId);
+    Entry entry = entry(key);
+    synchronized (entry) {
+      BigDecimal settled = amount.min(entry.reserved).max(BigDecimal.ZERO);
+      record(key, entry, BigDecimal.ZERO, settled.negate());
+    }
+  }
+
+  /** Adds {@code amount}, possibly negative, to available, e.g. to correct reconciled drift. */
+  public void adjust(Long accountId, Long currencyId, BigDecimal amount) {
+    BalanceKey key = new BalanceKey(accountId, currencyId);
+    Entry entry = entry(key);
+    synchronized (entry) {
+      record(key, entry, amount, BigDecimal.ZERO);
+    }
+  }
+
+  /** Writes the pending changes to the database; also runs on the flusher thread. */
+  public void flush() {
+    synchronized (flushLock) {
+      while (true) {
+        BalanceDelta delta;
+        while (unflushed.size() < properties.getFlushBatchSize()
+            && (delta = pending.poll()) != null) {
+          unflushed.add(delta);
+        }
+        if (unflushed.isEmpty()) {
+          break;
+        }
+        Map<BalanceKey, BalanceAmounts> batch = new HashMap<>();
+        long lastSeq = 0;
+        for (BalanceDelta change : unflushed) {
+          batch.merge(change.key(), amounts(change), BalanceLedger::sum);
+          lastSeq = Math.max(lastSeq, change.seq());
+        }
+        // a failed batch stays in unflushed and is retried first, keeping the order of changes
+        store.apply(batch, lastSeq);
+        unflushed.clear();
+      }
+      compactJournal();
+    }
+  }
+
+  private void record(BalanceKey key, Entry entry, BigDecimal available, BigDecimal reserved) {
+    if (available.signum() == 0 && reserved.signum() == 0) {
+      return;
+    }
+    entry.available = entry.available.add(available);
+    entry.reserved = entry.reserved.add(reserved);
+    // numbered and queued together so the queue is in sequence order and a flushed prefix never
+    // skips a change; queued before the append so compaction cannot drop an unflushed line
+    BalanceDelta delta;
+    synchronized (sequence) {
+      delta = new BalanceDelta(sequence.incrementAndGet(), key, available, reserved);
+      pending.add(delta);
+    }
+    if (journal != null) {
+      journal.append(delta);
+    }
+  }
+
+  private Entry entry(BalanceKey key) {
+    return entries.computeIfAbsent(
+        key,
+        k -> {
+          BalanceAmounts stored = store.load(k);
+          return new Entry(zeroIfNull(stored.available()), zeroIfNull(stored.reserved()));
+        });
+  }
+
+  private void replay() {
+    long checkpoint = store.checkpoint();
+    Map<BalanceKey, BalanceAmounts> missing = new HashMap<>();
+    long lastSeq = checkpoint;
+    for (BalanceDelta delta : journal.readAll()) {
+      if (delta.seq() > checkpoint) {
+        missing.merge(delta.key(), amounts(delta), BalanceLedger::sum);
+        lastSeq = Math.max(lastSeq, delta.seq());
+      }
+    }
+    if (!missing.isEmpty()) {
+      log.warn("Replaying {} unflushed balance changes up to #{}", missing.size(), lastSeq);
+      store.apply(missing, lastSeq);
+    }
+    sequence.set(lastSeq);
+    journal.open();
+    journal.truncate();
+    journal.close();
+  }
+
+  private void compactJournal() {
+    // safe only while no change is waiting; appends race us, so re-check under the journal
+    if (journal == null || !unflushed.isEmpty() || !pending.isEmpty()) {
+      return;
+    }
+    synchronized (journal) {
+      if (pending.isEmpty()) {
+        journal.truncate();
+      }
+    }
+  }
+
+  private void flushQuietly() {
+    try {
+      flush();
+    } catch (RuntimeException ex) {
+      log.warn("Balance ledger flush failed, retrying: {}", ex.getMessage());
+    }
+  }
+
+  @PreDestroy
+  void stop() {
+    if (flusher == null) {
+      return;
+    }
+    flusher.shutdown();
+    try {
+      flush();
+    } catch (RuntimeException ex) {
+      log.warn("Final balance ledger flush failed, the journal replays it: {}", ex.getMessage());
+    }
+    journal.close();
+  }
+
+  private static BalanceAmounts amounts(BalanceDelta delta) {
+    return new BalanceAmounts(delta.available(), delta.reserved());
+  }
+
+  private static BalanceAmounts sum(BalanceAmounts a, BalanceAmounts b) {
+    return new BalanceAmounts(a.available().add(b.available()), a.reserved().add(b.reserved()));
+  }
+
+  private static BigDecimal zeroIfNull(BigDecimal value) {
+    return value != null ? value : BigDecimal.ZERO;
+  }
+
+  private static final class Entry {
+    private BigDecimal available;
+    private BigDecimal reserved;
+
+    private Entry(BigDecimal available, BigDecimal reserved) {
+      this.available = available;
+      this.reserved = reserved;
+    }
+  }
+}
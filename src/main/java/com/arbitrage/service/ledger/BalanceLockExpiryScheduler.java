@@ -0,0 +1,66 @@
+package com.arbitrage.service.ledger;
+
+import com.arbitrage.config.BalanceLockProperties;
+import com.arbitrage.dal.BalanceLockService;
+import com.arbitrage.dal.BalanceLockService.ExpiryResult;
+import com.arbitrage.dal.BalanceLockService.Unlock;
+import java.util.Date;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Frees funds held by locks that outlived their TTL, e.g. after a crashed submit or a missed
+ * cancel. Expired locks are found through the {@code expires_at} index and handled in batches;
+ * locks of orders that are still open are only extended.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class BalanceLockExpiryScheduler {
+
+  private final BalanceLockService balanceLockService;
+  private final BalanceLedger balanceLedger;
+  private final BalanceLockProperties properties;
+
+  @Scheduled(fixedDelayString = "${app.balance-locks.sweep-delay:60000}")
+  public void sweepExpiredLocks() {
+    if (!properties.isSweepEnabled()) {
+      return;
+    }
+    int unlocked = 0;
+    try {
+      for (int batch = 0; batch < properties.getSweepMaxBatches(); batch++) {
+        ExpiryResult result =
+            balanceLockService.expire(
+                new Date(),
+                properties.getSweepBatchSize(),
+                properties.getTtl(),
+                !balanceLedger.isEnabled());
+        if (balanceLedger.isEnabled()) {
+          // committed above, so the ledger follows the lock rows
+          result.unlocks().forEach(this::applyToLedger);
+        }
+        unlocked += result.examined() - result.renewed();
+        if (result.examined() < properties.getSweepBatchSize()) {
+          break;
+        }
+      }
+    } catch (Exception ex) {
+      log.warn("Balance lock sweep failed: {}", ex.getMessage());
+      log.debug("Balance lock sweep error", ex);
+    }
+    if (unlocked > 0) {
+      log.info("Released {} expired balance locks", unlocked);
+    }
+  }
+
+  private void applyToLedger(Unlock unlock) {
+    if (unlock.consumed()) {
+      balanceLedger.settle(unlock.accountId(), unlock.currencyId(), unlock.amount());
+    } else {
+      balanceLedger.release(unlock.accountId(), unlock.currencyId(), unlock.amount());
+    }
+  }
+}
@@ -0,0 +1,19 @@
+package com.arbitrage.service.ledger;
+
+import java.util.Map;
+
+/** Persistence behind the {@link BalanceLedger}. */
+public interface BalanceStore {
+
+  /** Current amounts of the balance, zero when it has no row yet. */
+  BalanceAmounts load(BalanceKey key);
+
+  /** Sequence number of the last change already written. */
+  long checkpoint();
+
+  /**
+   * Adds the summed changes to the stored balances and moves the checkpoint to {@code lastSeq},
+   * atomically.
+   */
+  void apply(Map<BalanceKey, BalanceAmounts> deltas, long lastSeq);
+}
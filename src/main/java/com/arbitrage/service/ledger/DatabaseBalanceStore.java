@@ -0,0 +1,53 @@
+package com.arbitrage.service.ledger;
+
+import com.arbitrage.entities.BalanceLedgerCheckpoint;
+import com.arbitrage.respository.BalanceLedgerCheckpointRepository;
+import com.arbitrage.respository.BalanceRepository;
+import java.util.Map;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+/** Writes ledger changes to {@code balances}, with the checkpoint in the same transaction. */
+@Component
+@RequiredArgsConstructor
+public class DatabaseBalanceStore implements BalanceStore {
+
+  private static final String CHECKPOINT = "balances";
+
+  private final BalanceRepository balanceRepository;
+  private final BalanceLedgerCheckpointRepository checkpointRepository;
+
+  @Override
+  @Transactional(readOnly = true)
+  public BalanceAmounts load(BalanceKey key) {
+    return balanceRepository
+        .findByExchangeAccount_IdAndCurrency_Id(key.accountId(), key.currencyId())
+        .map(balance -> new BalanceAmounts(balance.getAvailable(), balance.getReserved()))
+        .orElse(BalanceAmounts.ZERO);
+  }
+
+  @Override
+  @Transactional(readOnly = true)
+  public long checkpoint() {
+    return checkpointRepository
+        .findByName(CHECKPOINT)
+        .map(BalanceLedgerCheckpoint::getLastSeq)
+        .orElse(0L);
+  }
+
+  @Override
+  @Transactional
+  public void apply(Map<BalanceKey, BalanceAmounts> deltas, long lastSeq) {
+    deltas.forEach(
+        (key, delta) ->
+            balanceRepository.addAmounts(
+                key.accountId(), key.currencyId(), delta.available(), delta.reserved()));
+    BalanceLedgerCheckpoint checkpoint =
+        checkpointRepository
+            .findByName(CHECKPOINT)
+            .orElseGet(() -> BalanceLedgerCheckpoint.builder().name(CHECKPOINT).build());
+    checkpoint.setLastSeq(lastSeq);
+    checkpointRepository.save(checkpoint);
+  }
+}
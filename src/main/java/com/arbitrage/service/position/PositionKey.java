@@ -0,0 +1,13 @@
+package com.arbitrage.service.position;
+
+import lombok.Value;
+import lombok.experimental.Accessors;
+
+/** One currency held on one exchange. */
+@Value
+@Accessors(fluent = true)
+public class PositionKey {
+
+  private final Long exchangeId;
+  private final Long currencyId;
+}
@@ -0,0 +1,26 @@
+package com.arbitrage.service.position;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import lombok.Value;
+import lombok.experimental.Accessors;
+
+/**
+ * Immutable copy of the tracked positions. Each value is exact, but a snapshot taken while fills
+ * are applied may show a venue change whose aggregate change is not in yet.
+ */
+@Value
+@Accessors(fluent = true)
+public class PositionSnapshot {
+
+  private final Map<PositionKey, BigDecimal> byVenue;
+  private final Map<Long, BigDecimal> aggregate;
+
+  public BigDecimal net(Long exchangeId, Long currencyId) {
+    return byVenue.getOrDefault(new PositionKey(exchangeId, currencyId), BigDecimal.ZERO);
+  }
+
+  public BigDecimal aggregate(Long currencyId) {
+    return aggregate.getOrDefault(currencyId, BigDecimal.ZERO);
+  }
+}
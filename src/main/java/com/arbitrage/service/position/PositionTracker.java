@@ -0,0 +1,80 @@
+package com.arbitrage.service.position;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import org.springframework.stereotype.Component;
+
+/**
+ * Net position per (exchange, currency) and per currency across exchanges, built from the fills of
+ * our orders since startup. A fill is two compare-and-set additions per currency and reads are
+ * plain volatile loads, so risk checks and routing can consult it on every order. Nothing is
+ * persisted; balances remain the source of truth for holdings.
+ */
+@Component
+public class PositionTracker {
+
+  private static final MathContext MATH_CONTEXT = MathContext.DECIMAL64;
+
+  private final Map<PositionKey, AtomicReference<BigDecimal>> byVenue = new ConcurrentHashMap<>();
+  private final Map<Long, AtomicReference<BigDecimal>> aggregate = new ConcurrentHashMap<>();
+
+  /**
+   * Applies a fill of {@code qty} at {@code price}: a buy adds base and spends quote, a sell the
+   * reverse.
+   */
+  public void onFill(
+      Long exchangeId,
+      Long baseCurrencyId,
+      Long quoteCurrencyId,
+      boolean buy,
+      BigDecimal qty,
+      BigDecimal price) {
+    if (qty == null || qty.signum() == 0) {
+      return;
+    }
+    BigDecimal base = buy ? qty : qty.negate();
+    adjust(exchangeId, baseCurrencyId, base);
+    if (price != null && price.signum() > 0) {
+      adjust(exchangeId, quoteCurrencyId, base.multiply(price, MATH_CONTEXT).negate());
+    }
+  }
+
+  /** Adds {@code delta} to one position, for changes that do not come from our own fills. */
+  public void adjust(Long exchangeId, Long currencyId, BigDecimal delta) {
+    if (exchangeId == null || currencyId == null || delta == null || delta.signum() == 0) {
+      return;
+    }
+    add(byVenue.computeIfAbsent(new PositionKey(exchangeId, currencyId), key -> zero()), delta);
+    add(aggregate.computeIfAbsent(currencyId, key -> zero()), delta);
+  }
+
+  public BigDecimal net(Long exchangeId, Long currencyId) {
+    AtomicReference<BigDecimal> cell = byVenue.get(new PositionKey(exchangeId, currencyId));
+    return cell != null ? cell.get() : BigDecimal.ZERO;
+  }
+
+  public BigDecimal aggregate(Long currencyId) {
+    AtomicReference<BigDecimal> cell = aggregate.get(currencyId);
+    return cell != null ? cell.get() : BigDecimal.ZERO;
+  }
+
+  public PositionSnapshot snapshot() {
+    Map<PositionKey, BigDecimal> venues = new HashMap<>();
+    byVenue.forEach((key, cell) -> venues.put(key, cell.get()));
+    Map<Long, BigDecimal> totals = new HashMap<>();
+    aggregate.forEach((currencyId, cell) -> totals.put(currencyId, cell.get()));
+    return new PositionSnapshot(Map.copyOf(venues), Map.copyOf(totals));
+  }
+
+  private static void add(AtomicReference<BigDecimal> cell, BigDecimal delta) {
+    cell.accumulateAndGet(delta, (current, change) -> current.add(change, MATH_CONTEXT));
+  }
+
+  private static AtomicReference<BigDecimal> zero() {
+    return new AtomicReference<>(BigDecimal.ZERO);
+  }
+}
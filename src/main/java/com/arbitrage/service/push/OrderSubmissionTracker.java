@@ -0,0 +1,32 @@
+package com.arbitrage.service.push;
+
+import com.arbitrage.config.OrderStatusProperties;
+import com.arbitrage.service.OrderPollPlanner;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Enrolls freshly submitted orders with the status poller as soon as their row is committed, with
+ * the first check {@code app.order-status.first-check-delay} out, instead of leaving them to be
+ * discovered by a later sweep.
+ */
+@Component
+@RequiredArgsConstructor
+public class OrderSubmissionTracker {
+
+  private final OrderPollPlanner orderPollPlanner;
+  private final OrderStatusProperties properties;
+
+  @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+  public void onOrderSubmitted(OrderSubmittedEvent event) {
+    enroll(event.orderId());
+  }
+
+  public void enroll(Long orderId) {
+    if (orderId != null) {
+      orderPollPlanner.enroll(orderId, properties.getFirstCheckDelay());
+    }
+  }
+}
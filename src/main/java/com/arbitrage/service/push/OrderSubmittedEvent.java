@@ -0,0 +1,12 @@
+package com.arbitrage.service.push;
+
+import lombok.Value;
+import lombok.experimental.Accessors;
+
+/** Published when an order has been acknowledged by its exchange and stored as SENT. */
+@Value
+@Accessors(fluent = true)
+public class OrderSubmittedEvent {
+
+  private final Long orderId;
+}
@@ -0,0 +1,128 @@
+package com.arbitrage.service.push;
+
+import com.arbitrage.config.OrderStatusProperties;
+import com.arbitrage.dal.OpenOrderIndex;
+import jakarta.annotation.PreDestroy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.UUID;
+import java.util.regex.Pattern;
+import javax.sql.DataSource;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Multi-instance push of order submissions over Postgres {@code LISTEN/NOTIFY}. The notification is
+ * sent inside the submitting transaction, so Postgres delivers it only once the order row is
+ * committed. Every other instance reloads the order into its open-order index and enrolls it with
+ * the poller. The listener holds one pooled connection for as long as it runs.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PgOrderNotifier {
+
+  private static final Pattern CHANNEL = Pattern.compile("[a-z_][a-z0-9_]*");
+  private static final long RECONNECT_DELAY_MS = 5_000;
+
+  private final OrderStatusProperties properties;
+  private final JdbcTemplate jdbcTemplate;
+  private final DataSource dataSource;
+  private final OpenOrderIndex openOrderIndex;
+  private final OrderSubmissionTracker orderSubmissionTracker;
+
+  private final String nodeId = UUID.randomUUID().toString();
+  private volatile boolean running;
+  private Thread listener;
+
+  @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+  public void onOrderSubmitted(OrderSubmittedEvent event) {
+    if (!properties.isPgNotify() || event.orderId() == null) {
+      return;
+    }
+    jdbcTemplate.queryForObject(
+        "select pg_notify(?, ?)", Object.class, channel(), event.orderId() + ":" + nodeId);
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public synchronized void start() {
+    if (!properties.isPgNotify() || running) {
+      return;
+    }
+    running = true;
+    listener = new Thread(this::listen, "order-notify-listener");
+    listener.setDaemon(true);
+    listener.start();
+  }
+
+  private void listen() {
+    while (running) {
+      try (Connection connection = dataSource.getConnection();
+          Statement statement = connection.createStatement()) {
+        connection.setAutoCommit(true);
+        statement.execute("LISTEN " + channel());
+        PGConnection pg = connection.unwrap(PGConnection.class);
+        log.info("Listening for order submissions on {}", channel());
+        while (running) {
+          PGNotification[] notifications = pg.getNotifications(1_000);
+          if (notifications != null) {
+            for (PGNotification notification : notifications) {
+              handle(notification.getParameter());
+            }
+          }
+        }
+      } catch (SQLException ex) {
+        if (!running) {
+          return;
+        }
+        log.warn("Order notification listener failed, reconnecting: {}", ex.getMessage());
+        try {
+          Thread.sleep(RECONNECT_DELAY_MS);
+        } catch (InterruptedException ie) {
+          Thread.currentThread().interrupt();
+          return;
+        }
+      }
+    }
+  }
+
+  void handle(String payload) {
+    int separator = payload != null ? payload.indexOf(':') : -1;
+    if (separator <= 0 || nodeId.equals(payload.substring(separator + 1))) {
+      // our own submissions were enrolled in-process already
+      return;
+    }
+    try {
+      Long orderId = Long.valueOf(payload.substring(0, separator));
+      openOrderIndex.reload(orderId);
+      orderSubmissionTracker.enroll(orderId);
+    } catch (Exception ex) {
+      log.warn("Ignoring order notification {}: {}", payload, ex.getMessage());
+    }
+  }
+
+  private String channel() {
+    String channel = properties.getNotifyChannel();
+    if (channel == null || !CHANNEL.matcher(channel).matches()) {
+      throw new IllegalStateException("Invalid notify channel: " + channel);
+    }
+    return channel;
+  }
+
+  @PreDestroy
+  synchronized void stop() {
+    running = false;
+    if (listener != null) {
+      listener.interrupt();
+    }
+  }
+}
@@ -0,0 +1,152 @@
+package com.arbitrage.service.ratelimit;
+
+import com.arbitrage.config.RateLimitProperties;
+import com.arbitrage.config.RateLimitProperties.Budget;
+import com.arbitrage.enums.RequestClass;
+import com.arbitrage.exception.AppException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+/**
+ * Client-side request throttle shared by all exchange clients. Each exchange has one priority
+ * bucket (cancels before new orders before status before market data) plus optional per-endpoint
+ * caps; callers block until a permit is available or the exchange's {@code max-wait} elapses.
+ */
+@Slf4j
+@Component
+public class ExchangeRateLimiter {
+
+  private static final RequestClass[] CLASSES = RequestClass.values();
+  private static final long SLOW_WAIT_NANOS = TimeUnit.MILLISECONDS.toNanos(500);
+
+  private final RateLimitProperties properties;
+  private final Map<String, ExchangeLimiter> limiters = new ConcurrentHashMap<>();
+
+  public ExchangeRateLimiter(RateLimitProperties properties) {
+    this.properties = properties;
+  }
+
+  public void acquire(String exchangeName, RequestClass requestClass) {
+    if (!properties.isEnabled()) {
+      return;
+    }
+    ExchangeLimiter limiter =
+        limiters.computeIfAbsent(
+            exchangeName.trim().toUpperCase(Locale.ROOT),
+            name -> new ExchangeLimiter(name, properties.budgetFor(name)));
+    limiter.acquire(requestClass);
+  }
+
+  public List<RateLimitStats> snapshot() {
+    List<RateLimitStats> out = new ArrayList<>();
+    for (ExchangeLimiter limiter : limiters.values()) {
+      for (RequestClass requestClass : CLASSES) {
+        out.add(limiter.stats.get(requestClass).snapshot(limiter.exchangeName, requestClass));
+      }
+    }
+    return out;
+  }
+
+  private static final class ExchangeLimiter {
+    private final String exchangeName;
+    private final PriorityTokenBucket shared;
+    private final Map<RequestClass, PriorityTokenBucket> endpointCaps =
+        new EnumMap<>(RequestClass.class);
+    private final Map<RequestClass, LaneStats> stats = new EnumMap<>(RequestClass.class);
+    private final long maxWaitNanos;
+
+    ExchangeLimiter(String exchangeName, Budget budget) {
+      this.exchangeName = exchangeName;
+      this.shared =
+          new PriorityTokenBucket(budget.getPermitsPerSecond(), budget.getBurst(), CLASSES.length);
+      this.maxWaitNanos = toNanos(budget.getMaxWait());
+      budget
+          .getEndpoints()
+          .forEach(
+              (requestClass, cap) ->
+                  endpointCaps.put(
+                      requestClass,
+                      new PriorityTokenBucket(cap.getPermitsPerSecond(), cap.getBurst(), 1)));
+      for (RequestClass requestClass : CLASSES) {
+        stats.put(requestClass, new LaneStats());
+      }
+      log.info(
+          "Rate limit for {}: {}/s, burst {}",
+          exchangeName,
+          budget.getPermitsPerSecond(),
+          budget.getBurst());
+    }
+
+    void acquire(RequestClass requestClass) {
+      long start = System.nanoTime();
+      boolean granted;
+      try {
+        PriorityTokenBucket cap = endpointCaps.get(requestClass);
+        granted = cap == null || cap.acquire(0, maxWaitNanos);
+        if (granted) {
+          long left = maxWaitNanos - (System.nanoTime() - start);
+          granted = shared.acquire(requestClass.ordinal(), Math.max(0, left));
+        }
+      } catch (InterruptedException ex) {
+        Thread.currentThread().interrupt();
+        throw new AppException(
+            "Interrupted waiting for " + exchangeName + " rate limit",
+            HttpStatus.SERVICE_UNAVAILABLE,
+            "RATE_LIMIT_INTERRUPTED");
+      }
+
+      long waited = System.nanoTime() - start;
+      LaneStats laneStats = stats.get(requestClass);
+      if (!granted) {
+        laneStats.rejected.increment();
+        throw new AppException(
+            "Rate limit wait exceeded for " + exchangeName + " " + requestClass,
+            HttpStatus.TOO_MANY_REQUESTS,
+            "RATE_LIMITED");
+      }
+      laneStats.record(waited);
+      if (waited > SLOW_WAIT_NANOS) {
+        log.debug(
+            "Waited {} ms for {} {} permit",
+            TimeUnit.NANOSECONDS.toMillis(waited),
+            exchangeName,
+            requestClass);
+      }
+    }
+
+    private static long toNanos(Duration duration) {
+      return duration != null ? duration.toNanos() : TimeUnit.SECONDS.toNanos(3);
+    }
+  }
+
+  private static final class LaneStats {
+    private final LongAdder acquired = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder totalWaitNanos = new LongAdder();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+
+    void record(long waitNanos) {
+      acquired.increment();
+      totalWaitNanos.add(waitNanos);
+      maxWaitNanos.accumulateAndGet(waitNanos, Math::max);
+    }
+
+    RateLimitStats snapshot(String exchangeName, RequestClass requestClass) {
+      long count = acquired.sum();
+      double avg = count == 0 ? 0 : totalWaitNanos.sum() / (double) count / 1_000_000d;
+      return new RateLimitStats(
+          exchangeName, requestClass, count, rejected.sum(), avg, maxWaitNanos.get() / 1_000_000d);
+    }
+  }
+}
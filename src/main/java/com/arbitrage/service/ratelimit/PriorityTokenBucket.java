@@ -0,0 +1,122 @@
+package com.arbitrage.service.ratelimit;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Token bucket whose waiters are served by priority lane: a token is never handed to a lane while a
+ * higher lane (lower index) has threads waiting. Tokens are refilled lazily from {@link
+ * System#nanoTime()}.
+ */
+final class PriorityTokenBucket {
+
+  private final double permitsPerNano;
+  private final double capacity;
+
+  private final ReentrantLock lock = new ReentrantLock();
+  private final Condition[] lanes;
+  private final int[] waiting;
+
+  private double tokens;
+  private long lastRefillNanos;
+
+  PriorityTokenBucket(double permitsPerSecond, int burst, int laneCount) {
+    if (permitsPerSecond <= 0) {
+      throw new IllegalArgumentException("permitsPerSecond must be positive");
+    }
+    this.permitsPerNano = permitsPerSecond / TimeUnit.SECONDS.toNanos(1);
+    this.capacity = Math.max(1, burst);
+    this.lanes = new Condition[laneCount];
+    for (int i = 0; i < laneCount; i++) {
+      lanes[i] = lock.newCondition();
+    }
+    this.waiting = new int[laneCount];
+    this.tokens = capacity;
+    this.lastRefillNanos = System.nanoTime();
+  }
+
+  /**
+   * Takes one token for {@code lane}, waiting up to {@code maxWaitNanos}.
+   *
+   * @return false if no token could be taken before the deadline
+   */
+  boolean acquire(int lane, long maxWaitNanos) throws InterruptedException {
+    long deadline = System.nanoTime() + maxWaitNanos;
+    lock.lockInterruptibly();
+    try {
+      refill();
+      if (tokens >= 1 && !higherLaneWaiting(lane)) {
+        tokens -= 1;
+        return true;
+      }
+
+      waiting[lane]++;
+      try {
+        while (true) {
+          long remaining = deadline - System.nanoTime();
+          if (remaining <= 0) {
+            return false;
+          }
+          int higher = highestWaitingLane();
+          if (tokens >= 1 && higher < lane) {
+            // let the higher lane take the token first
+            lanes[higher].signal();
+          }
+          lanes[lane].awaitNanos(Math.min(remaining, nanosUntilNextToken()));
+
+          refill();
+          if (tokens >= 1 && !higherLaneWaiting(lane)) {
+            tokens -= 1;
+            return true;
+          }
+        }
+      } finally {
+        waiting[lane]--;
+        if (tokens >= 1) {
+          int next = highestWaitingLane();
+          if (next < lanes.length) {
+            lanes[next].signal();
+          }
+        }
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private void refill() {
+    long now = System.nanoTime();
+    long elapsed = now - lastRefillNanos;
+    if (elapsed > 0) {
+      tokens = Math.min(capacity, tokens + elapsed * permitsPerNano);
+      lastRefillNanos = now;
+    }
+  }
+
+  private long nanosUntilNextToken() {
+    if (tokens >= 1) {
+      // a token is ready but reserved for a higher lane; re-check once it had a chance to run
+      return TimeUnit.MILLISECONDS.toNanos(1);
+    }
+    return Math.max(1, (long) Math.ceil((1 - tokens) / permitsPerNano));
+  }
+
+  private boolean higherLaneWaiting(int lane) {
+    for (int i = 0; i < lane; i++) {
+      if (waiting[i] > 0) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private int highestWaitingLane() {
+    for (int i = 0; i < waiting.length; i++) {
+      if (waiting[i] > 0) {
+        return i;
+      }
+    }
+    return waiting.length;
+  }
+}
@@ -0,0 +1,18 @@
+package com.arbitrage.service.ratelimit;
+
+import com.arbitrage.enums.RequestClass;
+import lombok.Value;
+import lombok.experimental.Accessors;
+
+/** Point-in-time wait metrics of one (exchange, endpoint class) lane. */
+@Value
+@Accessors(fluent = true)
+public class RateLimitStats {
+
+  private final String exchangeName;
+  private final RequestClass requestClass;
+  private final long acquired;
+  private final long rejected;
+  private final double averageWaitMillis;
+  private final double maxWaitMillis;
+}
@@ -0,0 +1,16 @@
+package com.arbitrage.service.rebalance;
+
+import java.math.BigDecimal;
+import java.util.List;
+import lombok.Value;
+import lombok.experimental.Accessors;
+
+/** Holdings of one currency across exchanges and the flat fee of one transfer between them. */
+@Value
+@Accessors(fluent = true)
+public class CurrencyInventory {
+
+  private final String currency;
+  private final List<VenueInventory> venues;
+  private final BigDecimal transferFee;
+}
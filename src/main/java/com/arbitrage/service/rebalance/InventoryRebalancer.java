@@ -0,0 +1,280 @@
+package com.arbitrage.service.rebalance;
+
+import com.arbitrage.config.RebalanceProperties;
+import com.arbitrage.entities.Currency;
+import com.arbitrage.entities.ExchangeAccount;
+import com.arbitrage.entities.Pair;
+import com.arbitrage.entities.PairExchange;
+import com.arbitrage.enums.PairExchangeStatus;
+import com.arbitrage.model.OrderBook;
+import com.arbitrage.respository.BalanceRepository;
+import com.arbitrage.respository.CurrencyRepository;
+import com.arbitrage.respository.PairExchangeRepository;
+import com.arbitrage.service.ExchangeAccessService;
+import com.arbitrage.service.ExchangeClientFactory;
+import com.arbitrage.service.ExchangeMarketClient;
+import com.arbitrage.service.ledger.BalanceLedger;
+import com.arbitrage.service.position.PositionKey;
+import com.arbitrage.service.position.PositionSnapshot;
+import com.arbitrage.service.position.PositionTracker;
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import lombok.RequiredArgsConstructor;
+import lombok.Value;
+import lombok.experimental.Accessors;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Gathers what the planner needs and keeps the latest plan: available balances of every exchange's
+ * account (from the ledger when it is enabled), target weights from configuration, and flow rates
+ * averaged from the position tracker between runs. The plan is advice; nothing is traded or
+ * withdrawn here.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class InventoryRebalancer {
+
+  private static final MathContext MATH_CONTEXT = MathContext.DECIMAL64;
+  private static final BigDecimal TWO = BigDecimal.valueOf(2);
+  private static final BigDecimal NANOS_PER_HOUR = BigDecimal.valueOf(TimeUnit.HOURS.toNanos(1));
+
+  private final ExchangeClientFactory exchangeClientFactory;
+  private final ExchangeAccessService exchangeAccessService;
+  private final BalanceRepository balanceRepository;
+  private final CurrencyRepository currencyRepository;
+  private final PairExchangeRepository pairExchangeRepository;
+  private final BalanceLedger balanceLedger;
+  private final PositionTracker positionTracker;
+  private final RebalancePlanner planner;
+  private final RebalanceProperties properties;
+
+  // per hour, smoothed across runs
+  private final Map<PositionKey, BigDecimal> flowRates = new HashMap<>();
+  private PositionSnapshot lastPositions;
+  private long lastPositionsNanos;
+  private volatile RebalancePlan latestPlan = RebalancePlan.EMPTY;
+
+  @Scheduled(fixedDelayString = "${app.rebalance.plan-delay:60000}")
+  public void scheduledPlan() {
+    if (!properties.isEnabled()) {
+      return;
+    }
+    try {
+      logPlan(plan());
+    } catch (Exception ex) {
+      log.warn("Rebalance planning failed: {}", ex.getMessage());
+      log.debug("Rebalance planning error", ex);
+    }
+  }
+
+  public RebalancePlan getLatestPlan() {
+    return latestPlan;
+  }
+
+  public synchronized RebalancePlan plan() {
+    updateFlowRates();
+
+    Map<String, ExchangeMarketClient> clients = new HashMap<>();
+    List<Holding> holdings = new ArrayList<>();
+    for (ExchangeMarketClient client : exchangeClientFactory.getClients()) {
+      String exchangeName = client.getExchangeName();
+      ExchangeAccount account;
+      try {
+        account = exchangeAccessService.requireDefaultAccount(exchangeName);
+      } catch (IllegalStateException ex) {
+        log.debug("Skipping {} for rebalancing: {}", exchangeName, ex.getMessage());
+        continue;
+      }
+      clients.put(key(exchangeName), client);
+      Long exchangeId = account.getExchange().getId();
+      for (Object[] row : balanceRepository.findAmountsByAccountId(account.getId())) {
+        Long currencyId = (Long) row[0];
+        BigDecimal available =
+            balanceLedger.isEnabled()
+                ? balanceLedger.get(account.getId(), currencyId).available()
+                : (BigDecimal) row[1];
+        holdings.add(new Holding(exchangeName, exchangeId, currencyId, available));
+      }
+    }
+
+    Set<Long> currencyIds = holdings.stream().map(Holding::currencyId).collect(Collectors.toSet());
+    Map<Long, String> symbols = new HashMap<>();
+    for (Currency currency : currencyRepository.findAllById(currencyIds)) {
+      symbols.put(currency.getId(), currency.getSymbol());
+    }
+    Map<String, List<VenueInventory>> venuesByCurrency = new LinkedHashMap<>();
+    for (Holding holding : holdings) {
+      String symbol = symbols.get(holding.currencyId());
+      if (symbol == null) {
+        continue;
+      }
+      BigDecimal flow =
+          flowRates.getOrDefault(
+              new PositionKey(holding.exchangeId(), holding.currencyId()), BigDecimal.ZERO);
+      venuesByCurrency
+          .computeIfAbsent(symbol, k -> new ArrayList<>())
+          .add(
+              new VenueInventory(
+                  holding.exchangeName(),
+                  holding.available(),
+                  weight(symbol, holding.exchangeName()),
+                  flow));
+    }
+    List<CurrencyInventory> currencies = new ArrayList<>();
+    venuesByCurrency.forEach(
+        (symbol, venues) ->
+            currencies.add(
+                new CurrencyInventory(symbol, venues, properties.getTransferFees().get(symbol))));
+
+    Map<String, List<String>> pairVenues = new HashMap<>();
+    List<PairMarket> pairs = pairMarkets(clients, pairVenues);
+    RebalancePlan plan =
+        planner.plan(
+            currencies,
+            pairs,
+            pairSymbol -> referencePrice(pairSymbol, pairVenues.get(pairSymbol), clients));
+    latestPlan = plan;
+    return plan;
+  }
+
+  private void updateFlowRates() {
+    PositionSnapshot positions = positionTracker.snapshot();
+    long now = System.nanoTime();
+    if (lastPositions != null && now > lastPositionsNanos) {
+      BigDecimal hours =
+          BigDecimal.valueOf(now - lastPositionsNanos).divide(NANOS_PER_HOUR, MATH_CONTEXT);
+      BigDecimal alpha = BigDecimal.valueOf(properties.getFlowSmoothing());
+      for (Map.Entry<PositionKey, BigDecimal> entry : positions.byVenue().entrySet()) {
+        PositionKey key = entry.getKey();
+        BigDecimal change =
+            entry.getValue().subtract(lastPositions.net(key.exchangeId(), key.currencyId()));
+        BigDecimal rate = change.divide(hours, MATH_CONTEXT);
+        flowRates.merge(
+            key,
+            rate,
+            (previous, sample) ->
+                previous.add(sample.subtract(previous).multiply(alpha), MATH_CONTEXT));
+      }
+    }
+    lastPositions = positions;
+    lastPositionsNanos = now;
+  }
+
+  /** Active listings grouped by pair, keeping the exchanges this instance trades on. */
+  private List<PairMarket> pairMarkets(
+      Map<String, ExchangeMarketClient> clients, Map<String, List<String>> pairVenues) {
+    Map<String, PairMarket> markets = new LinkedHashMap<>();
+    for (PairExchange listing : pairExchangeRepository.findAllWithPairs()) {
+      if (listing.getStatus() != null && listing.getStatus() != PairExchangeStatus.ACTIVE) {
+        continue;
+      }
+      ExchangeMarketClient client = clients.get(key(listing.getExchange().getName()));
+      Pair pair = listing.getPair();
+      if (client == null || pair == null) {
+        continue;
+      }
+      PairMarket market =
+          markets.computeIfAbsent(
+              pair.getSymbol(),
+              symbol ->
+                  new PairMarket(
+                      symbol,
+                      pair.getBaseCurrency().getSymbol(),
+                      pair.getQuoteCurrency().getSymbol(),
+                      new HashMap<>()));
+      market.takerFeeBps().put(client.getExchangeName(), listing.getTakerFeeBps());
+      pairVenues
+          .computeIfAbsent(pair.getSymbol(), k -> new ArrayList<>())
+          .add(key(client.getExchangeName()));
+    }
+    return new ArrayList<>(markets.values());
+  }
+
+  /** Mid price of the first listing whose book answers. */
+  private BigDecimal referencePrice(
+      String pairSymbol, List<String> venues, Map<String, ExchangeMarketClient> clients) {
+    if (venues == null) {
+      return null;
+    }
+    for (String venue : venues) {
+      try {
+        OrderBook book = clients.get(venue).getOrderBook(pairSymbol, 1);
+        if (book != null
+            && book.getBids() != null
+            && !book.getBids().isEmpty()
+            && book.getAsks() != null
+            && !book.getAsks().isEmpty()) {
+          return book.getBids()
+              .get(0)
+              .getPrice()
+              .add(book.getAsks().get(0).getPrice())
+              .divide(TWO, MATH_CONTEXT);
+        }
+      } catch (Exception ex) {
+        log.debug("No {} price from {}: {}", pairSymbol, venue, ex.getMessage());
+      }
+    }
+    return null;
+  }
+
+  private BigDecimal weight(String currency, String exchangeName) {
+    Map<String, BigDecimal> weights = properties.weightsFor(currency);
+    if (weights.isEmpty()) {
+      return BigDecimal.ONE;
+    }
+    for (Map.Entry<String, BigDecimal> entry : weights.entrySet()) {
+      if (entry.getKey().equalsIgnoreCase(exchangeName)) {
+        return entry.getValue();
+      }
+    }
+    return BigDecimal.ZERO;
+  }
+
+  private static void logPlan(RebalancePlan plan) {
+    for (OffsettingTrade trade : plan.trades()) {
+      log.info(
+          "Rebalance: buy {} {} on {} and sell it on {} near {}, est. cost {}",
+          trade.qty().toPlainString(),
+          trade.pair(),
+          trade.buyExchange(),
+          trade.sellExchange(),
+          trade.referencePrice().toPlainString(),
+          trade.estimatedCost().toPlainString());
+    }
+    for (Transfer transfer : plan.transfers()) {
+      log.info(
+          "Rebalance: move {} {} from {} to {}, est. fee {}",
+          transfer.amount().toPlainString(),
+          transfer.currency(),
+          transfer.fromExchange(),
+          transfer.toExchange(),
+          transfer.estimatedCost().toPlainString());
+    }
+  }
+
+  private static String key(String exchangeName) {
+    return exchangeName.toUpperCase(Locale.ROOT);
+  }
+
+  @Value
+  @Accessors(fluent = true)
+  private static class Holding {
+
+    private final String exchangeName;
+    private final Long exchangeId;
+    private final Long currencyId;
+    private final BigDecimal available;
+  }
+}
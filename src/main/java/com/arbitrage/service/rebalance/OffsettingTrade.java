@@ -0,0 +1,21 @@
+package com.arbitrage.service.rebalance;
+
+import java.math.BigDecimal;
+import lombok.Value;
+import lombok.experimental.Accessors;
+
+/**
+ * Buy {@code qty} of a pair on one exchange and sell the same on another: base moves to the buyer
+ * and quote to the seller without a withdrawal. The cost is fees plus slippage, in quote currency.
+ */
+@Value
+@Accessors(fluent = true)
+public class OffsettingTrade {
+
+  private final String pair;
+  private final String buyExchange;
+  private final String sellExchange;
+  private final BigDecimal qty;
+  private final BigDecimal referencePrice;
+  private final BigDecimal estimatedCost;
+}
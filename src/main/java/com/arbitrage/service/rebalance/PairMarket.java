@@ -0,0 +1,17 @@
+package com.arbitrage.service.rebalance;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import lombok.Value;
+import lombok.experimental.Accessors;
+
+/** A pair traded on several exchanges, with the taker fee of each, for offsetting trades. */
+@Value
+@Accessors(fluent = true)
+public class PairMarket {
+
+  private final String symbol;
+  private final String baseCurrency;
+  private final String quoteCurrency;
+  private final Map<String, BigDecimal> takerFeeBps;
+}
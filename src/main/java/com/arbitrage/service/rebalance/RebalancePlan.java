@@ -0,0 +1,20 @@
+package com.arbitrage.service.rebalance;
+
+import java.util.List;
+import lombok.Value;
+import lombok.experimental.Accessors;
+
+@Value
+@Accessors(fluent = true)
+public class RebalancePlan {
+
+  private final List<OffsettingTrade> trades;
+  private final List<Transfer> transfers;
+  private final long planningNanos;
+
+  public static final RebalancePlan EMPTY = new RebalancePlan(List.of(), List.of(), 0);
+
+  public boolean isEmpty() {
+    return trades.isEmpty() && transfers.isEmpty();
+  }
+}
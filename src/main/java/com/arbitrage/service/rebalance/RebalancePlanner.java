@@ -0,0 +1,253 @@
+package com.arbitrage.service.rebalance;
+
+import com.arbitrage.config.RebalanceProperties;
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Turns inventories into a rebalancing plan. Every venue gets a target share of each currency,
+ * raised by what its recent flow will consume over the horizon; the gap to it is its surplus or
+ * deficit. Offsetting trades go first: a venue long base and short quote sells to one short base
+ * and long quote, as long as that costs less than the two transfers it replaces. The rest is
+ * matched largest surplus to largest deficit, which needs at most one transfer fewer than there are
+ * venues. Pure in-memory work; only prices of pairs that can be offset are looked up.
+ */
+@Component
+@RequiredArgsConstructor
+public class RebalancePlanner {
+
+  private static final MathContext MATH_CONTEXT = MathContext.DECIMAL64;
+  private static final BigDecimal BPS = BigDecimal.valueOf(10_000);
+  private static final BigDecimal SECONDS_PER_HOUR = BigDecimal.valueOf(3600);
+
+  private final RebalanceProperties properties;
+
+  /**
+   * @param prices reference price of a pair symbol, or {@code null} when unknown; the pair is then
+   *     left to transfers
+   */
+  public RebalancePlan plan(
+      List<CurrencyInventory> currencies,
+      List<PairMarket> pairs,
+      Function<String, BigDecimal> prices) {
+    long start = System.nanoTime();
+    Map<String, Map<String, BigDecimal>> surpluses = new HashMap<>();
+    Map<String, BigDecimal> transferFees = new HashMap<>();
+    for (CurrencyInventory currency : currencies) {
+      surpluses.put(currency.currency(), surpluses(currency.venues()));
+      transferFees.put(currency.currency(), zeroIfNull(currency.transferFee()));
+    }
+
+    List<OffsettingTrade> trades = new ArrayList<>();
+    for (PairMarket pair : pairs) {
+      offset(pair, surpluses, transferFees, prices, trades);
+    }
+
+    List<Transfer> transfers = new ArrayList<>();
+    for (CurrencyInventory currency : currencies) {
+      match(
+          currency.currency(),
+          surpluses.get(currency.currency()),
+          transferFees.get(currency.currency()),
+          transfers);
+    }
+    return new RebalancePlan(trades, transfers, System.nanoTime() - start);
+  }
+
+  /** Holdings minus target per exchange; venues within tolerance are left out. */
+  private Map<String, BigDecimal> surpluses(List<VenueInventory> venues) {
+    Map<String, BigDecimal> surpluses = new LinkedHashMap<>();
+    BigDecimal total = BigDecimal.ZERO;
+    BigDecimal weights = BigDecimal.ZERO;
+    for (VenueInventory venue : venues) {
+      total = total.add(zeroIfNull(venue.available()));
+      weights = weights.add(weight(venue));
+    }
+    if (total.signum() <= 0 || weights.signum() <= 0) {
+      return surpluses;
+    }
+
+    BigDecimal hours =
+        BigDecimal.valueOf(properties.getFlowHorizon().toSeconds())
+            .divide(SECONDS_PER_HOUR, MATH_CONTEXT);
+    BigDecimal[] targets = new BigDecimal[venues.size()];
+    BigDecimal targetSum = BigDecimal.ZERO;
+    for (int i = 0; i < targets.length; i++) {
+      VenueInventory venue = venues.get(i);
+      BigDecimal share = total.multiply(weight(venue)).divide(weights, MATH_CONTEXT);
+      BigDecimal drain = zeroIfNull(venue.flowPerHour()).multiply(hours, MATH_CONTEXT);
+      targets[i] = share.subtract(drain).max(BigDecimal.ZERO);
+      targetSum = targetSum.add(targets[i]);
+    }
+    if (targetSum.signum() <= 0) {
+      return surpluses;
+    }
+
+    // scale back to the total: projected flows move inventory, they do not create it
+    BigDecimal scale = total.divide(targetSum, MATH_CONTEXT);
+    for (int i = 0; i < targets.length; i++) {
+      VenueInventory venue = venues.get(i);
+      BigDecimal target = targets[i].multiply(scale, MATH_CONTEXT);
+      BigDecimal surplus = zeroIfNull(venue.available()).subtract(target, MATH_CONTEXT);
+      if (surplus.abs().compareTo(target.multiply(properties.getTolerance())) > 0) {
+        surpluses.put(venue.exchangeName(), surplus);
+      }
+    }
+    return surpluses;
+  }
+
+  private void offset(
+      PairMarket pair,
+      Map<String, Map<String, BigDecimal>> surpluses,
+      Map<String, BigDecimal> transferFees,
+      Function<String, BigDecimal> prices,
+      List<OffsettingTrade> trades) {
+    Map<String, BigDecimal> base = surpluses.get(pair.baseCurrency());
+    Map<String, BigDecimal> quote = surpluses.get(pair.quoteCurrency());
+    if (base == null || quote == null) {
+      return;
+    }
+    List<String> sellers = new ArrayList<>();
+    List<String> buyers = new ArrayList<>();
+    for (String exchange : pair.takerFeeBps().keySet()) {
+      int baseSign = base.getOrDefault(exchange, BigDecimal.ZERO).signum();
+      int quoteSign = quote.getOrDefault(exchange, BigDecimal.ZERO).signum();
+      if (baseSign > 0 && quoteSign < 0) {
+        sellers.add(exchange);
+      } else if (baseSign < 0 && quoteSign > 0) {
+        buyers.add(exchange);
+      }
+    }
+    if (sellers.isEmpty() || buyers.isEmpty()) {
+      return;
+    }
+    BigDecimal price = prices.apply(pair.symbol());
+    if (price == null || price.signum() <= 0) {
+      return;
+    }
+
+    // the two transfers a trade saves: base one way, quote the other
+    BigDecimal transferCost =
+        transferFees
+            .getOrDefault(pair.baseCurrency(), BigDecimal.ZERO)
+            .multiply(price, MATH_CONTEXT)
+            .add(transferFees.getOrDefault(pair.quoteCurrency(), BigDecimal.ZERO));
+    Comparator<String> bySellCapacity =
+        Comparator.comparing(exchange -> sellCapacity(exchange, base, quote, price));
+    Comparator<String> byBuyCapacity =
+        Comparator.comparing(exchange -> buyCapacity(exchange, base, quote, price));
+    while (!sellers.isEmpty() && !buyers.isEmpty()) {
+      String seller = sellers.stream().max(bySellCapacity).orElseThrow();
+      String buyer = buyers.stream().max(byBuyCapacity).orElseThrow();
+      BigDecimal sellCapacity = sellCapacity(seller, base, quote, price);
+      BigDecimal buyCapacity = buyCapacity(buyer, base, quote, price);
+      BigDecimal qty = sellCapacity.min(buyCapacity);
+      if (qty.signum() <= 0) {
+        break;
+      }
+      BigDecimal feeBps =
+          zeroIfNull(pair.takerFeeBps().get(seller))
+              .add(zeroIfNull(pair.takerFeeBps().get(buyer)))
+              .add(properties.getTradeSlippageBps());
+      BigDecimal notional = qty.multiply(price, MATH_CONTEXT);
+      BigDecimal cost = notional.multiply(feeBps).divide(BPS, MATH_CONTEXT);
+      if (cost.compareTo(transferCost) >= 0) {
+        break;
+      }
+      trades.add(new OffsettingTrade(pair.symbol(), buyer, seller, qty, price, cost));
+      base.merge(seller, qty.negate(), BigDecimal::add);
+      base.merge(buyer, qty, BigDecimal::add);
+      quote.merge(seller, notional, BigDecimal::add);
+      quote.merge(buyer, notional.negate(), BigDecimal::add);
+
+      // whichever side bound the trade is done, so every round retires a venue
+      int cmp = sellCapacity.compareTo(buyCapacity);
+      if (cmp <= 0) {
+        sellers.remove(seller);
+        settle(base, seller);
+        settle(quote, seller);
+      }
+      if (cmp >= 0) {
+        buyers.remove(buyer);
+        settle(base, buyer);
+        settle(quote, buyer);
+      }
+    }
+  }
+
+  private static void match(
+      String currency, Map<String, BigDecimal> surpluses, BigDecimal fee, List<Transfer> out) {
+    if (surpluses == null || surpluses.isEmpty()) {
+      return;
+    }
+    List<Map.Entry<String, BigDecimal>> from = new ArrayList<>();
+    List<Map.Entry<String, BigDecimal>> to = new ArrayList<>();
+    for (Map.Entry<String, BigDecimal> entry : surpluses.entrySet()) {
+      if (entry.getValue().signum() > 0) {
+        from.add(Map.entry(entry.getKey(), entry.getValue()));
+      } else if (entry.getValue().signum() < 0) {
+        to.add(Map.entry(entry.getKey(), entry.getValue().negate()));
+      }
+    }
+    Comparator<Map.Entry<String, BigDecimal>> largestFirst =
+        Map.Entry.<String, BigDecimal>comparingByValue().reversed();
+    from.sort(largestFirst);
+    to.sort(largestFirst);
+
+    int i = 0;
+    int j = 0;
+    BigDecimal left = from.isEmpty() ? BigDecimal.ZERO : from.get(0).getValue();
+    BigDecimal needed = to.isEmpty() ? BigDecimal.ZERO : to.get(0).getValue();
+    while (i < from.size() && j < to.size()) {
+      BigDecimal amount = left.min(needed);
+      // moving less than the fee costs more than it restores
+      if (amount.compareTo(fee) > 0) {
+        out.add(new Transfer(currency, from.get(i).getKey(), to.get(j).getKey(), amount, fee));
+      }
+      left = left.subtract(amount);
+      needed = needed.subtract(amount);
+      if (left.signum() <= 0 && ++i < from.size()) {
+        left = from.get(i).getValue();
+      }
+      if (needed.signum() <= 0 && ++j < to.size()) {
+        needed = to.get(j).getValue();
+      }
+    }
+  }
+
+  private static BigDecimal sellCapacity(
+      String exchange, Map<String, BigDecimal> base, Map<String, BigDecimal> quote, BigDecimal p) {
+    return base.get(exchange).min(quote.get(exchange).negate().divide(p, MATH_CONTEXT));
+  }
+
+  private static BigDecimal buyCapacity(
+      String exchange, Map<String, BigDecimal> base, Map<String, BigDecimal> quote, BigDecimal p) {
+    return base.get(exchange).negate().min(quote.get(exchange).divide(p, MATH_CONTEXT));
+  }
+
+  // drops the rounding residue of a venue that was brought to its target
+  private static void settle(Map<String, BigDecimal> surpluses, String exchange) {
+    BigDecimal left = surpluses.get(exchange);
+    if (left != null && left.abs().compareTo(BigDecimal.ONE.movePointLeft(12)) < 0) {
+      surpluses.remove(exchange);
+    }
+  }
+
+  private static BigDecimal weight(VenueInventory venue) {
+    BigDecimal weight = venue.weight();
+    return weight != null && weight.signum() > 0 ? weight : BigDecimal.ZERO;
+  }
+
+  private static BigDecimal zeroIfNull(BigDecimal value) {
+    return value != null ? value : BigDecimal.ZERO;
+  }
+}
@@ -0,0 +1,17 @@
+package com.arbitrage.service.rebalance;
+
+import java.math.BigDecimal;
+import lombok.Value;
+import lombok.experimental.Accessors;
+
+/** Move {@code amount} of a currency between exchanges; the cost is in the same currency. */
+@Value
+@Accessors(fluent = true)
+public class Transfer {
+
+  private final String currency;
+  private final String fromExchange;
+  private final String toExchange;
+  private final BigDecimal amount;
+  private final BigDecimal estimatedCost;
+}
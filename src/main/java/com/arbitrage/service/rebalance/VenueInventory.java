@@ -0,0 +1,19 @@
+package com.arbitrage.service.rebalance;
+
+import java.math.BigDecimal;
+import lombok.Value;
+import lombok.experimental.Accessors;
+
+/**
+ * One currency on one exchange: what is held, the share of the total it should hold, and how fast
+ * trading has been changing it (negative while it drains), per hour.
+ */
+@Value
+@Accessors(fluent = true)
+public class VenueInventory {
+
+  private final String exchangeName;
+  private final BigDecimal available;
+  private final BigDecimal weight;
+  private final BigDecimal flowPerHour;
+}
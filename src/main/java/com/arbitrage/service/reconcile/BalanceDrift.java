@@ -0,0 +1,23 @@
+package com.arbitrage.service.reconcile;
+
+import java.math.BigDecimal;
+import lombok.Value;
+import lombok.experimental.Accessors;
+
+/**
+ * A balance whose exchange figure differs from ours beyond tolerance. {@code drift} is exchange
+ * minus expected, so a positive drift means the exchange holds more than we think.
+ */
+@Value
+@Accessors(fluent = true)
+public class BalanceDrift {
+
+  private final String exchangeName;
+  private final Long accountId;
+  private final Long currencyId;
+  private final String currencySymbol;
+  private final BigDecimal reported;
+  private final BigDecimal expected;
+  private final BigDecimal drift;
+  private final boolean corrected;
+}
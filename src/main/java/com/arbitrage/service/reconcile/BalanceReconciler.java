@@ -0,0 +1,262 @@
+package com.arbitrage.service.reconcile;
+
+import com.arbitrage.config.BalanceReconciliationProperties;
+import com.arbitrage.entities.Currency;
+import com.arbitrage.entities.ExchangeAccount;
+import com.arbitrage.respository.BalanceLockRepository;
+import com.arbitrage.respository.BalanceRepository;
+import com.arbitrage.respository.CurrencyExchangeRepository;
+import com.arbitrage.service.ExchangeAccessService;
+import com.arbitrage.service.ExchangeClientFactory;
+import com.arbitrage.service.ExchangeMarketClient;
+import com.arbitrage.service.ledger.BalanceAmounts;
+import com.arbitrage.service.ledger.BalanceKey;
+import com.arbitrage.service.ledger.BalanceLedger;
+import com.arbitrage.service.routing.ExchangeFanout;
+import jakarta.annotation.PreDestroy;
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+import lombok.Value;
+import lombok.experimental.Accessors;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Compares every (exchange, account, currency) balance with the wallet the exchange reports. All
+ * wallets are fetched at once on a dedicated pool under one deadline, with a single request for
+ * exchanges that list every wallet, so a sweep takes about as long as the slowest request. Our
+ * figure is {@code available + reserved} minus the locks still open, matching the free funds the
+ * exchanges report.
+ *
+ * <p>Only the default account of each exchange is reconciled. Every exchange client signs its
+ * requests with the credentials of that one account, so the wallets it reports are that account's;
+ * other accounts of the same exchange have no client to ask and are left out of the sweep.
+ */
+@Slf4j
+@Component
+public class BalanceReconciler {
+
+  private static final MathContext MATH_CONTEXT = MathContext.DECIMAL64;
+
+  private final ExchangeClientFactory exchangeClientFactory;
+  private final ExchangeAccessService exchangeAccessService;
+  private final CurrencyExchangeRepository currencyExchangeRepository;
+  private final BalanceRepository balanceRepository;
+  private final BalanceLockRepository balanceLockRepository;
+  private final BalanceLedger balanceLedger;
+  private final BalanceReconciliationProperties properties;
+  private final ExchangeFanout fanout;
+
+  // drift of the previous sweep per balance; a correction needs the same drift twice in a row
+  private final Map<BalanceKey, BigDecimal> previousDrifts = new HashMap<>();
+
+  public BalanceReconciler(
+      ExchangeClientFactory exchangeClientFactory,
+      ExchangeAccessService exchangeAccessService,
+      CurrencyExchangeRepository currencyExchangeRepository,
+      BalanceRepository balanceRepository,
+      BalanceLockRepository balanceLockRepository,
+      BalanceLedger balanceLedger,
+      BalanceReconciliationProperties properties) {
+    this.exchangeClientFactory = exchangeClientFactory;
+    this.exchangeAccessService = exchangeAccessService;
+    this.currencyExchangeRepository = currencyExchangeRepository;
+    this.balanceRepository = balanceRepository;
+    this.balanceLockRepository = balanceLockRepository;
+    this.balanceLedger = balanceLedger;
+    this.properties = properties;
+    this.fanout = new ExchangeFanout("balance-reconcile", properties.getThreads());
+  }
+
+  @Scheduled(fixedDelayString = "${app.balance-reconciliation.poll-delay:300000}")
+  public void scheduledSweep() {
+    if (!properties.isEnabled()) {
+      return;
+    }
+    try {
+      reconcile();
+    } catch (Exception ex) {
+      log.warn("Balance reconciliation failed: {}", ex.getMessage());
+      log.debug("Balance reconciliation error", ex);
+    }
+  }
+
+  /** Runs one sweep and returns the balances found out of tolerance. */
+  public synchronized List<BalanceDrift> reconcile() {
+    long start = System.nanoTime();
+    Map<String, Target> targets = new LinkedHashMap<>();
+    Map<String, Callable<Map<String, BigDecimal>>> fetches = new LinkedHashMap<>();
+    Map<String, String> fetchExchanges = new HashMap<>();
+    for (ExchangeMarketClient client : exchangeClientFactory.getClients()) {
+      String exchangeName = client.getExchangeName();
+      // the account the client is signed in as, see the class comment
+      ExchangeAccount account;
+      try {
+        account = exchangeAccessService.requireDefaultAccount(exchangeName);
+      } catch (IllegalStateException ex) {
+        log.debug("Skipping {} for reconciliation: {}", exchangeName, ex.getMessage());
+        continue;
+      }
+      List<String> names = new ArrayList<>();
+      for (Currency currency :
+          currencyExchangeRepository.findCurrenciesByExchangeName(exchangeName)) {
+        targets.put(
+            targetId(exchangeName, currency.getName()),
+            new Target(exchangeName, account.getId(), currency));
+        names.add(currency.getName());
+      }
+      if (names.isEmpty()) {
+        continue;
+      }
+      // one request per exchange where it lists all wallets, else one per currency
+      if (client.supportsBulkWalletBalances()) {
+        fetches.put(exchangeName, () -> client.getWalletBalances(names));
+        fetchExchanges.put(exchangeName, exchangeName);
+      } else {
+        for (String name : names) {
+          String fetchId = targetId(exchangeName, name);
+          fetches.put(fetchId, () -> Map.of(name, client.getWalletBalance(name)));
+          fetchExchanges.put(fetchId, exchangeName);
+        }
+      }
+    }
+
+    Map<String, BigDecimal> reported = new LinkedHashMap<>();
+    fanout
+        .callAll(fetches, properties.getTimeout())
+        .forEach(
+            (fetchId, wallets) -> {
+              String exchangeName = fetchExchanges.get(fetchId);
+              wallets.forEach((name, amount) -> reported.put(targetId(exchangeName, name), amount));
+            });
+
+    // read after the fetches: an order placed meanwhile shows up as drift for one sweep only
+    Map<Long, Map<Long, BigDecimal>> expectedByAccount = new HashMap<>();
+    List<BalanceDrift> drifts = new ArrayList<>();
+    for (Map.Entry<String, BigDecimal> entry : reported.entrySet()) {
+      Target target = targets.get(entry.getKey());
+      if (target == null) {
+        continue;
+      }
+      Map<Long, BigDecimal> expectedAmounts =
+          expectedByAccount.computeIfAbsent(target.accountId(), this::expectedAmounts);
+      BigDecimal expected =
+          expectedAmounts.getOrDefault(target.currency().getId(), BigDecimal.ZERO);
+      BalanceDrift drift = compare(target, entry.getValue(), expected);
+      if (drift != null) {
+        drifts.add(drift);
+      }
+    }
+
+    log.info(
+        "Reconciled {} of {} balances in {} ms, {} out of tolerance",
+        reported.size(),
+        targets.size(),
+        TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start),
+        drifts.size());
+    return drifts;
+  }
+
+  private BalanceDrift compare(Target target, BigDecimal reported, BigDecimal expected) {
+    BalanceKey key = new BalanceKey(target.accountId(), target.currency().getId());
+    BigDecimal drift = BalanceAmounts.scaled(reported.subtract(expected));
+    BigDecimal scale = reported.abs().max(expected.abs());
+    if (withinTolerance(drift, scale)) {
+      previousDrifts.remove(key);
+      return null;
+    }
+
+    BigDecimal previous = previousDrifts.put(key, drift);
+    boolean stable = previous != null && withinTolerance(drift.subtract(previous), scale);
+    boolean corrected = false;
+    if (properties.isAutoCorrect() && stable) {
+      correct(key, drift);
+      previousDrifts.remove(key);
+      corrected = true;
+    }
+    log.warn(
+        "{} {} balance drift {}: exchange {}, ours {}{}",
+        target.exchangeName(),
+        target.currency().getSymbol(),
+        drift.toPlainString(),
+        reported.toPlainString(),
+        expected.toPlainString(),
+        corrected ? ", corrected" : "");
+    return new BalanceDrift(
+        target.exchangeName(),
+        target.accountId(),
+        target.currency().getId(),
+        target.currency().getSymbol(),
+        reported,
+        expected,
+        drift,
+        corrected);
+  }
+
+  private void correct(BalanceKey key, BigDecimal drift) {
+    if (balanceLedger.isEnabled()) {
+      balanceLedger.adjust(key.accountId(), key.currencyId(), drift);
+    } else {
+      balanceRepository.addAmounts(key.accountId(), key.currencyId(), drift, BigDecimal.ZERO);
+    }
+  }
+
+  /** Our free funds per currency of one account: available plus reserved, minus open locks. */
+  private Map<Long, BigDecimal> expectedAmounts(Long accountId) {
+    Map<Long, BigDecimal> amounts = new HashMap<>();
+    for (Object[] row : balanceRepository.findAmountsByAccountId(accountId)) {
+      Long currencyId = (Long) row[0];
+      BigDecimal available = (BigDecimal) row[1];
+      BigDecimal reserved = (BigDecimal) row[2];
+      if (balanceLedger.isEnabled()) {
+        // the table lags the ledger by up to one flush
+        BalanceAmounts current = balanceLedger.get(accountId, currencyId);
+        available = current.available();
+        reserved = current.reserved();
+      }
+      amounts.put(currencyId, zeroIfNull(available).add(zeroIfNull(reserved)));
+    }
+    for (Object[] row : balanceLockRepository.sumOpenLocksByAccountId(accountId)) {
+      amounts.merge((Long) row[0], ((BigDecimal) row[1]).negate(), BigDecimal::add);
+    }
+    return amounts;
+  }
+
+  private boolean withinTolerance(BigDecimal drift, BigDecimal scale) {
+    BigDecimal tolerance =
+        properties
+            .getAbsoluteTolerance()
+            .max(scale.multiply(properties.getRelativeTolerance(), MATH_CONTEXT));
+    return drift.abs().compareTo(tolerance) <= 0;
+  }
+
+  @PreDestroy
+  void shutdown() {
+    fanout.shutdown();
+  }
+
+  private static String targetId(String exchangeName, String currencyName) {
+    return exchangeName + ":" + currencyName;
+  }
+
+  private static BigDecimal zeroIfNull(BigDecimal value) {
+    return value != null ? value : BigDecimal.ZERO;
+  }
+
+  @Value
+  @Accessors(fluent = true)
+  private static class Target {
+
+    private final String exchangeName;
+    private final Long accountId;
+    private final Currency currency;
+  }
+}
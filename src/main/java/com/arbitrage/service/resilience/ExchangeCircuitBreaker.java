@@ -0,0 +1,148 @@
+package com.arbitrage.service.resilience;
+
+import com.arbitrage.config.CircuitBreakerProperties;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Count-based circuit breaker for one exchange. Opens when the failure or slow-call rate of the
+ * last {@code windowSize} calls crosses its threshold, rejects calls while open, and after {@code
+ * openDuration} lets a few half-open probes through to decide whether to close again.
+ */
+@Slf4j
+public final class ExchangeCircuitBreaker {
+
+  public enum State {
+    CLOSED,
+    OPEN,
+    HALF_OPEN
+  }
+
+  private final String exchangeName;
+  private final CircuitBreakerProperties properties;
+  private final long slowCallNanos;
+  private final long openNanos;
+
+  private final boolean[] failed;
+  private final boolean[] slow;
+  private int next;
+  private int recorded;
+  private int failures;
+  private int slowCalls;
+
+  private State state = State.CLOSED;
+  private long openedAtNanos;
+  private int halfOpenInFlight;
+  private int halfOpenSucceeded;
+
+  public ExchangeCircuitBreaker(String exchangeName, CircuitBreakerProperties properties) {
+    this.exchangeName = exchangeName;
+    this.properties = properties;
+    this.slowCallNanos = properties.getSlowCallThreshold().toNanos();
+    this.openNanos = properties.getOpenDuration().toNanos();
+    this.failed = new boolean[Math.max(1, properties.getWindowSize())];
+    this.slow = new boolean[failed.length];
+  }
+
+  /** Returns true if a call may proceed; every permitted call must be followed by a record call. */
+  public synchronized boolean tryAcquire() {
+    if (!properties.isEnabled()) {
+      return true;
+    }
+    switch (state) {
+      case CLOSED:
+        return true;
+      case OPEN:
+        if (System.nanoTime() - openedAtNanos < openNanos) {
+          return false;
+        }
+        transition(State.HALF_OPEN);
+        // fall through
+      case HALF_OPEN:
+      default:
+        if (halfOpenInFlight + halfOpenSucceeded >= properties.getHalfOpenPermittedCalls()) {
+          return false;
+        }
+        halfOpenInFlight++;
+        return true;
+    }
+  }
+
+  public synchronized void recordResult(long durationNanos, boolean failure) {
+    if (!properties.isEnabled()) {
+      return;
+    }
+    boolean slowCall = durationNanos >= slowCallNanos;
+    if (state == State.HALF_OPEN) {
+      halfOpenInFlight = Math.max(0, halfOpenInFlight - 1);
+      if (failure || slowCall) {
+        open();
+      } else if (++halfOpenSucceeded >= properties.getHalfOpenPermittedCalls()) {
+        transition(State.CLOSED);
+      }
+      return;
+    }
+    if (state == State.OPEN) {
+      return;
+    }
+
+    if (recorded == failed.length) {
+      failures -= failed[next] ? 1 : 0;
+      slowCalls -= slow[next] ? 1 : 0;
+    } else {
+      recorded++;
+    }
+    failed[next] = failure;
+    slow[next] = slowCall;
+    failures += failure ? 1 : 0;
+    slowCalls += slowCall ? 1 : 0;
+    next = (next + 1) % failed.length;
+
+    if (recorded >= properties.getMinimumCalls()
+        && (failures * 100 >= properties.getFailureRateThreshold() * recorded
+            || slowCalls * 100 >= properties.getSlowCallRateThreshold() * recorded)) {
+      open();
+    }
+  }
+
+  /** Releases a half-open permit for a call whose outcome says nothing about exchange health. */
+  public synchronized void recordIgnored() {
+    if (state == State.HALF_OPEN) {
+      halfOpenInFlight = Math.max(0, halfOpenInFlight - 1);
+    }
+  }
+
+  /** True while calls are rejected outright: open, and not yet due for a half-open probe. */
+  public synchronized boolean isRejecting() {
+    return properties.isEnabled()
+        && state == State.OPEN
+        && System.nanoTime() - openedAtNanos < openNanos;
+  }
+
+  public synchronized State getState() {
+    return state;
+  }
+
+  public synchronized void reset() {
+    transition(State.CLOSED);
+  }
+
+  private void open() {
+    openedAtNanos = System.nanoTime();
+    transition(State.OPEN);
+  }
+
+  private void transition(State target) {
+    if (state != target) {
+      log.warn("Circuit breaker for {} changed from {} to {}", exchangeName, state, target);
+    }
+    state = target;
+    halfOpenInFlight = 0;
+    halfOpenSucceeded = 0;
+    if (target == State.CLOSED) {
+      recorded = 0;
+      next = 0;
+      failures = 0;
+      slowCalls = 0;
+    }
+  }
+}
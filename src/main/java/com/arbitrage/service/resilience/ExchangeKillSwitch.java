@@ -0,0 +1,45 @@
+package com.arbitrage.service.resilience;
+
+import com.arbitrage.config.CircuitBreakerProperties;
+import java.util.Locale;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+/** Operator switch that stops new orders to an exchange while cancels and polling keep working. */
+@Slf4j
+@Component
+public class ExchangeKillSwitch {
+
+  private final Set<String> killed = ConcurrentHashMap.newKeySet();
+
+  public ExchangeKillSwitch(CircuitBreakerProperties properties) {
+    properties.getKilledExchanges().forEach(this::kill);
+  }
+
+  public void kill(String exchangeName) {
+    if (killed.add(normalize(exchangeName))) {
+      log.warn("Kill switch engaged for {}: new orders are rejected", exchangeName);
+    }
+  }
+
+  public void restore(String exchangeName) {
+    if (killed.remove(normalize(exchangeName))) {
+      log.warn("Kill switch released for {}", exchangeName);
+    }
+  }
+
+  public boolean isKilled(String exchangeName) {
+    return exchangeName != null && killed.contains(normalize(exchangeName));
+  }
+
+  public Set<String> killedExchanges() {
+    return new TreeSet<>(killed);
+  }
+
+  private static String normalize(String exchangeName) {
+    return exchangeName.trim().toUpperCase(Locale.ROOT);
+  }
+}
@@ -0,0 +1,150 @@
+package com.arbitrage.service.resilience;
+
+import com.arbitrage.exception.AppException;
+import com.arbitrage.model.ExchangeOrderSnapshot;
+import com.arbitrage.model.ExchangeOrderStatus;
+import com.arbitrage.model.ExchangeTrade;
+import com.arbitrage.model.OrderAck;
+import com.arbitrage.model.OrderBook;
+import com.arbitrage.model.OrderRequest;
+import com.arbitrage.model.Quote;
+import com.arbitrage.service.ExchangeMarketClient;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestClientResponseException;
+
+/**
+ * Decorates an exchange client with its circuit breaker and the operator kill switch. Calls fail
+ * fast with {@code CIRCUIT_OPEN} while the breaker is open; {@link #submitOrder} additionally fails
+ * with {@code EXCHANGE_KILLED} while the venue is switched off.
+ */
+public class GuardedExchangeMarketClient implements ExchangeMarketClient {
+
+  private final ExchangeMarketClient delegate;
+  private final ExchangeCircuitBreaker circuitBreaker;
+  private final ExchangeKillSwitch killSwitch;
+
+  public GuardedExchangeMarketClient(
+      ExchangeMarketClient delegate,
+      ExchangeCircuitBreaker circuitBreaker,
+      ExchangeKillSwitch killSwitch) {
+    this.delegate = delegate;
+    this.circuitBreaker = circuitBreaker;
+    this.killSwitch = killSwitch;
+  }
+
+  public ExchangeMarketClient getDelegate() {
+    return delegate;
+  }
+
+  public ExchangeCircuitBreaker getCircuitBreaker() {
+    return circuitBreaker;
+  }
+
+  @Override
+  public String getExchangeName() {
+    return delegate.getExchangeName();
+  }
+
+  @Override
+  public BigDecimal getWalletBalance(String currency) {
+    return guard(() -> delegate.getWalletBalance(currency));
+  }
+
+  @Override
+  public boolean supportsBulkWalletBalances() {
+    return delegate.supportsBulkWalletBalances();
+  }
+
+  @Override
+  public Map<String, BigDecimal> getWalletBalances(Collection<String> currencies) {
+    return guard(() -> delegate.getWalletBalances(currencies));
+  }
+
+  @Override
+  public List<Quote> getQuotes() {
+    return guard(delegate::getQuotes);
+  }
+
+  @Override
+  public OrderAck submitOrder(OrderRequest orderRequest) {
+    if (killSwitch.isKilled(getExchangeName())) {
+      throw new AppException(
+          "New orders to " + getExchangeName() + " are disabled by the kill switch",
+          HttpStatus.SERVICE_UNAVAILABLE,
+          "EXCHANGE_KILLED");
+    }
+    return guard(() -> delegate.submitOrder(orderRequest));
+  }
+
+  @Override
+  public boolean cancelOrder(String orderId) {
+    return guard(() -> delegate.cancelOrder(orderId));
+  }
+
+  @Override
+  public ExchangeOrderStatus getOrderStatus(String orderId) {
+    return guard(() -> delegate.getOrderStatus(orderId));
+  }
+
+  @Override
+  public OrderBook getOrderBook(String symbol, int depth) {
+    return guard(() -> delegate.getOrderBook(symbol, depth));
+  }
+
+  @Override
+  public boolean supportsRecentOrders() {
+    return delegate.supportsRecentOrders();
+  }
+
+  @Override
+  public List<ExchangeOrderSnapshot> getRecentOrders() {
+    return guard(delegate::getRecentOrders);
+  }
+
+  @Override
+  public boolean supportsTrades() {
+    return delegate.supportsTrades();
+  }
+
+  @Override
+  public List<ExchangeTrade> getTrades(String afterTradeId, Instant since) {
+    return guard(() -> delegate.getTrades(afterTradeId, since));
+  }
+
+  private <T> T guard(Supplier<T> call) {
+    if (!circuitBreaker.tryAcquire()) {
+      throw new AppException(
+          "Circuit breaker for " + getExchangeName() + " is open",
+          HttpStatus.SERVICE_UNAVAILABLE,
+          "CIRCUIT_OPEN");
+    }
+    long start = System.nanoTime();
+    try {
+      T result = call.get();
+      circuitBreaker.recordResult(System.nanoTime() - start, false);
+      return result;
+    } catch (RestClientException ex) {
+      circuitBreaker.recordResult(System.nanoTime() - start, isExchangeFailure(ex));
+      throw ex;
+    } catch (RuntimeException ex) {
+      circuitBreaker.recordIgnored();
+      throw ex;
+    }
+  }
+
+  /** Client errors (4xx other than 429) prove the exchange answered, so they do not count. */
+  private static boolean isExchangeFailure(RestClientException ex) {
+    if (ex instanceof RestClientResponseException) {
+      int status = ((RestClientResponseException) ex).getStatusCode().value();
+      return status >= 500 || status == HttpStatus.TOO_MANY_REQUESTS.value();
+    }
+    return true;
+  }
+}
@@ -0,0 +1,20 @@
+package com.arbitrage.service.risk;
+
+import java.math.BigDecimal;
+import lombok.Value;
+import lombok.experimental.Accessors;
+
+/** An order about to be sent, as seen by the pre-trade checks. */
+@Value
+@Accessors(fluent = true)
+public class RiskCheck {
+
+  private final Long exchangeId;
+  private final Long baseCurrencyId;
+  private final String baseSymbol;
+  private final Long quoteCurrencyId;
+  private final String quoteSymbol;
+  private final boolean buy;
+  private final BigDecimal qty;
+  private final BigDecimal price;
+}
@@ -0,0 +1,223 @@
+package com.arbitrage.service.risk;
+
+import com.arbitrage.config.RiskLimitProperties;
+import com.arbitrage.enums.RiskRule;
+import com.arbitrage.exception.RiskLimitExceededException;
+import com.arbitrage.service.position.PositionKey;
+import com.arbitrage.service.position.PositionTracker;
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.LongSupplier;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Pre-trade limits checked against in-memory counters. {@link #reserve} adds an order to the open
+ * notional of its exchange and to the pending buys or sells of its base currency, each with a
+ * compare-and-set that fails instead of passing the limit; {@link #release} takes filled or
+ * cancelled quantity back out. Nothing on this path locks or touches the database.
+ *
+ * <p>Orders still open at startup are counted again by {@link RiskEngineSeeder}. Positions come
+ * from fills since startup, so {@code max-position} bounds how far a position moves from where it
+ * stood then. Releases never take a counter below zero.
+ */
+@Component
+public class RiskEngine {
+
+  private static final MathContext MATH_CONTEXT = MathContext.DECIMAL64;
+
+  private final RiskLimitProperties properties;
+  private final PositionTracker positionTracker;
+  private final LongSupplier currentTimeMillis;
+
+  private final Map<PositionKey, AtomicReference<BigDecimal>> openNotional =
+      new ConcurrentHashMap<>();
+  private final Map<Long, AtomicReference<BigDecimal>> pendingBuys = new ConcurrentHashMap<>();
+  private final Map<Long, AtomicReference<BigDecimal>> pendingSells = new ConcurrentHashMap<>();
+  // epoch second in the high 32 bits, orders sent in that second in the low 32
+  private final AtomicLong orderWindow = new AtomicLong();
+
+  @Autowired
+  public RiskEngine(RiskLimitProperties properties, PositionTracker positionTracker) {
+    this(properties, positionTracker, System::currentTimeMillis);
+  }
+
+  /** Reads the order-rate window's time from {@code currentTimeMillis}, so tests can pin it. */
+  public RiskEngine(
+      RiskLimitProperties properties,
+      PositionTracker positionTracker,
+      LongSupplier currentTimeMillis) {
+    this.properties = properties;
+    this.positionTracker = positionTracker;
+    this.currentTimeMillis = currentTimeMillis;
+  }
+
+  /**
+   * Checks every limit and counts the order as open.
+   *
+   * @throws RiskLimitExceededException naming the first rule the order breaks; nothing is counted
+   */
+  public void reserve(RiskCheck order) {
+    if (!properties.isEnabled()) {
+      return;
+    }
+    BigDecimal notional = order.price().multiply(order.qty(), MATH_CONTEXT);
+    BigDecimal maxNotional = limit(properties.getMaxOrderNotional(), order.quoteSymbol());
+    if (maxNotional != null && notional.compareTo(maxNotional) > 0) {
+      throw new RiskLimitExceededException(
+          RiskRule.MAX_ORDER_NOTIONAL,
+          "order notional " + notional.toPlainString() + " exceeds " + maxNotional.toPlainString());
+    }
+
+    BigDecimal maxOpen = limit(properties.getMaxOpenNotional(), order.quoteSymbol());
+    AtomicReference<BigDecimal> open =
+        cell(openNotional, new PositionKey(order.exchangeId(), order.quoteCurrencyId()));
+    if (!tryAdd(open, notional, maxOpen)) {
+      throw new RiskLimitExceededException(
+          RiskRule.MAX_OPEN_NOTIONAL,
+          "open " + order.quoteSymbol() + " notional would exceed " + maxOpen.toPlainString());
+    }
+
+    BigDecimal maxPosition = limit(properties.getMaxPosition(), order.baseSymbol());
+    AtomicReference<BigDecimal> pending = pending(order.buy(), order.baseCurrencyId());
+    BigDecimal position = positionTracker.aggregate(order.baseCurrencyId());
+    // a buy may grow the position up to +max, a sell down to -max
+    BigDecimal room =
+        maxPosition == null
+            ? null
+            : order.buy() ? maxPosition.subtract(position) : maxPosition.add(position);
+    if (!tryAdd(pending, order.qty(), room)) {
+      subtract(open, notional);
+      throw new RiskLimitExceededException(
+          RiskRule.MAX_POSITION,
+          order.baseSymbol() + " position would exceed " + maxPosition.toPlainString());
+    }
+
+    if (!tryCountOrder(properties.getMaxOrdersPerSecond())) {
+      subtract(open, notional);
+      subtract(pending, order.qty());
+      throw new RiskLimitExceededException(
+          RiskRule.ORDER_RATE,
+          "more than " + properties.getMaxOrdersPerSecond() + " orders per second");
+    }
+  }
+
+  /**
+   * Counts an order that is already open, such as one found at startup, without checking limits: if
+   * the limits are exceeded, new orders are rejected until enough is released.
+   */
+  public void restore(RiskCheck order) {
+    if (!properties.isEnabled() || order.qty() == null || order.qty().signum() <= 0) {
+      return;
+    }
+    if (order.price() != null) {
+      add(
+          cell(openNotional, new PositionKey(order.exchangeId(), order.quoteCurrencyId())),
+          order.price().multiply(order.qty(), MATH_CONTEXT));
+    }
+    add(pending(order.buy(), order.baseCurrencyId()), order.qty());
+  }
+
+  /** Takes back the reservation of an order that was not sent. */
+  public void release(RiskCheck order) {
+    release(
+        order.exchangeId(),
+        order.baseCurrencyId(),
+        order.quoteCurrencyId(),
+        order.buy(),
+        order.qty(),
+        order.price());
+  }
+
+  /** Removes {@code qty} of an order at limit {@code price} once it is filled or cancelled. */
+  public void release(
+      Long exchangeId,
+      Long baseCurrencyId,
+      Long quoteCurrencyId,
+      boolean buy,
+      BigDecimal qty,
+      BigDecimal price) {
+    if (!properties.isEnabled() || qty == null || qty.signum() <= 0) {
+      return;
+    }
+    if (price != null) {
+      AtomicReference<BigDecimal> open =
+          openNotional.get(new PositionKey(exchangeId, quoteCurrencyId));
+      if (open != null) {
+        subtract(open, price.multiply(qty, MATH_CONTEXT));
+      }
+    }
+    AtomicReference<BigDecimal> pending = (buy ? pendingBuys : pendingSells).get(baseCurrencyId);
+    if (pending != null) {
+      subtract(pending, qty);
+    }
+  }
+
+  public BigDecimal openNotional(Long exchangeId, Long quoteCurrencyId) {
+    AtomicReference<BigDecimal> open =
+        openNotional.get(new PositionKey(exchangeId, quoteCurrencyId));
+    return open != null ? open.get() : BigDecimal.ZERO;
+  }
+
+  private AtomicReference<BigDecimal> pending(boolean buy, Long baseCurrencyId) {
+    return cell(buy ? pendingBuys : pendingSells, baseCurrencyId);
+  }
+
+  private boolean tryCountOrder(int maxPerSecond) {
+    if (maxPerSecond <= 0) {
+      return true;
+    }
+    long second = (currentTimeMillis.getAsLong() / 1000) & 0xFFFFFFFFL;
+    while (true) {
+      long state = orderWindow.get();
+      long count = (state >>> 32) == second ? (state & 0xFFFFFFFFL) + 1 : 1;
+      if (count > maxPerSecond) {
+        return false;
+      }
+      if (orderWindow.compareAndSet(state, (second << 32) | count)) {
+        return true;
+      }
+    }
+  }
+
+  private static boolean tryAdd(
+      AtomicReference<BigDecimal> cell, BigDecimal amount, BigDecimal limit) {
+    while (true) {
+      BigDecimal current = cell.get();
+      BigDecimal next = current.add(amount, MATH_CONTEXT);
+      if (limit != null && next.compareTo(limit) > 0) {
+        return false;
+      }
+      if (cell.compareAndSet(current, next)) {
+        return true;
+      }
+    }
+  }
+
+  private static void add(AtomicReference<BigDecimal> cell, BigDecimal amount) {
+    cell.accumulateAndGet(amount, (current, change) -> current.add(change, MATH_CONTEXT));
+  }
+
+  private static void subtract(AtomicReference<BigDecimal> cell, BigDecimal amount) {
+    cell.accumulateAndGet(
+        amount, (current, change) -> current.subtract(change, MATH_CONTEXT).max(BigDecimal.ZERO));
+  }
+
+  private static <K> AtomicReference<BigDecimal> cell(
+      Map<K, AtomicReference<BigDecimal>> cells, K key) {
+    return cells.computeIfAbsent(key, k -> new AtomicReference<>(BigDecimal.ZERO));
+  }
+
+  private static BigDecimal limit(Map<String, BigDecimal> limits, String symbol) {
+    if (symbol == null || limits.isEmpty()) {
+      return null;
+    }
+    BigDecimal limit = limits.get(symbol);
+    return limit != null ? limit : limits.get(symbol.toUpperCase(Locale.ROOT));
+  }
+}
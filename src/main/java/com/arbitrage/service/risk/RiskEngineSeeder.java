@@ -0,0 +1,84 @@
+package com.arbitrage.service.risk;
+
+import com.arbitrage.dal.OpenOrderIndex;
+import com.arbitrage.entities.Currency;
+import com.arbitrage.entities.Pair;
+import com.arbitrage.model.OpenOrder;
+import com.arbitrage.respository.PairRepository;
+import com.arbitrage.service.ExchangeAccessService;
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Counts the unfilled rest of every order in the {@link OpenOrderIndex} into the {@link RiskEngine}
+ * at startup, so orders sent before a restart keep using up open notional and pending quantity
+ * until their fills and cancels release them.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RiskEngineSeeder {
+
+  private final RiskEngine riskEngine;
+  private final OpenOrderIndex openOrderIndex;
+  private final ExchangeAccessService exchangeAccessService;
+  private final PairRepository pairRepository;
+
+  @EventListener(ApplicationReadyEvent.class)
+  @Transactional(readOnly = true)
+  public void seed() {
+    Map<String, Optional<Pair>> pairs = new HashMap<>();
+    int seeded = 0;
+    for (List<OpenOrder> orders : openOrderIndex.byExchange().values()) {
+      for (OpenOrder order : orders) {
+        Pair pair =
+            order.pairSymbol() != null
+                ? pairs
+                    .computeIfAbsent(order.pairSymbol(), pairRepository::findBySymbolIgnoreCase)
+                    .orElse(null)
+                : null;
+        BigDecimal remaining = remaining(order);
+        if (pair == null || remaining.signum() <= 0) {
+          continue;
+        }
+        Long exchangeId;
+        try {
+          exchangeId = exchangeAccessService.requireExchange(order.exchangeName()).getId();
+        } catch (IllegalStateException ex) {
+          log.debug("Not counting order {}: {}", order.id(), ex.getMessage());
+          continue;
+        }
+        Currency base = pair.getBaseCurrency();
+        Currency quote = pair.getQuoteCurrency();
+        riskEngine.restore(
+            new RiskCheck(
+                exchangeId,
+                base.getId(),
+                base.getSymbol(),
+                quote.getId(),
+                quote.getSymbol(),
+                "BUY".equalsIgnoreCase(order.side()),
+                remaining,
+                order.price()));
+        seeded++;
+      }
+    }
+    log.info("Risk counters seeded with {} open orders", seeded);
+  }
+
+  private static BigDecimal remaining(OpenOrder order) {
+    if (order.qty() == null) {
+      return BigDecimal.ZERO;
+    }
+    return order.qtyExec() != null ? order.qty().subtract(order.qtyExec()) : order.qty();
+  }
+}
@@ -0,0 +1,19 @@
+package com.arbitrage.service.routing;
+
+import java.math.BigDecimal;
+import lombok.Value;
+import lombok.experimental.Accessors;
+
+/**
+ * One venue's share of a routed order. {@code limitPrice} is the worst level the share sweeps;
+ * {@code expectedNotional} is the fee-inclusive amount paid (buy) or received (sell).
+ */
+@Value
+@Accessors(fluent = true)
+public class ChildOrderPlan {
+
+  private final String exchangeName;
+  private final BigDecimal qty;
+  private final BigDecimal limitPrice;
+  private final BigDecimal expectedNotional;
+}
@@ -0,0 +1,81 @@
+package com.arbitrage.service.routing;
+
+import com.arbitrage.config.RoutingProperties;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Runs one blocking exchange call per venue in parallel and collects the answers that arrive before
+ * a shared deadline. Failed or late venues are logged and left out of the result.
+ */
+@Slf4j
+@Component
+public class ExchangeFanout {
+
+  private final ExecutorService executor;
+
+  @Autowired
+  public ExchangeFanout(RoutingProperties properties) {
+    this("exchange-fanout", properties.getThreads());
+  }
+
+  /** A separate pool, for bulk work that must not queue behind order routing. */
+  public ExchangeFanout(String threadPrefix, int threads) {
+    AtomicInteger counter = new AtomicInteger();
+    ThreadFactory threadFactory =
+        runnable -> {
+          Thread thread = new Thread(runnable, threadPrefix + "-" + counter.incrementAndGet());
+          thread.setDaemon(true);
+          return thread;
+        };
+    this.executor = Executors.newFixedThreadPool(Math.max(1, threads), threadFactory);
+  }
+
+  /** Returns the successful results keyed like {@code calls}, in the same order. */
+  public <T> Map<String, T> callAll(Map<String, Callable<T>> calls, Duration timeout) {
+    Map<String, Future<T>> futures = new LinkedHashMap<>();
+    calls.forEach((venue, call) -> futures.put(venue, executor.submit(call)));
+
+    long deadline = System.nanoTime() + timeout.toNanos();
+    Map<String, T> results = new LinkedHashMap<>();
+    for (Map.Entry<String, Future<T>> entry : futures.entrySet()) {
+      String venue = entry.getKey();
+      Future<T> future = entry.getValue();
+      try {
+        T value = future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        if (value != null) {
+          results.put(venue, value);
+        }
+      } catch (TimeoutException ex) {
+        log.warn("{} did not answer within {}", venue, timeout);
+      } catch (ExecutionException ex) {
+        log.warn("{} call failed: {}", venue, ex.getCause().getMessage());
+        log.debug("Fanout error", ex.getCause());
+      } catch (InterruptedException ex) {
+        Thread.currentThread().interrupt();
+        futures.values().forEach(f -> f.cancel(true));
+        break;
+      }
+    }
+    return results;
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    executor.shutdownNow();
+  }
+}
@@ -0,0 +1,21 @@
+package com.arbitrage.service.routing;
+
+import java.math.BigDecimal;
+import java.util.List;
+import lombok.Value;
+import lombok.experimental.Accessors;
+
+@Value
+@Accessors(fluent = true)
+public class RoutePlan {
+
+  private final List<ChildOrderPlan> children;
+  private final BigDecimal routedQty;
+  private final BigDecimal unroutedQty;
+  private final BigDecimal expectedNotional;
+  private final long routingNanos;
+
+  public boolean isEmpty() {
+    return children.isEmpty();
+  }
+}
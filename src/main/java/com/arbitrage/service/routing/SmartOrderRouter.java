@@ -0,0 +1,152 @@
+package com.arbitrage.service.routing;
+
+import com.arbitrage.enums.OrderSide;
+import com.arbitrage.model.OrderBookLevel;
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
+import org.springframework.stereotype.Component;
+
+/**
+ * Splits an order across venues by walking all books at once and always taking the level with the
+ * best fee-adjusted price, capped by each venue's balance and max order size. With linear fees this
+ * greedy merge is the minimum-cost split. Pure in-memory work over a few dozen levels, so a route
+ * is computed in microseconds.
+ */
+@Component
+public class SmartOrderRouter {
+
+  private static final MathContext MATH_CONTEXT = MathContext.DECIMAL64;
+  private static final BigDecimal BPS = BigDecimal.valueOf(10_000);
+
+  public RoutePlan route(
+      OrderSide side, BigDecimal qty, BigDecimal limitPrice, List<VenueLiquidity> venues) {
+    long start = System.nanoTime();
+    boolean buy = side == OrderSide.BUY;
+    int n = venues.size();
+
+    BigDecimal[] feeFactor = new BigDecimal[n];
+    BigDecimal[] budget = new BigDecimal[n];
+    BigDecimal[] levelLeft = new BigDecimal[n];
+    int[] cursor = new int[n];
+    BigDecimal[] taken = new BigDecimal[n];
+    BigDecimal[] worstPrice = new BigDecimal[n];
+    BigDecimal[] notional = new BigDecimal[n];
+
+    for (int i = 0; i < n; i++) {
+      VenueLiquidity venue = venues.get(i);
+      BigDecimal fee =
+          venue.takerFeeBps() != null ? venue.takerFeeBps().divide(BPS) : BigDecimal.ZERO;
+      feeFactor[i] = buy ? BigDecimal.ONE.add(fee) : BigDecimal.ONE.subtract(fee);
+      budget[i] = venue.available();
+      taken[i] = BigDecimal.ZERO;
+      notional[i] = BigDecimal.ZERO;
+      List<OrderBookLevel> levels = venue.levels();
+      levelLeft[i] = levels != null && !levels.isEmpty() ? levels.get(0).getQty() : null;
+    }
+
+    BigDecimal remaining = qty;
+    while (remaining.signum() > 0) {
+      int best = -1;
+      BigDecimal bestEffective = null;
+      for (int i = 0; i < n; i++) {
+        OrderBookLevel level = currentLevel(venues.get(i), cursor[i]);
+        if (level == null || !withinLimit(buy, level.getPrice(), limitPrice)) {
+          continue;
+        }
+        BigDecimal effective = level.getPrice().multiply(feeFactor[i], MATH_CONTEXT);
+        int cmp = bestEffective == null ? 0 : effective.compareTo(bestEffective);
+        if (bestEffective == null || (buy ? cmp < 0 : cmp > 0)) {
+          best = i;
+          bestEffective = effective;
+        }
+      }
+      if (best < 0) {
+        break;
+      }
+
+      VenueLiquidity venue = venues.get(best);
+      BigDecimal price = currentLevel(venue, cursor[best]).getPrice();
+      BigDecimal take = remaining.min(levelLeft[best]);
+      if (venue.maxOrderSize() != null && venue.maxOrderSize().signum() > 0) {
+        take = take.min(venue.maxOrderSize().subtract(taken[best]));
+      }
+      if (budget[best] != null) {
+        BigDecimal affordable =
+            buy ? budget[best].divide(bestEffective, MATH_CONTEXT) : budget[best];
+        take = take.min(affordable);
+      }
+
+      if (take.signum() <= 0) {
+        // venue exhausted by balance or size cap
+        cursor[best] = Integer.MAX_VALUE;
+        continue;
+      }
+
+      BigDecimal takeNotional = take.multiply(bestEffective, MATH_CONTEXT);
+      taken[best] = taken[best].add(take);
+      notional[best] = notional[best].add(takeNotional, MATH_CONTEXT);
+      worstPrice[best] = price;
+      if (budget[best] != null) {
+        budget[best] = budget[best].subtract(buy ? takeNotional : take, MATH_CONTEXT);
+      }
+      remaining = remaining.subtract(take);
+
+      levelLeft[best] = levelLeft[best].subtract(take);
+      if (levelLeft[best].signum() <= 0) {
+        cursor[best]++;
+        OrderBookLevel next = currentLevel(venue, cursor[best]);
+        levelLeft[best] = next != null ? next.getQty() : null;
+      }
+    }
+
+    List<ChildOrderPlan> children = new ArrayList<>(n);
+    BigDecimal routed = BigDecimal.ZERO;
+    BigDecimal total = BigDecimal.ZERO;
+    for (int i = 0; i < n; i++) {
+      if (taken[i].signum() <= 0) {
+        continue;
+      }
+      VenueLiquidity venue = venues.get(i);
+      BigDecimal childQty = roundToStep(taken[i], venue.stepSize());
+      if (childQty.signum() <= 0) {
+        continue;
+      }
+      BigDecimal childNotional =
+          childQty.compareTo(taken[i]) == 0
+              ? notional[i]
+              : notional[i].multiply(childQty).divide(taken[i], MATH_CONTEXT);
+      if (venue.minNotional() != null
+          && childQty.multiply(worstPrice[i]).compareTo(venue.minNotional()) < 0) {
+        continue;
+      }
+      children.add(
+          new ChildOrderPlan(venue.exchangeName(), childQty, worstPrice[i], childNotional));
+      routed = routed.add(childQty);
+      total = total.add(childNotional, MATH_CONTEXT);
+    }
+
+    return new RoutePlan(children, routed, qty.subtract(routed), total, System.nanoTime() - start);
+  }
+
+  private static OrderBookLevel currentLevel(VenueLiquidity venue, int cursor) {
+    List<OrderBookLevel> levels = venue.levels();
+    return levels != null && cursor < levels.size() ? levels.get(cursor) : null;
+  }
+
+  private static boolean withinLimit(boolean buy, BigDecimal price, BigDecimal limitPrice) {
+    if (limitPrice == null || limitPrice.signum() <= 0) {
+      return true;
+    }
+    return buy ? price.compareTo(limitPrice) <= 0 : price.compareTo(limitPrice) >= 0;
+  }
+
+  private static BigDecimal roundToStep(BigDecimal qty, BigDecimal step) {
+    if (step == null || step.signum() <= 0) {
+      return qty;
+    }
+    return qty.divide(step, 0, RoundingMode.DOWN).multiply(step);
+  }
+}
@@ -0,0 +1,25 @@
+package com.arbitrage.service.routing;
+
+import com.arbitrage.model.OrderBookLevel;
+import java.math.BigDecimal;
+import java.util.List;
+import lombok.Value;
+import lombok.experimental.Accessors;
+
+/**
+ * What one exchange can take of a routed order: the opposite side of its book (best level first),
+ * its taker fee, and the balance that funds the order there (quote for buys, base for sells).
+ * {@code null} limits are not enforced.
+ */
+@Value
+@Accessors(fluent = true)
+public class VenueLiquidity {
+
+  private final String exchangeName;
+  private final List<OrderBookLevel> levels;
+  private final BigDecimal takerFeeBps;
+  private final BigDecimal available;
+  private final BigDecimal stepSize;
+  private final BigDecimal minNotional;
+  private final BigDecimal maxOrderSize;
+}
@@ -0,0 +1,129 @@
+package com.arbitrage.service.stream;
+
+import com.arbitrage.enums.OrderStatus;
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Centrifugo JSON protocol used by Nobitex and Ramzinex: a connect command carrying the token, one
+ * subscribe command per channel, empty-object pings that must be echoed, and publications wrapped
+ * in {@code push.pub.data}.
+ */
+abstract class CentrifugoDialect implements UserStreamDialect {
+
+  private static final String PING_REPLY = "{}";
+
+  protected static List<String> centrifugoFrames(String token, Collection<String> channels) {
+    List<String> frames = new ArrayList<>(channels.size() + 1);
+    int id = 1;
+    frames.add("{\"id\":" + id++ + ",\"connect\":{\"token\":\"" + escape(token) + "\"}}");
+    for (String channel : channels) {
+      frames.add("{\"id\":" + id++ + ",\"subscribe\":{\"channel\":\"" + escape(channel) + "\"}}");
+    }
+    return frames;
+  }
+
+  /** Centrifugo batches several JSON replies into one frame, one per line. */
+  @Override
+  public List<String> messages(String frame) {
+    List<String> messages = new ArrayList<>();
+    for (String line : frame.split("\n")) {
+      if (!line.isBlank()) {
+        messages.add(line);
+      }
+    }
+    return messages;
+  }
+
+  @Override
+  public String reply(Map<String, Object> message) {
+    return message.isEmpty() ? PING_REPLY : null;
+  }
+
+  @Override
+  public List<OrderUpdateEvent> parse(Map<String, Object> message) {
+    Map<String, Object> push = asMap(message.get("push"));
+    Map<String, Object> pub = push != null ? asMap(push.get("pub")) : null;
+    if (pub == null) {
+      return Collections.emptyList();
+    }
+    String channel = String.valueOf(push.get("channel"));
+    Object data = pub.get("data");
+    List<OrderUpdateEvent> events = new ArrayList<>();
+    if (data instanceof List) {
+      for (Object item : (List<?>) data) {
+        addIfOrder(events, channel, asMap(item));
+      }
+    } else {
+      addIfOrder(events, channel, asMap(data));
+    }
+    return events;
+  }
+
+  private void addIfOrder(List<OrderUpdateEvent> events, String channel, Map<String, Object> data) {
+    if (data != null) {
+      OrderUpdateEvent event = toEvent(channel, data);
+      if (event != null && (event.exchangeOrderId() != null || event.clientOrderId() != null)) {
+        events.add(event);
+      }
+    }
+  }
+
+  /** Maps one published order object, or returns null for channels that carry no orders. */
+  protected abstract OrderUpdateEvent toEvent(String channel, Map<String, Object> data);
+
+  protected static OrderUpdateEvent event(
+      String exchangeOrderId,
+      String clientOrderId,
+      OrderStatus status,
+      BigDecimal filledQty,
+      BigDecimal avgPrice,
+      BigDecimal executedNotional) {
+    if (executedNotional == null && filledQty != null && avgPrice != null) {
+      executedNotional = avgPrice.multiply(filledQty, MathContext.DECIMAL64);
+    }
+    return new OrderUpdateEvent(
+        exchangeOrderId, clientOrderId, status, filledQty, avgPrice, executedNotional);
+  }
+
+  @SuppressWarnings("unchecked")
+  protected static Map<String, Object> asMap(Object value) {
+    return value instanceof Map<?, ?> ? (Map<String, Object>) value : null;
+  }
+
+  protected static String text(Map<String, Object> map, String... keys) {
+    for (String key : keys) {
+      Object value = map.get(key);
+      if (value != null && !String.valueOf(value).isBlank()) {
+        return String.valueOf(value).trim();
+      }
+    }
+    return null;
+  }
+
+  protected static BigDecimal decimal(Map<String, Object> map, String... keys) {
+    String value = text(map, keys);
+    if (value == null) {
+      return null;
+    }
+    try {
+      return new BigDecimal(value);
+    } catch (NumberFormatException ex) {
+      return null;
+    }
+  }
+
+  protected static String lower(String value) {
+    return value != null ? value.toLowerCase(Locale.ROOT) : null;
+  }
+
+  private static String escape(String value) {
+    return value.replace("\\", "\\\\").replace("\"", "\\\"");
+  }
+}
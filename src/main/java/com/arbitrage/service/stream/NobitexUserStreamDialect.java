@@ -0,0 +1,87 @@
+package com.arbitrage.service.stream;
+
+import com.arbitrage.config.NobitexClients;
+import com.arbitrage.entities.Exchange;
+import com.arbitrage.entities.ExchangeAccount;
+import com.arbitrage.enums.OrderStatus;
+import java.util.List;
+import java.util.Map;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.client.RestClient;
+
+/**
+ * Nobitex private channels: a short-lived token from {@code /auth/ws/token/} authenticates the
+ * connection and {@code private:orders#<websocketAuthParam>} carries the user's order updates.
+ */
+@Component
+@RequiredArgsConstructor
+public class NobitexUserStreamDialect extends CentrifugoDialect {
+
+  private static final String PATH_WS_TOKEN = "/auth/ws/token/";
+  private static final String PATH_PROFILE = "/users/profile";
+  private static final String ORDERS_CHANNEL = "private:orders#";
+
+  private final NobitexClients nobitexClients;
+
+  @Override
+  public String getExchangeName() {
+    return "NOBITEX";
+  }
+
+  @Override
+  public List<String> openingFrames(Exchange exchange, ExchangeAccount account) {
+    RestClient client = nobitexClients.privateClient(exchange, account);
+    Map<String, Object> tokenResponse =
+        asMap(client.get().uri(PATH_WS_TOKEN).retrieve().body(Map.class));
+    String token = tokenResponse != null ? text(tokenResponse, "token") : null;
+    Map<String, Object> profileResponse =
+        asMap(client.get().uri(PATH_PROFILE).retrieve().body(Map.class));
+    Map<String, Object> profile =
+        profileResponse != null ? asMap(profileResponse.get("profile")) : null;
+    String authParam = profile != null ? text(profile, "websocketAuthParam") : null;
+    if (!StringUtils.hasText(token) || !StringUtils.hasText(authParam)) {
+      throw new IllegalStateException("Nobitex did not return a WebSocket token");
+    }
+    return centrifugoFrames(token, List.of(ORDERS_CHANNEL + authParam));
+  }
+
+  @Override
+  protected OrderUpdateEvent toEvent(String channel, Map<String, Object> data) {
+    if (!channel.startsWith(ORDERS_CHANNEL)) {
+      return null;
+    }
+    return event(
+        text(data, "id", "orderId"),
+        text(data, "clientOrderId"),
+        mapStatus(text(data, "status")),
+        decimal(data, "matchedAmount", "filledAmount"),
+        decimal(data, "averagePrice", "avgPrice"),
+        decimal(data, "totalPrice", "matchedTotal"));
+  }
+
+  private static OrderStatus mapStatus(String status) {
+    String s = lower(status);
+    if (s == null) {
+      return null;
+    }
+    switch (s) {
+      case "done":
+      case "filled":
+      case "matched":
+      case "closed":
+        return OrderStatus.FILLED;
+      case "partial":
+      case "partially_filled":
+        return OrderStatus.PARTIAL;
+      case "canceled":
+      case "cancelled":
+        return OrderStatus.CANCELLED;
+      case "new":
+        return OrderStatus.NEW;
+      default:
+        return OrderStatus.SENT;
+    }
+  }
+}
@@ -0,0 +1,19 @@
+package com.arbitrage.service.stream;
+
+import com.arbitrage.enums.OrderStatus;
+import java.math.BigDecimal;
+import lombok.Value;
+import lombok.experimental.Accessors;
+
+/** One order update pushed by an exchange; quantities are cumulative for the order. */
+@Value
+@Accessors(fluent = true)
+public class OrderUpdateEvent {
+
+  private final String exchangeOrderId;
+  private final String clientOrderId;
+  private final OrderStatus status;
+  private final BigDecimal filledQty;
+  private final BigDecimal avgPrice;
+  private final BigDecimal executedNotional;
+}
@@ -0,0 +1,95 @@
+package com.arbitrage.service.stream;
+
+import com.arbitrage.config.RamzinexTokenProvider;
+import com.arbitrage.entities.Exchange;
+import com.arbitrage.entities.ExchangeAccount;
+import com.arbitrage.enums.OrderStatus;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Ramzinex private channels: the same JWT used for the REST API authenticates the connection and
+ * {@code orders:<userId>} carries order updates, the user id being the token's subject.
+ */
+@Component
+@RequiredArgsConstructor
+public class RamzinexUserStreamDialect extends CentrifugoDialect {
+
+  private static final String ORDERS_CHANNEL = "orders:";
+  private static final Pattern SUBJECT = Pattern.compile("\"(?:sub|user_id)\"\\s*:\\s*\"?(\\w+)");
+
+  private final RamzinexTokenProvider tokenProvider;
+
+  @Override
+  public String getExchangeName() {
+    return "RAMZINEX";
+  }
+
+  @Override
+  public List<String> openingFrames(Exchange exchange, ExchangeAccount account) {
+    String token = tokenProvider.token(exchange.getName(), account.getLabel());
+    return centrifugoFrames(token, List.of(ORDERS_CHANNEL + subject(token)));
+  }
+
+  @Override
+  protected OrderUpdateEvent toEvent(String channel, Map<String, Object> data) {
+    if (!channel.startsWith(ORDERS_CHANNEL)) {
+      return null;
+    }
+    return event(
+        text(data, "order_id", "id"),
+        text(data, "client_order_id", "clientOrderId"),
+        mapStatus(text(data, "status", "status_id")),
+        decimal(data, "filled_nr", "filled_amount", "executed_amount"),
+        decimal(data, "average_price_nr", "average_price", "avg_price"),
+        decimal(data, "total_payment_nr", "filled_total", "executed_value"));
+  }
+
+  private static OrderStatus mapStatus(String status) {
+    String s = lower(status);
+    if (s == null) {
+      return null;
+    }
+    // numeric ids as in RamzinexMarketClient: 1 filled, 2 cancelled, 3 partial
+    switch (s) {
+      case "done":
+      case "filled":
+      case "closed":
+      case "1":
+        return OrderStatus.FILLED;
+      case "canceled":
+      case "cancelled":
+      case "2":
+        return OrderStatus.CANCELLED;
+      case "partial":
+      case "partial_fill":
+      case "partially_filled":
+      case "3":
+        return OrderStatus.PARTIAL;
+      case "new":
+      case "pending":
+      case "oppend":
+        return OrderStatus.NEW;
+      default:
+        return OrderStatus.SENT;
+    }
+  }
+
+  private static String subject(String jwt) {
+    String[] parts = jwt.split("\\.");
+    if (parts.length >= 2) {
+      String payload = new String(Base64.getUrlDecoder().decode(parts[1]), StandardCharsets.UTF_8);
+      Matcher matcher = SUBJECT.matcher(payload);
+      if (matcher.find()) {
+        return matcher.group(1);
+      }
+    }
+    throw new IllegalStateException("Ramzinex token carries no user id");
+  }
+}
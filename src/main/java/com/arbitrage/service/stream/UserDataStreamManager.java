@@ -0,0 +1,248 @@
+package com.arbitrage.service.stream;
+
+import com.arbitrage.config.UserStreamProperties;
+import com.arbitrage.dal.OrderService;
+import com.arbitrage.entities.Exchange;
+import com.arbitrage.entities.ExchangeAccount;
+import com.arbitrage.model.ExchangeOrderStatus;
+import com.arbitrage.service.ExchangeAccessService;
+import com.arbitrage.service.OrderStatusUpdater;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import java.net.http.HttpClient;
+import java.net.http.WebSocket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps one private WebSocket per exchange open and applies the pushed order updates through {@link
+ * OrderStatusUpdater}, the same path the status scheduler uses. Updates of one exchange are applied
+ * in arrival order on a dedicated thread; dropped connections are reopened with exponential backoff
+ * while polling takes over.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class UserDataStreamManager {
+
+  private final List<UserStreamDialect> dialects;
+  private final ExchangeAccessService exchangeAccessService;
+  private final UserStreamProperties properties;
+  private final UserStreamRegistry registry;
+  private final OrderService orderService;
+  private final OrderStatusUpdater orderStatusUpdater;
+  private final ObjectMapper objectMapper;
+
+  private final HttpClient httpClient = HttpClient.newHttpClient();
+  private final ScheduledExecutorService reconnects =
+      Executors.newSingleThreadScheduledExecutor(daemon("user-stream-reconnect"));
+  private final List<Connection> connections = new ArrayList<>();
+
+  @EventListener(ApplicationReadyEvent.class)
+  public synchronized void start() {
+    if (!properties.isEnabled()) {
+      return;
+    }
+    for (UserStreamDialect dialect : dialects) {
+      String name = dialect.getExchangeName();
+      if (!properties.getExchanges().isEmpty()
+          && properties.getExchanges().stream().noneMatch(name::equalsIgnoreCase)) {
+        continue;
+      }
+      Connection connection = new Connection(dialect);
+      connections.add(connection);
+      connection.connect();
+    }
+  }
+
+  @PreDestroy
+  public synchronized void stop() {
+    connections.forEach(Connection::close);
+    connections.clear();
+    reconnects.shutdownNow();
+  }
+
+  private void apply(String exchangeName, OrderUpdateEvent event) {
+    try {
+      orderService
+          .findByExchangeOrder(exchangeName, event.exchangeOrderId(), event.clientOrderId())
+          .ifPresentOrElse(
+              order ->
+                  orderStatusUpdater.apply(
+                      order.getId(),
+                      new ExchangeOrderStatus(
+                          event.status(),
+                          event.filledQty(),
+                          event.avgPrice(),
+                          event.executedNotional()),
+                      false,
+                      exchangeName + " stream"),
+              () ->
+                  log.debug(
+                      "{} stream update for unknown order {}/{}",
+                      exchangeName,
+                      event.exchangeOrderId(),
+                      event.clientOrderId()));
+    } catch (Exception ex) {
+      log.warn(
+          "Failed to apply {} stream update for order {}: {}",
+          exchangeName,
+          event.exchangeOrderId(),
+          ex.getMessage());
+    }
+  }
+
+  private static ThreadFactory daemon(String name) {
+    return runnable -> {
+      Thread thread = new Thread(runnable, name);
+      thread.setDaemon(true);
+      return thread;
+    };
+  }
+
+  private final class Connection implements WebSocket.Listener {
+
+    private final UserStreamDialect dialect;
+    private final String exchangeName;
+    private final ExecutorService applier;
+    private final StringBuilder buffer = new StringBuilder();
+
+    private final AtomicInteger failures = new AtomicInteger();
+    private final AtomicBoolean reconnectPending = new AtomicBoolean();
+
+    private volatile WebSocket socket;
+    private volatile boolean closed;
+
+    private Connection(UserStreamDialect dialect) {
+      this.dialect = dialect;
+      this.exchangeName = dialect.getExchangeName();
+      this.applier =
+          Executors.newSingleThreadExecutor(
+              daemon("user-stream-" + exchangeName.toLowerCase(Locale.ROOT)));
+    }
+
+    void connect() {
+      reconnectPending.set(false);
+      if (closed) {
+        return;
+      }
+      try {
+        Exchange exchange = exchangeAccessService.requireExchange(exchangeName);
+        ExchangeAccount account = exchangeAccessService.requireDefaultAccount(exchangeName);
+        List<String> frames = dialect.openingFrames(exchange, account);
+        httpClient
+            .newWebSocketBuilder()
+            .buildAsync(dialect.endpoint(exchange), this)
+            .thenCompose(ws -> sendAll(ws, frames))
+            .whenComplete(
+                (ws, error) -> {
+                  if (error != null) {
+                    reconnectLater(error);
+                    return;
+                  }
+                  socket = ws;
+                  failures.set(0);
+                  registry.markConnected(exchangeName, true);
+                  log.info("{} private stream connected", exchangeName);
+                });
+      } catch (RuntimeException ex) {
+        reconnectLater(ex);
+      }
+    }
+
+    private CompletableFuture<WebSocket> sendAll(WebSocket ws, List<String> frames) {
+      CompletableFuture<WebSocket> chain = CompletableFuture.completedFuture(ws);
+      for (String frame : frames) {
+        chain = chain.thenCompose(w -> w.sendText(frame, true));
+      }
+      return chain;
+    }
+
+    @Override
+    public CompletionStage<?> onText(WebSocket ws, CharSequence data, boolean last) {
+      buffer.append(data);
+      if (last) {
+        String message = buffer.toString();
+        buffer.setLength(0);
+        for (String json : dialect.messages(message)) {
+          handle(ws, json);
+        }
+      }
+      ws.request(1);
+      return null;
+    }
+
+    private void handle(WebSocket ws, String json) {
+      Map<String, Object> message;
+      try {
+        @SuppressWarnings("unchecked")
+        Map<String, Object> parsed = objectMapper.readValue(json, Map.class);
+        message = parsed;
+      } catch (Exception ex) {
+        log.debug("Unparseable {} stream message: {}", exchangeName, json);
+        return;
+      }
+      String reply = dialect.reply(message);
+      if (reply != null) {
+        ws.sendText(reply, true);
+      }
+      for (OrderUpdateEvent event : dialect.parse(message)) {
+        applier.execute(() -> apply(exchangeName, event));
+      }
+    }
+
+    @Override
+    public CompletionStage<?> onClose(WebSocket ws, int statusCode, String reason) {
+      reconnectLater(new IllegalStateException("closed " + statusCode + " " + reason));
+      return null;
+    }
+
+    @Override
+    public void onError(WebSocket ws, Throwable error) {
+      reconnectLater(error);
+    }
+
+    private void reconnectLater(Throwable cause) {
+      registry.markConnected(exchangeName, false);
+      socket = null;
+      if (closed || !reconnectPending.compareAndSet(false, true)) {
+        return;
+      }
+      long min = properties.getReconnectMinDelay().toMillis();
+      int attempt = Math.min(failures.getAndIncrement(), 16);
+      long delay = Math.min(properties.getReconnectMaxDelay().toMillis(), min << attempt);
+      log.warn(
+          "{} private stream down ({}), reconnecting in {} ms",
+          exchangeName,
+          cause.getMessage(),
+          delay);
+      reconnects.schedule(this::connect, delay, TimeUnit.MILLISECONDS);
+    }
+
+    void close() {
+      closed = true;
+      WebSocket ws = socket;
+      if (ws != null) {
+        ws.sendClose(WebSocket.NORMAL_CLOSURE, "shutdown");
+      }
+      applier.shutdownNow();
+      registry.markConnected(exchangeName, false);
+    }
+  }
+}
@@ -0,0 +1,41 @@
+package com.arbitrage.service.stream;
+
+import com.arbitrage.entities.Exchange;
+import com.arbitrage.entities.ExchangeAccount;
+import java.net.URI;
+import java.util.List;
+import java.util.Map;
+import org.springframework.util.StringUtils;
+
+/** How one exchange authenticates its private WebSocket and shapes its order updates. */
+public interface UserStreamDialect {
+
+  String getExchangeName();
+
+  default URI endpoint(Exchange exchange) {
+    String url =
+        StringUtils.hasText(exchange.getPrivateWsUrl())
+            ? exchange.getPrivateWsUrl()
+            : exchange.getPublicWsUrl();
+    if (!StringUtils.hasText(url)) {
+      throw new IllegalStateException("No WebSocket url for " + exchange.getName());
+    }
+    return URI.create(url);
+  }
+
+  /** Frames sent right after the socket opens: authentication and order subscriptions. */
+  List<String> openingFrames(Exchange exchange, ExchangeAccount account);
+
+  /** JSON messages carried by one text frame. */
+  default List<String> messages(String frame) {
+    return List.of(frame);
+  }
+
+  /** Frame to answer {@code message} with, e.g. a protocol-level ping, or null. */
+  default String reply(Map<String, Object> message) {
+    return null;
+  }
+
+  /** Order updates contained in one message; empty for acks, pings and other channels. */
+  List<OrderUpdateEvent> parse(Map<String, Object> message);
+}
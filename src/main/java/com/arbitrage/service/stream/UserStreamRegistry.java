@@ -0,0 +1,51 @@
+package com.arbitrage.service.stream;
+
+import com.arbitrage.config.UserStreamProperties;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+/** Which private streams are up, so polling can fall back to slow reconciliation for them. */
+@Component
+@RequiredArgsConstructor
+public class UserStreamRegistry {
+
+  private final UserStreamProperties properties;
+
+  private final Map<String, Boolean> connected = new ConcurrentHashMap<>();
+  private final Map<String, Long> lastPollNanos = new ConcurrentHashMap<>();
+
+  void markConnected(String exchangeName, boolean up) {
+    connected.put(key(exchangeName), up);
+  }
+
+  public boolean isConnected(String exchangeName) {
+    return Boolean.TRUE.equals(connected.get(key(exchangeName)));
+  }
+
+  /**
+   * True when the exchange has no live stream, or its reconciliation poll is due; in the latter
+   * case the poll is recorded as done.
+   */
+  public boolean isPollDue(String exchangeName) {
+    if (!isConnected(exchangeName)) {
+      return true;
+    }
+    long now = System.nanoTime();
+    long interval = properties.getReconcileInterval().toNanos();
+    boolean[] due = new boolean[1];
+    lastPollNanos.compute(
+        key(exchangeName),
+        (k, last) -> {
+          due[0] = last == null || now - last >= interval;
+          return due[0] ? now : last;
+        });
+    return due[0];
+  }
+
+  private static String key(String exchangeName) {
+    return exchangeName.trim().toUpperCase(Locale.ROOT);
+  }
+}
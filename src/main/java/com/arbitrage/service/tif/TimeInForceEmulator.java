@@ -0,0 +1,170 @@
+package com.arbitrage.service.tif;
+
+import com.arbitrage.config.TimeInForceProperties;
+import com.arbitrage.enums.OrderStatus;
+import com.arbitrage.enums.TimeInForce;
+import com.arbitrage.model.ExchangeOrderStatus;
+import com.arbitrage.service.ExchangeClientFactory;
+import com.arbitrage.service.ExchangeMarketClient;
+import com.arbitrage.service.OrderStatusUpdater;
+import com.arbitrage.service.timing.HashedTimingWheel;
+import jakarta.annotation.PreDestroy;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.Value;
+import lombok.experimental.Accessors;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.StringUtils;
+
+/**
+ * Emulates IOC and FOK on exchanges that let every order rest as GTC. Once the order row is
+ * committed a cancel is scheduled on a timing wheel; when it fires the order is cancelled and its
+ * final fill is read back and applied. FOK is best effort: a partial fill before the cancel cannot
+ * be undone and is only logged.
+ */
+@Slf4j
+@Component
+public class TimeInForceEmulator {
+
+  private final TimeInForceProperties properties;
+  private final ExchangeClientFactory exchangeClientFactory;
+  private final OrderStatusUpdater orderStatusUpdater;
+  private final ExecutorService executor;
+  private final HashedTimingWheel wheel;
+
+  public TimeInForceEmulator(
+      TimeInForceProperties properties,
+      ExchangeClientFactory exchangeClientFactory,
+      OrderStatusUpdater orderStatusUpdater) {
+    this.properties = properties;
+    this.exchangeClientFactory = exchangeClientFactory;
+    this.orderStatusUpdater = orderStatusUpdater;
+    AtomicInteger counter = new AtomicInteger();
+    this.executor =
+        Executors.newFixedThreadPool(
+            Math.max(1, properties.getThreads()),
+            runnable -> {
+              Thread thread = new Thread(runnable, "tif-cancel-" + counter.incrementAndGet());
+              thread.setDaemon(true);
+              return thread;
+            });
+    this.wheel =
+        new HashedTimingWheel(
+            "tif-wheel", properties.getTick(), properties.getWheelSize(), executor);
+  }
+
+  /**
+   * Schedules the emulated cancel of an acknowledged order. Inside a transaction the timer starts
+   * after commit so the reconcile step always finds the order row.
+   */
+  public void track(Long orderId, String exchangeName, String exchangeOrderId, TimeInForce tif) {
+    if (!properties.isEnabled()
+        || orderId == null
+        || tif == null
+        || !StringUtils.hasText(exchangeOrderId)) {
+      return;
+    }
+    Duration delay;
+    if (tif == TimeInForce.IOC) {
+      delay = properties.getIocCancelDelay();
+    } else if (tif == TimeInForce.FOK) {
+      delay = properties.getFokCancelDelay();
+    } else {
+      return;
+    }
+
+    TrackedOrder tracked = new TrackedOrder(orderId, exchangeName, exchangeOrderId, tif);
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(
+          new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+              wheel.schedule(() -> expire(tracked, false, 1), delay);
+            }
+          });
+    } else {
+      wheel.schedule(() -> expire(tracked, false, 1), delay);
+    }
+  }
+
+  /** Timers not yet fired. */
+  public int pendingCancels() {
+    return wheel.size();
+  }
+
+  private void expire(TrackedOrder tracked, boolean alreadyCancelled, int attempt) {
+    boolean cancelled = alreadyCancelled;
+    try {
+      ExchangeMarketClient client = exchangeClientFactory.getClient(tracked.exchangeName());
+      if (!cancelled) {
+        cancelled = client.cancelOrder(tracked.exchangeOrderId());
+      }
+      ExchangeOrderStatus statusDetails = client.getOrderStatus(tracked.exchangeOrderId());
+      if (statusDetails != null && (cancelled || isTerminal(statusDetails.status()))) {
+        orderStatusUpdater.apply(
+            tracked.orderId(),
+            statusDetails,
+            cancelled,
+            tracked.exchangeName() + " " + tracked.tif() + " timer");
+        if (tracked.tif() == TimeInForce.FOK && cancelled && isPartiallyFilled(statusDetails)) {
+          log.warn(
+              "FOK order {} on {} partially filled ({}) before its emulated cancel",
+              tracked.orderId(),
+              tracked.exchangeName(),
+              statusDetails.filledQuantity());
+        }
+        return;
+      }
+    } catch (RuntimeException ex) {
+      log.warn(
+          "Emulated {} cancel of order {} failed (attempt {}): {}",
+          tracked.tif(),
+          tracked.orderId(),
+          attempt,
+          ex.getMessage());
+    }
+
+    if (attempt < properties.getReconcileAttempts()) {
+      boolean cancelledSoFar = cancelled;
+      wheel.schedule(
+          () -> expire(tracked, cancelledSoFar, attempt + 1), properties.getReconcileInterval());
+    } else {
+      log.warn(
+          "Order {} still open after {} emulated {} cancel attempts, leaving it to the scheduler",
+          tracked.orderId(),
+          attempt,
+          tracked.tif());
+    }
+  }
+
+  private static boolean isTerminal(OrderStatus status) {
+    return status == OrderStatus.FILLED || status == OrderStatus.CANCELLED;
+  }
+
+  private static boolean isPartiallyFilled(ExchangeOrderStatus statusDetails) {
+    BigDecimal filled = statusDetails.filledQuantity();
+    return filled != null && filled.signum() > 0;
+  }
+
+  @PreDestroy
+  void shutdown() {
+    wheel.close();
+    executor.shutdownNow();
+  }
+
+  @Value
+  @Accessors(fluent = true)
+  private static class TrackedOrder {
+
+    private final Long orderId;
+    private final String exchangeName;
+    private final String exchangeOrderId;
+    private final TimeInForce tif;
+  }
+}
@@ -0,0 +1,169 @@
+package com.arbitrage.service.timing;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Hashed timing wheel: O(1) schedule and cancel for many short timers at tick granularity. A single
+ * thread advances the wheel one bucket per tick; timers further out than one revolution carry a
+ * round counter. Expired tasks run on {@code taskExecutor} so a slow task never delays the tick.
+ */
+@Slf4j
+public class HashedTimingWheel implements AutoCloseable {
+
+  private final long tickNanos;
+  private final int mask;
+  private final ArrayDeque<Timeout>[] buckets;
+  private final Queue<Timeout> pending = new ConcurrentLinkedQueue<>();
+  private final AtomicInteger scheduled = new AtomicInteger();
+  private final Executor taskExecutor;
+  private final Thread worker;
+  private final long startNanos;
+
+  private volatile boolean running = true;
+  private long tick; // worker thread only
+
+  @SuppressWarnings("unchecked")
+  public HashedTimingWheel(
+      String name, Duration tickDuration, int ticksPerWheel, Executor taskExecutor) {
+    if (tickDuration.isZero() || tickDuration.isNegative()) {
+      throw new IllegalArgumentException("tickDuration must be positive");
+    }
+    int size = Integer.highestOneBit(Math.max(2, ticksPerWheel) - 1) << 1;
+    this.tickNanos = tickDuration.toNanos();
+    this.mask = size - 1;
+    this.buckets = new ArrayDeque[size];
+    for (int i = 0; i < size; i++) {
+      buckets[i] = new ArrayDeque<>();
+    }
+    this.taskExecutor = taskExecutor;
+    this.startNanos = System.nanoTime();
+    this.worker = new Thread(this::run, name);
+    this.worker.setDaemon(true);
+    this.worker.start();
+  }
+
+  /** Runs {@code task} on the task executor once {@code delay} has passed, rounded up to a tick. */
+  public Timeout schedule(Runnable task, Duration delay) {
+    if (!running) {
+      throw new IllegalStateException("Timing wheel " + worker.getName() + " is stopped");
+    }
+    Timeout timeout = new Timeout(task, System.nanoTime() + Math.max(0, delay.toNanos()));
+    scheduled.incrementAndGet();
+    pending.add(timeout);
+    return timeout;
+  }
+
+  /** Timers scheduled and neither expired nor cancelled yet. */
+  public int size() {
+    return scheduled.get();
+  }
+
+  @Override
+  public void close() {
+    running = false;
+    worker.interrupt();
+  }
+
+  private void run() {
+    while (running) {
+      long deadline = startNanos + (tick + 1) * tickNanos;
+      long sleep;
+      while ((sleep = deadline - System.nanoTime()) > 0 && running) {
+        LockSupport.parkNanos(this, sleep);
+      }
+      if (!running) {
+        break;
+      }
+      transferPending();
+      expire(buckets[(int) (tick & mask)]);
+      tick++;
+    }
+  }
+
+  private void transferPending() {
+    Timeout timeout;
+    while ((timeout = pending.poll()) != null) {
+      if (timeout.isCancelled()) {
+        continue;
+      }
+      // the tick processed at start + (t + 1) * tickNanos is the first one at or after the deadline
+      long due = Math.max(tick, ceilDiv(timeout.deadlineNanos - startNanos, tickNanos) - 1);
+      timeout.rounds = (due - tick) / buckets.length;
+      buckets[(int) (due & mask)].add(timeout);
+    }
+  }
+
+  private void expire(ArrayDeque<Timeout> bucket) {
+    Iterator<Timeout> it = bucket.iterator();
+    while (it.hasNext()) {
+      Timeout timeout = it.next();
+      if (timeout.isCancelled()) {
+        it.remove();
+      } else if (timeout.rounds <= 0) {
+        it.remove();
+        if (timeout.state.compareAndSet(Timeout.PENDING, Timeout.EXPIRED)) {
+          scheduled.decrementAndGet();
+          dispatch(timeout);
+        }
+      } else {
+        timeout.rounds--;
+      }
+    }
+  }
+
+  private void dispatch(Timeout timeout) {
+    try {
+      taskExecutor.execute(timeout.task);
+    } catch (RejectedExecutionException ex) {
+      log.warn("Timer task rejected by {}: {}", worker.getName(), ex.getMessage());
+    }
+  }
+
+  private static long ceilDiv(long x, long y) {
+    return x <= 0 ? 0 : (x + y - 1) / y;
+  }
+
+  /** Handle of a scheduled task. */
+  public final class Timeout {
+
+    private static final int PENDING = 0;
+    private static final int CANCELLED = 1;
+    private static final int EXPIRED = 2;
+
+    private final Runnable task;
+    private final long deadlineNanos;
+    private final AtomicInteger state = new AtomicInteger(PENDING);
+    private long rounds; // worker thread only
+
+    private Timeout(Runnable task, long deadlineNanos) {
+      this.task = task;
+      this.deadlineNanos = deadlineNanos;
+    }
+
+    /** Returns false if the task already expired or was cancelled before. */
+    public boolean cancel() {
+      if (state.compareAndSet(PENDING, CANCELLED)) {
+        scheduled.decrementAndGet();
+        return true;
+      }
+      return false;
+    }
+
+    public boolean isCancelled() {
+      return state.get() == CANCELLED;
+    }
+
+    public boolean isExpired() {
+      return state.get() == EXPIRED;
+    }
+  }
+}
@@ -0,0 +1,6 @@
+alter table orders
+    add column if not exists parent_order_id bigint
+        constraint fk_orders_parent_order
+            references orders;
+
+create index if not exists idx_orders_parent_order_id on orders (parent_order_id);
@@ -0,0 +1,36 @@
+create table if not exists trade_cursors
+(
+    id                  bigint generated by default as identity
+        primary key,
+    created_at          timestamp(6),
+    updated_at          timestamp(6),
+    version             integer,
+    last_trade_id       varchar(255),
+    last_trade_at       timestamp(6),
+    exchange_account_id bigint
+        constraint uk_trade_cursors_exchange_account
+            unique
+        constraint fk_trade_cursors_exchange_account
+            references exchange_accounts
+);
+
+create index if not exists idx_order_fills_order_id on order_fills (order_id);
+
+do
+$$
+    begin
+        if not exists (select 1
+                       from pg_constraint
+                       where conname = 'uk_order_fills_order_trade'
+                         and conrelid = 'order_fills'::regclass) then
+            alter table order_fills
+                add constraint uk_order_fills_order_trade unique (order_id, trade_id);
+        end if;
+    end
+$$;
+
+-- fills carry exchange quantities and fees, which two decimals would truncate
+alter table order_fills
+    alter column filled_qty type numeric(38, 18),
+    alter column price type numeric(38, 18),
+    alter column fee_amount type numeric(38, 18);
@@ -0,0 +1,7 @@
+alter table orders
+    add column if not exists lease_owner varchar(255),
+    add column if not exists lease_until timestamp(6);
+
+create index if not exists idx_orders_open_lease
+    on orders (lease_until nulls first, id)
+    where status in ('SENT', 'PARTIAL');
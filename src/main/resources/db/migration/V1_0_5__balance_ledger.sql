@@ -0,0 +1,11 @@
+create table if not exists balance_ledger_checkpoints
+(
+    id         bigint generated by default as identity
+        primary key,
+    created_at timestamp(6),
+    updated_at timestamp(6),
+    version    integer,
+    name       varchar(255)
+        constraint uk_balance_ledger_checkpoints_name unique,
+    last_seq   bigint
+);
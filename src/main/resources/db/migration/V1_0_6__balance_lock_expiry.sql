@@ -0,0 +1,8 @@
+create index if not exists idx_balance_locks_expires_at
+    on balance_locks (expires_at);
+
+-- locks created before expiry existed get the default one-hour lifetime
+update balance_locks
+set expires_at = created_at + interval '1 hour'
+where expires_at is null
+  and amount > 0;
@@ -0,0 +1,16 @@
+-- two decimals truncated crypto amounts; 18 covers the finest unit of every listed currency
+alter table balances
+    alter column available type numeric(38, 18),
+    alter column reserved type numeric(38, 18);
+
+alter table balance_locks
+    alter column amount type numeric(38, 18);
+
+-- lock amounts are derived from these, so they need the same precision
+alter table orders
+    alter column price type numeric(38, 18),
+    alter column qty type numeric(38, 18),
+    alter column qty_exec type numeric(38, 18),
+    alter column notional type numeric(38, 18),
+    alter column filled_qty type numeric(38, 18),
+    alter column avg_price type numeric(38, 18);
@@ -0,0 +1,117 @@
+package com.arbitrage.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.arbitrage.config.OrderStatusProperties;
+import com.arbitrage.config.OrderStatusProperties.PollTier;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class OrderPollPlannerTest {
+
+  private OrderPollPlanner planner;
+
+  @AfterEach
+  void tearDown() {
+    if (planner != null) {
+      planner.shutdown();
+    }
+  }
+
+  @Test
+  void claimIfDue_pollsFreshOrdersAtTheirTierInterval_andOldOnesAtTheRestingInterval()
+      throws Exception {
+    planner = new OrderPollPlanner(properties());
+    Instant now = Instant.now();
+
+    assertThat(planner.claimIfDue(1L, now, null)).isTrue();
+    assertThat(planner.claimIfDue(2L, now.minus(Duration.ofHours(1)), null)).isTrue();
+    // both are known now and not due again before their timers fire
+    assertThat(planner.claimIfDue(1L, now, null)).isFalse();
+    assertThat(planner.claimIfDue(2L, now.minus(Duration.ofHours(1)), null)).isFalse();
+
+    Thread.sleep(600);
+
+    assertThat(planner.claimIfDue(1L, now, null)).isTrue();
+    assertThat(planner.claimIfDue(2L, now.minus(Duration.ofHours(1)), null)).isFalse();
+  }
+
+  @Test
+  void claimIfDue_wakesUpAtTheDeadline_whenItComesBeforeTheNextTierPoll() throws Exception {
+    OrderStatusProperties properties = properties();
+    properties.setPollTiers(List.of(new PollTier(Duration.ofHours(1), Duration.ofSeconds(10))));
+    planner = new OrderPollPlanner(properties);
+    Instant sentAt = Instant.now();
+
+    assertThat(planner.claimIfDue(1L, sentAt, Duration.ofMillis(150))).isTrue();
+    assertThat(planner.claimIfDue(2L, sentAt, null)).isTrue();
+
+    Thread.sleep(400);
+
+    assertThat(planner.claimIfDue(1L, sentAt, Duration.ofMillis(150))).isTrue();
+    assertThat(planner.claimIfDue(2L, sentAt, null)).isFalse();
+  }
+
+  @Test
+  void recordFailure_backsOffExponentially_andCountsNotFoundAnswersInARow() throws Exception {
+    OrderStatusProperties properties = properties();
+    properties.setFailureBackoff(Duration.ofMillis(200));
+    planner = new OrderPollPlanner(properties);
+    planner.enroll(1L, Duration.ofHours(1));
+
+    assertThat(planner.recordFailure(1L, true)).isEqualTo(1);
+    assertThat(planner.recordFailure(1L, false)).isEqualTo(1);
+    // third failure in a row: 200 ms doubled twice
+    assertThat(planner.recordFailure(1L, true)).isEqualTo(2);
+
+    Thread.sleep(400);
+    assertThat(planner.claimIfDue(1L, Instant.now(), null)).isFalse();
+    Thread.sleep(700);
+    assertThat(planner.claimIfDue(1L, Instant.now(), null)).isTrue();
+
+    planner.recordSuccess(1L);
+    assertThat(planner.recordFailure(1L, true)).isEqualTo(1);
+  }
+
+  @Test
+  void enroll_dropsADueFlagOfTheReplacedTimer_butKeepsOneSetRightAfterScheduling()
+      throws Exception {
+    planner = new OrderPollPlanner(properties());
+    planner.enroll(1L, Duration.ZERO);
+    Thread.sleep(150);
+
+    planner.enroll(1L, Duration.ofHours(1));
+    assertThat(planner.claimIfDue(1L, Instant.now(), null)).isFalse();
+
+    planner.enroll(1L, Duration.ZERO);
+    Thread.sleep(150);
+    assertThat(planner.claimIfDue(1L, Instant.now(), null)).isTrue();
+  }
+
+  @Test
+  void retainOnly_forgetsClosedOrders() throws Exception {
+    planner = new OrderPollPlanner(properties());
+    Instant now = Instant.now();
+    planner.claimIfDue(1L, now, null);
+    planner.claimIfDue(2L, now, null);
+
+    planner.retainOnly(Set.of(2L));
+
+    // unknown again, so due at once
+    assertThat(planner.claimIfDue(1L, now, null)).isTrue();
+    assertThat(planner.claimIfDue(2L, now, null)).isFalse();
+  }
+
+  private static OrderStatusProperties properties() {
+    OrderStatusProperties properties = new OrderStatusProperties();
+    properties.setPollTick(Duration.ofMillis(10));
+    properties.setPollWheelSize(64);
+    properties.setPollTiers(List.of(new PollTier(Duration.ofSeconds(30), Duration.ofMillis(250))));
+    properties.setRestingInterval(Duration.ofSeconds(10));
+    return properties;
+  }
+}
@@ -2,6 +2,11 @@ package com.arbitrage.service;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import com.arbitrage.config.BalanceLedgerProperties;
+import com.arbitrage.config.OrderStatusProperties;
+import com.arbitrage.config.RiskLimitProperties;
+import com.arbitrage.config.UserStreamProperties;
+import com.arbitrage.dal.OpenOrderIndex;
 import com.arbitrage.dal.OrderService;
 import com.arbitrage.entities.Balance;
 import com.arbitrage.entities.BalanceLock;
@@ -14,6 +19,7 @@ import com.arbitrage.enums.ExchangeStatus;
 import com.arbitrage.enums.OrderSide;
 import com.arbitrage.enums.OrderStatus;
 import com.arbitrage.enums.TimeInForce;
+import com.arbitrage.exception.OrderNotFoundException;
 import com.arbitrage.model.ExchangeOrderStatus;
 import com.arbitrage.model.OrderAck;
 import com.arbitrage.model.OrderRequest;
@@ -25,6 +31,11 @@ import com.arbitrage.respository.ExchangeAccountRepository;
 import com.arbitrage.respository.ExchangeRepository;
 import com.arbitrage.respository.OrderRepository;
 import com.arbitrage.respository.PairRepository;
+import com.arbitrage.service.ledger.BalanceLedger;
+import com.arbitrage.service.ledger.DatabaseBalanceStore;
+import com.arbitrage.service.position.PositionTracker;
+import com.arbitrage.service.risk.RiskEngine;
+import com.arbitrage.service.stream.UserStreamRegistry;
 import java.math.BigDecimal;
 import java.time.Duration;
 import java.time.Instant;
@@ -38,6 +49,7 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
 import org.springframework.boot.test.context.TestConfiguration;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Import;
@@ -48,7 +60,19 @@ import org.springframework.test.util.ReflectionTestUtils;
 @AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
 @Import({
   OrderStatusScheduler.class,
+  OrderStatusUpdater.class,
+  OrderStatusProperties.class,
+  UserStreamRegistry.class,
+  OrderPollPlanner.class,
+  OpenOrderIndex.class,
+  UserStreamProperties.class,
   OrderService.class,
+  BalanceLedger.class,
+  BalanceLedgerProperties.class,
+  DatabaseBalanceStore.class,
+  PositionTracker.class,
+  RiskEngine.class,
+  RiskLimitProperties.class,
   OrderStatusSchedulerIntegrationTest.TestConfig.class
 })
 @ActiveProfiles("test")
@@ -57,8 +81,11 @@ class OrderStatusSchedulerIntegrationTest {
   private static final String ORDER_LOCK_REASON = "ORDER_SUBMIT";
 
   @Autowired private OrderStatusScheduler scheduler;
+  @Autowired private OpenOrderIndex openOrderIndex;
+  @Autowired private OrderStatusProperties orderStatusProperties;
   @Autowired private OrderRepository orderRepository;
   @Autowired private BalanceRepository balanceRepository;
+  @Autowired private TestEntityManager entityManager;
   @Autowired private BalanceLockRepository balanceLockRepository;
   @Autowired private CurrencyRepository currencyRepository;
   @Autowired private PairRepository pairRepository;
@@ -75,6 +102,8 @@ class OrderStatusSchedulerIntegrationTest {
   @BeforeEach
   void setUp() {
     stubExchangeMarketClient.reset();
+    orderStatusProperties.setLeaseEnabled(false);
+    orderStatusProperties.setNotFoundQuarantineThreshold(5);
     ReflectionTestUtils.setField(scheduler, "orderTimeout", Duration.ofMinutes(10));
 
     quoteCurrency =
@@ -146,6 +175,7 @@ class OrderStatusSchedulerIntegrationTest {
             .withExecutedNotional(new BigDecimal("10"));
     stubExchangeMarketClient.stubStatus(order.getExchangeOrderId(), exchangeStatus);
 
+    openOrderIndex.rebuild();
     scheduler.refreshSentOrdersStatus();
 
     Order updated = orderRepository.findById(order.getId()).orElseThrow();
@@ -158,6 +188,8 @@ class OrderStatusSchedulerIntegrationTest {
     BalanceLock updatedLock = balanceLockRepository.findById(lock.getId()).orElseThrow();
     assertThat(updatedLock.getAmount()).isEqualByComparingTo("10");
 
+    // balances are changed by plain UPDATEs, past the persistence context
+    entityManager.clear();
     Balance updatedBalance = balanceRepository.findById(balance.getId()).orElseThrow();
     assertThat(updatedBalance.getReserved()).isEqualByComparingTo("10");
     assertThat(updatedBalance.getAvailable()).isEqualByComparingTo("0");
@@ -165,6 +197,57 @@ class OrderStatusSchedulerIntegrationTest {
     assertThat(stubExchangeMarketClient.wasCancelInvoked(order.getExchangeOrderId())).isFalse();
   }
 
+  @Test
+  void refreshSentOrdersStatus_ignoresASnapshotOlderThanTheOrder() {
+    Order order =
+        orderRepository.save(
+            Order.builder()
+                .exchange(exchange)
+                .exchangeAccount(account)
+                .pair(pair)
+                .side(OrderSide.BUY.name())
+                .type("LIMIT")
+                .tif(TimeInForce.GTC.name())
+                .clientOrderId("client-stale")
+                .exchangeOrderId("exchange-stale")
+                .price(new BigDecimal("10"))
+                .qty(new BigDecimal("5"))
+                .qtyExec(new BigDecimal("3"))
+                .notional(new BigDecimal("50"))
+                .status(OrderStatus.PARTIAL)
+                .filledQty(new BigDecimal("3"))
+                .avgPrice(new BigDecimal("10"))
+                .sentAt(Date.from(Instant.now()))
+                .build());
+
+    BalanceLock lock =
+        balanceLockRepository.save(
+            BalanceLock.builder()
+                .exchangeAccount(account)
+                .currency(quoteCurrency)
+                .amount(new BigDecimal("20"))
+                .reason(ORDER_LOCK_REASON)
+                .signalId(String.valueOf(order.getId()))
+                .build());
+
+    // answered before the stream update that brought the order to 3
+    stubExchangeMarketClient.stubStatus(
+        order.getExchangeOrderId(),
+        ExchangeOrderStatus.of(OrderStatus.NEW)
+            .withFilledQuantity(new BigDecimal("1"))
+            .withAveragePrice(new BigDecimal("10"))
+            .withExecutedNotional(new BigDecimal("10")));
+
+    openOrderIndex.rebuild();
+    scheduler.refreshSentOrdersStatus();
+
+    Order updated = orderRepository.findById(order.getId()).orElseThrow();
+    assertThat(updated.getStatus()).isEqualTo(OrderStatus.PARTIAL);
+    assertThat(updated.getQtyExec()).isEqualByComparingTo("3");
+    assertThat(balanceLockRepository.findById(lock.getId()).orElseThrow().getAmount())
+        .isEqualByComparingTo("20");
+  }
+
   @Test
   void refreshSentOrdersStatus_marksOrderFilled_andClearsLock() {
     Balance balance =
@@ -214,6 +297,7 @@ class OrderStatusSchedulerIntegrationTest {
             .withExecutedNotional(new BigDecimal("50"));
     stubExchangeMarketClient.stubStatus(order.getExchangeOrderId(), exchangeStatus);
 
+    openOrderIndex.rebuild();
     scheduler.refreshSentOrdersStatus();
 
     Order updated = orderRepository.findById(order.getId()).orElseThrow();
@@ -226,11 +310,78 @@ class OrderStatusSchedulerIntegrationTest {
     BalanceLock updatedLock = balanceLockRepository.findById(lock.getId()).orElseThrow();
     assertThat(updatedLock.getAmount()).isEqualByComparingTo("0");
 
+    entityManager.clear();
     Balance updatedBalance = balanceRepository.findById(balance.getId()).orElseThrow();
     assertThat(updatedBalance.getReserved()).isEqualByComparingTo("0");
     assertThat(updatedBalance.getAvailable()).isEqualByComparingTo("0");
   }
 
+  @Test
+  void refreshSentOrdersStatus_keepsPollingPartialOrders() {
+    Balance balance =
+        balanceRepository.save(
+            Balance.builder()
+                .exchangeAccount(account)
+                .currency(quoteCurrency)
+                .available(BigDecimal.ZERO)
+                .reserved(new BigDecimal("40"))
+                .build());
+
+    Order order =
+        orderRepository.save(
+            Order.builder()
+                .exchange(exchange)
+                .exchangeAccount(account)
+                .pair(pair)
+                .side(OrderSide.BUY.name())
+                .type("LIMIT")
+                .tif(TimeInForce.GTC.name())
+                .clientOrderId("client-partial-rest")
+                .exchangeOrderId("exchange-partial-rest")
+                .price(new BigDecimal("10"))
+                .qty(new BigDecimal("5"))
+                .qtyExec(BigDecimal.ONE)
+                .notional(new BigDecimal("50"))
+                .status(OrderStatus.PARTIAL)
+                .filledQty(BigDecimal.ONE)
+                .avgPrice(new BigDecimal("10"))
+                .sentAt(Date.from(Instant.now()))
+                .build());
+
+    BalanceLock lock =
+        balanceLockRepository.save(
+            BalanceLock.builder()
+                .exchangeAccount(account)
+                .currency(quoteCurrency)
+                .amount(new BigDecimal("40"))
+                .reason(ORDER_LOCK_REASON)
+                .signalId(String.valueOf(order.getId()))
+                .build());
+
+    ExchangeOrderStatus exchangeStatus =
+        ExchangeOrderStatus.of(OrderStatus.FILLED)
+            .withFilledQuantity(new BigDecimal("5"))
+            .withAveragePrice(new BigDecimal("10"))
+            .withExecutedNotional(new BigDecimal("50"));
+    stubExchangeMarketClient.stubStatus(order.getExchangeOrderId(), exchangeStatus);
+
+    openOrderIndex.rebuild();
+    assertThat(openOrderIndex.findById(order.getId())).isPresent();
+    scheduler.refreshSentOrdersStatus();
+
+    Order updated = orderRepository.findById(order.getId()).orElseThrow();
+    assertThat(updated.getStatus()).isEqualTo(OrderStatus.FILLED);
+    assertThat(updated.getQtyExec()).isEqualByComparingTo("5");
+    assertThat(updated.getClosedAt()).isNotNull();
+
+    BalanceLock updatedLock = balanceLockRepository.findById(lock.getId()).orElseThrow();
+    assertThat(updatedLock.getAmount()).isEqualByComparingTo("0");
+
+    entityManager.clear();
+    Balance updatedBalance = balanceRepository.findById(balance.getId()).orElseThrow();
+    assertThat(updatedBalance.getReserved()).isEqualByComparingTo("0");
+  }
+
   @Test
   void refreshSentOrdersStatus_cancelsTimedOutOrder_andReleasesBalance() {
     ReflectionTestUtils.setField(scheduler, "orderTimeout", Duration.ofSeconds(1));
@@ -279,6 +430,7 @@ class OrderStatusSchedulerIntegrationTest {
         order.getExchangeOrderId(), ExchangeOrderStatus.of(OrderStatus.NEW));
     stubExchangeMarketClient.stubCancelResponse(order.getExchangeOrderId(), true);
 
+    openOrderIndex.rebuild();
     scheduler.refreshSentOrdersStatus();
 
     Order updated = orderRepository.findById(order.getId()).orElseThrow();
@@ -290,6 +442,7 @@ class OrderStatusSchedulerIntegrationTest {
     BalanceLock updatedLock = balanceLockRepository.findById(lock.getId()).orElseThrow();
     assertThat(updatedLock.getAmount()).isEqualByComparingTo("0");
 
+    entityManager.clear();
     Balance updatedBalance = balanceRepository.findById(balance.getId()).orElseThrow();
     assertThat(updatedBalance.getReserved()).isEqualByComparingTo("0");
     assertThat(updatedBalance.getAvailable()).isEqualByComparingTo("40");
@@ -297,6 +450,262 @@ class OrderStatusSchedulerIntegrationTest {
     assertThat(stubExchangeMarketClient.wasCancelInvoked(order.getExchangeOrderId())).isTrue();
   }
 
+  @Test
+  void refreshSentOrdersStatus_settlesTheFilledPartOfACancelledOrder_andReleasesTheRest() {
+    Balance balance = quoteBalance("50");
+    Order order = orderRepository.save(leasableOrder("exchange-cancel-partial"));
+    BalanceLock lock = quoteLock(order, "50");
+
+    stubExchangeMarketClient.stubStatus(
+        order.getExchangeOrderId(),
+        ExchangeOrderStatus.of(OrderStatus.CANCELLED)
+            .withFilledQuantity(new BigDecimal("1"))
+            .withAveragePrice(new BigDecimal("10"))
+            .withExecutedNotional(new BigDecimal("10")));
+
+    openOrderIndex.rebuild();
+    scheduler.refreshSentOrdersStatus();
+
+    Order updated = orderRepository.findById(order.getId()).orElseThrow();
+    assertThat(updated.getStatus()).isEqualTo(OrderStatus.CANCELLED);
+    assertThat(updated.getQtyExec()).isEqualByComparingTo("1");
+    assertThat(balanceLockRepository.findById(lock.getId()).orElseThrow().getAmount())
+        .isEqualByComparingTo("0");
+
+    entityManager.clear();
+    Balance updatedBalance = balanceRepository.findById(balance.getId()).orElseThrow();
+    assertThat(updatedBalance.getReserved()).isEqualByComparingTo("0");
+    assertThat(updatedBalance.getAvailable()).isEqualByComparingTo("40");
+  }
+
+  @Test
+  void refreshSentOrdersStatus_releasesWhatAFillBelowTheLimitDidNotSpend() {
+    Balance balance = quoteBalance("50");
+    Order order = orderRepository.save(leasableOrder("exchange-price-improved"));
+    BalanceLock lock = quoteLock(order, "50");
+
+    stubExchangeMarketClient.stubStatus(
+        order.getExchangeOrderId(),
+        ExchangeOrderStatus.of(OrderStatus.FILLED)
+            .withFilledQuantity(new BigDecimal("5"))
+            .withAveragePrice(new BigDecimal("9"))
+            .withExecutedNotional(new BigDecimal("45")));
+
+    openOrderIndex.rebuild();
+    scheduler.refreshSentOrdersStatus();
+
+    Order updated = orderRepository.findById(order.getId()).orElseThrow();
+    assertThat(updated.getStatus()).isEqualTo(OrderStatus.FILLED);
+    assertThat(balanceLockRepository.findById(lock.getId()).orElseThrow().getAmount())
+        .isEqualByComparingTo("0");
+
+    entityManager.clear();
+    Balance updatedBalance = balanceRepository.findById(balance.getId()).orElseThrow();
+    assertThat(updatedBalance.getReserved()).isEqualByComparingTo("0");
+    assertThat(updatedBalance.getAvailable()).isEqualByComparingTo("5");
+  }
+
+  @Test
+  void refreshSentOrdersStatus_skipsOrdersLeasedByAnotherNode() {
+    orderStatusProperties.setLeaseEnabled(true);
+    Order first = orderRepository.saveAndFlush(leasableOrder("lease-1"));
+    Order second = orderRepository.saveAndFlush(leasableOrder("lease-2"));
+
+    ExchangeOrderStatus filled =
+        ExchangeOrderStatus.of(OrderStatus.FILLED)
+            .withFilledQuantity(new BigDecimal("5"))
+            .withAveragePrice(new BigDecimal("10"));
+    stubExchangeMarketClient.stubStatus("lease-1", filled);
+    stubExchangeMarketClient.stubStatus("lease-2", filled);
+
+    List<Long> claimedElsewhere =
+        orderRepository.claimOpenOrders("other-node", Duration.ofMinutes(1), 1);
+    assertThat(claimedElsewhere).hasSize(1);
+
+    scheduler.refreshSentOrdersStatus();
+
+    Long ours = claimedElsewhere.contains(first.getId()) ? second.getId() : first.getId();
+    Long theirs = claimedElsewhere.get(0);
+    assertThat(orderRepository.findById(ours).orElseThrow().getStatus())
+        .isEqualTo(OrderStatus.FILLED);
+    assertThat(orderRepository.findById(theirs).orElseThrow().getStatus())
+        .isEqualTo(OrderStatus.SENT);
+  }
+
+  @Test
+  void refreshSentOrdersStatus_keepsItsLeases_andRenewsThemOnTheNextSweep() {
+    orderStatusProperties.setLeaseEnabled(true);
+    Order order = orderRepository.saveAndFlush(leasableOrder("lease-kept"));
+    stubExchangeMarketClient.stubStatus("lease-kept", ExchangeOrderStatus.of(OrderStatus.SENT));
+    String owner = (String) ReflectionTestUtils.getField(scheduler, "leaseOwner");
+
+    scheduler.refreshSentOrdersStatus();
+    entityManager.flush();
+    entityManager.clear();
+    Order leased = orderRepository.findById(order.getId()).orElseThrow();
+    assertThat(leased.getLeaseOwner()).isEqualTo(owner);
+    assertThat(leased.getLeaseUntil()).isAfter(new Date());
+
+    // another node cannot take it while the lease runs
+    assertThat(orderRepository.claimOpenOrders("other-node", Duration.ofMinutes(1), 10))
+        .doesNotContain(order.getId());
+
+    scheduler.refreshSentOrdersStatus();
+    entityManager.flush();
+    entityManager.clear();
+    Order renewed = orderRepository.findById(order.getId()).orElseThrow();
+    assertThat(renewed.getLeaseOwner()).isEqualTo(owner);
+    assertThat(renewed.getLeaseUntil()).isAfterOrEqualTo(leased.getLeaseUntil());
+  }
+
+  @Test
+  void refreshSentOrdersStatus_reclaimsAnExpiredLeaseOfADeadOwner() {
+    orderStatusProperties.setLeaseEnabled(true);
+    Order order = orderRepository.saveAndFlush(leasableOrder("lease-orphan"));
+    // a node that claimed the order and died: its lease ran out a second ago
+    assertThat(orderRepository.claimOpenOrders("dead-node", Duration.ofSeconds(-1), 10))
+        .contains(order.getId());
+    stubExchangeMarketClient.stubStatus(
+        "lease-orphan",
+        ExchangeOrderStatus.of(OrderStatus.FILLED)
+            .withFilledQuantity(new BigDecimal("5"))
+            .withAveragePrice(new BigDecimal("10")));
+
+    scheduler.refreshSentOrdersStatus();
+
+    entityManager.flush();
+    entityManager.clear();
+    Order reclaimed = orderRepository.findById(order.getId()).orElseThrow();
+    assertThat(reclaimed.getLeaseOwner())
+        .isEqualTo(ReflectionTestUtils.getField(scheduler, "leaseOwner"));
+    assertThat(reclaimed.getStatus()).isEqualTo(OrderStatus.FILLED);
+  }
+
+  @Test
+  void refreshSentOrdersStatus_closesOrderUnknownToExchange_afterQuarantine() {
+    orderStatusProperties.setNotFoundQuarantineThreshold(1);
+    Balance balance =
+        balanceRepository.save(
+            Balance.builder()
+                .exchangeAccount(account)
+                .currency(quoteCurrency)
+                .available(BigDecimal.ZERO)
+                .reserved(new BigDecimal("50"))
+                .build());
+    Order order = orderRepository.save(leasableOrder("zombie-1"));
+    BalanceLock lock =
+        balanceLockRepository.save(
+            BalanceLock.builder()
+                .exchangeAccount(account)
+                .currency(quoteCurrency)
+                .amount(new BigDecimal("50"))
+                .reason(ORDER_LOCK_REASON)
+                .signalId(String.valueOf(order.getId()))
+                .build());
+    stubExchangeMarketClient.stubNotFound("zombie-1");
+
+    openOrderIndex.rebuild();
+    scheduler.refreshSentOrdersStatus();
+
+    Order updated = orderRepository.findById(order.getId()).orElseThrow();
+    assertThat(updated.getStatus()).isEqualTo(OrderStatus.CANCELLED);
+    assertThat(updated.getClosedAt()).isNotNull();
+
+    BalanceLock updatedLock = balanceLockRepository.findById(lock.getId()).orElseThrow();
+    assertThat(updatedLock.getAmount()).isEqualByComparingTo("0");
+
+    entityManager.clear();
+    Balance updatedBalance = balanceRepository.findById(balance.getId()).orElseThrow();
+    assertThat(updatedBalance.getReserved()).isEqualByComparingTo("0");
+    assertThat(updatedBalance.getAvailable()).isEqualByComparingTo("50");
+  }
+
+  @Test
+  void refreshSentOrdersStatus_rollsChildFillsUpIntoTheirParent() {
+    Order parent =
+        orderRepository.save(
+            Order.builder()
+                .pair(pair)
+                .side(OrderSide.BUY.name())
+                .type("LIMIT")
+                .tif(TimeInForce.GTC.name())
+                .qty(new BigDecimal("8"))
+                .qtyExec(BigDecimal.ZERO)
+                .status(OrderStatus.SENT)
+                .filledQty(BigDecimal.ZERO)
+                .avgPrice(BigDecimal.ZERO)
+                .build());
+    Order first = leasableOrder("child-1");
+    first.setParentOrder(parent);
+    orderRepository.save(first);
+    Order second = leasableOrder("child-2");
+    second.setParentOrder(parent);
+    second.setQty(new BigDecimal("3"));
+    orderRepository.save(second);
+
+    stubExchangeMarketClient.stubStatus(
+        "child-1",
+        ExchangeOrderStatus.of(OrderStatus.FILLED)
+            .withFilledQuantity(new BigDecimal("5"))
+            .withAveragePrice(new BigDecimal("10")));
+    stubExchangeMarketClient.stubStatus(
+        "child-2",
+        ExchangeOrderStatus.of(OrderStatus.FILLED)
+            .withFilledQuantity(new BigDecimal("3"))
+            .withAveragePrice(new BigDecimal("14")));
+
+    openOrderIndex.rebuild();
+    scheduler.refreshSentOrdersStatus();
+
+    entityManager.clear();
+    Order updated = orderRepository.findById(parent.getId()).orElseThrow();
+    assertThat(updated.getStatus()).isEqualTo(OrderStatus.FILLED);
+    assertThat(updated.getQtyExec()).isEqualByComparingTo("8");
+    assertThat(updated.getAvgPrice()).isEqualByComparingTo("11.5");
+    assertThat(updated.getClosedAt()).isNotNull();
+  }
+
+  private Balance quoteBalance(String reserved) {
+    return balanceRepository.save(
+        Balance.builder()
+            .exchangeAccount(account)
+            .currency(quoteCurrency)
+            .available(BigDecimal.ZERO)
+            .reserved(new BigDecimal(reserved))
+            .build());
+  }
+
+  private BalanceLock quoteLock(Order order, String amount) {
+    return balanceLockRepository.save(
+        BalanceLock.builder()
+            .exchangeAccount(account)
+            .currency(quoteCurrency)
+            .amount(new BigDecimal(amount))
+            .reason(ORDER_LOCK_REASON)
+            .signalId(String.valueOf(order.getId()))
+            .build());
+  }
+
+  private Order leasableOrder(String exchangeOrderId) {
+    return Order.builder()
+        .exchange(exchange)
+        .exchangeAccount(account)
+        .pair(pair)
+        .side(OrderSide.BUY.name())
+        .type("LIMIT")
+        .tif(TimeInForce.GTC.name())
+        .exchangeOrderId(exchangeOrderId)
+        .price(new BigDecimal("10"))
+        .qty(new BigDecimal("5"))
+        .qtyExec(BigDecimal.ZERO)
+        .notional(new BigDecimal("50"))
+        .status(OrderStatus.SENT)
+        .filledQty(BigDecimal.ZERO)
+        .avgPrice(BigDecimal.ZERO)
+        .sentAt(Date.from(Instant.now()))
+        .build();
+  }
+
   @TestConfiguration
   static class TestConfig {
 
@@ -314,6 +723,7 @@ class OrderStatusSchedulerIntegrationTest {
   static class StubExchangeMarketClient implements ExchangeMarketClient {
 
     private final Set<String> cancelledOrders = ConcurrentHashMap.newKeySet();
+    private final Set<String> notFound = ConcurrentHashMap.newKeySet();
     private final java.util.Map<String, Boolean> cancelResponses = new ConcurrentHashMap<>();
     private final java.util.Map<String, ExchangeOrderStatus> statuses = new ConcurrentHashMap<>();
 
@@ -345,6 +755,9 @@ class OrderStatusSchedulerIntegrationTest {
 
     @Override
     public ExchangeOrderStatus getOrderStatus(String orderId) {
+      if (notFound.contains(orderId)) {
+        throw new OrderNotFoundException(orderId, "Order not found: " + orderId);
+      }
       return statuses.get(orderId);
     }
 
@@ -352,6 +765,10 @@ class OrderStatusSchedulerIntegrationTest {
       statuses.put(orderId, status);
     }
 
+    void stubNotFound(String orderId) {
+      notFound.add(orderId);
+    }
+
     void stubCancelResponse(String orderId, boolean result) {
       cancelResponses.put(orderId, result);
     }
@@ -362,6 +779,7 @@ class OrderStatusSchedulerIntegrationTest {
 
     void reset() {
       cancelledOrders.clear();
+      notFound.clear();
       cancelResponses.clear();
       statuses.clear();
     }
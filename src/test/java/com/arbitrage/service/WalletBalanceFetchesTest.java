@@ -0,0 +1,137 @@
+package com.arbitrage.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.arbitrage.config.WalletBalanceProperties;
+import com.arbitrage.model.ExchangeOrderStatus;
+import com.arbitrage.model.OrderAck;
+import com.arbitrage.model.OrderBook;
+import com.arbitrage.model.OrderRequest;
+import com.arbitrage.model.Quote;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+/** The single-currency fallback behind {@link ExchangeMarketClient#getWalletBalances}. */
+class WalletBalanceFetchesTest {
+
+  private WalletBalanceFetches fetches;
+
+  @AfterEach
+  void tearDown() {
+    if (fetches != null) {
+      fetches.shutdown();
+    }
+  }
+
+  @Test
+  void fetchEach_fetchesInParallel_andLeavesOutFailedAndLateCurrencies() {
+    WalletBalanceProperties properties = new WalletBalanceProperties();
+    properties.setThreads(4);
+    properties.setTimeout(Duration.ofMillis(500));
+    fetches = new WalletBalanceFetches(properties);
+    // RIAL and USDT only answer once both are in flight
+    CountDownLatch bothStarted = new CountDownLatch(2);
+    SingleWalletClient client =
+        new SingleWalletClient(
+            currency -> {
+              switch (currency) {
+                case "RIAL":
+                case "USDT":
+                  bothStarted.countDown();
+                  if (!bothStarted.await(1, TimeUnit.SECONDS)) {
+                    throw new IllegalStateException("not fetched in parallel");
+                  }
+                  return currency.equals("RIAL") ? new BigDecimal("100") : new BigDecimal("5");
+                case "SLOW":
+                  Thread.sleep(2_000);
+                  return BigDecimal.ONE;
+                default:
+                  throw new IllegalStateException("unknown currency " + currency);
+              }
+            });
+
+    Map<String, BigDecimal> balances =
+        fetches.fetchEach(client, List.of("RIAL", "USDT", "BAD", "SLOW"));
+
+    assertThat(balances).containsOnlyKeys("RIAL", "USDT");
+    assertThat(balances.get("RIAL")).isEqualByComparingTo("100");
+    assertThat(balances.get("USDT")).isEqualByComparingTo("5");
+  }
+
+  @Test
+  void getWalletBalances_default_fetchesEachCurrency_andLeavesOutFailures() {
+    SingleWalletClient client =
+        new SingleWalletClient(
+            currency -> {
+              if (currency.equals("BAD")) {
+                throw new IllegalStateException("unknown currency " + currency);
+              }
+              return new BigDecimal("7");
+            });
+
+    Map<String, BigDecimal> balances = client.getWalletBalances(List.of("RIAL", "BAD", "USDT"));
+
+    assertThat(balances).containsOnlyKeys("RIAL", "USDT");
+    assertThat(balances.get("USDT")).isEqualByComparingTo("7");
+  }
+
+  private interface WalletSource {
+    BigDecimal balance(String currency) throws Exception;
+  }
+
+  private static final class SingleWalletClient implements ExchangeMarketClient {
+
+    private final WalletSource wallets;
+
+    SingleWalletClient(WalletSource wallets) {
+      this.wallets = wallets;
+    }
+
+    @Override
+    public String getExchangeName() {
+      return "TESTEX";
+    }
+
+    @Override
+    public BigDecimal getWalletBalance(String currency) {
+      try {
+        return wallets.balance(currency);
+      } catch (RuntimeException ex) {
+        throw ex;
+      } catch (Exception ex) {
+        throw new IllegalStateException(ex);
+      }
+    }
+
+    @Override
+    public List<Quote> getQuotes() {
+      return List.of();
+    }
+
+    @Override
+    public OrderAck submitOrder(OrderRequest orderRequest) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public boolean cancelOrder(String orderId) {
+      return false;
+    }
+
+    @Override
+    public ExchangeOrderStatus getOrderStatus(String orderId) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public OrderBook getOrderBook(String symbol, int depth) {
+      throw new UnsupportedOperationException();
+    }
+  }
+}
@@ -0,0 +1,99 @@
+package com.arbitrage.service.allocation;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.arbitrage.config.AllocationProperties;
+import com.arbitrage.enums.OrderSide;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+class AllocationSolverTest {
+
+  private static final VenueCurrency NOBITEX_USDT = new VenueCurrency("NOBITEX", "USDT");
+  private static final VenueCurrency WALLEX_BTC = new VenueCurrency("WALLEX", "BTC");
+
+  private final AllocationSolver solver = new AllocationSolver(new AllocationProperties());
+
+  @Test
+  void solve_fundsTheBestPnlPerCapitalFirst() {
+    Opportunity small = arbitrage("small", "1", "10");
+    Opportunity best = arbitrage("best", "1", "30");
+
+    List<Allocation> allocations =
+        solver.solve(
+            List.of(small, best),
+            Map.of(NOBITEX_USDT, new BigDecimal("100"), WALLEX_BTC, BigDecimal.ONE));
+
+    assertThat(allocations).extracting(a -> a.opportunity().id()).containsExactly("best", "small");
+    assertThat(allocations.get(0).fraction()).isEqualByComparingTo("1");
+    assertThat(allocations.get(1).isFunded()).isFalse();
+  }
+
+  @Test
+  void solve_fundsAFractionOfAnOpportunity_whenBalancesCoverPartOfIt() {
+    Opportunity opportunity = arbitrage("partial", "2", "40");
+
+    Allocation allocation =
+        solver
+            .solve(
+                List.of(opportunity),
+                Map.of(NOBITEX_USDT, new BigDecimal("150"), WALLEX_BTC, BigDecimal.TEN))
+            .get(0);
+
+    assertThat(allocation.fraction()).isEqualByComparingTo("0.75");
+    assertThat(allocation.expectedPnl()).isEqualByComparingTo("30");
+    assertThat(allocation.legs())
+        .allSatisfy(leg -> assertThat(leg.qty()).isEqualByComparingTo("1.5"));
+  }
+
+  @Test
+  void solve_rejects_belowMinFraction() {
+    Opportunity opportunity = arbitrage("thin", "1", "10");
+
+    Allocation allocation =
+        solver
+            .solve(
+                List.of(opportunity),
+                Map.of(NOBITEX_USDT, new BigDecimal("20"), WALLEX_BTC, BigDecimal.ONE))
+            .get(0);
+
+    assertThat(allocation.isFunded()).isFalse();
+  }
+
+  @Test
+  void groups_splitsOpportunitiesThatSpendNoCurrencyInCommon() {
+    Opportunity btc = arbitrage("btc", "1", "10");
+    Opportunity eth =
+        new Opportunity(
+            "eth",
+            BigDecimal.ONE,
+            List.of(
+                leg("RAMZINEX", "ETH", "IRT", OrderSide.BUY, "1", "50"),
+                leg("WALLEX", "ETH", "IRT", OrderSide.SELL, "1", "51")));
+    Opportunity btcAgain = arbitrage("btc-again", "1", "5");
+
+    List<List<Opportunity>> groups = solver.groups(List.of(btc, eth, btcAgain));
+
+    assertThat(groups).hasSize(2);
+    assertThat(groups.get(0)).containsExactly(btc, btcAgain);
+    assertThat(groups.get(1)).containsExactly(eth);
+  }
+
+  /** Buys BTC with USDT on Nobitex at 100 and sells it on Wallex at 110. */
+  private static Opportunity arbitrage(String id, String qty, String pnl) {
+    return new Opportunity(
+        id,
+        new BigDecimal(pnl),
+        List.of(
+            leg("NOBITEX", "BTC", "USDT", OrderSide.BUY, qty, "100"),
+            leg("WALLEX", "BTC", "USDT", OrderSide.SELL, qty, "110")));
+  }
+
+  private static OpportunityLeg leg(
+      String exchange, String base, String quote, OrderSide side, String qty, String price) {
+    return new OpportunityLeg(
+        exchange, base, quote, side, new BigDecimal(qty), new BigDecimal(price));
+  }
+}
@@ -0,0 +1,81 @@
+package com.arbitrage.service.exchanges;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.jupiter.api.Test;
+
+class ClientOrderIdGeneratorTest {
+
+  @Test
+  void nextId_isStrictlyIncreasing_beyondOneMillisecondOfSequence() {
+    ClientOrderIdGenerator generator = new ClientOrderIdGenerator(7);
+
+    long previous = generator.nextId();
+    for (int i = 0; i < 20_000; i++) {
+      long next = generator.nextId();
+      assertThat(next).isGreaterThan(previous);
+      previous = next;
+    }
+  }
+
+  @Test
+  void next_isUniqueAcrossThreads() throws Exception {
+    ClientOrderIdGenerator generator = new ClientOrderIdGenerator(1);
+    Set<String> ids = ConcurrentHashMap.newKeySet();
+    ExecutorService pool = Executors.newFixedThreadPool(8);
+    try {
+      List<Future<?>> futures = new ArrayList<>();
+      for (int t = 0; t < 8; t++) {
+        futures.add(
+            pool.submit(
+                () -> {
+                  for (int i = 0; i < 5_000; i++) {
+                    ids.add(generator.next("CLI-BTC-USDT", 32));
+                  }
+                }));
+      }
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    } finally {
+      pool.shutdownNow();
+    }
+    assertThat(ids).hasSize(40_000);
+  }
+
+  @Test
+  void next_respectsCharsetAndLength() {
+    ClientOrderIdGenerator generator = new ClientOrderIdGenerator(1023);
+
+    String id = generator.next("cli-btc_usdt/very-long-symbol-prefix", 32);
+
+    assertThat(id).hasSizeLessThanOrEqualTo(32).matches("[A-Z0-9-]+");
+    assertThat(id).startsWith("CLI-BTCUSDT");
+  }
+
+  @Test
+  void differentNodes_neverCollide() {
+    ClientOrderIdGenerator first = new ClientOrderIdGenerator(1);
+    ClientOrderIdGenerator second = new ClientOrderIdGenerator(2);
+    Set<Long> ids = new HashSet<>();
+    for (int i = 0; i < 1_000; i++) {
+      ids.add(first.nextId());
+      ids.add(second.nextId());
+    }
+    assertThat(ids).hasSize(2_000);
+  }
+
+  @Test
+  void constructor_rejectsOutOfRangeNodeId() {
+    assertThrows(IllegalArgumentException.class, () -> new ClientOrderIdGenerator(1024));
+  }
+}
@@ -0,0 +1,44 @@
+package com.arbitrage.service.exchanges;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.math.BigDecimal;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+/** The {@code /users/wallets/list} response behind Nobitex's bulk wallet fetch. */
+class NobitexWalletBalancesTest {
+
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+
+  @Test
+  void walletBalances_mapsTheRequestedWalletsBackToCurrencyNames() throws Exception {
+    String body =
+        "{\"status\":\"ok\",\"wallets\":["
+            + "{\"id\":1,\"currency\":\"rls\",\"balance\":\"1250000\",\"blockedBalance\":\"0\"},"
+            + "{\"id\":2,\"currency\":\"BTC\",\"balance\":\"0.00012345\",\"blockedBalance\":\"0\"},"
+            + "{\"id\":3,\"currency\":\"usdt\",\"balance\":\"40\",\"blockedBalance\":\"2\"},"
+            + "{\"id\":4,\"currency\":\"eth\"}]}";
+
+    Map<String, BigDecimal> balances =
+        NobitexMarketClient.walletBalances(
+            MAPPER.readValue(body, Map.class),
+            Map.of("rls", "RIAL", "btc", "BITCOIN", "eth", "ETHEREUM"));
+
+    // usdt was not asked for and eth has no balance
+    assertThat(balances).containsOnlyKeys("RIAL", "BITCOIN");
+    assertThat(balances.get("RIAL")).isEqualByComparingTo("1250000");
+    assertThat(balances.get("BITCOIN")).isEqualByComparingTo("0.00012345");
+  }
+
+  @Test
+  void walletBalances_rejectsAResponseWithoutWallets() throws Exception {
+    Map<?, ?> response = MAPPER.readValue("{\"status\":\"failed\"}", Map.class);
+
+    assertThatThrownBy(() -> NobitexMarketClient.walletBalances(response, Map.of("rls", "RIAL")))
+        .isInstanceOf(IllegalStateException.class)
+        .hasMessage("Empty wallets response");
+  }
+}
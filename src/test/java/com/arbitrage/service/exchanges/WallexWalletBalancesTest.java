@@ -0,0 +1,43 @@
+package com.arbitrage.service.exchanges;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.math.BigDecimal;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+/** The {@code /v1/account/balances} response behind Wallex's bulk wallet fetch. */
+class WallexWalletBalancesTest {
+
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+
+  @Test
+  void walletBalances_readsTheFreeValueOfEachRequestedAsset() throws Exception {
+    String body =
+        "{\"success\":true,\"result\":{\"balances\":{"
+            + "\"TMN\":{\"asset\":\"TMN\",\"fiat\":true,\"value\":\"5000000\",\"locked\":\"0\"},"
+            + "\"USDT\":{\"asset\":\"USDT\",\"fiat\":false,\"value\":\"12.5\",\"locked\":\"3\"},"
+            + "\"BTC\":{\"asset\":\"BTC\",\"fiat\":false,\"value\":\"0.0001\",\"locked\":\"0\"}}}}";
+
+    Map<String, BigDecimal> balances =
+        WallexMarketClient.walletBalances(
+            MAPPER.readValue(body, Map.class),
+            Map.of("RIAL", "TMN", "TETHER", "USDT", "ETHEREUM", "ETH"));
+
+    // BTC was not asked for and ETH is not in the response
+    assertThat(balances).containsOnlyKeys("RIAL", "TETHER");
+    assertThat(balances.get("RIAL")).isEqualByComparingTo("5000000");
+    assertThat(balances.get("TETHER")).isEqualByComparingTo("12.5");
+  }
+
+  @Test
+  void walletBalances_rejectsAResponseWithoutBalances() throws Exception {
+    Map<?, ?> response = MAPPER.readValue("{\"success\":false,\"result\":{}}", Map.class);
+
+    assertThatThrownBy(() -> WallexMarketClient.walletBalances(response, Map.of("RIAL", "TMN")))
+        .isInstanceOf(IllegalStateException.class)
+        .hasMessage("Empty funds response");
+  }
+}
@@ -0,0 +1,233 @@
+package com.arbitrage.service.fills;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.arbitrage.config.FillIngestionProperties;
+import com.arbitrage.dal.OrderFillService;
+import com.arbitrage.entities.Currency;
+import com.arbitrage.entities.Exchange;
+import com.arbitrage.entities.ExchangeAccount;
+import com.arbitrage.entities.Order;
+import com.arbitrage.entities.OrderFill;
+import com.arbitrage.entities.TradeCursor;
+import com.arbitrage.enums.ExchangeStatus;
+import com.arbitrage.enums.OrderSide;
+import com.arbitrage.enums.OrderStatus;
+import com.arbitrage.model.ExchangeOrderStatus;
+import com.arbitrage.model.ExchangeTrade;
+import com.arbitrage.model.OrderAck;
+import com.arbitrage.model.OrderRequest;
+import com.arbitrage.model.Quote;
+import com.arbitrage.respository.CurrencyRepository;
+import com.arbitrage.respository.ExchangeAccountRepository;
+import com.arbitrage.respository.ExchangeRepository;
+import com.arbitrage.respository.OrderFillRepository;
+import com.arbitrage.respository.OrderRepository;
+import com.arbitrage.respository.TradeCursorRepository;
+import com.arbitrage.service.ExchangeAccessService;
+import com.arbitrage.service.ExchangeClientFactory;
+import com.arbitrage.service.ExchangeMarketClient;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({
+  FillIngestionScheduler.class,
+  FillIngestionProperties.class,
+  OrderFillService.class,
+  ExchangeAccessService.class,
+  FillIngestionIntegrationTest.TestConfig.class
+})
+@ActiveProfiles("test")
+// ExchangeAccessService caches the account, which each test recreates
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class FillIngestionIntegrationTest {
+
+  @Autowired private FillIngestionScheduler scheduler;
+  @Autowired private OrderRepository orderRepository;
+  @Autowired private OrderFillRepository orderFillRepository;
+  @Autowired private TradeCursorRepository tradeCursorRepository;
+  @Autowired private CurrencyRepository currencyRepository;
+  @Autowired private ExchangeRepository exchangeRepository;
+  @Autowired private ExchangeAccountRepository exchangeAccountRepository;
+  @Autowired private StubTradesClient stubTradesClient;
+
+  private ExchangeAccount account;
+  private Currency feeCurrency;
+
+  @BeforeEach
+  void setUp() {
+    stubTradesClient.reset();
+
+    Exchange exchange = new Exchange();
+    exchange.setName("FillEx");
+    exchange.setStatus(ExchangeStatus.ACTIVE);
+    exchange = exchangeRepository.save(exchange);
+
+    account =
+        exchangeAccountRepository.save(
+            ExchangeAccount.builder()
+                .exchange(exchange)
+                .label("Fillex")
+                .apiKey("api-key")
+                .secretKey("secret")
+                .isPrimary(true)
+                .build());
+
+    feeCurrency =
+        currencyRepository.save(Currency.builder().symbol("FEEX").name("FEE COIN").build());
+  }
+
+  @Test
+  void ingestFills_storesNewTradesOnce_andAdvancesCursor() {
+    Order order = saveOrder("fill-order-1");
+    Instant executedAt = Instant.now().minusSeconds(600);
+
+    stubTradesClient.addTrade(trade("99", "someone-elses-order", executedAt));
+    stubTradesClient.addTrade(trade("100", "fill-order-1", executedAt));
+    stubTradesClient.addTrade(trade("101", "fill-order-1", executedAt.plusSeconds(1)));
+
+    scheduler.ingestFills();
+    scheduler.ingestFills();
+
+    List<OrderFill> fills = orderFillRepository.findByOrder_IdOrderByFillSeq(order.getId());
+    assertThat(fills).extracting(OrderFill::getTradeId).containsExactly("100", "101");
+    assertThat(fills).extracting(OrderFill::getFillSeq).containsExactly(1, 2);
+    // fills keep the exchange's decimals rather than rounding to cents
+    assertThat(fills.get(0).getFilledQty()).isEqualByComparingTo("0.00012345");
+    assertThat(fills.get(0).getFeeAmount()).isEqualByComparingTo("0.00000012");
+    assertThat(fills.get(0).getFeeCurrency().getId()).isEqualTo(feeCurrency.getId());
+
+    TradeCursor cursor = tradeCursorRepository.findByExchangeAccount(account).orElseThrow();
+    assertThat(cursor.getLastTradeId()).isEqualTo("101");
+    assertThat(stubTradesClient.lastAfterTradeId).isEqualTo("101");
+  }
+
+  @Test
+  void ingestFills_holdsCursorOnFreshTradeOfUnknownOrder() {
+    saveOrder("fill-order-2");
+    Instant now = Instant.now();
+
+    stubTradesClient.addTrade(trade("200", "fill-order-2", now.minusSeconds(5)));
+    stubTradesClient.addTrade(trade("201", "not-committed-yet", now));
+
+    scheduler.ingestFills();
+
+    TradeCursor cursor = tradeCursorRepository.findByExchangeAccount(account).orElseThrow();
+    assertThat(cursor.getLastTradeId()).isEqualTo("200");
+  }
+
+  private Order saveOrder(String exchangeOrderId) {
+    return orderRepository.save(
+        Order.builder()
+            .exchange(account.getExchange())
+            .exchangeAccount(account)
+            .side(OrderSide.BUY.name())
+            .type("LIMIT")
+            .exchangeOrderId(exchangeOrderId)
+            .price(new BigDecimal("10"))
+            .qty(new BigDecimal("5"))
+            .qtyExec(BigDecimal.ZERO)
+            .status(OrderStatus.SENT)
+            .sentAt(new Date())
+            .build());
+  }
+
+  private static ExchangeTrade trade(String tradeId, String orderId, Instant executedAt) {
+    return new ExchangeTrade(
+        tradeId,
+        orderId,
+        "BUY",
+        new BigDecimal("0.00012345"),
+        new BigDecimal("10"),
+        new BigDecimal("0.00000012"),
+        "FEEX",
+        executedAt);
+  }
+
+  @TestConfiguration
+  static class TestConfig {
+
+    @Bean
+    StubTradesClient stubTradesClient() {
+      return new StubTradesClient();
+    }
+
+    @Bean
+    ExchangeClientFactory exchangeClientFactory(StubTradesClient stub) {
+      return new ExchangeClientFactory(List.of(stub));
+    }
+  }
+
+  static class StubTradesClient implements ExchangeMarketClient {
+
+    private final List<ExchangeTrade> trades = new ArrayList<>();
+    private String lastAfterTradeId;
+
+    @Override
+    public String getExchangeName() {
+      return "FillEx";
+    }
+
+    @Override
+    public BigDecimal getWalletBalance(String currency) {
+      return BigDecimal.ZERO;
+    }
+
+    @Override
+    public List<Quote> getQuotes() {
+      return Collections.emptyList();
+    }
+
+    @Override
+    public OrderAck submitOrder(OrderRequest orderRequest) {
+      return null;
+    }
+
+    @Override
+    public boolean cancelOrder(String orderId) {
+      return false;
+    }
+
+    @Override
+    public ExchangeOrderStatus getOrderStatus(String orderId) {
+      return null;
+    }
+
+    @Override
+    public boolean supportsTrades() {
+      return true;
+    }
+
+    @Override
+    public List<ExchangeTrade> getTrades(String afterTradeId, Instant since) {
+      lastAfterTradeId = afterTradeId;
+      long after = afterTradeId != null ? Long.parseLong(afterTradeId) : Long.MIN_VALUE;
+      return trades.stream().filter(t -> Long.parseLong(t.tradeId()) > after).toList();
+    }
+
+    void addTrade(ExchangeTrade trade) {
+      trades.add(trade);
+    }
+
+    void reset() {
+      trades.clear();
+      lastAfterTradeId = null;
+    }
+  }
+}
@@ -0,0 +1,111 @@
+package com.arbitrage.service.ledger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.arbitrage.config.BalanceLedgerProperties;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class BalanceLedgerTest {
+
+  private static final BalanceKey KEY = new BalanceKey(1L, 2L);
+
+  @TempDir Path dir;
+
+  private final InMemoryStore store = new InMemoryStore();
+
+  @Test
+  void reserveReleaseAndSettle_moveAmountsAndReachTheStoreOnFlush() {
+    store.balances.put(KEY, new BalanceAmounts(new BigDecimal("100"), BigDecimal.ZERO));
+    BalanceLedger ledger = ledger();
+
+    assertThat(ledger.tryReserve(1L, 2L, new BigDecimal("60"))).isTrue();
+    ledger.release(1L, 2L, new BigDecimal("10"));
+    ledger.settle(1L, 2L, new BigDecimal("30"));
+
+    BalanceAmounts amounts = ledger.get(1L, 2L);
+    assertThat(amounts.available()).isEqualByComparingTo("50");
+    assertThat(amounts.reserved()).isEqualByComparingTo("20");
+
+    ledger.flush();
+    assertThat(store.balances.get(KEY).available()).isEqualByComparingTo("50");
+    assertThat(store.balances.get(KEY).reserved()).isEqualByComparingTo("20");
+    assertThat(store.checkpoint).isEqualTo(3);
+    ledger.stop();
+  }
+
+  @Test
+  void tryReserve_refusesMoreThanAvailable() {
+    store.balances.put(KEY, new BalanceAmounts(new BigDecimal("5"), BigDecimal.ZERO));
+    BalanceLedger ledger = ledger();
+
+    assertThat(ledger.tryReserve(1L, 2L, new BigDecimal("6"))).isFalse();
+
+    assertThat(ledger.get(1L, 2L).available()).isEqualByComparingTo("5");
+    assertThat(ledger.get(1L, 2L).reserved()).isEqualByComparingTo("0");
+    ledger.stop();
+  }
+
+  @Test
+  void start_replaysChangesThatNeverReachedTheStore() {
+    store.balances.put(KEY, new BalanceAmounts(new BigDecimal("100"), BigDecimal.ZERO));
+    BalanceLedger crashed = ledger();
+    crashed.tryReserve(1L, 2L, new BigDecimal("40"));
+    crashed.flush();
+    crashed.tryReserve(1L, 2L, new BigDecimal("25"));
+    // no flush: the JVM dies with the second reservation only in the journal
+
+    BalanceLedger restarted = ledger();
+
+    assertThat(store.balances.get(KEY).available()).isEqualByComparingTo("35");
+    assertThat(store.balances.get(KEY).reserved()).isEqualByComparingTo("65");
+    assertThat(restarted.get(1L, 2L).available()).isEqualByComparingTo("35");
+    assertThat(store.checkpoint).isEqualTo(2);
+    restarted.stop();
+  }
+
+  private BalanceLedger ledger() {
+    BalanceLedgerProperties properties = new BalanceLedgerProperties();
+    properties.setEnabled(true);
+    properties.setJournalPath(dir.resolve("ledger.journal").toString());
+    // keep the background flusher out of the way; the tests flush explicitly
+    properties.setFlushInterval(Duration.ofHours(1));
+    BalanceLedger ledger = new BalanceLedger(properties, store);
+    ledger.start();
+    return ledger;
+  }
+
+  private static final class InMemoryStore implements BalanceStore {
+
+    private final Map<BalanceKey, BalanceAmounts> balances = new HashMap<>();
+    private long checkpoint;
+
+    @Override
+    public BalanceAmounts load(BalanceKey key) {
+      return balances.getOrDefault(key, BalanceAmounts.ZERO);
+    }
+
+    @Override
+    public long checkpoint() {
+      return checkpoint;
+    }
+
+    @Override
+    public void apply(Map<BalanceKey, BalanceAmounts> deltas, long lastSeq) {
+      deltas.forEach(
+          (key, delta) ->
+              balances.merge(
+                  key,
+                  delta,
+                  (a, b) ->
+                      new BalanceAmounts(
+                          a.available().add(b.available()), a.reserved().add(b.reserved()))));
+      checkpoint = lastSeq;
+    }
+  }
+}
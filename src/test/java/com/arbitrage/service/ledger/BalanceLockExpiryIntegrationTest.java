@@ -0,0 +1,166 @@
+package com.arbitrage.service.ledger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.arbitrage.config.BalanceLedgerProperties;
+import com.arbitrage.config.BalanceLockProperties;
+import com.arbitrage.dal.BalanceLockService;
+import com.arbitrage.entities.Balance;
+import com.arbitrage.entities.BalanceLock;
+import com.arbitrage.entities.Currency;
+import com.arbitrage.entities.Exchange;
+import com.arbitrage.entities.ExchangeAccount;
+import com.arbitrage.entities.Order;
+import com.arbitrage.enums.ExchangeStatus;
+import com.arbitrage.enums.OrderSide;
+import com.arbitrage.enums.OrderStatus;
+import com.arbitrage.respository.BalanceLockRepository;
+import com.arbitrage.respository.BalanceRepository;
+import com.arbitrage.respository.CurrencyRepository;
+import com.arbitrage.respository.ExchangeAccountRepository;
+import com.arbitrage.respository.ExchangeRepository;
+import com.arbitrage.respository.OrderRepository;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Date;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({
+  BalanceLockExpiryScheduler.class,
+  BalanceLockService.class,
+  BalanceLockProperties.class,
+  BalanceLedger.class,
+  BalanceLedgerProperties.class,
+  DatabaseBalanceStore.class
+})
+@ActiveProfiles("test")
+class BalanceLockExpiryIntegrationTest {
+
+  @Autowired private BalanceLockExpiryScheduler scheduler;
+  @Autowired private BalanceRepository balanceRepository;
+  @Autowired private BalanceLockRepository balanceLockRepository;
+  @Autowired private OrderRepository orderRepository;
+  @Autowired private CurrencyRepository currencyRepository;
+  @Autowired private ExchangeRepository exchangeRepository;
+  @Autowired private ExchangeAccountRepository exchangeAccountRepository;
+  @Autowired private TestEntityManager entityManager;
+
+  private Exchange exchange;
+  private ExchangeAccount account;
+  private Currency currency;
+
+  @BeforeEach
+  void setUp() {
+    exchange = new Exchange();
+    exchange.setName("LockEx");
+    exchange.setStatus(ExchangeStatus.ACTIVE);
+    exchange = exchangeRepository.save(exchange);
+
+    account =
+        exchangeAccountRepository.save(
+            ExchangeAccount.builder()
+                .exchange(exchange)
+                .label("Lockex")
+                .apiKey("api-key")
+                .secretKey("secret")
+                .isPrimary(true)
+                .build());
+
+    currency = currencyRepository.findByNameAndSymbol("TETHER", "USDT").orElseGet(Currency::new);
+  }
+
+  @Test
+  void sweepExpiredLocks_releasesLockOfCancelledOrder() {
+    Balance balance = saveBalance("0", "30");
+    BalanceLock lock =
+        saveLock(saveOrder(OrderStatus.CANCELLED), "30", Instant.now().minusSeconds(5));
+
+    scheduler.sweepExpiredLocks();
+
+    entityManager.clear();
+    assertThat(balanceLockRepository.findById(lock.getId()).orElseThrow().getAmount())
+        .isEqualByComparingTo("0");
+    Balance updated = balanceRepository.findById(balance.getId()).orElseThrow();
+    assertThat(updated.getAvailable()).isEqualByComparingTo("30");
+    assertThat(updated.getReserved()).isEqualByComparingTo("0");
+  }
+
+  @Test
+  void sweepExpiredLocks_settlesLockOfFilledOrder() {
+    Balance balance = saveBalance("0", "30");
+    saveLock(saveOrder(OrderStatus.FILLED), "30", Instant.now().minusSeconds(5));
+
+    scheduler.sweepExpiredLocks();
+
+    entityManager.clear();
+    Balance updated = balanceRepository.findById(balance.getId()).orElseThrow();
+    assertThat(updated.getAvailable()).isEqualByComparingTo("0");
+    assertThat(updated.getReserved()).isEqualByComparingTo("0");
+  }
+
+  @Test
+  void sweepExpiredLocks_extendsLockOfOpenOrder_andLeavesLiveLocksAlone() {
+    Balance balance = saveBalance("0", "50");
+    BalanceLock expired =
+        saveLock(saveOrder(OrderStatus.SENT), "30", Instant.now().minusSeconds(5));
+    BalanceLock live =
+        saveLock(saveOrder(OrderStatus.CANCELLED), "20", Instant.now().plusSeconds(600));
+
+    scheduler.sweepExpiredLocks();
+
+    entityManager.clear();
+    BalanceLock extended = balanceLockRepository.findById(expired.getId()).orElseThrow();
+    assertThat(extended.getAmount()).isEqualByComparingTo("30");
+    assertThat(extended.getExpiresAt()).isAfter(new Date());
+    assertThat(balanceLockRepository.findById(live.getId()).orElseThrow().getAmount())
+        .isEqualByComparingTo("20");
+    assertThat(balanceRepository.findById(balance.getId()).orElseThrow().getReserved())
+        .isEqualByComparingTo("50");
+  }
+
+  private Balance saveBalance(String available, String reserved) {
+    return balanceRepository.save(
+        Balance.builder()
+            .exchangeAccount(account)
+            .currency(currency)
+            .available(new BigDecimal(available))
+            .reserved(new BigDecimal(reserved))
+            .build());
+  }
+
+  private Order saveOrder(OrderStatus status) {
+    return orderRepository.save(
+        Order.builder()
+            .exchange(exchange)
+            .exchangeAccount(account)
+            .side(OrderSide.BUY.name())
+            .type("LIMIT")
+            .price(new BigDecimal("10"))
+            .qty(new BigDecimal("3"))
+            .qtyExec(BigDecimal.ZERO)
+            .status(status)
+            .sentAt(new Date())
+            .build());
+  }
+
+  private BalanceLock saveLock(Order order, String amount, Instant expiresAt) {
+    return balanceLockRepository.save(
+        BalanceLock.builder()
+            .exchangeAccount(account)
+            .currency(currency)
+            .amount(new BigDecimal(amount))
+            .reason("ORDER_SUBMIT")
+            .signalId(String.valueOf(order.getId()))
+            .expiresAt(Date.from(expiresAt))
+            .build());
+  }
+}
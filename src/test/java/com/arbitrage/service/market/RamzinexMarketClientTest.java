@@ -17,6 +17,7 @@ import jakarta.persistence.EntityManager;
 import java.math.BigDecimal;
 import java.time.Duration;
 import java.util.List;
+import java.util.Map;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -79,6 +80,16 @@ class RamzinexMarketClientTest {
         .isGreaterThanOrEqualTo(BigDecimal.ZERO);
   }
 
+  @Test
+  @DisplayName("Wallet balances: one fetch per currency, failed ones left out")
+  @Timeout(15)
+  void getWalletBalances_live_fetchesEachCurrency_andDropsFailedOnes() {
+    Map<String, BigDecimal> balances = client.getWalletBalances(List.of("RIAL", "___invalid___"));
+
+    assertThat(balances).containsOnlyKeys("RIAL");
+    assertThat(balances.get("RIAL")).isGreaterThanOrEqualTo(BigDecimal.ZERO);
+  }
+
   @Test
   @DisplayName("Wallet balance: invalid currency throws")
   @Timeout(15)
@@ -175,7 +186,8 @@ class RamzinexMarketClientTest {
             new BigDecimal("0.0001"), // Align with Ramzinex minimum BTC order size.
             new BigDecimal(
                 "100000000"), // Intentionally far from market price to trigger rejection.
-            "IOC");
+            "IOC",
+            null);
 
     Assertions.assertTimeoutPreemptively(
         Duration.ofSeconds(25),
@@ -1,7 +1,15 @@
 package com.arbitrage.service.market;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
+import com.arbitrage.config.BalanceLedgerProperties;
+import com.arbitrage.config.BalanceLockProperties;
+import com.arbitrage.config.CircuitBreakerProperties;
+import com.arbitrage.config.RiskLimitProperties;
+import com.arbitrage.config.RoutingProperties;
+import com.arbitrage.config.TimeInForceProperties;
+import com.arbitrage.dal.OpenOrderIndex;
 import com.arbitrage.dal.OrderService;
 import com.arbitrage.dto.DecimalValueDto;
 import com.arbitrage.dto.OrderInstructionDto;
@@ -18,6 +26,8 @@ import com.arbitrage.enums.OrderStatus;
 import com.arbitrage.enums.TimeInForce;
 import com.arbitrage.model.ExchangeOrderStatus;
 import com.arbitrage.model.OrderAck;
+import com.arbitrage.model.OrderBook;
+import com.arbitrage.model.OrderBookLevel;
 import com.arbitrage.model.OrderRequest;
 import com.arbitrage.model.Quote;
 import com.arbitrage.respository.BalanceLockRepository;
@@ -30,15 +40,28 @@ import com.arbitrage.respository.PairRepository;
 import com.arbitrage.service.ExchangeAccessService;
 import com.arbitrage.service.ExchangeClientFactory;
 import com.arbitrage.service.ExchangeMarketClient;
+import com.arbitrage.service.OrderStatusUpdater;
 import com.arbitrage.service.TraderService;
+import com.arbitrage.service.exchanges.ClientOrderIdGenerator;
+import com.arbitrage.service.ledger.BalanceLedger;
+import com.arbitrage.service.ledger.DatabaseBalanceStore;
+import com.arbitrage.service.position.PositionTracker;
+import com.arbitrage.service.resilience.ExchangeKillSwitch;
+import com.arbitrage.service.risk.RiskEngine;
+import com.arbitrage.service.routing.ExchangeFanout;
+import com.arbitrage.service.routing.SmartOrderRouter;
+import com.arbitrage.service.tif.TimeInForceEmulator;
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.util.Collections;
+import java.util.Date;
 import java.util.List;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
 import org.springframework.boot.test.context.TestConfiguration;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Import;
@@ -50,6 +73,23 @@ import org.springframework.test.context.ActiveProfiles;
   TraderService.class,
   ExchangeAccessService.class,
   OrderService.class,
+  OpenOrderIndex.class,
+  SmartOrderRouter.class,
+  ExchangeFanout.class,
+  RoutingProperties.class,
+  OrderStatusUpdater.class,
+  TimeInForceEmulator.class,
+  TimeInForceProperties.class,
+  BalanceLedger.class,
+  BalanceLedgerProperties.class,
+  BalanceLockProperties.class,
+  DatabaseBalanceStore.class,
+  PositionTracker.class,
+  RiskEngine.class,
+  RiskLimitProperties.class,
+  ClientOrderIdGenerator.class,
+  ExchangeKillSwitch.class,
+  CircuitBreakerProperties.class,
   TraderServiceIntegrationTest.TraderServiceIntegrationTestConfig.class
 })
 @ActiveProfiles("test")
@@ -61,9 +101,12 @@ class TraderServiceIntegrationTest {
   @Autowired private ExchangeRepository exchangeRepository;
   @Autowired private ExchangeAccountRepository exchangeAccountRepository;
   @Autowired private BalanceRepository balanceRepository;
+  @Autowired private TestEntityManager entityManager;
   @Autowired private BalanceLockRepository balanceLockRepository;
   @Autowired private OrderRepository orderRepository;
   @Autowired private StubExchangeMarketClient stubExchangeMarketClient;
+  @Autowired private RoutingProperties routingProperties;
+  @Autowired private ExchangeKillSwitch killSwitch;
 
   private Exchange exchange;
   private ExchangeAccount account;
@@ -149,13 +192,136 @@ class TraderServiceIntegrationTest {
     assertThat(lock.getAmount()).isEqualByComparingTo("20");
     assertThat(lock.getReason()).isEqualTo("ORDER_SUBMIT");
     assertThat(lock.getSignalId()).isEqualTo(String.valueOf(order.getId()));
+    assertThat(lock.getExpiresAt()).isAfter(new Date());
 
+    // the reservation is a plain UPDATE, past the persistence context
+    entityManager.clear();
     Balance updatedBalance =
         balanceRepository.findByExchangeAccountAndCurrency(account, quoteCurrency).orElseThrow();
     assertThat(updatedBalance.getAvailable()).isEqualByComparingTo("980");
     assertThat(updatedBalance.getReserved()).isEqualByComparingTo("20");
   }
 
+  @Test
+  void submitOrder_rejectsOrderLargerThanAvailableBalance() {
+    OrderInstructionDto instruction = new OrderInstructionDto();
+    instruction.setExchangeName("TestEx");
+    instruction.setPairName("BTC-USDT");
+    instruction.setSide(OrderSide.BUY);
+    DecimalValueDto price = new DecimalValueDto();
+    price.setString("10");
+    instruction.setPrice(price);
+    DecimalValueDto baseAmount = new DecimalValueDto();
+    baseAmount.setString("101");
+    instruction.setBaseAmount(baseAmount);
+
+    assertThatThrownBy(() -> traderService.submitOrder(instruction))
+        .isInstanceOf(IllegalStateException.class)
+        .hasMessageContaining("Insufficient");
+
+    assertThat(stubExchangeMarketClient.getLastRequest()).isNull();
+    assertThat(orderRepository.findAll()).isEmpty();
+    entityManager.clear();
+    Balance balance =
+        balanceRepository.findByExchangeAccountAndCurrency(account, quoteCurrency).orElseThrow();
+    assertThat(balance.getAvailable()).isEqualByComparingTo("1000");
+    assertThat(balance.getReserved()).isEqualByComparingTo("0");
+  }
+
+  @Test
+  void submitOrder_releasesTheReservationAndItsLockWhenTheExchangeFails() {
+    OrderInstructionDto instruction = new OrderInstructionDto();
+    instruction.setExchangeName("TestEx");
+    instruction.setPairName("BTC-USDT");
+    instruction.setSide(OrderSide.BUY);
+    DecimalValueDto price = new DecimalValueDto();
+    price.setString("10");
+    instruction.setPrice(price);
+    DecimalValueDto baseAmount = new DecimalValueDto();
+    baseAmount.setString("2");
+    instruction.setBaseAmount(baseAmount);
+    stubExchangeMarketClient.submitFailure = new IllegalStateException("rejected");
+
+    assertThatThrownBy(() -> traderService.submitOrder(instruction))
+        .isInstanceOf(IllegalStateException.class)
+        .hasMessage("rejected");
+
+    assertThat(orderRepository.findAll()).isEmpty();
+    assertThat(balanceLockRepository.findAll()).isEmpty();
+    entityManager.clear();
+    Balance balance =
+        balanceRepository.findByExchangeAccountAndCurrency(account, quoteCurrency).orElseThrow();
+    assertThat(balance.getAvailable()).isEqualByComparingTo("1000");
+    assertThat(balance.getReserved()).isEqualByComparingTo("0");
+  }
+
+  @Test
+  void submitOrder_routed_keepsTheLockOfAChildWhoseAckTimesOut() {
+    OrderInstructionDto instruction = new OrderInstructionDto();
+    instruction.setPairName("BTC-USDT");
+    instruction.setSide(OrderSide.BUY);
+    DecimalValueDto price = new DecimalValueDto();
+    price.setString("10");
+    instruction.setPrice(price);
+    DecimalValueDto baseAmount = new DecimalValueDto();
+    baseAmount.setString("2");
+    instruction.setBaseAmount(baseAmount);
+
+    Duration submitTimeout = routingProperties.getSubmitTimeout();
+    routingProperties.setSubmitTimeout(Duration.ofMillis(50));
+    stubExchangeMarketClient.submitDelayMillis = 500;
+    try {
+      traderService.submitOrder(instruction);
+    } finally {
+      routingProperties.setSubmitTimeout(submitTimeout);
+    }
+
+    Order child =
+        orderRepository.findAll().stream()
+            .filter(order -> order.getParentOrder() != null)
+            .findFirst()
+            .orElseThrow();
+    assertThat(child.getStatus()).isEqualTo(OrderStatus.SENT);
+    assertThat(child.getExchangeOrderId()).isNull();
+    assertThat(child.getClientOrderId())
+        .startsWith("CLI-BTC-USDT-")
+        .isEqualTo(stubExchangeMarketClient.getLastRequest().getClientOrderId());
+    assertThat(balanceLockRepository.findAll())
+        .singleElement()
+        .satisfies(lock -> assertThat(lock.getAmount()).isEqualByComparingTo("20"));
+
+    entityManager.clear();
+    Balance balance =
+        balanceRepository.findByExchangeAccountAndCurrency(account, quoteCurrency).orElseThrow();
+    assertThat(balance.getAvailable()).isEqualByComparingTo("980");
+    assertThat(balance.getReserved()).isEqualByComparingTo("20");
+  }
+
+  @Test
+  void submitOrder_routed_skipsAKilledVenue() {
+    OrderInstructionDto instruction = new OrderInstructionDto();
+    instruction.setPairName("BTC-USDT");
+    instruction.setSide(OrderSide.BUY);
+    DecimalValueDto price = new DecimalValueDto();
+    price.setString("10");
+    instruction.setPrice(price);
+    DecimalValueDto baseAmount = new DecimalValueDto();
+    baseAmount.setString("2");
+    instruction.setBaseAmount(baseAmount);
+
+    killSwitch.kill("TestEx");
+    try {
+      assertThatThrownBy(() -> traderService.submitOrder(instruction))
+          .isInstanceOf(IllegalStateException.class)
+          .hasMessageContaining("No routable liquidity");
+    } finally {
+      killSwitch.restore("TestEx");
+    }
+
+    assertThat(stubExchangeMarketClient.getLastRequest()).isNull();
+    assertThat(orderRepository.findAll()).isEmpty();
+  }
+
   @TestConfiguration
   static class TraderServiceIntegrationTestConfig {
 
@@ -173,7 +339,9 @@ class TraderServiceIntegrationTest {
 
   static class StubExchangeMarketClient implements ExchangeMarketClient {
 
-    private OrderRequest lastRequest;
+    private volatile OrderRequest lastRequest;
+    private volatile long submitDelayMillis;
+    private volatile RuntimeException submitFailure;
 
     @Override
     public String getExchangeName() {
@@ -193,6 +361,16 @@ class TraderServiceIntegrationTest {
     @Override
     public OrderAck submitOrder(OrderRequest orderRequest) {
       this.lastRequest = orderRequest;
+      if (submitFailure != null) {
+        throw submitFailure;
+      }
+      if (submitDelayMillis > 0) {
+        try {
+          Thread.sleep(submitDelayMillis);
+        } catch (InterruptedException ex) {
+          Thread.currentThread().interrupt();
+        }
+      }
       return OrderAck.builder()
           .clientOrderId("client-123")
           .exchangeOrderId("exchange-456")
@@ -210,12 +388,20 @@ class TraderServiceIntegrationTest {
       return ExchangeOrderStatus.of(OrderStatus.NEW);
     }
 
+    @Override
+    public OrderBook getOrderBook(String symbol, int depth) {
+      OrderBookLevel level = new OrderBookLevel(new BigDecimal("10"), new BigDecimal("5"));
+      return new OrderBook(symbol, List.of(level), List.of(level), System.currentTimeMillis());
+    }
+
     OrderRequest getLastRequest() {
       return lastRequest;
     }
 
     void reset() {
       this.lastRequest = null;
+      this.submitDelayMillis = 0;
+      this.submitFailure = null;
     }
   }
 }
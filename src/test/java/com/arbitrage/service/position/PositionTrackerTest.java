@@ -0,0 +1,68 @@
+package com.arbitrage.service.position;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.jupiter.api.Test;
+
+class PositionTrackerTest {
+
+  private static final long NOBITEX = 1L;
+  private static final long WALLEX = 2L;
+  private static final long BTC = 10L;
+  private static final long USDT = 20L;
+
+  private final PositionTracker tracker = new PositionTracker();
+
+  @Test
+  void onFill_movesBaseAndQuotePerVenueAndInAggregate() {
+    tracker.onFill(NOBITEX, BTC, USDT, true, new BigDecimal("2"), new BigDecimal("100"));
+    tracker.onFill(WALLEX, BTC, USDT, false, new BigDecimal("1.5"), new BigDecimal("101"));
+
+    assertThat(tracker.net(NOBITEX, BTC)).isEqualByComparingTo("2");
+    assertThat(tracker.net(NOBITEX, USDT)).isEqualByComparingTo("-200");
+    assertThat(tracker.net(WALLEX, BTC)).isEqualByComparingTo("-1.5");
+    assertThat(tracker.net(WALLEX, USDT)).isEqualByComparingTo("151.5");
+    assertThat(tracker.aggregate(BTC)).isEqualByComparingTo("0.5");
+    assertThat(tracker.aggregate(USDT)).isEqualByComparingTo("-48.5");
+
+    PositionSnapshot snapshot = tracker.snapshot();
+    tracker.adjust(WALLEX, BTC, new BigDecimal("1.5"));
+
+    assertThat(snapshot.net(WALLEX, BTC)).isEqualByComparingTo("-1.5");
+    assertThat(snapshot.aggregate(BTC)).isEqualByComparingTo("0.5");
+    assertThat(tracker.aggregate(BTC)).isEqualByComparingTo("2");
+  }
+
+  @Test
+  void onFill_concurrentFillsAreAllCounted() throws Exception {
+    ExecutorService pool = Executors.newFixedThreadPool(8);
+    try {
+      List<Future<?>> futures = new ArrayList<>();
+      for (int t = 0; t < 8; t++) {
+        long exchange = t % 2 == 0 ? NOBITEX : WALLEX;
+        futures.add(
+            pool.submit(
+                () -> {
+                  for (int i = 0; i < 1_000; i++) {
+                    tracker.onFill(exchange, BTC, USDT, true, new BigDecimal("0.01"), null);
+                  }
+                }));
+      }
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    } finally {
+      pool.shutdownNow();
+    }
+
+    assertThat(tracker.net(NOBITEX, BTC)).isEqualByComparingTo("40");
+    assertThat(tracker.aggregate(BTC)).isEqualByComparingTo("80");
+    assertThat(tracker.aggregate(USDT)).isEqualByComparingTo("0");
+  }
+}
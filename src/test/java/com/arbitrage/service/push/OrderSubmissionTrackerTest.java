@@ -0,0 +1,165 @@
+package com.arbitrage.service.push;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.arbitrage.config.OrderStatusProperties;
+import com.arbitrage.dal.OpenOrderIndex;
+import com.arbitrage.service.OrderPollPlanner;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.EnableTransactionManagement;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+class OrderSubmissionTrackerTest {
+
+  private AnnotationConfigApplicationContext context;
+  private List<String> calls;
+
+  @BeforeEach
+  void setUp() {
+    context = new AnnotationConfigApplicationContext(PushConfig.class);
+    calls = context.getBean(PushConfig.class).calls;
+  }
+
+  @AfterEach
+  void tearDown() {
+    context.close();
+  }
+
+  @Test
+  void enroll_schedulesTheFirstCheckAfterTheConfiguredDelay() {
+    context.getBean(OrderStatusProperties.class).setFirstCheckDelay(Duration.ofMillis(250));
+
+    context.getBean(OrderSubmissionTracker.class).enroll(7L);
+    context.getBean(OrderSubmissionTracker.class).enroll(null);
+
+    assertThat(calls).containsExactly("enroll 7 after PT0.25S");
+  }
+
+  @Test
+  void onOrderSubmitted_notifiesBeforeCommit_andEnrollsAfterIt() {
+    TransactionTemplate transaction =
+        new TransactionTemplate(context.getBean(TestTransactions.class));
+
+    transaction.executeWithoutResult(
+        status -> {
+          context.publishEvent(new OrderSubmittedEvent(7L));
+          assertThat(calls).isEmpty();
+        });
+
+    assertThat(calls).hasSize(3);
+    assertThat(calls.get(0)).startsWith("notify order_submitted 7:");
+    assertThat(calls.subList(1, 3)).containsExactly("commit", "enroll 7 after PT0.3S");
+  }
+
+  @Test
+  void onOrderSubmitted_neitherNotifiesNorEnrollsWhenTheTransactionRollsBack() {
+    TransactionTemplate transaction =
+        new TransactionTemplate(context.getBean(TestTransactions.class));
+
+    transaction.executeWithoutResult(
+        status -> {
+          context.publishEvent(new OrderSubmittedEvent(7L));
+          status.setRollbackOnly();
+        });
+
+    assertThat(calls).containsExactly("rollback");
+  }
+
+  @Test
+  void onOrderSubmitted_enrollsRightAwayOutsideATransaction() {
+    context.publishEvent(new OrderSubmittedEvent(7L));
+
+    // the notification needs a transaction to ride on, the in-process enrollment does not
+    assertThat(calls).containsExactly("enroll 7 after PT0.3S");
+  }
+
+  @Configuration
+  @EnableTransactionManagement
+  static class PushConfig {
+
+    final List<String> calls = new CopyOnWriteArrayList<>();
+
+    @Bean
+    OrderStatusProperties orderStatusProperties() {
+      OrderStatusProperties properties = new OrderStatusProperties();
+      properties.setPgNotify(true);
+      return properties;
+    }
+
+    @Bean
+    OrderPollPlanner orderPollPlanner(OrderStatusProperties properties) {
+      return new OrderPollPlanner(properties) {
+        @Override
+        public void enroll(Long orderId, Duration firstCheck) {
+          calls.add("enroll " + orderId + " after " + firstCheck);
+        }
+      };
+    }
+
+    @Bean
+    OrderSubmissionTracker orderSubmissionTracker(
+        OrderPollPlanner planner, OrderStatusProperties properties) {
+      return new OrderSubmissionTracker(planner, properties);
+    }
+
+    @Bean
+    PgOrderNotifier pgOrderNotifier(
+        OrderStatusProperties properties, OrderSubmissionTracker tracker) {
+      JdbcTemplate jdbcTemplate =
+          new JdbcTemplate() {
+            @Override
+            public <T> T queryForObject(String sql, Class<T> requiredType, Object... args) {
+              calls.add("notify " + args[0] + " " + args[1]);
+              return null;
+            }
+          };
+      return new PgOrderNotifier(properties, jdbcTemplate, null, new OpenOrderIndex(null), tracker);
+    }
+
+    @Bean
+    PlatformTransactionManager transactionManager() {
+      return new TestTransactions(calls);
+    }
+  }
+
+  /** Runs no real transactions, but drives synchronizations and records commits and rollbacks. */
+  static class TestTransactions extends AbstractPlatformTransactionManager {
+
+    private final List<String> calls;
+
+    TestTransactions(List<String> calls) {
+      this.calls = calls;
+    }
+
+    @Override
+    protected Object doGetTransaction() {
+      return new Object();
+    }
+
+    @Override
+    protected void doBegin(Object transaction, TransactionDefinition definition) {}
+
+    @Override
+    protected void doCommit(DefaultTransactionStatus status) {
+      calls.add("commit");
+    }
+
+    @Override
+    protected void doRollback(DefaultTransactionStatus status) {
+      calls.add("rollback");
+    }
+  }
+}
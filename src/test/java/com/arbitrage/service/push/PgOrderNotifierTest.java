@@ -0,0 +1,114 @@
+package com.arbitrage.service.push;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.arbitrage.config.OrderStatusProperties;
+import com.arbitrage.dal.OpenOrderIndex;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+class PgOrderNotifierTest {
+
+  private final List<String> calls = new ArrayList<>();
+  private final OrderStatusProperties properties = new OrderStatusProperties();
+  private final PgOrderNotifier notifier =
+      new PgOrderNotifier(
+          properties,
+          new RecordingJdbcTemplate(calls),
+          null,
+          new RecordingIndex(calls),
+          new RecordingTracker(calls));
+
+  @Test
+  void onOrderSubmitted_sendsTheOrderIdAndThisInstanceOnTheChannel() {
+    properties.setPgNotify(true);
+    properties.setNotifyChannel("orders_out");
+
+    notifier.onOrderSubmitted(new OrderSubmittedEvent(7L));
+    notifier.onOrderSubmitted(new OrderSubmittedEvent(null));
+
+    assertThat(calls).singleElement().asString().matches("notify orders_out 7:[0-9a-f-]{36}");
+  }
+
+  @Test
+  void onOrderSubmitted_staysQuietWhenPgNotifyIsOff() {
+    notifier.onOrderSubmitted(new OrderSubmittedEvent(7L));
+
+    assertThat(calls).isEmpty();
+  }
+
+  @Test
+  void handle_reloadsAndEnrollsAnOrderAnnouncedByAnotherInstance() {
+    notifier.handle("7:another-instance");
+
+    assertThat(calls).containsExactly("reload 7", "enroll 7");
+  }
+
+  @Test
+  void handle_skipsOrdersThisInstanceAnnounced() {
+    properties.setPgNotify(true);
+    notifier.onOrderSubmitted(new OrderSubmittedEvent(7L));
+    String payload = calls.remove(0).substring("notify order_submitted ".length());
+
+    notifier.handle(payload);
+
+    assertThat(calls).isEmpty();
+  }
+
+  @Test
+  void handle_ignoresMalformedPayloads() {
+    notifier.handle(null);
+    notifier.handle("7");
+    notifier.handle(":another-instance");
+    notifier.handle("seven:another-instance");
+
+    assertThat(calls).isEmpty();
+  }
+
+  private static class RecordingJdbcTemplate extends JdbcTemplate {
+
+    private final List<String> calls;
+
+    RecordingJdbcTemplate(List<String> calls) {
+      this.calls = calls;
+    }
+
+    @Override
+    public <T> T queryForObject(String sql, Class<T> requiredType, Object... args) {
+      calls.add("notify " + args[0] + " " + args[1]);
+      return null;
+    }
+  }
+
+  private static class RecordingIndex extends OpenOrderIndex {
+
+    private final List<String> calls;
+
+    RecordingIndex(List<String> calls) {
+      super(null);
+      this.calls = calls;
+    }
+
+    @Override
+    public void reload(Long orderId) {
+      calls.add("reload " + orderId);
+    }
+  }
+
+  private static class RecordingTracker extends OrderSubmissionTracker {
+
+    private final List<String> calls;
+
+    RecordingTracker(List<String> calls) {
+      super(null, null);
+      this.calls = calls;
+    }
+
+    @Override
+    public void enroll(Long orderId) {
+      calls.add("enroll " + orderId);
+    }
+  }
+}
@@ -0,0 +1,72 @@
+package com.arbitrage.service.ratelimit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+class PriorityTokenBucketTest {
+
+  private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+  @Test
+  void acquire_servesAHigherLaneBeforeAnEarlierLowerLaneWaiter() throws Exception {
+    PriorityTokenBucket bucket = new PriorityTokenBucket(5, 1, 2);
+    assertThat(bucket.acquire(0, 0)).isTrue();
+
+    List<Integer> granted = new CopyOnWriteArrayList<>();
+    Thread low = waiter(bucket, 1, granted);
+    low.start();
+    Thread.sleep(30);
+    Thread high = waiter(bucket, 0, granted);
+    high.start();
+    low.join(2_000);
+    high.join(2_000);
+
+    assertThat(granted).containsExactly(0, 1);
+  }
+
+  @Test
+  void acquire_returnsFalse_whenNoTokenArrivesBeforeTheDeadline() throws Exception {
+    PriorityTokenBucket bucket = new PriorityTokenBucket(1, 1, 1);
+    assertThat(bucket.acquire(0, 0)).isTrue();
+
+    long start = System.nanoTime();
+    boolean granted = bucket.acquire(0, TimeUnit.MILLISECONDS.toNanos(50));
+
+    assertThat(granted).isFalse();
+    assertThat(System.nanoTime() - start).isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(50));
+  }
+
+  @Test
+  void acquire_refillsAtTheConfiguredRate() throws Exception {
+    PriorityTokenBucket bucket = new PriorityTokenBucket(10, 2, 1);
+    assertThat(bucket.acquire(0, 0)).isTrue();
+    assertThat(bucket.acquire(0, 0)).isTrue();
+    assertThat(bucket.acquire(0, 0)).isFalse();
+
+    long start = System.nanoTime();
+    for (int i = 0; i < 3; i++) {
+      assertThat(bucket.acquire(0, SECOND)).isTrue();
+    }
+    long elapsed = System.nanoTime() - start;
+
+    // three tokens at 10/s after the burst is spent
+    assertThat(elapsed).isBetween(TimeUnit.MILLISECONDS.toNanos(250), SECOND);
+  }
+
+  private static Thread waiter(PriorityTokenBucket bucket, int lane, List<Integer> granted) {
+    return new Thread(
+        () -> {
+          try {
+            if (bucket.acquire(lane, SECOND)) {
+              granted.add(lane);
+            }
+          } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+          }
+        });
+  }
+}
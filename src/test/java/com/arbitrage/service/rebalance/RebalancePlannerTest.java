@@ -0,0 +1,114 @@
+package com.arbitrage.service.rebalance;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.arbitrage.config.RebalanceProperties;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+class RebalancePlannerTest {
+
+  private static final PairMarket BTC_USDT =
+      new PairMarket(
+          "BTC-USDT",
+          "BTC",
+          "USDT",
+          Map.of("NOBITEX", new BigDecimal("20"), "WALLEX", new BigDecimal("20")));
+
+  private final RebalanceProperties properties = new RebalanceProperties();
+  private final RebalancePlanner planner = new RebalancePlanner(properties);
+
+  @Test
+  void plan_offsetsOneSidedVenuesWithATrade_whenCheaperThanTransfers() {
+    RebalancePlan plan =
+        planner.plan(
+            oneSidedInventories(new BigDecimal("0.01"), BigDecimal.ONE),
+            List.of(BTC_USDT),
+            symbol -> new BigDecimal("10000"));
+
+    assertThat(plan.transfers()).isEmpty();
+    assertThat(plan.trades()).hasSize(1);
+    OffsettingTrade trade = plan.trades().get(0);
+    assertThat(trade.buyExchange()).isEqualTo("WALLEX");
+    assertThat(trade.sellExchange()).isEqualTo("NOBITEX");
+    assertThat(trade.qty()).isEqualByComparingTo("1");
+    // 20 + 20 bps taker fees and 5 bps slippage on 10000
+    assertThat(trade.estimatedCost()).isEqualByComparingTo("45");
+  }
+
+  @Test
+  void plan_transfersBothCurrencies_whenTradingCostsMore() {
+    RebalancePlan plan =
+        planner.plan(
+            oneSidedInventories(new BigDecimal("0.0005"), BigDecimal.ONE),
+            List.of(BTC_USDT),
+            symbol -> new BigDecimal("10000"));
+
+    assertThat(plan.trades()).isEmpty();
+    assertThat(plan.transfers()).hasSize(2);
+    Transfer btc = plan.transfers().get(0);
+    assertThat(btc.currency()).isEqualTo("BTC");
+    assertThat(btc.fromExchange()).isEqualTo("NOBITEX");
+    assertThat(btc.amount()).isEqualByComparingTo("1");
+    Transfer usdt = plan.transfers().get(1);
+    assertThat(usdt.currency()).isEqualTo("USDT");
+    assertThat(usdt.fromExchange()).isEqualTo("WALLEX");
+    assertThat(usdt.amount()).isEqualByComparingTo("10000");
+    assertThat(usdt.estimatedCost()).isEqualByComparingTo("1");
+  }
+
+  @Test
+  void plan_matchesLargestSurplusToLargestDeficit() {
+    CurrencyInventory usdt =
+        new CurrencyInventory(
+            "USDT",
+            List.of(
+                venue("NOBITEX", "900", "0"),
+                venue("WALLEX", "100", "0"),
+                venue("RAMZINEX", "200", "0")),
+            BigDecimal.ZERO);
+
+    RebalancePlan plan = planner.plan(List.of(usdt), List.of(), symbol -> null);
+
+    assertThat(plan.transfers()).hasSize(2);
+    assertThat(plan.transfers().get(0).toExchange()).isEqualTo("WALLEX");
+    assertThat(plan.transfers().get(0).amount()).isEqualByComparingTo("300");
+    assertThat(plan.transfers().get(1).toExchange()).isEqualTo("RAMZINEX");
+    assertThat(plan.transfers().get(1).amount()).isEqualByComparingTo("200");
+  }
+
+  @Test
+  void plan_leavesVenuesWithinTolerance_andStocksDrainingVenuesAhead() {
+    CurrencyInventory balanced =
+        new CurrencyInventory(
+            "USDT", List.of(venue("NOBITEX", "550", "0"), venue("WALLEX", "450", "0")), null);
+    assertThat(planner.plan(List.of(balanced), List.of(), symbol -> null).isEmpty()).isTrue();
+
+    CurrencyInventory draining =
+        new CurrencyInventory(
+            "USDT", List.of(venue("NOBITEX", "500", "0"), venue("WALLEX", "500", "-400")), null);
+    RebalancePlan plan = planner.plan(List.of(draining), List.of(), symbol -> null);
+
+    assertThat(plan.transfers()).hasSize(1);
+    assertThat(plan.transfers().get(0).fromExchange()).isEqualTo("NOBITEX");
+    assertThat(plan.transfers().get(0).amount()).isGreaterThan(new BigDecimal("142"));
+  }
+
+  private static List<CurrencyInventory> oneSidedInventories(
+      BigDecimal btcTransferFee, BigDecimal usdtTransferFee) {
+    return List.of(
+        new CurrencyInventory(
+            "BTC", List.of(venue("NOBITEX", "2", "0"), venue("WALLEX", "0", "0")), btcTransferFee),
+        new CurrencyInventory(
+            "USDT",
+            List.of(venue("NOBITEX", "0", "0"), venue("WALLEX", "20000", "0")),
+            usdtTransferFee));
+  }
+
+  private static VenueInventory venue(String exchange, String available, String flowPerHour) {
+    return new VenueInventory(
+        exchange, new BigDecimal(available), BigDecimal.ONE, new BigDecimal(flowPerHour));
+  }
+}
@@ -0,0 +1,203 @@
+package com.arbitrage.service.reconcile;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.arbitrage.config.BalanceLedgerProperties;
+import com.arbitrage.config.BalanceReconciliationProperties;
+import com.arbitrage.entities.Balance;
+import com.arbitrage.entities.BalanceLock;
+import com.arbitrage.entities.Currency;
+import com.arbitrage.entities.CurrencyExchange;
+import com.arbitrage.entities.Exchange;
+import com.arbitrage.entities.ExchangeAccount;
+import com.arbitrage.enums.ExchangeStatus;
+import com.arbitrage.model.ExchangeOrderStatus;
+import com.arbitrage.model.OrderAck;
+import com.arbitrage.model.OrderRequest;
+import com.arbitrage.model.Quote;
+import com.arbitrage.respository.BalanceLockRepository;
+import com.arbitrage.respository.BalanceRepository;
+import com.arbitrage.respository.CurrencyExchangeRepository;
+import com.arbitrage.respository.CurrencyRepository;
+import com.arbitrage.respository.ExchangeAccountRepository;
+import com.arbitrage.respository.ExchangeRepository;
+import com.arbitrage.service.ExchangeAccessService;
+import com.arbitrage.service.ExchangeClientFactory;
+import com.arbitrage.service.ExchangeMarketClient;
+import com.arbitrage.service.ledger.BalanceLedger;
+import com.arbitrage.service.ledger.DatabaseBalanceStore;
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({
+  BalanceReconciler.class,
+  BalanceReconciliationProperties.class,
+  BalanceLedger.class,
+  BalanceLedgerProperties.class,
+  DatabaseBalanceStore.class,
+  ExchangeAccessService.class,
+  BalanceReconcilerIntegrationTest.TestConfig.class
+})
+@ActiveProfiles("test")
+// ExchangeAccessService caches the account, which each test recreates
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class BalanceReconcilerIntegrationTest {
+
+  @Autowired private BalanceReconciler reconciler;
+  @Autowired private BalanceReconciliationProperties properties;
+  @Autowired private BalanceRepository balanceRepository;
+  @Autowired private BalanceLockRepository balanceLockRepository;
+  @Autowired private CurrencyRepository currencyRepository;
+  @Autowired private CurrencyExchangeRepository currencyExchangeRepository;
+  @Autowired private ExchangeRepository exchangeRepository;
+  @Autowired private ExchangeAccountRepository exchangeAccountRepository;
+  @Autowired private StubWalletClient stubWalletClient;
+  @Autowired private TestEntityManager entityManager;
+
+  private Balance balance;
+
+  @BeforeEach
+  void setUp() {
+    stubWalletClient.wallets.clear();
+
+    Exchange exchange = new Exchange();
+    exchange.setName("RecEx");
+    exchange.setStatus(ExchangeStatus.ACTIVE);
+    exchange = exchangeRepository.save(exchange);
+
+    ExchangeAccount account =
+        exchangeAccountRepository.save(
+            ExchangeAccount.builder()
+                .exchange(exchange)
+                .label("Recex")
+                .apiKey("api-key")
+                .secretKey("secret")
+                .isPrimary(true)
+                .build());
+
+    Currency currency =
+        currencyRepository.save(Currency.builder().symbol("RECX").name("REC COIN").build());
+    currencyExchangeRepository.save(
+        CurrencyExchange.builder()
+            .exchange(exchange)
+            .currency(currency)
+            .exchangeSymbol("recx")
+            .build());
+
+    // 90 free and 10 locked by an open order: the exchange should report 90
+    balance =
+        balanceRepository.save(
+            Balance.builder()
+                .exchangeAccount(account)
+                .currency(currency)
+                .available(new BigDecimal("90"))
+                .reserved(new BigDecimal("10"))
+                .build());
+    balanceLockRepository.save(
+        BalanceLock.builder()
+            .exchangeAccount(account)
+            .currency(currency)
+            .amount(new BigDecimal("10"))
+            .reason("ORDER_SUBMIT")
+            .signalId("1")
+            .build());
+  }
+
+  @Test
+  void reconcile_ignoresBalancesWithinTolerance() {
+    stubWalletClient.wallets.put("REC COIN", new BigDecimal("90.001"));
+
+    assertThat(reconciler.reconcile()).isEmpty();
+  }
+
+  @Test
+  void reconcile_reportsDrift_andCorrectsItOnlyOnceConfirmed() {
+    properties.setAutoCorrect(true);
+    stubWalletClient.wallets.put("REC COIN", new BigDecimal("95"));
+
+    List<BalanceDrift> first = reconciler.reconcile();
+    assertThat(first).hasSize(1);
+    assertThat(first.get(0).drift()).isEqualByComparingTo("5");
+    assertThat(first.get(0).expected()).isEqualByComparingTo("90");
+    assertThat(first.get(0).corrected()).isFalse();
+
+    List<BalanceDrift> second = reconciler.reconcile();
+    assertThat(second).hasSize(1);
+    assertThat(second.get(0).corrected()).isTrue();
+
+    entityManager.clear();
+    Balance corrected = balanceRepository.findById(balance.getId()).orElseThrow();
+    assertThat(corrected.getAvailable()).isEqualByComparingTo("95");
+    assertThat(corrected.getReserved()).isEqualByComparingTo("10");
+    assertThat(reconciler.reconcile()).isEmpty();
+  }
+
+  @TestConfiguration
+  static class TestConfig {
+
+    @Bean
+    StubWalletClient stubWalletClient() {
+      return new StubWalletClient();
+    }
+
+    @Bean
+    ExchangeClientFactory exchangeClientFactory(StubWalletClient stub) {
+      return new ExchangeClientFactory(List.of(stub));
+    }
+  }
+
+  static class StubWalletClient implements ExchangeMarketClient {
+
+    private final Map<String, BigDecimal> wallets = new ConcurrentHashMap<>();
+
+    @Override
+    public String getExchangeName() {
+      return "RecEx";
+    }
+
+    @Override
+    public BigDecimal getWalletBalance(String currency) {
+      BigDecimal wallet = wallets.get(currency);
+      if (wallet == null) {
+        throw new IllegalStateException("No wallet for " + currency);
+      }
+      return wallet;
+    }
+
+    @Override
+    public List<Quote> getQuotes() {
+      return Collections.emptyList();
+    }
+
+    @Override
+    public OrderAck submitOrder(OrderRequest orderRequest) {
+      return null;
+    }
+
+    @Override
+    public boolean cancelOrder(String orderId) {
+      return false;
+    }
+
+    @Override
+    public ExchangeOrderStatus getOrderStatus(String orderId) {
+      return null;
+    }
+  }
+}
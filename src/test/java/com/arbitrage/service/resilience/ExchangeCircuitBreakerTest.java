@@ -0,0 +1,145 @@
+package com.arbitrage.service.resilience;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.arbitrage.config.CircuitBreakerProperties;
+import com.arbitrage.model.ExchangeOrderStatus;
+import com.arbitrage.model.OrderAck;
+import com.arbitrage.model.OrderRequest;
+import com.arbitrage.model.Quote;
+import com.arbitrage.service.ExchangeMarketClient;
+import com.arbitrage.service.resilience.ExchangeCircuitBreaker.State;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.ResourceAccessException;
+
+class ExchangeCircuitBreakerTest {
+
+  private static final long FAST = Duration.ofMillis(10).toNanos();
+
+  private final CircuitBreakerProperties properties = properties();
+
+  @Test
+  void opens_whenTheFailureRateReachesTheThreshold() {
+    ExchangeCircuitBreaker breaker = new ExchangeCircuitBreaker("NOBITEX", properties);
+
+    breaker.recordResult(FAST, false);
+    breaker.recordResult(FAST, false);
+    breaker.recordResult(FAST, true);
+    assertThat(breaker.getState()).isEqualTo(State.CLOSED);
+
+    breaker.recordResult(FAST, true);
+    assertThat(breaker.getState()).isEqualTo(State.OPEN);
+    assertThat(breaker.tryAcquire()).isFalse();
+  }
+
+  @Test
+  void letsProbesThroughAfterTheCoolDown_andClosesWhenTheySucceed() throws Exception {
+    ExchangeCircuitBreaker breaker = openBreaker();
+
+    assertThat(breaker.tryAcquire()).isFalse();
+    assertThat(breaker.isRejecting()).isTrue();
+    Thread.sleep(properties.getOpenDuration().toMillis() + 20);
+
+    assertThat(breaker.isRejecting()).isFalse();
+    assertThat(breaker.tryAcquire()).isTrue();
+    assertThat(breaker.getState()).isEqualTo(State.HALF_OPEN);
+    assertThat(breaker.tryAcquire()).isTrue();
+    // only two probes are permitted at a time
+    assertThat(breaker.tryAcquire()).isFalse();
+
+    breaker.recordResult(FAST, false);
+    breaker.recordResult(FAST, false);
+    assertThat(breaker.getState()).isEqualTo(State.CLOSED);
+  }
+
+  @Test
+  void reopens_whenAHalfOpenProbeFails() throws Exception {
+    ExchangeCircuitBreaker breaker = openBreaker();
+    Thread.sleep(properties.getOpenDuration().toMillis() + 20);
+
+    assertThat(breaker.tryAcquire()).isTrue();
+    breaker.recordResult(FAST, true);
+
+    assertThat(breaker.getState()).isEqualTo(State.OPEN);
+    assertThat(breaker.tryAcquire()).isFalse();
+  }
+
+  @Test
+  void guard_countsOnlyRestClientExceptionsAsFailures() {
+    ExchangeCircuitBreaker breaker = new ExchangeCircuitBreaker("NOBITEX", properties);
+    FailingClient delegate = new FailingClient();
+    GuardedExchangeMarketClient client =
+        new GuardedExchangeMarketClient(
+            delegate, breaker, new ExchangeKillSwitch(new CircuitBreakerProperties()));
+
+    delegate.failure = () -> new IllegalStateException("bad response body");
+    for (int i = 0; i < 10; i++) {
+      assertThatThrownBy(client::getQuotes).isInstanceOf(IllegalStateException.class);
+    }
+    assertThat(breaker.getState()).isEqualTo(State.CLOSED);
+
+    delegate.failure = () -> new ResourceAccessException("connect timed out");
+    for (int i = 0; i < 4; i++) {
+      assertThatThrownBy(client::getQuotes).isInstanceOf(ResourceAccessException.class);
+    }
+    assertThat(breaker.getState()).isEqualTo(State.OPEN);
+  }
+
+  private ExchangeCircuitBreaker openBreaker() {
+    ExchangeCircuitBreaker breaker = new ExchangeCircuitBreaker("NOBITEX", properties);
+    for (int i = 0; i < properties.getMinimumCalls(); i++) {
+      breaker.recordResult(FAST, true);
+    }
+    assertThat(breaker.getState()).isEqualTo(State.OPEN);
+    return breaker;
+  }
+
+  private static CircuitBreakerProperties properties() {
+    CircuitBreakerProperties properties = new CircuitBreakerProperties();
+    properties.setWindowSize(4);
+    properties.setMinimumCalls(4);
+    properties.setFailureRateThreshold(50);
+    properties.setOpenDuration(Duration.ofMillis(100));
+    properties.setHalfOpenPermittedCalls(2);
+    return properties;
+  }
+
+  private static final class FailingClient implements ExchangeMarketClient {
+    private Supplier<RuntimeException> failure;
+
+    @Override
+    public String getExchangeName() {
+      return "NOBITEX";
+    }
+
+    @Override
+    public BigDecimal getWalletBalance(String currency) {
+      throw failure.get();
+    }
+
+    @Override
+    public List<Quote> getQuotes() {
+      throw failure.get();
+    }
+
+    @Override
+    public OrderAck submitOrder(OrderRequest orderRequest) {
+      throw failure.get();
+    }
+
+    @Override
+    public boolean cancelOrder(String orderId) {
+      throw failure.get();
+    }
+
+    @Override
+    public ExchangeOrderStatus getOrderStatus(String orderId) {
+      throw failure.get();
+    }
+  }
+}
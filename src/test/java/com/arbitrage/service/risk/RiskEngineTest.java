@@ -0,0 +1,108 @@
+package com.arbitrage.service.risk;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.arbitrage.config.RiskLimitProperties;
+import com.arbitrage.enums.RiskRule;
+import com.arbitrage.exception.RiskLimitExceededException;
+import com.arbitrage.service.position.PositionTracker;
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+class RiskEngineTest {
+
+  private static final long EXCHANGE = 1L;
+  private static final long BTC = 10L;
+  private static final long USDT = 20L;
+
+  private final RiskLimitProperties properties = new RiskLimitProperties();
+  private final PositionTracker positionTracker = new PositionTracker();
+  private final AtomicLong now = new AtomicLong(1_700_000_000_000L);
+  private final RiskEngine engine = new RiskEngine(properties, positionTracker, now::get);
+
+  @Test
+  void reserve_rejectsOrderAboveMaxNotional() {
+    properties.setMaxOrderNotional(Map.of("USDT", new BigDecimal("1000")));
+
+    assertRejected(order(true, "0.2", "6000"), RiskRule.MAX_ORDER_NOTIONAL);
+    engine.reserve(order(true, "0.1", "6000"));
+  }
+
+  @Test
+  void reserve_capsOpenNotionalUntilOrdersAreReleased() {
+    properties.setMaxOpenNotional(Map.of("USDT", new BigDecimal("1000")));
+    RiskCheck first = order(true, "0.1", "6000");
+    engine.reserve(first);
+
+    assertRejected(order(false, "0.1", "6000"), RiskRule.MAX_OPEN_NOTIONAL);
+    assertThat(engine.openNotional(EXCHANGE, USDT)).isEqualByComparingTo("600");
+
+    engine.release(EXCHANGE, BTC, USDT, true, new BigDecimal("0.05"), new BigDecimal("6000"));
+    engine.reserve(order(false, "0.1", "6000"));
+    assertThat(engine.openNotional(EXCHANGE, USDT)).isEqualByComparingTo("900");
+  }
+
+  @Test
+  void reserve_countsFilledPositionAndOpenOrdersAgainstMaxPosition() {
+    properties.setMaxPosition(Map.of("BTC", new BigDecimal("1")));
+    positionTracker.onFill(EXCHANGE, BTC, USDT, true, new BigDecimal("0.6"), null);
+    engine.reserve(order(true, "0.3", "100"));
+
+    assertRejected(order(true, "0.7", "100"), RiskRule.MAX_POSITION);
+    // selling reduces the position, so the other side has room up to -1
+    engine.reserve(order(false, "1.6", "100"));
+    assertRejected(order(false, "0.1", "100"), RiskRule.MAX_POSITION);
+  }
+
+  @Test
+  void reserve_capsOrdersPerSecond_andRejectedOrdersLeaveNoReservation() {
+    properties.setMaxOrdersPerSecond(2);
+    engine.reserve(order(true, "1", "100"));
+    engine.reserve(order(true, "1", "100"));
+
+    now.addAndGet(999);
+    assertRejected(order(true, "1", "100"), RiskRule.ORDER_RATE);
+    assertThat(engine.openNotional(EXCHANGE, USDT)).isEqualByComparingTo("200");
+
+    now.addAndGet(1);
+    engine.reserve(order(true, "1", "100"));
+    assertThat(engine.openNotional(EXCHANGE, USDT)).isEqualByComparingTo("300");
+  }
+
+  @Test
+  void restore_countsOpenOrdersPastTheLimits_untilTheyAreReleased() {
+    properties.setMaxOpenNotional(Map.of("USDT", new BigDecimal("1000")));
+    properties.setMaxPosition(Map.of("BTC", new BigDecimal("1")));
+    engine.restore(order(true, "0.9", "1200"));
+
+    assertThat(engine.openNotional(EXCHANGE, USDT)).isEqualByComparingTo("1080");
+    assertRejected(order(false, "0.01", "100"), RiskRule.MAX_OPEN_NOTIONAL);
+
+    engine.release(EXCHANGE, BTC, USDT, true, new BigDecimal("0.5"), new BigDecimal("1200"));
+    assertRejected(order(true, "0.7", "100"), RiskRule.MAX_POSITION);
+    engine.reserve(order(true, "0.1", "100"));
+  }
+
+  @Test
+  void release_neverTakesCountersBelowZero() {
+    engine.release(EXCHANGE, BTC, USDT, true, new BigDecimal("5"), new BigDecimal("100"));
+    engine.reserve(order(true, "1", "100"));
+
+    assertThat(engine.openNotional(EXCHANGE, USDT)).isEqualByComparingTo("100");
+  }
+
+  private void assertRejected(RiskCheck order, RiskRule rule) {
+    assertThatThrownBy(() -> engine.reserve(order))
+        .isInstanceOf(RiskLimitExceededException.class)
+        .extracting(ex -> ((RiskLimitExceededException) ex).getRule())
+        .isEqualTo(rule);
+  }
+
+  private static RiskCheck order(boolean buy, String qty, String price) {
+    return new RiskCheck(
+        EXCHANGE, BTC, "BTC", USDT, "USDT", buy, new BigDecimal(qty), new BigDecimal(price));
+  }
+}
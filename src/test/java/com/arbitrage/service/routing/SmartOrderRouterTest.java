@@ -0,0 +1,64 @@
+package com.arbitrage.service.routing;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+import com.arbitrage.enums.OrderSide;
+import com.arbitrage.model.OrderBookLevel;
+import java.math.BigDecimal;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class SmartOrderRouterTest {
+
+  private final SmartOrderRouter router = new SmartOrderRouter();
+
+  @Test
+  void route_buy_takesCheapestFeeAdjustedLevelsAcrossVenues() {
+    VenueLiquidity cheap =
+        venue("A", BigDecimal.valueOf(100), List.of(level("100", "1"), level("103", "5")));
+    VenueLiquidity expensiveFee =
+        venue("B", BigDecimal.valueOf(10), List.of(level("101", "2"), level("102", "5")));
+
+    RoutePlan plan =
+        router.route(OrderSide.BUY, new BigDecimal("3"), null, List.of(cheap, expensiveFee));
+
+    assertThat(plan.unroutedQty()).isEqualByComparingTo("0");
+    assertThat(plan.children())
+        .extracting(ChildOrderPlan::exchangeName, c -> c.qty().stripTrailingZeros())
+        .containsExactly(tuple("A", BigDecimal.ONE), tuple("B", new BigDecimal("2")));
+  }
+
+  @Test
+  void route_respectsBalanceAndLimitPrice() {
+    VenueLiquidity poor =
+        new VenueLiquidity(
+            "A", List.of(level("100", "10")), null, new BigDecimal("150"), null, null, null);
+    VenueLiquidity rich =
+        new VenueLiquidity(
+            "B",
+            List.of(level("101", "10"), level("110", "10")),
+            null,
+            new BigDecimal("100000"),
+            null,
+            null,
+            null);
+
+    RoutePlan plan =
+        router.route(
+            OrderSide.BUY, new BigDecimal("20"), new BigDecimal("105"), List.of(poor, rich));
+
+    assertThat(plan.children()).hasSize(2);
+    assertThat(plan.children().get(0).qty()).isEqualByComparingTo("1.5");
+    assertThat(plan.children().get(1).qty()).isEqualByComparingTo("10");
+    assertThat(plan.unroutedQty()).isEqualByComparingTo("8.5");
+  }
+
+  private static VenueLiquidity venue(String name, BigDecimal feeBps, List<OrderBookLevel> levels) {
+    return new VenueLiquidity(name, levels, feeBps, null, null, null, null);
+  }
+
+  private static OrderBookLevel level(String price, String qty) {
+    return new OrderBookLevel(new BigDecimal(price), new BigDecimal(qty));
+  }
+}
@@ -0,0 +1,142 @@
+package com.arbitrage.service.stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.arbitrage.enums.OrderStatus;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+/** Centrifugo framing and the Nobitex order payload, fed with frames as the exchange sends them. */
+class NobitexUserStreamDialectTest {
+
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+
+  private final NobitexUserStreamDialect dialect = new NobitexUserStreamDialect(null);
+
+  @Test
+  void parse_push_mapsTheOrderUpdate() throws Exception {
+    String frame =
+        "{\"push\":{\"channel\":\"private:orders#abc123\",\"pub\":{\"data\":{\"id\":4211,"
+            + "\"clientOrderId\":\"arb-7\",\"status\":\"Active\",\"matchedAmount\":\"0.25\","
+            + "\"averagePrice\":\"61000\",\"totalPrice\":\"15250\"}}}}";
+
+    List<OrderUpdateEvent> events = dialect.parse(message(frame));
+
+    assertThat(events)
+        .containsExactly(
+            new OrderUpdateEvent(
+                "4211",
+                "arb-7",
+                OrderStatus.SENT,
+                new BigDecimal("0.25"),
+                new BigDecimal("61000"),
+                new BigDecimal("15250")));
+  }
+
+  @Test
+  void parse_pushWithAListOfOrders_mapsEachOne_andSkipsThoseWithoutAnId() throws Exception {
+    String frame =
+        "{\"push\":{\"channel\":\"private:orders#abc123\",\"pub\":{\"data\":["
+            + "{\"orderId\":\"1\",\"status\":\"Done\",\"filledAmount\":\"2\",\"avgPrice\":\"10\"},"
+            + "{\"status\":\"Canceled\"},"
+            + "{\"id\":\"3\",\"status\":\"Canceled\"}]}}}";
+
+    List<OrderUpdateEvent> events = dialect.parse(message(frame));
+
+    assertThat(events).hasSize(2);
+    assertThat(events.get(0).exchangeOrderId()).isEqualTo("1");
+    assertThat(events.get(0).status()).isEqualTo(OrderStatus.FILLED);
+    // no total on the wire: derived from the fill and its average price
+    assertThat(events.get(0).executedNotional()).isEqualByComparingTo("20");
+    assertThat(events.get(1).exchangeOrderId()).isEqualTo("3");
+    assertThat(events.get(1).status()).isEqualTo(OrderStatus.CANCELLED);
+  }
+
+  @Test
+  void ping_isEchoed_andCarriesNoUpdates() throws Exception {
+    Map<String, Object> ping = message("{}");
+
+    assertThat(dialect.reply(ping)).isEqualTo("{}");
+    assertThat(dialect.parse(ping)).isEmpty();
+  }
+
+  @Test
+  void commandReplies_areNeitherAnsweredNorParsed() throws Exception {
+    Map<String, Object> connected = message("{\"id\":1,\"connect\":{\"client\":\"c-1\"}}");
+
+    assertThat(dialect.reply(connected)).isNull();
+    assertThat(dialect.parse(connected)).isEmpty();
+  }
+
+  @Test
+  void messages_splitsABatchedFrameIntoOneMessagePerLine() throws Exception {
+    String frame =
+        "{\"id\":1,\"connect\":{}}\n"
+            + "{\"id\":2,\"subscribe\":{}}\n"
+            + "\n"
+            + "{\"push\":{\"channel\":\"private:orders#abc123\","
+            + "\"pub\":{\"data\":{\"id\":9,\"status\":\"Done\"}}}}\n";
+
+    List<String> messages = dialect.messages(frame);
+
+    assertThat(messages).hasSize(3);
+    assertThat(dialect.parse(message(messages.get(0)))).isEmpty();
+    assertThat(dialect.parse(message(messages.get(2))))
+        .extracting(OrderUpdateEvent::exchangeOrderId)
+        .containsExactly("9");
+  }
+
+  @Test
+  void parse_ignoresPublicationsOnOtherChannels() throws Exception {
+    String frame =
+        "{\"push\":{\"channel\":\"public:orderbook-BTCIRT\","
+            + "\"pub\":{\"data\":{\"id\":1,\"status\":\"Done\"}}}}";
+
+    assertThat(dialect.parse(message(frame))).isEmpty();
+  }
+
+  @ParameterizedTest
+  @CsvSource({
+    "Done, FILLED",
+    "filled, FILLED",
+    "Matched, FILLED",
+    "closed, FILLED",
+    "Partial, PARTIAL",
+    "partially_filled, PARTIAL",
+    "Canceled, CANCELLED",
+    "cancelled, CANCELLED",
+    "New, NEW",
+    "Active, SENT",
+    "Inactive, SENT"
+  })
+  void parse_mapsEachStatus(String status, OrderStatus expected) throws Exception {
+    assertThat(dialect.parse(order(status)))
+        .extracting(OrderUpdateEvent::status)
+        .containsExactly(expected);
+  }
+
+  @Test
+  void parse_leavesAMissingStatusUnset() throws Exception {
+    assertThat(dialect.parse(order(null)))
+        .extracting(OrderUpdateEvent::status)
+        .containsExactly((OrderStatus) null);
+  }
+
+  private static Map<String, Object> order(String status) throws Exception {
+    String statusField = status != null ? ",\"status\":\"" + status + "\"" : "";
+    return message(
+        "{\"push\":{\"channel\":\"private:orders#abc123\",\"pub\":{\"data\":{\"id\":1"
+            + statusField
+            + "}}}}");
+  }
+
+  @SuppressWarnings("unchecked")
+  private static Map<String, Object> message(String json) throws Exception {
+    return MAPPER.readValue(json, Map.class);
+  }
+}
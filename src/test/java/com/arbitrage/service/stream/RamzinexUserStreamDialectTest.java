@@ -0,0 +1,99 @@
+package com.arbitrage.service.stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.arbitrage.enums.OrderStatus;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+class RamzinexUserStreamDialectTest {
+
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+
+  private final RamzinexUserStreamDialect dialect = new RamzinexUserStreamDialect(null);
+
+  @Test
+  void parse_push_mapsTheOrderUpdate() throws Exception {
+    String frame =
+        "{\"push\":{\"channel\":\"orders:5521\",\"pub\":{\"data\":{\"order_id\":88123,"
+            + "\"client_order_id\":\"arb-9\",\"status\":\"partial\",\"filled_nr\":\"1.5\","
+            + "\"average_price_nr\":\"2000\",\"total_payment_nr\":\"3000\"}}}}";
+
+    List<OrderUpdateEvent> events = dialect.parse(message(frame));
+
+    assertThat(events)
+        .containsExactly(
+            new OrderUpdateEvent(
+                "88123",
+                "arb-9",
+                OrderStatus.PARTIAL,
+                new BigDecimal("1.5"),
+                new BigDecimal("2000"),
+                new BigDecimal("3000")));
+  }
+
+  @Test
+  void parse_readsTheAlternativeFieldNames() throws Exception {
+    String frame =
+        "{\"push\":{\"channel\":\"orders:5521\",\"pub\":{\"data\":[{\"id\":\"7\",\"status_id\":1,"
+            + "\"executed_amount\":\"4\",\"avg_price\":\"25\"}]}}}";
+
+    List<OrderUpdateEvent> events = dialect.parse(message(frame));
+
+    assertThat(events).hasSize(1);
+    assertThat(events.get(0).exchangeOrderId()).isEqualTo("7");
+    assertThat(events.get(0).status()).isEqualTo(OrderStatus.FILLED);
+    assertThat(events.get(0).filledQty()).isEqualByComparingTo("4");
+    assertThat(events.get(0).executedNotional()).isEqualByComparingTo("100");
+  }
+
+  @Test
+  void parse_ignoresPublicationsOnOtherChannels() throws Exception {
+    String frame =
+        "{\"push\":{\"channel\":\"orderbook:2\","
+            + "\"pub\":{\"data\":{\"order_id\":1,\"status\":\"done\"}}}}";
+
+    assertThat(dialect.parse(message(frame))).isEmpty();
+  }
+
+  @ParameterizedTest
+  @CsvSource({
+    "done, FILLED",
+    "Filled, FILLED",
+    "closed, FILLED",
+    "1, FILLED",
+    "canceled, CANCELLED",
+    "Cancelled, CANCELLED",
+    "2, CANCELLED",
+    "partial, PARTIAL",
+    "partial_fill, PARTIAL",
+    "partially_filled, PARTIAL",
+    "3, PARTIAL",
+    "new, NEW",
+    "pending, NEW",
+    "oppend, NEW",
+    "open, SENT",
+    "0, SENT"
+  })
+  void parse_mapsEachStatus(String status, OrderStatus expected) throws Exception {
+    String frame =
+        "{\"push\":{\"channel\":\"orders:5521\",\"pub\":{\"data\":{\"order_id\":1,"
+            + "\"status\":\""
+            + status
+            + "\"}}}}";
+
+    assertThat(dialect.parse(message(frame)))
+        .extracting(OrderUpdateEvent::status)
+        .containsExactly(expected);
+  }
+
+  @SuppressWarnings("unchecked")
+  private static Map<String, Object> message(String json) throws Exception {
+    return MAPPER.readValue(json, Map.class);
+  }
+}
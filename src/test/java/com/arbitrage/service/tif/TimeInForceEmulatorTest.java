@@ -0,0 +1,140 @@
+package com.arbitrage.service.tif;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.arbitrage.config.TimeInForceProperties;
+import com.arbitrage.enums.OrderStatus;
+import com.arbitrage.enums.TimeInForce;
+import com.arbitrage.model.ExchangeOrderStatus;
+import com.arbitrage.model.OrderAck;
+import com.arbitrage.model.OrderRequest;
+import com.arbitrage.model.Quote;
+import com.arbitrage.service.ExchangeClientFactory;
+import com.arbitrage.service.ExchangeMarketClient;
+import com.arbitrage.service.OrderStatusUpdater;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class TimeInForceEmulatorTest {
+
+  private final TimeInForceProperties properties = properties();
+  private final StubClient client = new StubClient();
+  private final RecordingUpdater updater = new RecordingUpdater();
+  private final TimeInForceEmulator emulator =
+      new TimeInForceEmulator(properties, new ExchangeClientFactory(List.of(client)), updater);
+
+  @AfterEach
+  void tearDown() {
+    emulator.shutdown();
+  }
+
+  @Test
+  void track_cancelsAnIocOrderAfterItsDelay_andAppliesTheFinalFill() throws Exception {
+    client.status =
+        ExchangeOrderStatus.of(OrderStatus.CANCELLED).withFilledQuantity(new BigDecimal("1"));
+    long start = System.nanoTime();
+
+    emulator.track(42L, "TESTEX", "ex-42", TimeInForce.IOC);
+
+    assertThat(updater.applied.await(1, TimeUnit.SECONDS)).isTrue();
+    assertThat(TimeUnit.NANOSECONDS.toMillis(updater.appliedAt.get() - start))
+        .isGreaterThanOrEqualTo(properties.getIocCancelDelay().toMillis());
+    assertThat(client.cancelled).containsExactly("ex-42");
+    assertThat(updater.orderId.get()).isEqualTo(42L);
+    assertThat(updater.cancelled.get()).isTrue();
+    assertThat(emulator.pendingCancels()).isZero();
+  }
+
+  @Test
+  void track_cancelsAFokOrderAfterItsOwnDelay() throws Exception {
+    client.status = ExchangeOrderStatus.of(OrderStatus.CANCELLED);
+
+    emulator.track(7L, "TESTEX", "ex-7", TimeInForce.FOK);
+
+    assertThat(updater.applied.await(1, TimeUnit.SECONDS)).isTrue();
+    assertThat(client.cancelled).containsExactly("ex-7");
+    assertThat(updater.orderId.get()).isEqualTo(7L);
+  }
+
+  @Test
+  void track_ignoresGtcOrders() {
+    emulator.track(1L, "TESTEX", "ex-1", TimeInForce.GTC);
+
+    assertThat(emulator.pendingCancels()).isZero();
+  }
+
+  private static TimeInForceProperties properties() {
+    TimeInForceProperties properties = new TimeInForceProperties();
+    properties.setIocCancelDelay(Duration.ofMillis(60));
+    properties.setFokCancelDelay(Duration.ofMillis(30));
+    properties.setTick(Duration.ofMillis(5));
+    properties.setThreads(1);
+    return properties;
+  }
+
+  private static final class RecordingUpdater extends OrderStatusUpdater {
+    private final CountDownLatch applied = new CountDownLatch(1);
+    private final AtomicLong appliedAt = new AtomicLong();
+    private final AtomicLong orderId = new AtomicLong();
+    private final AtomicBoolean cancelled = new AtomicBoolean();
+
+    RecordingUpdater() {
+      super(null, null, null, null, null, null);
+    }
+
+    @Override
+    public boolean apply(
+        Long orderId, ExchangeOrderStatus statusDetails, boolean cancelled, String source) {
+      this.appliedAt.set(System.nanoTime());
+      this.orderId.set(orderId);
+      this.cancelled.set(cancelled);
+      applied.countDown();
+      return true;
+    }
+  }
+
+  private static final class StubClient implements ExchangeMarketClient {
+    private final Set<String> cancelled = ConcurrentHashMap.newKeySet();
+    private volatile ExchangeOrderStatus status;
+
+    @Override
+    public String getExchangeName() {
+      return "TESTEX";
+    }
+
+    @Override
+    public BigDecimal getWalletBalance(String currency) {
+      return BigDecimal.ZERO;
+    }
+
+    @Override
+    public List<Quote> getQuotes() {
+      return List.of();
+    }
+
+    @Override
+    public OrderAck submitOrder(OrderRequest orderRequest) {
+      return null;
+    }
+
+    @Override
+    public boolean cancelOrder(String orderId) {
+      cancelled.add(orderId);
+      return true;
+    }
+
+    @Override
+    public ExchangeOrderStatus getOrderStatus(String orderId) {
+      return status;
+    }
+  }
+}
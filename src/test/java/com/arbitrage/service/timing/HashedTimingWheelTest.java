@@ -0,0 +1,74 @@
+package com.arbitrage.service.timing;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+class HashedTimingWheelTest {
+
+  @Test
+  void schedule_runsTheTaskOnTheFirstTickAtOrAfterItsDelay() throws Exception {
+    try (HashedTimingWheel wheel = wheel(Duration.ofMillis(20), 64)) {
+      CountDownLatch fired = new CountDownLatch(1);
+      AtomicLong firedAt = new AtomicLong();
+      long start = System.nanoTime();
+
+      wheel.schedule(
+          () -> {
+            firedAt.set(System.nanoTime());
+            fired.countDown();
+          },
+          Duration.ofMillis(50));
+
+      assertThat(fired.await(1, TimeUnit.SECONDS)).isTrue();
+      long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(firedAt.get() - start);
+      // never early, and late by at most about one tick
+      assertThat(elapsedMillis).isBetween(50L, 150L);
+      assertThat(wheel.size()).isZero();
+    }
+  }
+
+  @Test
+  void schedule_waitsSeveralRevolutions_forDelaysLongerThanTheWheel() throws Exception {
+    // four 10 ms buckets: a 100 ms timer has to skip two full rounds
+    try (HashedTimingWheel wheel = wheel(Duration.ofMillis(10), 4)) {
+      CountDownLatch fired = new CountDownLatch(1);
+      AtomicLong firedAt = new AtomicLong();
+      long start = System.nanoTime();
+
+      HashedTimingWheel.Timeout timeout =
+          wheel.schedule(
+              () -> {
+                firedAt.set(System.nanoTime());
+                fired.countDown();
+              },
+              Duration.ofMillis(100));
+
+      assertThat(fired.await(1, TimeUnit.SECONDS)).isTrue();
+      assertThat(TimeUnit.NANOSECONDS.toMillis(firedAt.get() - start)).isBetween(100L, 200L);
+      assertThat(timeout.isExpired()).isTrue();
+    }
+  }
+
+  @Test
+  void cancel_stopsATaskThatHasNotFiredYet() throws Exception {
+    try (HashedTimingWheel wheel = wheel(Duration.ofMillis(10), 64)) {
+      CountDownLatch fired = new CountDownLatch(1);
+      HashedTimingWheel.Timeout timeout = wheel.schedule(fired::countDown, Duration.ofMillis(50));
+
+      assertThat(timeout.cancel()).isTrue();
+      assertThat(wheel.size()).isZero();
+      assertThat(fired.await(150, TimeUnit.MILLISECONDS)).isFalse();
+      assertThat(timeout.cancel()).isFalse();
+      assertThat(timeout.isCancelled()).isTrue();
+    }
+  }
+
+  private static HashedTimingWheel wheel(Duration tick, int size) {
+    return new HashedTimingWheel("test-wheel", tick, size, Runnable::run);
+  }
+}